@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdfparser.BruteForceParser;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts.FontName;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures loading a large generated file with a damaged cross reference, which has to be repaired by the brute force
+ * search of the parser. The sequential scan is the single threaded search, the parallel scan splits the file in
+ * chunks which are searched concurrently.
+ */
+@State(Scope.Benchmark)
+public class BruteForceScan {
+
+    @Param({"2000", "20000"})
+    int pageCount;
+
+    @Param({"true", "false"})
+    String parallelScan;
+
+    private File damagedFile;
+
+    @Setup(Level.Trial)
+    public void createDamagedFile() throws IOException {
+        String content;
+        try (PDDocument document = new PDDocument()) {
+            PDType1Font font = new PDType1Font(FontName.HELVETICA);
+            for (int i = 0; i < pageCount; i++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
+                    contentStream.beginText();
+                    contentStream.setFont(font, 12);
+                    for (int line = 0; line < 40; line++) {
+                        contentStream.newLineAtOffset(0, -14);
+                        contentStream.showText("Line " + line + " of page " + i);
+                    }
+                    contentStream.endText();
+                }
+            }
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            document.save(baos, CompressParameters.NO_COMPRESSION);
+            content = baos.toString(StandardCharsets.ISO_8859_1);
+        }
+        // remove the pointer to the cross reference so that every object has to be searched for
+        content = content.replace("startxref", "startxxxx");
+        damagedFile = File.createTempFile("bruteforce", ".pdf");
+        Files.write(damagedFile.toPath(), content.getBytes(StandardCharsets.ISO_8859_1));
+        System.setProperty(BruteForceParser.SYSPROP_PARALLEL_SCAN, parallelScan);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDamagedFile() throws IOException {
+        System.clearProperty(BruteForceParser.SYSPROP_PARALLEL_SCAN);
+        Files.deleteIfExists(damagedFile.toPath());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public int load() throws IOException {
+        try (PDDocument document = Loader.loadPDF(damagedFile)) {
+            return document.getNumberOfPages();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures saving a synthetic document with the given number of indirect objects, so that the time is dominated by
+ * the bookkeeping of the writer instead of the data of the objects. Every page has 19 text annotations, each of them
+ * is an indirect object. The file is generated once, it is loaded again before every invocation as saving changes the
+ * loaded document.
+ */
+@State(Scope.Benchmark)
+public class ManyObjectsSave {
+
+    private static final int ANNOTATIONS_PER_PAGE = 19;
+
+    @Param({"1000000"})
+    int objectCount;
+
+    @Param({"false", "true"})
+    boolean compress;
+
+    private File file;
+
+    private PDDocument document;
+
+    @Setup(Level.Trial)
+    public void createFile() throws IOException {
+        file = File.createTempFile("many-objects", ".pdf");
+        try (PDDocument generated = new PDDocument()) {
+            for (int i = 0; i < objectCount / (ANNOTATIONS_PER_PAGE + 1); i++) {
+                PDPage page = new PDPage();
+                COSArray annotations = new COSArray();
+                for (int j = 0; j < ANNOTATIONS_PER_PAGE; j++) {
+                    COSDictionary annotation = new COSDictionary();
+                    annotation.setItem(COSName.TYPE, COSName.ANNOT);
+                    annotation.setName(COSName.SUBTYPE, "Text");
+                    annotation.setItem(COSName.RECT, new PDRectangle(j * 20, 700, 18, 18).getCOSArray());
+                    annotations.add(annotation);
+                }
+                page.getCOSObject().setItem(COSName.ANNOTS, annotations);
+                generated.addPage(page);
+            }
+            generated.save(file, CompressParameters.NO_COMPRESSION);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+    @Setup(Level.Invocation)
+    public void loadDocument() throws IOException {
+        document = Loader.loadPDF(file);
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeDocument() throws IOException {
+        document.close();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public void save() throws IOException {
+        document.save(OutputStream.nullOutputStream(),
+                compress ? CompressParameters.DEFAULT_COMPRESSION : CompressParameters.NO_COMPRESSION);
+    }
+}
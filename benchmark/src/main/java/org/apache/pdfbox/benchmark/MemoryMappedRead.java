@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.apache.pdfbox.io.RandomAccessReadMemoryMappedFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares the throughput of the memory mapped file, which is mapped in segments, with the buffered file. The
+ * sequential access reads the whole file byte by byte and in blocks, the random access reads small blocks at random
+ * positions like the parser does when resolving objects.
+ */
+@State(Scope.Benchmark)
+public class MemoryMappedRead {
+
+    private static final int RANDOM_READS = 100000;
+
+    @Param({"64", "512"})
+    int fileSizeMB;
+
+    @Param({"mapped", "buffered"})
+    String source;
+
+    private File file;
+
+    private long[] positions;
+
+    @Setup(Level.Trial)
+    public void createFile() throws IOException {
+        file = File.createTempFile("mapped", ".bin");
+        Random random = new Random(42);
+        byte[] block = new byte[1 << 20];
+        try (OutputStream out = Files.newOutputStream(file.toPath())) {
+            for (int i = 0; i < fileSizeMB; i++) {
+                random.nextBytes(block);
+                out.write(block);
+            }
+        }
+        long length = file.length();
+        positions = new long[RANDOM_READS];
+        for (int i = 0; i < RANDOM_READS; i++) {
+            positions[i] = (long) (random.nextDouble() * (length - 256));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+    private RandomAccessRead open() throws IOException {
+        return "mapped".equals(source) ? new RandomAccessReadMemoryMappedFile(file)
+                : new RandomAccessReadBufferedFile(file);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public long sequentialBytes() throws IOException {
+        long sum = 0;
+        try (RandomAccessRead read = open()) {
+            int b;
+            while ((b = read.read()) != -1) {
+                sum += b;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public long sequentialBlocks() throws IOException {
+        long sum = 0;
+        byte[] buffer = new byte[8192];
+        try (RandomAccessRead read = open()) {
+            int count;
+            while ((count = read.read(buffer)) > 0) {
+                sum += buffer[count - 1];
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public long randomBlocks() throws IOException {
+        long sum = 0;
+        byte[] buffer = new byte[256];
+        try (RandomAccessRead read = open()) {
+            for (long position : positions) {
+                read.seek(position);
+                sum += read.read(buffer);
+            }
+        }
+        return sum;
+    }
+}
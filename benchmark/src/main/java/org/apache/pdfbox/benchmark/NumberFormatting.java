@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDPageContentStream.AppendMode;
+import org.apache.pdfbox.util.NumberFormatUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the output of numbers as written when saving documents and generating content streams. The xref and integer
+ * benchmarks compare the string based formatting, which was used by the writer before, with the allocation free
+ * formatting into a reused byte buffer. The float benchmark writes integral and fractional {@link COSFloat} values, the
+ * vector graphics benchmark writes a path with the given number of segments to a content stream.
+ */
+@State(Scope.Benchmark)
+public class NumberFormatting {
+
+    @Param({"100000"})
+    int count;
+
+    private final DecimalFormat formatXrefOffset = new DecimalFormat("0000000000",
+            DecimalFormatSymbols.getInstance(Locale.US));
+
+    private final DecimalFormat formatXrefGeneration = new DecimalFormat("00000",
+            DecimalFormatSymbols.getInstance(Locale.US));
+
+    private final byte[] formatBuffer = new byte[64];
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    private COSFloat[] floats;
+
+    private COSInteger[] integers;
+
+    private PDDocument document;
+
+    private PDPage page;
+
+    @Setup
+    public void setUp() {
+        floats = new COSFloat[count];
+        integers = new COSInteger[count];
+        for (int i = 0; i < count; i++) {
+            floats[i] = new COSFloat(i % 2 == 0 ? i % 1000 : i % 1000 / 7f);
+            integers[i] = COSInteger.get(i * 31L);
+        }
+        document = new PDDocument();
+        page = new PDPage();
+        document.addPage(page);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        document.close();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public int xrefEntriesDecimalFormat() throws IOException {
+        output.reset();
+        for (int i = 0; i < count; i++) {
+            output.write(formatXrefOffset.format(i * 97L).getBytes(StandardCharsets.ISO_8859_1));
+            output.write(' ');
+            output.write(formatXrefGeneration.format(i % 3).getBytes(StandardCharsets.ISO_8859_1));
+            output.write(' ');
+            output.write('n');
+        }
+        return output.size();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public int xrefEntriesBuffer() {
+        output.reset();
+        for (int i = 0; i < count; i++) {
+            int length = NumberFormatUtil.formatLongPadded(i * 97L, 10, formatBuffer, 0);
+            formatBuffer[length++] = ' ';
+            length = NumberFormatUtil.formatLongPadded(i % 3, 5, formatBuffer, length);
+            formatBuffer[length++] = ' ';
+            formatBuffer[length++] = 'n';
+            output.write(formatBuffer, 0, length);
+        }
+        return output.size();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public int integersString() throws IOException {
+        output.reset();
+        for (COSInteger integer : integers) {
+            output.write(String.valueOf(integer.longValue()).getBytes(StandardCharsets.ISO_8859_1));
+        }
+        return output.size();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public int integersBuffer() {
+        output.reset();
+        for (COSInteger integer : integers) {
+            output.write(formatBuffer, 0, NumberFormatUtil.formatLong(integer.longValue(), formatBuffer, 0));
+        }
+        return output.size();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public int floatsWritePDF() throws IOException {
+        output.reset();
+        for (COSFloat cosFloat : floats) {
+            cosFloat.writePDF(output);
+        }
+        return output.size();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public void vectorGraphics() throws IOException {
+        try (PDPageContentStream contentStream = new PDPageContentStream(document, page,
+                AppendMode.OVERWRITE, false)) {
+            contentStream.setLineWidth(0.5f);
+            contentStream.moveTo(0, 0);
+            for (int i = 0; i < count; i++) {
+                contentStream.lineTo(i % 612, (i * 0.37f) % 792);
+            }
+            contentStream.stroke();
+        }
+    }
+}
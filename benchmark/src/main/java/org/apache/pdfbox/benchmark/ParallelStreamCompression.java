@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDPageContentStream.AppendMode;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts.FontName;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures saving a generated report whose content streams were written without compression, so that all of them are
+ * compressed by the writer. The streams are either compressed one after another by the writing thread or in parallel by
+ * an executor with the given number of threads. The document is generated before every invocation as saving replaces
+ * the data of the streams by the compressed data.
+ */
+@State(Scope.Benchmark)
+public class ParallelStreamCompression {
+
+    @Param({"10000"})
+    int pageCount;
+
+    @Param({"0", "4", "8"})
+    int threads;
+
+    private ExecutorService executor;
+
+    private CompressParameters compressParameters;
+
+    private PDDocument document;
+
+    @Setup(Level.Trial)
+    public void createExecutor() {
+        executor = threads > 0 ? Executors.newFixedThreadPool(threads) : null;
+        compressParameters = new CompressParameters(CompressParameters.DEFAULT_OBJECT_STREAM_SIZE,
+                true, executor);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdownExecutor() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void createDocument() throws IOException {
+        document = new PDDocument();
+        PDType1Font font = new PDType1Font(FontName.HELVETICA);
+        for (int i = 0; i < pageCount; i++) {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            try (PDPageContentStream contentStream = new PDPageContentStream(document, page,
+                    AppendMode.OVERWRITE, false)) {
+                contentStream.beginText();
+                contentStream.setFont(font, 8);
+                contentStream.setLeading(9);
+                contentStream.newLineAtOffset(40, 760);
+                for (int line = 0; line < 80; line++) {
+                    contentStream.showText("Page " + i + ", line " + line
+                            + ": quantity " + (i * 31 + line * 17) % 1000
+                            + ", amount " + (i * 7 + line * 13) % 10000 / 100.0);
+                    contentStream.newLine();
+                }
+                contentStream.endText();
+            }
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeDocument() throws IOException {
+        document.close();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public void save() throws IOException {
+        document.save(OutputStream.nullOutputStream(), compressParameters);
+    }
+}
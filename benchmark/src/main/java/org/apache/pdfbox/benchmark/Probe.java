@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDDocumentInformation;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares reading the metadata of a corpus of generated files using {@link Loader#probePDF(byte[])} with
+ * {@link Loader#loadPDF(byte[])}.
+ */
+@State(Scope.Benchmark)
+public class Probe {
+
+    private static final int CORPUS_SIZE = 20;
+
+    @Param({"10", "1000"})
+    int pageCount;
+
+    @Param({"true", "false"})
+    boolean compressed;
+
+    private final List<byte[]> corpus = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void createCorpus() throws IOException {
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            try (PDDocument document = new PDDocument()) {
+                for (int j = 0; j < pageCount; j++) {
+                    document.addPage(new PDPage());
+                }
+                PDDocumentInformation info = document.getDocumentInformation();
+                info.setTitle("Generated document " + i);
+                info.setProducer("PDFBox benchmark");
+                PDMetadata metadata = new PDMetadata(document);
+                metadata.importXMPMetadata(("<x:xmpmeta xmlns:x=\"adobe:ns:meta/\">" + i
+                        + "</x:xmpmeta>").getBytes());
+                document.getDocumentCatalog().setMetadata(metadata);
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                document.save(baos, compressed ? CompressParameters.DEFAULT_COMPRESSION
+                        : CompressParameters.NO_COMPRESSION);
+                corpus.add(baos.toByteArray());
+            }
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public void probe(Blackhole blackhole) throws IOException {
+        for (byte[] pdf : corpus) {
+            blackhole.consume(Loader.probePDF(pdf));
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public void load(Blackhole blackhole) throws IOException {
+        for (byte[] pdf : corpus) {
+            try (PDDocument document = Loader.loadPDF(pdf)) {
+                blackhole.consume(document.getVersion());
+                blackhole.consume(document.getNumberOfPages());
+                blackhole.consume(document.isEncrypted());
+                blackhole.consume(document.getDocumentInformation().getTitle());
+                PDMetadata metadata = document.getDocumentCatalog().getMetadata();
+                try (InputStream is = metadata.createInputStream()) {
+                    blackhole.consume(is.readAllBytes());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccess;
+import org.apache.pdfbox.io.ScratchFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures the contention of the page allocation of a single scratch file shared by 32 threads. Every invocation
+ * creates a buffer, writes a few pages and closes the buffer again, so that the time is dominated by allocating and
+ * releasing pages. The scratch file either uses main memory only or spills to a temporary file.
+ */
+@State(Scope.Benchmark)
+public class ScratchFileAllocation {
+
+    @Param({"mainMemory", "mixed"})
+    String mode;
+
+    @Param({"1", "16"})
+    int pagesPerBuffer;
+
+    private ScratchFile scratchFile;
+
+    private byte[] content;
+
+    @Setup(Level.Trial)
+    public void createScratchFile() throws IOException {
+        scratchFile = new ScratchFile("mixed".equals(mode)
+                ? MemoryUsageSetting.setupMixed(1 << 20)
+                : MemoryUsageSetting.setupMainMemoryOnly());
+        content = new byte[pagesPerBuffer * 4096];
+    }
+
+    @TearDown(Level.Trial)
+    public void closeScratchFile() throws IOException {
+        scratchFile.close();
+    }
+
+    @Benchmark
+    @Threads(32)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public long createWriteClose() throws IOException {
+        RandomAccess buffer = scratchFile.createBuffer();
+        try {
+            buffer.write(content);
+            return buffer.length();
+        } finally {
+            buffer.close();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.benchmark;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccess;
+import org.apache.pdfbox.io.ScratchFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Uses many buffers of a single scratch file, which only uses a temporary file, concurrently. Every invocation writes a
+ * stream, reads it back twice and closes its buffer. The temporary file is either accessed using a random access file
+ * or using memory mapped regions. The number of threads may be changed using the <code>-t</code> option of JMH.
+ */
+@State(Scope.Benchmark)
+public class ScratchFileConcurrency {
+
+    @Param({"randomAccessFile", "mapped"})
+    String backend;
+
+    @Param({"1024"})
+    int streamSizeKB;
+
+    private ScratchFile scratchFile;
+
+    private byte[] content;
+
+    @Setup(Level.Trial)
+    public void createScratchFile() throws IOException {
+        scratchFile = new ScratchFile(MemoryUsageSetting.setupTempFileOnly()
+                .setUseMappedTempFile("mapped".equals(backend)));
+        content = new byte[streamSizeKB << 10];
+        new Random(42).nextBytes(content);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeScratchFile() throws IOException {
+        scratchFile.close();
+    }
+
+    @Benchmark
+    @Threads(16)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public long writeAndRead() throws IOException {
+        long sum = 0;
+        RandomAccess buffer = scratchFile.createBuffer();
+        try {
+            for (int offset = 0; offset < content.length; offset += 8192) {
+                buffer.write(content, offset, Math.min(8192, content.length - offset));
+            }
+            byte[] read = new byte[8192];
+            for (int i = 0; i < 2; i++) {
+                buffer.seek(0);
+                int count;
+                while ((count = buffer.read(read)) > 0) {
+                    sum += read[count - 1];
+                }
+            }
+        } finally {
+            buffer.close();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.benchmark;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccess;
+import org.apache.pdfbox.io.ScratchFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Fills a scratch file with a number of streams, reads them back and closes the scratch file. The pages are either
+ * stored on the heap or off-heap in direct memory, the mixed mode spills half of the pages to a temporary file.
+ *
+ * The impact on the garbage collector is shown by running the benchmark with the gc profiler, e.g.
+ * <code>java -jar target/benchmarks.jar ScratchFileMemory -prof gc</code>.
+ */
+@State(Scope.Benchmark)
+public class ScratchFileMemory {
+
+    private static final int STREAM_COUNT = 64;
+
+    @Param({"64", "256"})
+    int sizeMB;
+
+    @Param({"heap", "direct"})
+    String storage;
+
+    @Param({"mainMemory", "mixed"})
+    String mode;
+
+    private byte[] chunk;
+
+    @Setup(Level.Trial)
+    public void createChunk() {
+        chunk = new byte[1 << 16];
+        new Random(42).nextBytes(chunk);
+    }
+
+    private MemoryUsageSetting createSetting() {
+        long size = (long) sizeMB << 20;
+        MemoryUsageSetting setting = "mixed".equals(mode) ? MemoryUsageSetting.setupMixed(size / 2)
+                : MemoryUsageSetting.setupMainMemoryOnly();
+        return setting.setUseDirectMemory("direct".equals(storage));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public long writeAndRead() throws IOException {
+        long sum = 0;
+        long streamSize = ((long) sizeMB << 20) / STREAM_COUNT;
+        try (ScratchFile scratchFile = new ScratchFile(createSetting())) {
+            RandomAccess[] streams = new RandomAccess[STREAM_COUNT];
+            for (int i = 0; i < STREAM_COUNT; i++) {
+                streams[i] = scratchFile.createBuffer();
+                for (long written = 0; written < streamSize; written += chunk.length) {
+                    streams[i].write(chunk);
+                }
+            }
+            byte[] buffer = new byte[chunk.length];
+            for (RandomAccess stream : streams) {
+                stream.seek(0);
+                int count;
+                while ((count = stream.read(buffer)) > 0) {
+                    sum += buffer[count - 1];
+                }
+            }
+        }
+        return sum;
+    }
+}
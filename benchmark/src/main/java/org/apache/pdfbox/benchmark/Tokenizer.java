@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSNumber;
+import org.apache.pdfbox.pdfparser.PDFStreamParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the tokenizing of numbers and names of a generated content stream.
+ *
+ * The {@code stringTokens} benchmarks create the tokens via strings the way the parser used to do, the
+ * {@code byteTokens} benchmarks use the allocation free lookups of the parser. The allocation per token is reported
+ * when run with the gc profiler, e.g. {@code java -jar target/benchmarks.jar Tokenizer -prof gc}, the value of
+ * {@code gc.alloc.rate.norm} has to be divided by {@link #TOKEN_COUNT}.
+ */
+@State(Scope.Benchmark)
+public class Tokenizer {
+
+    private static final int TOKEN_COUNT = 100000;
+
+    private byte[] contentStream;
+    private byte[][] numbers;
+    private byte[][] names;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(4711);
+        StringBuilder content = new StringBuilder();
+        numbers = new byte[TOKEN_COUNT][];
+        names = new byte[TOKEN_COUNT][];
+        String[] resourceNames = {"F1", "F2", "GS1", "Im12", "CS0", "Span", "MCID"};
+        for (int i = 0; i < TOKEN_COUNT; i++) {
+            String number = i % 2 == 0 ? Integer.toString(random.nextInt(2000) - 1000)
+                    : String.format(Locale.US, "%.3f", random.nextFloat() * 1000);
+            String name = resourceNames[random.nextInt(resourceNames.length)];
+            numbers[i] = number.getBytes(StandardCharsets.US_ASCII);
+            names[i] = name.getBytes(StandardCharsets.US_ASCII);
+            content.append('/').append(name).append(' ').append(number).append(" Tf\n");
+        }
+        contentStream = content.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public void parseContentStream(Blackhole blackhole) throws IOException {
+        PDFStreamParser parser = new PDFStreamParser(contentStream);
+        Object token;
+        while ((token = parser.parseNextToken()) != null) {
+            blackhole.consume(token);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public void byteTokens(Blackhole blackhole) throws IOException {
+        for (int i = 0; i < TOKEN_COUNT; i++) {
+            blackhole.consume(COSNumber.get(numbers[i], 0, numbers[i].length));
+            blackhole.consume(COSName.getPDFName(names[i], 0, names[i].length));
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public void stringTokens(Blackhole blackhole) throws IOException {
+        for (int i = 0; i < TOKEN_COUNT; i++) {
+            StringBuilder number = new StringBuilder();
+            for (byte b : numbers[i]) {
+                number.append((char) b);
+            }
+            blackhole.consume(COSNumber.get(number.toString()));
+            blackhole.consume(COSName.getPDFName(new String(names[i], StandardCharsets.UTF_8)));
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.cos.COSDocument;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.cos.COSObjectKeyOffsetMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the primitive cross reference table and object pool with boxed hash maps. Only the table given by the
+ * {@code table} parameter is built, so that the structures are measured separately.
+ *
+ * The memory of a structure is reported by the fill benchmark when run with the gc profiler, e.g.
+ * {@code java -jar target/benchmarks.jar XrefTableLookup.fill -prof gc}. The tables are presized and filled with the
+ * keys created beforehand, so that gc.alloc.rate.norm, the number of bytes allocated to build a table, is its retained
+ * size without the keys. A boxed map retains the keys in addition, the offset map stores them as primitives. The
+ * object pool of a document can't be presized, its result includes the arrays discarded when the pool grows.
+ */
+@State(Scope.Benchmark)
+public class XrefTableLookup {
+
+    @Param({"100000", "2000000"})
+    int objectCount;
+
+    @Param({"hashMap", "offsetMap", "hashMapPool", "documentPool"})
+    String table;
+
+    private COSObjectKey[] keys;
+    private Map<COSObjectKey, Long> hashMap;
+    private COSObjectKeyOffsetMap offsetMap;
+    private Map<COSObjectKey, COSObject> hashMapPool;
+    private COSDocument document;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = new COSObjectKey[objectCount];
+        for (int i = 0; i < objectCount; i++) {
+            keys[i] = new COSObjectKey(i + 1L, 0);
+        }
+        switch (table) {
+            case "hashMap":
+                hashMap = fillHashMap();
+                break;
+            case "offsetMap":
+                offsetMap = fillOffsetMap();
+                break;
+            case "hashMapPool":
+                hashMapPool = fillHashMapPool();
+                break;
+            default:
+                document = fillDocumentPool();
+                break;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (document != null) {
+            document.close();
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public Object fill() {
+        switch (table) {
+            case "hashMap":
+                return fillHashMap();
+            case "offsetMap":
+                return fillOffsetMap();
+            case "hashMapPool":
+                return fillHashMapPool();
+            default:
+                return fillDocumentPool();
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public void lookup(Blackhole blackhole) {
+        switch (table) {
+            case "hashMap":
+                for (COSObjectKey key : keys) {
+                    blackhole.consume(hashMap.get(key));
+                }
+                break;
+            case "offsetMap":
+                for (COSObjectKey key : keys) {
+                    blackhole.consume(offsetMap.getOffset(key, -1));
+                }
+                break;
+            case "hashMapPool":
+                for (COSObjectKey key : keys) {
+                    blackhole.consume(hashMapPool.get(key));
+                }
+                break;
+            default:
+                for (COSObjectKey key : keys) {
+                    blackhole.consume(document.getObjectFromPool(key));
+                }
+                break;
+        }
+    }
+
+    private Map<COSObjectKey, Long> fillHashMap() {
+        Map<COSObjectKey, Long> map = new HashMap<>(hashMapCapacity());
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i * 100L);
+        }
+        return map;
+    }
+
+    private COSObjectKeyOffsetMap fillOffsetMap() {
+        COSObjectKeyOffsetMap map = new COSObjectKeyOffsetMap(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            map.putOffset(keys[i], i * 100L);
+        }
+        return map;
+    }
+
+    private Map<COSObjectKey, COSObject> fillHashMapPool() {
+        Map<COSObjectKey, COSObject> map = new HashMap<>(hashMapCapacity());
+        for (COSObjectKey key : keys) {
+            map.put(key, new COSObject(key, null));
+        }
+        return map;
+    }
+
+    private COSDocument fillDocumentPool() {
+        COSDocument cosDocument = new COSDocument();
+        for (COSObjectKey key : keys) {
+            cosDocument.getObjectFromPool(key);
+        }
+        return cosDocument;
+    }
+
+    /**
+     * Returns the capacity of a hash map holding all keys without being resized, using the default load factor.
+     */
+    private int hashMapCapacity() {
+        return (int) (keys.length / 0.75f) + 1;
+    }
+}
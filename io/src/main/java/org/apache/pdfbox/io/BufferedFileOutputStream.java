@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.io;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * A buffered output stream writing to a file, which provides the channel of the file so that large amounts of data can
+ * be transferred to the file directly, e.g. using {@link RandomAccessRead#transferTo(long, long, java.nio.channels.WritableByteChannel)}.
+ */
+public class BufferedFileOutputStream extends BufferedOutputStream
+{
+    private final FileChannel channel;
+
+    /**
+     * Constructor.
+     *
+     * @param out the stream of the file to write to
+     */
+    public BufferedFileOutputStream(FileOutputStream out)
+    {
+        super(out);
+        channel = out.getChannel();
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param out the stream of the file to write to
+     * @param size the size of the buffer
+     */
+    public BufferedFileOutputStream(FileOutputStream out, int size)
+    {
+        super(out, size);
+        channel = out.getChannel();
+    }
+
+    /**
+     * Flushes the buffered bytes and returns the channel of the file. The position of the channel is the position of
+     * the stream, bytes written to the channel are appended to the bytes written to the stream before.
+     *
+     * @return the channel of the file
+     * @throws IOException if the buffered bytes can't be written
+     */
+    public FileChannel flushToChannel() throws IOException
+    {
+        flush();
+        return channel;
+    }
+}
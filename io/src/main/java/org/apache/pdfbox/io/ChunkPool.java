@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.io;
+
+import java.nio.ByteBuffer;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A pool of recycled chunks for {@link RandomAccessReadBuffer} and {@link RandomAccessReadWriteBuffer}. The chunks of a
+ * buffer using the pool are returned to the pool when the buffer is closed or cleared, and are reused by the next
+ * buffers instead of allocating new ones. The pool is limited to a maximum number of bytes, chunks exceeding the limit
+ * are left to the garbage collector.
+ *
+ * An instance is thread safe and is meant to be shared by all buffers of an application, e.g. using
+ * {@link IOUtils#createMemoryOnlyStreamCache(ChunkPool)} for the streams of all documents. Only buffers using the chunk
+ * size of the pool take part in the pooling. Recycled chunks aren't cleared, a buffer never reads beyond the bytes
+ * written to it. A buffer is closed before its chunks are released, so that a positional read racing the close fails
+ * instead of returning the bytes of another buffer reusing the chunks.
+ */
+public final class ChunkPool
+{
+    private final int chunkSize;
+    private final int maxChunkCount;
+
+    private final Deque<ByteBuffer> chunks = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger chunkCount = new AtomicInteger();
+
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder reuseCount = new LongAdder();
+    private final LongAdder releaseCount = new LongAdder();
+    private final LongAdder discardCount = new LongAdder();
+
+    /**
+     * Create a pool of chunks using the default chunk size of {@link RandomAccessReadBuffer}.
+     *
+     * @param maxBytes the maximum number of bytes held by the pool
+     */
+    public ChunkPool(long maxBytes)
+    {
+        this(maxBytes, RandomAccessReadBuffer.DEFAULT_CHUNK_SIZE_4KB);
+    }
+
+    /**
+     * Create a pool of chunks.
+     *
+     * @param maxBytes the maximum number of bytes held by the pool
+     * @param chunkSize the size of the chunks
+     */
+    public ChunkPool(long maxBytes, int chunkSize)
+    {
+        if (chunkSize < 1)
+        {
+            throw new IllegalArgumentException("Invalid chunk size " + chunkSize);
+        }
+        if (maxBytes < 0)
+        {
+            throw new IllegalArgumentException("Invalid maximum size " + maxBytes);
+        }
+        this.chunkSize = chunkSize;
+        this.maxChunkCount = (int) Math.min(Integer.MAX_VALUE, maxBytes / chunkSize);
+    }
+
+    /**
+     * Returns the size of the chunks.
+     *
+     * @return the chunk size
+     */
+    public int getChunkSize()
+    {
+        return chunkSize;
+    }
+
+    /**
+     * Returns the maximum number of bytes held by the pool.
+     *
+     * @return the maximum number of bytes
+     */
+    public long getMaxBytes()
+    {
+        return (long) maxChunkCount * chunkSize;
+    }
+
+    /**
+     * Returns the number of bytes currently held by the pool.
+     *
+     * @return the number of bytes
+     */
+    public long getPooledBytes()
+    {
+        return (long) chunkCount.get() * chunkSize;
+    }
+
+    /**
+     * Returns the number of chunks requested by buffers.
+     *
+     * @return the number of chunks
+     */
+    public long getAcquireCount()
+    {
+        return acquireCount.sum();
+    }
+
+    /**
+     * Returns the number of requested chunks which were taken from the pool instead of being allocated.
+     *
+     * @return the number of chunks
+     */
+    public long getReuseCount()
+    {
+        return reuseCount.sum();
+    }
+
+    /**
+     * Returns the number of chunks returned to the pool.
+     *
+     * @return the number of chunks
+     */
+    public long getReleaseCount()
+    {
+        return releaseCount.sum();
+    }
+
+    /**
+     * Returns the number of returned chunks which weren't kept as the pool was full.
+     *
+     * @return the number of chunks
+     */
+    public long getDiscardCount()
+    {
+        return discardCount.sum();
+    }
+
+    /**
+     * Returns the ratio of the requested chunks which were taken from the pool.
+     *
+     * @return the reuse rate between 0 and 1
+     */
+    public double getReuseRate()
+    {
+        long acquired = acquireCount.sum();
+        return acquired > 0 ? (double) reuseCount.sum() / acquired : 0;
+    }
+
+    /**
+     * Removes all chunks from the pool, the statistics are kept.
+     */
+    public void clear()
+    {
+        while (chunks.pollFirst() != null)
+        {
+            chunkCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns a chunk taken from the pool or a new one if the pool is empty.
+     *
+     * @return a cleared chunk of the chunk size
+     */
+    ByteBuffer acquire()
+    {
+        acquireCount.increment();
+        ByteBuffer chunk = chunks.pollFirst();
+        if (chunk == null)
+        {
+            return ByteBuffer.allocate(chunkSize);
+        }
+        chunkCount.decrementAndGet();
+        reuseCount.increment();
+        chunk.clear();
+        return chunk;
+    }
+
+    /**
+     * Returns a chunk to the pool. The chunk must not be used by the caller anymore.
+     *
+     * @param chunk the chunk to be returned
+     */
+    void release(ByteBuffer chunk)
+    {
+        if (chunk.capacity() != chunkSize || !chunk.hasArray() || chunk.isReadOnly())
+        {
+            return;
+        }
+        releaseCount.increment();
+        if (chunkCount.incrementAndGet() > maxChunkCount)
+        {
+            chunkCount.decrementAndGet();
+            discardCount.increment();
+            return;
+        }
+        chunks.offerFirst(chunk);
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.io;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stores the in-memory pages of a {@link ScratchFile} in compressed form. The recently used pages are kept uncompressed
+ * in a small hot set, the other pages are compressed using the fastest level of the {@link Deflater}. Pages which
+ * don't compress are kept as they are.
+ *
+ * <p>A page which was read is kept in both forms as long as it is hot, so that it hasn't to be compressed again if it
+ * isn't written. Writing a page drops its compressed form.</p>
+ */
+final class CompressedPageStore
+{
+    private final int pageSize;
+    private final int hotPageCount;
+
+    /** uncompressed pages in least recently used order */
+    private final Map<Integer, byte[]> hotPages = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** compressed pages, a page having the length of a page isn't compressed */
+    private final Map<Integer, byte[]> coldPages = new HashMap<>();
+
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+    private final Inflater inflater = new Inflater(true);
+    private final byte[] compressBuffer;
+
+    /** number of bytes of all hot and cold pages */
+    private volatile long storedBytes;
+
+    private boolean closed;
+
+    /**
+     * Constructor.
+     *
+     * @param pageSize the size of a page
+     * @param hotPageCount the number of pages kept uncompressed
+     */
+    CompressedPageStore(int pageSize, int hotPageCount)
+    {
+        this.pageSize = pageSize;
+        this.hotPageCount = hotPageCount;
+        compressBuffer = new byte[pageSize];
+    }
+
+    /**
+     * Returns the number of bytes used by all stored pages.
+     *
+     * @return the number of bytes
+     */
+    long getStoredBytes()
+    {
+        return storedBytes;
+    }
+
+    /**
+     * Returns the given page, a compressed page is decompressed and becomes hot.
+     *
+     * @param pageIdx the index of the page
+     * @return the page or null if the page wasn't written before or the store was closed
+     * @throws IOException if the page can't be decompressed
+     */
+    synchronized byte[] readPage(int pageIdx) throws IOException
+    {
+        if (closed)
+        {
+            return null;
+        }
+        byte[] page = hotPages.get(pageIdx);
+        if (page != null)
+        {
+            return page;
+        }
+        byte[] compressed = coldPages.get(pageIdx);
+        if (compressed == null)
+        {
+            return null;
+        }
+        page = decompress(compressed);
+        addHotPage(pageIdx, page);
+        return page;
+    }
+
+    /**
+     * Stores the given page as hot page. The array is stored as it is. Nothing is stored if the store was closed.
+     *
+     * @param pageIdx the index of the page
+     * @param page the content of the page
+     */
+    synchronized void writePage(int pageIdx, byte[] page)
+    {
+        if (closed)
+        {
+            return;
+        }
+        byte[] compressed = coldPages.remove(pageIdx);
+        if (compressed != null)
+        {
+            storedBytes -= compressed.length;
+        }
+        if (hotPages.put(pageIdx, page) == null)
+        {
+            storedBytes += pageSize;
+            evictPages();
+        }
+    }
+
+    /**
+     * Removes the given page.
+     *
+     * @param pageIdx the index of the page
+     */
+    synchronized void freePage(int pageIdx)
+    {
+        if (hotPages.remove(pageIdx) != null)
+        {
+            storedBytes -= pageSize;
+        }
+        byte[] compressed = coldPages.remove(pageIdx);
+        if (compressed != null)
+        {
+            storedBytes -= compressed.length;
+        }
+    }
+
+    /**
+     * Removes all pages and releases the native resources of the codec.
+     */
+    synchronized void close()
+    {
+        hotPages.clear();
+        coldPages.clear();
+        storedBytes = 0;
+        if (!closed)
+        {
+            closed = true;
+            deflater.end();
+            inflater.end();
+        }
+    }
+
+    private void addHotPage(int pageIdx, byte[] page)
+    {
+        hotPages.put(pageIdx, page);
+        storedBytes += pageSize;
+        evictPages();
+    }
+
+    /**
+     * Compresses the least recently used hot pages until the hot set has its maximum size.
+     */
+    private void evictPages()
+    {
+        Iterator<Map.Entry<Integer, byte[]>> iterator = hotPages.entrySet().iterator();
+        while (hotPages.size() > hotPageCount)
+        {
+            Map.Entry<Integer, byte[]> eldest = iterator.next();
+            Integer pageIdx = eldest.getKey();
+            if (!coldPages.containsKey(pageIdx))
+            {
+                byte[] compressed = compress(eldest.getValue());
+                coldPages.put(pageIdx, compressed);
+                storedBytes += compressed.length;
+            }
+            iterator.remove();
+            storedBytes -= pageSize;
+        }
+    }
+
+    private byte[] compress(byte[] page)
+    {
+        deflater.reset();
+        deflater.setInput(page);
+        deflater.finish();
+        int length = deflater.deflate(compressBuffer);
+        if (!deflater.finished() || length >= pageSize)
+        {
+            // not compressible, keep it as it is
+            return page.clone();
+        }
+        return Arrays.copyOf(compressBuffer, length);
+    }
+
+    private byte[] decompress(byte[] compressed) throws IOException
+    {
+        if (compressed.length == pageSize)
+        {
+            return compressed.clone();
+        }
+        byte[] page = new byte[pageSize];
+        inflater.reset();
+        inflater.setInput(compressed);
+        try
+        {
+            int length = 0;
+            while (length < pageSize && !inflater.finished())
+            {
+                int count = inflater.inflate(page, length, pageSize - length);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                {
+                    break;
+                }
+                length += count;
+            }
+            if (length != pageSize)
+            {
+                throw new IOException("Compressed page is truncated: " + length + " bytes");
+            }
+        }
+        catch (DataFormatException exception)
+        {
+            throw new IOException("Compressed page is corrupt", exception);
+        }
+        return page;
+    }
+}
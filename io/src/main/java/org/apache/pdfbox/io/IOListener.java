@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.io;
+
+/**
+ * A listener to be informed about the I/O operations of random access reads and stream caches, e.g. to collect
+ * metrics. All methods have an empty default implementation, so that a listener only needs to implement the events it
+ * is interested in. A listener may be called by several threads at the same time and should return quickly.
+ *
+ * @see IOMetrics
+ * @see InstrumentedRandomAccessRead
+ * @see RandomAccessReadBufferedFile#setIOListener(IOListener)
+ * @see MemoryUsageSetting#setIOListener(IOListener)
+ */
+public interface IOListener
+{
+    /**
+     * Called after bytes were read.
+     *
+     * @param count the number of bytes read
+     */
+    default void bytesRead(long count)
+    {
+    }
+
+    /**
+     * Called after the position was changed.
+     *
+     * @param distance the absolute distance between the old and the new position
+     */
+    default void seeked(long distance)
+    {
+    }
+
+    /**
+     * Called if a requested page was found in a page cache.
+     */
+    default void cacheHit()
+    {
+    }
+
+    /**
+     * Called if a requested page had to be read as it wasn't found in a page cache.
+     */
+    default void cacheMiss()
+    {
+    }
+
+    /**
+     * Called after bytes were written to the temporary file of a scratch file as they exceeded the main memory.
+     *
+     * @param count the number of bytes written
+     */
+    default void spilled(long count)
+    {
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.io;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An {@link IOListener} counting the I/O operations, e.g. of the operations on a single document. An instance is
+ * thread safe. The values may be exported to a monitoring system using {@link #toMap()}.
+ *
+ * <pre>
+ * IOMetrics metrics = new IOMetrics();
+ * RandomAccessReadBufferedFile file = new RandomAccessReadBufferedFile(path);
+ * file.setIOListener(metrics);
+ * MemoryUsageSetting memUsageSetting = MemoryUsageSetting.setupMixed(maxMainMemoryBytes).setIOListener(metrics);
+ * try (PDDocument document = Loader.loadPDF(new InstrumentedRandomAccessRead(file, metrics),
+ *         memUsageSetting.streamCache))
+ * {
+ *     ...
+ * }
+ * </pre>
+ */
+public final class IOMetrics implements IOListener
+{
+    /** The key of the number of bytes read. */
+    public static final String BYTES_READ = "bytesRead";
+    /** The key of the number of seeks. */
+    public static final String SEEK_COUNT = "seekCount";
+    /** The key of the sum of the distances of all seeks. */
+    public static final String SEEK_DISTANCE = "seekDistance";
+    /** The key of the number of page cache hits. */
+    public static final String CACHE_HITS = "cacheHits";
+    /** The key of the number of page cache misses. */
+    public static final String CACHE_MISSES = "cacheMisses";
+    /** The key of the number of bytes spilled to a scratch file. */
+    public static final String SPILL_BYTES = "spillBytes";
+
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder seekCount = new LongAdder();
+    private final LongAdder seekDistance = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder spillBytes = new LongAdder();
+
+    @Override
+    public void bytesRead(long count)
+    {
+        bytesRead.add(count);
+    }
+
+    @Override
+    public void seeked(long distance)
+    {
+        seekCount.increment();
+        seekDistance.add(distance);
+    }
+
+    @Override
+    public void cacheHit()
+    {
+        cacheHits.increment();
+    }
+
+    @Override
+    public void cacheMiss()
+    {
+        cacheMisses.increment();
+    }
+
+    @Override
+    public void spilled(long count)
+    {
+        spillBytes.add(count);
+    }
+
+    /**
+     * Returns the number of bytes read.
+     *
+     * @return the number of bytes
+     */
+    public long getBytesRead()
+    {
+        return bytesRead.sum();
+    }
+
+    /**
+     * Returns the number of seeks.
+     *
+     * @return the number of seeks
+     */
+    public long getSeekCount()
+    {
+        return seekCount.sum();
+    }
+
+    /**
+     * Returns the sum of the distances between the old and the new position of all seeks.
+     *
+     * @return the distance in bytes
+     */
+    public long getSeekDistance()
+    {
+        return seekDistance.sum();
+    }
+
+    /**
+     * Returns the number of pages found in a page cache.
+     *
+     * @return the number of pages
+     */
+    public long getCacheHits()
+    {
+        return cacheHits.sum();
+    }
+
+    /**
+     * Returns the number of pages which had to be read as they weren't found in a page cache.
+     *
+     * @return the number of pages
+     */
+    public long getCacheMisses()
+    {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * Returns the number of bytes written to the temporary file of a scratch file.
+     *
+     * @return the number of bytes
+     */
+    public long getSpillBytes()
+    {
+        return spillBytes.sum();
+    }
+
+    /**
+     * Resets all values to 0.
+     */
+    public void reset()
+    {
+        bytesRead.reset();
+        seekCount.reset();
+        seekDistance.reset();
+        cacheHits.reset();
+        cacheMisses.reset();
+        spillBytes.reset();
+    }
+
+    /**
+     * Returns a snapshot of all values using the keys defined by this class, e.g. to be exported to a monitoring
+     * system. The values are collected one after another, they may be inconsistent if they are changed in between.
+     *
+     * @return the values by their key in a fixed order
+     */
+    public Map<String, Long> toMap()
+    {
+        Map<String, Long> values = new LinkedHashMap<>();
+        values.put(BYTES_READ, getBytesRead());
+        values.put(SEEK_COUNT, getSeekCount());
+        values.put(SEEK_DISTANCE, getSeekDistance());
+        values.put(CACHE_HITS, getCacheHits());
+        values.put(CACHE_MISSES, getCacheMisses());
+        values.put(SPILL_BYTES, getSpillBytes());
+        return values;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "IOMetrics" + toMap();
+    }
+}
@@ -307,6 +307,18 @@ public final class IOUtils
         return streamCache;
     }
 
+    /**
+     * Provides a function to create an instance of a memory only StreamCache using unrestricted main memory. The
+     * chunks of all buffers are taken from and returned to the given pool, which may be shared by several documents.
+     * 
+     * @param chunkPool the pool providing the chunks
+     * @return a function to create an instance of a memory only StreamCache using the given pool
+     */
+    public static StreamCacheCreateFunction createMemoryOnlyStreamCache(ChunkPool chunkPool)
+    {
+        return () -> new RandomAccessStreamCacheImpl(chunkPool);
+    }
+
     /**
      * Provides a function to create an instance of a temp file only StreamCache using unrestricted size. ScratchFile is
      * used as current default implementation.
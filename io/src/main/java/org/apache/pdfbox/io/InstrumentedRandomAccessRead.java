@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A random access read reporting the bytes read and the seeks of the underlying random access read to an
+ * {@link IOListener}. Views created by this instance read the data through this instance, so that they are reported as
+ * well. A positional read which doesn't continue the previous positional read is reported as a seek from the end of
+ * the previous one, as the parser reads objects and streams through views after loading. The page cache of the underlying random access read isn't visible to the decorator, see
+ * {@link RandomAccessReadBufferedFile#setIOListener(IOListener)} to report its hits and misses.
+ */
+public class InstrumentedRandomAccessRead implements RandomAccessRead
+{
+    private final RandomAccessRead randomAccessRead;
+    private final IOListener listener;
+
+    // the end of the last positional read, updated by concurrent readers without synchronization
+    private volatile long positionalReadEnd = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param randomAccessRead the underlying random access read, which is closed together with this instance
+     * @param listener the listener to be informed about the operations
+     */
+    public InstrumentedRandomAccessRead(RandomAccessRead randomAccessRead, IOListener listener)
+    {
+        this.randomAccessRead = randomAccessRead;
+        this.listener = listener;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        int result = randomAccessRead.read();
+        if (result != -1)
+        {
+            listener.bytesRead(1);
+        }
+        return result;
+    }
+
+    @Override
+    public int read(byte[] b, int offset, int length) throws IOException
+    {
+        return reportRead(randomAccessRead.read(b, offset, length));
+    }
+
+    @Override
+    public int read(long position, byte[] b, int offset, int length) throws IOException
+    {
+        return reportPositionalRead(position,
+                randomAccessRead.read(position, b, offset, length));
+    }
+
+    @Override
+    public int read(long position, ByteBuffer buffer) throws IOException
+    {
+        return reportPositionalRead(position, randomAccessRead.read(position, buffer));
+    }
+
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target)
+            throws IOException
+    {
+        long transferred = randomAccessRead.transferTo(position, count, target);
+        listener.bytesRead(transferred);
+        return transferred;
+    }
+
+    private int reportPositionalRead(long position, int bytes)
+    {
+        long previousEnd = positionalReadEnd;
+        if (position != previousEnd)
+        {
+            listener.seeked(Math.abs(position - previousEnd));
+        }
+        if (bytes > 0)
+        {
+            positionalReadEnd = position + bytes;
+        }
+        return reportRead(bytes);
+    }
+
+    private int reportRead(int bytes)
+    {
+        if (bytes > 0)
+        {
+            listener.bytesRead(bytes);
+        }
+        return bytes;
+    }
+
+    @Override
+    public long getPosition() throws IOException
+    {
+        return randomAccessRead.getPosition();
+    }
+
+    @Override
+    public void seek(long position) throws IOException
+    {
+        long oldPosition = randomAccessRead.getPosition();
+        randomAccessRead.seek(position);
+        listener.seeked(Math.abs(position - oldPosition));
+    }
+
+    @Override
+    public long length() throws IOException
+    {
+        return randomAccessRead.length();
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        return randomAccessRead.isClosed();
+    }
+
+    @Override
+    public boolean isEOF() throws IOException
+    {
+        return randomAccessRead.isEOF();
+    }
+
+    @Override
+    public RandomAccessReadView createView(long startPosition, long streamLength) throws IOException
+    {
+        if (isClosed())
+        {
+            throw new IOException(getClass().getSimpleName() + " already closed");
+        }
+        return new RandomAccessReadView(this, startPosition, streamLength);
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        randomAccessRead.close();
+    }
+}
@@ -40,6 +40,17 @@ public final class MemoryUsageSetting
     /** directory to be used for scratch file */
     private File tempDir;
 
+    /** store main-memory pages off-heap in direct byte buffers */
+    private boolean useDirectMemory;
+
+    /** access the temporary file using memory mapped regions */
+    private boolean useMappedTempFile;
+
+    /** store main-memory pages compressed */
+    private boolean useCompressedMemory;
+
+    private IOListener ioListener;
+
     /**
      * Implementation of the function to create an instance of ScratchFile using the current settings.
      */
@@ -187,6 +198,106 @@ public final class MemoryUsageSetting
         return this;
     }
     
+    /**
+     * Sets whether main-memory pages are stored off-heap in direct byte buffers instead of byte arrays on the Java
+     * heap. This reduces the heap usage and the work of the garbage collector for large caches, the direct memory is
+     * released when the cache is closed. The maximum main-memory and the usage of temporary files aren't affected.
+     * 
+     * @param useDirectMemory <code>true</code> to store main-memory pages off-heap
+     * 
+     * @return this instance
+     */
+    public MemoryUsageSetting setUseDirectMemory(boolean useDirectMemory)
+    {
+        this.useDirectMemory = useDirectMemory;
+        return this;
+    }
+
+    /**
+     * Returns <code>true</code> if main-memory pages are stored off-heap in direct byte buffers.
+     * 
+     * @return true if this instance is set up to use direct memory
+     */
+    public boolean isDirectMemoryUsed()
+    {
+        return useDirectMemory;
+    }
+
+    /**
+     * Sets whether the temporary file is accessed using memory mapped regions instead of reading and writing every
+     * page using a random access file. The file is enlarged by regions of several pages and pages of different buffers
+     * may be accessed concurrently.
+     * 
+     * @param useMappedTempFile <code>true</code> to access the temporary file using memory mapped regions
+     * 
+     * @return this instance
+     */
+    public MemoryUsageSetting setUseMappedTempFile(boolean useMappedTempFile)
+    {
+        this.useMappedTempFile = useMappedTempFile;
+        return this;
+    }
+
+    /**
+     * Returns <code>true</code> if the temporary file is accessed using memory mapped regions.
+     * 
+     * @return true if this instance is set up to use a memory mapped temporary file
+     */
+    public boolean isMappedTempFileUsed()
+    {
+        return useMappedTempFile;
+    }
+
+    /**
+     * Sets whether main-memory pages are stored compressed on the heap. Recently used pages are kept uncompressed,
+     * the other pages are compressed using a fast compression level. A restricted main-memory is applied to the
+     * compressed size of the pages, so that more pages are kept in main-memory before a temporary file is used.
+     * Compression isn't used if main-memory pages are stored off-heap.
+     * 
+     * @param useCompressedMemory <code>true</code> to store main-memory pages compressed
+     * 
+     * @return this instance
+     */
+    public MemoryUsageSetting setUseCompressedMemory(boolean useCompressedMemory)
+    {
+        this.useCompressedMemory = useCompressedMemory;
+        return this;
+    }
+
+    /**
+     * Returns <code>true</code> if main-memory pages are stored compressed.
+     * 
+     * @return true if this instance is set up to use compressed memory
+     */
+    public boolean isCompressedMemoryUsed()
+    {
+        return useCompressedMemory;
+    }
+
+    /**
+     * Sets a listener to be informed about the pages written to the temporary file by the scratch files created using
+     * this instance.
+     * 
+     * @param ioListener the listener, may be null to remove the current listener
+     * 
+     * @return this instance
+     */
+    public MemoryUsageSetting setIOListener(IOListener ioListener)
+    {
+        this.ioListener = ioListener;
+        return this;
+    }
+
+    /**
+     * Returns the listener to be informed about the pages written to the temporary file.
+     * 
+     * @return the listener or null if none is set
+     */
+    public IOListener getIOListener()
+    {
+        return ioListener;
+    }
+
     /**
      * Returns <code>true</code> if main-memory is to be used.
      * 
@@ -268,7 +379,7 @@ public final class MemoryUsageSetting
     @Override
     public String toString()
     {
-        return useMainMemory ?
+        String description = useMainMemory ?
                    (useTempFile ? "Mixed mode with max. of " + maxMainMemoryBytes + " main memory bytes" +
                                   (isStorageRestricted() ? " and max. of " + maxStorageBytes + " storage bytes" :
                                                            " and unrestricted scratch file size") :
@@ -276,5 +387,18 @@ public final class MemoryUsageSetting
                                                               "Main memory only with no size restriction")):
                    (isStorageRestricted() ? "Scratch file only with max. of " + maxStorageBytes + " bytes" :
                                             "Scratch file only with no size restriction");
+        if (useMainMemory && useDirectMemory)
+        {
+            description += " using off-heap memory";
+        }
+        else if (useMainMemory && useCompressedMemory)
+        {
+            description += " using compressed memory";
+        }
+        if (useTempFile && useMappedTempFile)
+        {
+            description += " using a memory mapped scratch file";
+        }
+        return description;
     }
 }
@@ -18,6 +18,8 @@ package org.apache.pdfbox.io;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * An interface allowing random access read operations.
@@ -55,7 +57,131 @@ public interface RandomAccessRead extends Closeable
      * @throws IOException If there was an error while reading the data.
      */
     int read(byte[] b, int offset, int length) throws IOException;
+
+    /**
+     * Read a buffer of data starting at the given position without changing the current position.
+     * 
+     * <p>
+     * {@link RandomAccessReadBuffer}, {@link RandomAccessReadBufferedFile}, {@link RandomAccessReadMemoryMappedFile}
+     * and views of them implement this natively, it is safe to call it from several threads at the same time, even
+     * while another thread reads the source using the current position. The default implementation seeks to the given
+     * position and back while holding the monitor of the source, it only excludes other positional reads.
+     * </p>
+     *
+     * @param position The position of the first byte to be read.
+     * @param b The buffer to write the data to.
+     * @param offset Offset into the buffer to start writing.
+     * @param length The amount of data to attempt to read.
+     * @return The number of bytes that were actually read, which is less than the given length only if the end of the
+     * data is reached, or -1 if the position is at or beyond the end of the data.
+     * @throws IOException If there was an error while reading the data.
+     */
+    default int read(long position, byte[] b, int offset, int length) throws IOException
+    {
+        if (position < 0)
+        {
+            throw new IOException("Invalid position " + position);
+        }
+        synchronized (this)
+        {
+            long originPosition = getPosition();
+            try
+            {
+                seek(position);
+                int bytesRead = 0;
+                while (bytesRead < length)
+                {
+                    int read = read(b, offset + bytesRead, length - bytesRead);
+                    if (read < 0)
+                    {
+                        break;
+                    }
+                    bytesRead += read;
+                }
+                return bytesRead > 0 || length == 0 ? bytesRead : -1;
+            }
+            finally
+            {
+                seek(originPosition);
+            }
+        }
+    }
+
+    /**
+     * Read data into the remaining space of the given buffer starting at the given position without changing the
+     * current position, see {@link #read(long, byte[], int, int)}. The position of the buffer is advanced by the
+     * number of bytes read.
+     *
+     * @param position The position of the first byte to be read.
+     * @param buffer The buffer to write the data to.
+     * @return The number of bytes that were actually read, which is less than the remaining space of the buffer only
+     * if the end of the data is reached, or -1 if the position is at or beyond the end of the data.
+     * @throws IOException If there was an error while reading the data.
+     */
+    default int read(long position, ByteBuffer buffer) throws IOException
+    {
+        int bytesRead;
+        if (buffer.hasArray())
+        {
+            bytesRead = read(position, buffer.array(), buffer.arrayOffset() + buffer.position(),
+                    buffer.remaining());
+            if (bytesRead > 0)
+            {
+                buffer.position(buffer.position() + bytesRead);
+            }
+        }
+        else
+        {
+            byte[] bytes = new byte[buffer.remaining()];
+            bytesRead = read(position, bytes, 0, bytes.length);
+            if (bytesRead > 0)
+            {
+                buffer.put(bytes, 0, bytesRead);
+            }
+        }
+        return bytesRead;
+    }
     
+    /**
+     * Transfers bytes starting at the given position to the given channel without changing the current position.
+     * 
+     * <p>
+     * {@link RandomAccessReadBufferedFile} transfers the bytes directly from its file to the channel,
+     * {@link RandomAccessReadMemoryMappedFile} writes its mapped memory to the channel and views of them delegate to
+     * the underlying source. The default implementation copies the bytes using positional reads.
+     * </p>
+     *
+     * @param position The position of the first byte to be transferred.
+     * @param count The maximum number of bytes to be transferred.
+     * @param target The channel to write the bytes to.
+     * @return The number of bytes that were actually transferred, which is less than the given count only if the end
+     * of the data is reached.
+     * @throws IOException If there was an error while reading or writing the data.
+     */
+    default long transferTo(long position, long count, WritableByteChannel target)
+            throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(Math.max(count, 0), 1 << 16));
+        long transferred = 0;
+        while (transferred < count)
+        {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), count - transferred));
+            int bytesRead = read(position + transferred, buffer);
+            if (bytesRead <= 0)
+            {
+                break;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining())
+            {
+                target.write(buffer);
+            }
+            transferred += bytesRead;
+        }
+        return transferred;
+    }
+
     /**
      * Returns offset of next byte to be returned by a read method.
      * 
@@ -18,15 +18,14 @@ package org.apache.pdfbox.io;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.invoke.VarHandle;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * An implementation of the RandomAccessRead interface to store data in memory. The data will be stored in chunks
- * organized in an ArrayList.
+ * organized in an ArrayList. The chunks may be taken from and returned to a {@link ChunkPool}.
  */
 public class RandomAccessReadBuffer implements RandomAccessRead
 {
@@ -34,8 +33,8 @@ public class RandomAccessReadBuffer implements RandomAccessRead
     public static final int DEFAULT_CHUNK_SIZE_4KB = 1 << 12;
     // use the default chunk size
     protected int chunkSize = DEFAULT_CHUNK_SIZE_4KB;
-    // list containing all chunks
-    private final List<ByteBuffer> bufferList;
+    // list containing all chunks, null if the buffer is closed
+    private volatile List<ByteBuffer> bufferList;
     // current chunk
     protected ByteBuffer currentBuffer;
     // current pointer to the whole buffer
@@ -48,9 +47,8 @@ public class RandomAccessReadBuffer implements RandomAccessRead
     private int bufferListIndex = 0;
     // maximum chunk list index
     private int bufferListMaxIndex = 0;
-
-    // map holding all copies of the current buffer
-    private final ConcurrentMap<Long, RandomAccessReadBuffer> rarbCopies = new ConcurrentHashMap<>();
+    // optional pool providing the chunks
+    private final ChunkPool chunkPool;
 
     /**
      * Default constructor.
@@ -67,11 +65,26 @@ public class RandomAccessReadBuffer implements RandomAccessRead
     {
         // starting with one chunk
         chunkSize = definedChunkSize;
+        chunkPool = null;
         currentBuffer = ByteBuffer.allocate(chunkSize);
         bufferList = new ArrayList<>(1);
         bufferList.add(currentBuffer);
     }
 
+    /**
+     * Constructor using the chunks of the given pool.
+     * 
+     * @param chunkPool the pool providing the chunks, the default chunk size is used if null
+     */
+    protected RandomAccessReadBuffer(ChunkPool chunkPool)
+    {
+        this.chunkPool = chunkPool;
+        chunkSize = chunkPool != null ? chunkPool.getChunkSize() : DEFAULT_CHUNK_SIZE_4KB;
+        currentBuffer = allocateChunk();
+        bufferList = new ArrayList<>(1);
+        bufferList.add(currentBuffer);
+    }
+
     /**
      * Create a random access buffer using the given byte array.
      * 
@@ -91,6 +104,7 @@ public class RandomAccessReadBuffer implements RandomAccessRead
     public RandomAccessReadBuffer(ByteBuffer input)
     {
         chunkSize = input.limit();
+        chunkPool = null;
         size = chunkSize;
         currentBuffer = input;
         bufferList = new ArrayList<>(1);
@@ -105,7 +119,20 @@ public class RandomAccessReadBuffer implements RandomAccessRead
      */
     public RandomAccessReadBuffer(InputStream input) throws IOException
     {
-        this();
+        this(input, null);
+    }
+
+    /**
+     * Create a random access read buffer of the given input stream by copying the data to chunks taken from the given
+     * pool. The chunks are returned to the pool when the buffer is closed.
+     * 
+     * @param input the input stream to be read
+     * @param chunkPool the pool providing the chunks, may be null
+     * @throws IOException if something went wrong while copying the data
+     */
+    public RandomAccessReadBuffer(InputStream input, ChunkPool chunkPool) throws IOException
+    {
+        this(chunkPool);
         int bytesRead = 0;
         int remainingBytes = chunkSize;
         int offset = 0;
@@ -129,31 +156,20 @@ public class RandomAccessReadBuffer implements RandomAccessRead
         seek(0);
     }
 
-    private RandomAccessReadBuffer(RandomAccessReadBuffer parent)
-    {
-        chunkSize = parent.chunkSize;
-        size = parent.size;
-        bufferListMaxIndex = parent.bufferListMaxIndex;
-        bufferList = new ArrayList<>(parent.bufferList.size());
-        for (ByteBuffer buffer : parent.bufferList)
-        {
-            ByteBuffer newBuffer = buffer.duplicate();
-            newBuffer.rewind();
-            bufferList.add(newBuffer);
-        }
-        currentBuffer = bufferList.get(0);
-    }
-
     /**
      * {@inheritDoc}
      */
     @Override
     public void close() throws IOException
     {
-        rarbCopies.values().forEach(IOUtils::closeQuietly);
-        rarbCopies.clear();
+        List<ByteBuffer> chunks = bufferList;
+        // the buffer has to be closed before the chunks are released, see read(long, byte[], int, int)
         currentBuffer = null;
-        bufferList.clear();
+        bufferList = null;
+        if (chunkPool != null && chunks != null)
+        {
+            chunks.forEach(chunkPool::release);
+        }
     }
 
     /**
@@ -254,6 +270,62 @@ public class RandomAccessReadBuffer implements RandomAccessRead
         return bytesRead;
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>
+     * Positional reads may be done concurrently as long as the buffer isn't written to. A read racing
+     * {@link #close()} fails, as the chunks may have been released to the {@link ChunkPool} and reused by another
+     * buffer while they were copied.
+     * </p>
+     */
+    @Override
+    public int read(long position, byte[] b, int offset, int length) throws IOException
+    {
+        List<ByteBuffer> chunks = bufferList;
+        if (chunks == null)
+        {
+            throw new IOException("RandomAccessBuffer already closed");
+        }
+        if (position < 0)
+        {
+            throw new IOException("Invalid position " + position);
+        }
+        if (position >= size)
+        {
+            return -1;
+        }
+        int bytesToRead = (int) Math.min(length, size - position);
+        int bytesRead = 0;
+        while (bytesRead < bytesToRead)
+        {
+            long chunkPosition = position + bytesRead;
+            ByteBuffer chunk = chunks.get((int) (chunkPosition / chunkSize));
+            int chunkOffset = (int) (chunkPosition % chunkSize);
+            int count = Math.min(bytesToRead - bytesRead, chunkSize - chunkOffset);
+            if (chunk.hasArray())
+            {
+                System.arraycopy(chunk.array(), chunk.arrayOffset() + chunkOffset, b,
+                        offset + bytesRead, count);
+            }
+            else
+            {
+                // don't change the position of the chunk itself
+                ByteBuffer duplicate = chunk.duplicate();
+                duplicate.position(chunkOffset);
+                duplicate.get(b, offset + bytesRead, count);
+            }
+            bytesRead += count;
+        }
+        // the copied bytes must not be used if the buffer was closed in the meantime
+        VarHandle.acquireFence();
+        if (bufferList == null)
+        {
+            throw new IOException("RandomAccessBuffer already closed");
+        }
+        return bytesRead;
+    }
+
     private int readRemainingBytes(byte[] b, int offset, int length)
     {
         if (pointer >= size)
@@ -312,7 +384,7 @@ public class RandomAccessReadBuffer implements RandomAccessRead
         else
         {
             // create a new chunk and add it to the buffer
-            currentBuffer = ByteBuffer.allocate(chunkSize);
+            currentBuffer = allocateChunk();
             bufferList.add(currentBuffer);
             currentBufferPointer = 0;
             bufferListMaxIndex++;
@@ -320,6 +392,14 @@ public class RandomAccessReadBuffer implements RandomAccessRead
         }
     }
 
+    /**
+     * Returns a new chunk, taken from the pool if there is one.
+     */
+    private ByteBuffer allocateChunk()
+    {
+        return chunkPool != null ? chunkPool.acquire() : ByteBuffer.allocate(chunkSize);
+    }
+
     /**
      * switch to the next buffer chunk and reset the buffer pointer.
      */
@@ -369,14 +449,7 @@ public class RandomAccessReadBuffer implements RandomAccessRead
     @Override
     public RandomAccessReadView createView(long startPosition, long streamLength) throws IOException
     {
-        Long currentThreadID = Thread.currentThread().getId();
-        RandomAccessReadBuffer randomAccessReadBuffer = rarbCopies.get(currentThreadID);
-        if (randomAccessReadBuffer == null || randomAccessReadBuffer.isClosed())
-        {
-            randomAccessReadBuffer = new RandomAccessReadBuffer(this);
-            rarbCopies.put(currentThreadID, randomAccessReadBuffer);
-        }
-        return new RandomAccessReadView(randomAccessReadBuffer, startPosition, streamLength);
+        return new RandomAccessReadView(this, startPosition, streamLength);
     }
 
     /**
@@ -410,6 +483,10 @@ public class RandomAccessReadBuffer implements RandomAccessRead
         currentBufferPointer = 0;
         bufferListIndex = 0;
         bufferListMaxIndex = 0;
+        if (chunkPool != null)
+        {
+            bufferList.subList(1, bufferList.size()).forEach(chunkPool::release);
+        }
         bufferList.clear();
         bufferList.add(currentBuffer);
     }
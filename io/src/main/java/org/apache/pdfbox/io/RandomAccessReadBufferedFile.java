@@ -20,34 +20,48 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * Provides random access to portions of a file combined with buffered reading of content. Start of next bytes to read
  * can be set via seek method.
  * 
- * File is accessed via {@link FileChannel} and is read in ByteBuffer chunks which are cached.
+ * File is accessed via {@link FileChannel} and is read in ByteBuffer chunks which are cached. Positional reads and
+ * views use the same cache, positional reads are safe to be used by several threads at the same time.
+ * 
+ * By default every instance has its own cache limited to a fixed number of pages. Alternatively a
+ * {@link SharedPageCache} may be used, which is shared with other instances and limited by a global budget. If
+ * {@link ReadAhead} is enabled, the following pages are read in the background as soon as the file or one of its views
+ * is read forward.
  * 
  * @author Timo Boehme
  */
 public class RandomAccessReadBufferedFile implements RandomAccessRead
 {
-    private static final int PAGE_SIZE_SHIFT = 12;
-    private static final int PAGE_SIZE = 1 << PAGE_SIZE_SHIFT;
-    private static final long PAGE_OFFSET_MASK = -1L << PAGE_SIZE_SHIFT;
     private static final int MAX_CACHED_PAGES = 1000;
 
-    // map holding all copies of the current buffered file
-    private final ConcurrentMap<Long, RandomAccessReadBufferedFile> rafCopies = new ConcurrentHashMap<>();
+    private final int pageSize;
+    private final long pageOffsetMask;
+
+    // optional cache shared with other instances replacing the private cache
+    private final SharedPageCache sharedPageCache;
+    private final Object sharedFileKey;
+
+    // optional read-ahead of sequentially read pages
+    private final ReadAhead readAhead;
+    private final ReadAhead.Prefetcher prefetcher;
+
+    // optional listener informed about the hits and misses of the page cache
+    private volatile IOListener ioListener;
+    private boolean sharedPageRead;
 
     private ByteBuffer lastRemovedCachePage = null;
 
-    /** Create a LRU page cache. */
+    /** Create a LRU page cache, which is guarded by itself as it is used by positional reads as well. */
     private final Map<Long, ByteBuffer> pageCache = new LinkedHashMap<>(MAX_CACHED_PAGES, 0.75f,
             true)
     {
@@ -60,7 +74,6 @@ public class RandomAccessReadBufferedFile implements RandomAccessRead
             if (doRemove)
             {
                 lastRemovedCachePage = eldest.getValue();
-                lastRemovedCachePage.clear();
             }
             return doRemove;
         }
@@ -71,7 +84,6 @@ public class RandomAccessReadBufferedFile implements RandomAccessRead
     private int offsetWithinPage = 0;
 
     private final FileChannel fileChannel;
-    private final Path path;
     private final long fileLength;
     private long fileOffset = 0;
     private boolean isClosed;
@@ -106,10 +118,86 @@ public class RandomAccessReadBufferedFile implements RandomAccessRead
      */
     public RandomAccessReadBufferedFile(Path path) throws IOException
     {
-        this.path = path;
+        this(path, null);
+    }
+
+    /**
+     * Create a random access buffered file instance for the given file using the given shared page cache.
+     *
+     * @param file the file to be read.
+     * @param sharedPageCache the cache to be used instead of a private cache, may be null
+     * @throws IOException if something went wrong while accessing the given file.
+     */
+    public RandomAccessReadBufferedFile(File file, SharedPageCache sharedPageCache)
+            throws IOException
+    {
+        this(file.toPath(), sharedPageCache);
+    }
+
+    /**
+     * Create a random access buffered file instance using the given path and the given shared page cache.
+     *
+     * @param path path of the file to be read.
+     * @param sharedPageCache the cache to be used instead of a private cache, may be null
+     * @throws IOException if something went wrong while accessing the given file.
+     */
+    public RandomAccessReadBufferedFile(Path path, SharedPageCache sharedPageCache)
+            throws IOException
+    {
+        this(path, sharedPageCache, null);
+    }
+
+    /**
+     * Create a random access buffered file instance using the given path, the given shared page cache and the given
+     * read-ahead settings.
+     *
+     * @param path path of the file to be read.
+     * @param sharedPageCache the cache to be used instead of a private cache, may be null
+     * @param readAhead the read-ahead settings, may be null to disable the read-ahead
+     * @throws IOException if something went wrong while accessing the given file.
+     */
+    public RandomAccessReadBufferedFile(Path path, SharedPageCache sharedPageCache,
+            ReadAhead readAhead) throws IOException
+    {
         fileChannel = FileChannel.open(path, StandardOpenOption.READ);
-        fileLength = fileChannel.size();
-        seek(0);
+        try
+        {
+            fileLength = fileChannel.size();
+            this.sharedPageCache = sharedPageCache;
+            if (sharedPageCache != null)
+            {
+                pageSize = sharedPageCache.getPageSize();
+                sharedFileKey = SharedPageCache.createFileKey(path, fileLength);
+            }
+            else
+            {
+                pageSize = SharedPageCache.DEFAULT_PAGE_SIZE;
+                sharedFileKey = null;
+            }
+            pageOffsetMask = -(long) pageSize;
+            this.readAhead = readAhead;
+            prefetcher = readAhead != null
+                    ? readAhead.createPrefetcher(fileChannel, fileLength, pageSize)
+                    : null;
+            seek(0);
+        }
+        catch (IOException exception)
+        {
+            fileChannel.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * Sets a listener to be informed about the hits and misses of the page cache, including the pages used by
+     * positional reads and views. The bytes read and the seeks may be
+     * reported using an {@link InstrumentedRandomAccessRead}.
+     *
+     * @param ioListener the listener, may be null to remove the current listener
+     */
+    public void setIOListener(IOListener ioListener)
+    {
+        this.ioListener = ioListener;
     }
 
     @Override
@@ -134,16 +222,38 @@ public class RandomAccessReadBufferedFile implements RandomAccessRead
         {
             throw new IOException("Invalid position " + position);
         }
-        final long newPageOffset = position & PAGE_OFFSET_MASK;
+        final long newPageOffset = position & pageOffsetMask;
         if ( newPageOffset != curPageOffset )
         {
-            ByteBuffer newPage = pageCache.get(newPageOffset);
-            if ( newPage == null )
+            if (prefetcher != null)
+            {
+                prefetcher.pageAccessed(newPageOffset);
+            }
+            ByteBuffer newPage;
+            boolean cacheMiss;
+            if (sharedPageCache != null)
             {
-                fileChannel.position(newPageOffset);
-                newPage = readPage();
-                pageCache.put( newPageOffset, newPage );
+                // wrap the shared array so that the position of the buffer is private to this instance
+                sharedPageRead = false;
+                newPage = ByteBuffer.wrap(
+                        sharedPageCache.getPage(sharedFileKey, newPageOffset, this::readSharedPage));
+                cacheMiss = sharedPageRead;
             }
+            else
+            {
+                synchronized (pageCache)
+                {
+                    newPage = pageCache.get(newPageOffset);
+                    cacheMiss = newPage == null;
+                    if (cacheMiss)
+                    {
+                        fileChannel.position(newPageOffset);
+                        newPage = readPage(newPageOffset);
+                        pageCache.put( newPageOffset, newPage );
+                    }
+                }
+            }
+            reportCacheAccess(cacheMiss);
             curPageOffset = newPageOffset;
             curPage = newPage;
         }
@@ -155,24 +265,31 @@ public class RandomAccessReadBufferedFile implements RandomAccessRead
     /**
      * Reads a page with data from current file position. If we have a
      * previously removed page from cache the buffer of this page is reused.
-     * Otherwise a new byte buffer is created.
+     * Otherwise a new byte buffer is created. The page is taken from the
+     * read-ahead if available.
      */
-    private ByteBuffer readPage() throws IOException
+    private ByteBuffer readPage(long pageOffset) throws IOException
     {
         ByteBuffer page;
 
         if ( lastRemovedCachePage != null )
         {
             page = lastRemovedCachePage;
+            page.clear();
             lastRemovedCachePage = null;
         }
         else
         {
-            page = ByteBuffer.allocate(PAGE_SIZE);
+            page = ByteBuffer.allocate(pageSize);
+        }
+
+        if (prefetcher != null && prefetcher.readPage(pageOffset, page))
+        {
+            return page;
         }
 
         int readBytes = 0;
-        while (readBytes < PAGE_SIZE)
+        while (readBytes < pageSize)
         {
             int curBytesRead = fileChannel.read(page);
             if (curBytesRead < 0)
@@ -185,6 +302,47 @@ public class RandomAccessReadBufferedFile implements RandomAccessRead
 
         return page;
     }
+
+    /**
+     * Reads the page at the given offset for the shared page cache using a positional read.
+     */
+    private byte[] readSharedPage(long pageOffset) throws IOException
+    {
+        sharedPageRead = true;
+        return readNewPage(pageOffset, prefetcher);
+    }
+
+    /**
+     * Reads the page at the given offset into a new array using a positional read. The page is taken from the
+     * read-ahead of the given prefetcher if available.
+     */
+    private byte[] readNewPage(long pageOffset, ReadAhead.Prefetcher pagePrefetcher)
+            throws IOException
+    {
+        byte[] page = new byte[pageSize];
+        ByteBuffer buffer = ByteBuffer.wrap(page);
+        if (pagePrefetcher == null || !pagePrefetcher.readPage(pageOffset, buffer))
+        {
+            readFromChannel(pageOffset, buffer);
+        }
+        return page;
+    }
+
+    private void reportCacheAccess(boolean cacheMiss)
+    {
+        IOListener listener = ioListener;
+        if (listener != null)
+        {
+            if (cacheMiss)
+            {
+                listener.cacheMiss();
+            }
+            else
+            {
+                listener.cacheHit();
+            }
+        }
+    }
     
     @Override
     public int read() throws IOException
@@ -195,7 +353,7 @@ public class RandomAccessReadBufferedFile implements RandomAccessRead
             return -1;
         }
 
-        if (offsetWithinPage == PAGE_SIZE)
+        if (offsetWithinPage == pageSize)
         {
             seek( fileOffset );
         }
@@ -213,13 +371,13 @@ public class RandomAccessReadBufferedFile implements RandomAccessRead
             return -1;
         }
 
-        if (offsetWithinPage == PAGE_SIZE)
+        if (offsetWithinPage == pageSize)
         {
             seek( fileOffset );
         }
 
-        int commonLen = Math.min(PAGE_SIZE - offsetWithinPage, len);
-        if ((fileLength - fileOffset) < PAGE_SIZE)
+        int commonLen = Math.min(pageSize - offsetWithinPage, len);
+        if ((fileLength - fileOffset) < pageSize)
         {
             commonLen = Math.min( commonLen, (int) ( fileLength - fileOffset ) );
         }
@@ -233,6 +391,155 @@ public class RandomAccessReadBufferedFile implements RandomAccessRead
         return commonLen;
     }
     
+    @Override
+    public int read(long position, byte[] b, int off, int len) throws IOException
+    {
+        return read(position, ByteBuffer.wrap(b, off, len));
+    }
+
+    @Override
+    public int read(long position, ByteBuffer buffer) throws IOException
+    {
+        return read(position, buffer, null);
+    }
+
+    /**
+     * Reads the bytes at the given position page by page using the page cache, the current position isn't changed.
+     *
+     * @param position the position of the first byte to be read
+     * @param buffer the buffer to be filled
+     * @param pagePrefetcher the read-ahead of the calling view, may be null
+     * @return the number of bytes read or -1 if the position is at the end of the file
+     * @throws IOException if the file can't be read
+     */
+    private int read(long position, ByteBuffer buffer, ReadAhead.Prefetcher pagePrefetcher)
+            throws IOException
+    {
+        checkClosed();
+        if (position < 0)
+        {
+            throw new IOException("Invalid position " + position);
+        }
+        if (position >= fileLength)
+        {
+            return -1;
+        }
+        long end = Math.min(fileLength, position + buffer.remaining());
+        long current = position;
+        while (current < end)
+        {
+            long pageOffset = current & pageOffsetMask;
+            int offsetWithinCurrentPage = (int) (current - pageOffset);
+            int length = (int) Math.min(pageSize - offsetWithinCurrentPage, end - current);
+            copyFromPage(pageOffset, offsetWithinCurrentPage, length, buffer, pagePrefetcher);
+            current += length;
+        }
+        return (int) (end - position);
+    }
+
+    /**
+     * Copies the given part of a page into the given buffer. The page is taken from the cache or read and added to
+     * the cache without holding the lock of the cache, so that concurrent positional reads don't block each other
+     * while reading the file. Only pages which have to be read are passed to the read-ahead, so that reading cached
+     * pages again doesn't read the following pages in advance.
+     */
+    private void copyFromPage(long pageOffset, int offset, int length, ByteBuffer buffer,
+            ReadAhead.Prefetcher pagePrefetcher) throws IOException
+    {
+        if (sharedPageCache != null)
+        {
+            boolean[] pageRead = new boolean[1];
+            byte[] page = sharedPageCache.getPage(sharedFileKey, pageOffset, offsetToRead ->
+            {
+                pageRead[0] = true;
+                return readMissingPage(offsetToRead, pagePrefetcher);
+            });
+            reportCacheAccess(pageRead[0]);
+            buffer.put(page, offset, length);
+            return;
+        }
+        synchronized (pageCache)
+        {
+            ByteBuffer page = pageCache.get(pageOffset);
+            if (page != null)
+            {
+                // cached pages may be recycled as soon as they are removed, copy them holding the lock
+                reportCacheAccess(false);
+                buffer.put(page.array(), offset, length);
+                return;
+            }
+        }
+        reportCacheAccess(true);
+        ByteBuffer page = ByteBuffer.wrap(readMissingPage(pageOffset, pagePrefetcher));
+        synchronized (pageCache)
+        {
+            pageCache.putIfAbsent(pageOffset, page);
+            buffer.put(page.array(), offset, length);
+        }
+    }
+
+    private byte[] readMissingPage(long pageOffset, ReadAhead.Prefetcher pagePrefetcher)
+            throws IOException
+    {
+        if (pagePrefetcher != null)
+        {
+            pagePrefetcher.pageAccessed(pageOffset);
+        }
+        return readNewPage(pageOffset, pagePrefetcher);
+    }
+
+    /**
+     * Reads the bytes at the given position directly from the file channel.
+     */
+    private void readFromChannel(long position, ByteBuffer buffer) throws IOException
+    {
+        // positional reads of a FileChannel don't change its position and may be done concurrently
+        int readBytes = 0;
+        while (buffer.hasRemaining())
+        {
+            int curBytesRead = fileChannel.read(buffer, position + readBytes);
+            if (curBytesRead < 0)
+            {
+                // EOF
+                break;
+            }
+            readBytes += curBytesRead;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>
+     * The bytes are transferred by the file channel, which may move them from the file to the target without copying
+     * them to the Java heap, e.g. if the target is a file channel or a socket.
+     * </p>
+     */
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target)
+            throws IOException
+    {
+        checkClosed();
+        if (position < 0)
+        {
+            throw new IOException("Invalid position " + position);
+        }
+        long remaining = Math.min(count, fileLength - position);
+        long transferred = 0;
+        while (transferred < remaining)
+        {
+            long bytes = fileChannel.transferTo(position + transferred, remaining - transferred,
+                    target);
+            if (bytes <= 0)
+            {
+                // the file was truncated in between
+                break;
+            }
+            transferred += bytes;
+        }
+        return transferred;
+    }
+
     @Override
     public long length() throws IOException
     {
@@ -242,10 +549,15 @@ public class RandomAccessReadBufferedFile implements RandomAccessRead
     @Override
     public void close() throws IOException
     {
-        rafCopies.values().forEach(IOUtils::closeQuietly);
-        rafCopies.clear();
         fileChannel.close();
-        pageCache.clear();
+        synchronized (pageCache)
+        {
+            pageCache.clear();
+        }
+        if (prefetcher != null)
+        {
+            prefetcher.close();
+        }
         isClosed = true;
     }
 
@@ -277,14 +589,43 @@ public class RandomAccessReadBufferedFile implements RandomAccessRead
     public RandomAccessReadView createView(long startPosition, long streamLength) throws IOException
     {
         checkClosed();
-        Long currentThreadID = Thread.currentThread().getId();
-        RandomAccessReadBufferedFile randomAccessReadBufferedFile = rafCopies.get(currentThreadID);
-        if (randomAccessReadBufferedFile == null || randomAccessReadBufferedFile.isClosed())
+        if (readAhead == null)
+        {
+            return new RandomAccessReadView(this, startPosition, streamLength);
+        }
+        return new ReadAheadView(startPosition, streamLength);
+    }
+
+    /**
+     * A view tracking its own sequential reads, so that the following pages of the view are read in advance. The
+     * read-ahead is limited to the pages of the view.
+     */
+    private final class ReadAheadView extends RandomAccessReadView
+    {
+        private final ReadAhead.Prefetcher viewPrefetcher;
+
+        private ReadAheadView(long startPosition, long streamLength)
+        {
+            super(RandomAccessReadBufferedFile.this, startPosition, streamLength);
+            long viewLength = Math.min(streamLength, fileLength - startPosition);
+            long viewEnd = Math.min(fileLength,
+                    (startPosition + viewLength + pageSize - 1) & pageOffsetMask);
+            viewPrefetcher = readAhead.createPrefetcher(fileChannel, viewEnd, pageSize);
+        }
+
+        @Override
+        int readSequential(long position, byte[] b, int off, int len) throws IOException
+        {
+            return RandomAccessReadBufferedFile.this.read(position, ByteBuffer.wrap(b, off, len),
+                    viewPrefetcher);
+        }
+
+        @Override
+        public void close() throws IOException
         {
-            randomAccessReadBufferedFile = new RandomAccessReadBufferedFile(path);
-            rafCopies.put(currentThreadID, randomAccessReadBufferedFile);
+            viewPrefetcher.close();
+            super.close();
         }
-        return new RandomAccessReadView(randomAccessReadBufferedFile, startPosition, streamLength);
     }
 
 }
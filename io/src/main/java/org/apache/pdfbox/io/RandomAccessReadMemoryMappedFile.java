@@ -20,21 +20,44 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.EnumSet;
-import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 
 /**
  * An implementation of the RandomAccess interface backed by a memory mapped file channel. The whole file is mapped to
- * memory and the max size is limited to Integer.MAX_VALUE.
+ * memory using one or more segments, each of them is limited to Integer.MAX_VALUE bytes. Reads crossing the border of
+ * two segments are split up, so that files of any size are supported.
+ *
+ * Positional reads and transfers hold a read lock while accessing the segments, closing the file waits for them before
+ * unmapping the segments, so that a read racing {@link #close()} throws an IOException instead of accessing unmapped
+ * memory. Reads using the current position must not race {@link #close()}, like any other use of the current position.
  */
 public class RandomAccessReadMemoryMappedFile implements RandomAccessRead
 {
+    /**
+     * The default size of a segment is 1 GiB, expressed as a power of two.
+     */
+    static final int DEFAULT_SEGMENT_SHIFT = 30;
+
+    // mapped segments of the file, null if the file is closed
+    private volatile ByteBuffer[] segments;
+
+    // guards the segments against being unmapped while positional reads use them
+    private final ReadWriteLock segmentLock = new ReentrantReadWriteLock();
+
+    // size of a segment expressed as a power of two
+    private final int segmentShift;
 
-    // mapped byte buffer
-    private ByteBuffer mappedByteBuffer;
+    // mask to calculate the position within a segment
+    private final long segmentMask;
+
+    // current position within the whole file
+    private long position;
 
     // size of the whole file
     private final long size;
@@ -78,27 +101,54 @@ public class RandomAccessReadMemoryMappedFile implements RandomAccessRead
      */
     public RandomAccessReadMemoryMappedFile(Path path) throws IOException
     {
-        fileChannel = FileChannel.open(path, EnumSet.of(StandardOpenOption.READ));
-        size = fileChannel.size();
-        // TODO only ints are allowed -> implement paging
-        if (size > Integer.MAX_VALUE)
-        {
-            throw new IOException(getClass().getName() + " doesn't yet support files bigger than "
-                    + Integer.MAX_VALUE);
-        }
-        // map the whole file to memory
-        mappedByteBuffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
-        unmapper = IOUtils::unmap;
+        this(path, DEFAULT_SEGMENT_SHIFT);
     }
 
-    private RandomAccessReadMemoryMappedFile(RandomAccessReadMemoryMappedFile parent)
+    /**
+     * Create a random access memory mapped file instance using the given path and segment size.
+     * 
+     * @param path path of the file to be read.
+     * @param segmentShift the size of a single segment expressed as a power of two, must be between 0 and 30
+     * 
+     * @throws IOException If there is an IO error opening the file.
+     */
+    RandomAccessReadMemoryMappedFile(Path path, int segmentShift) throws IOException
     {
-        mappedByteBuffer = parent.mappedByteBuffer.duplicate();
-        size = parent.size;
-        mappedByteBuffer.rewind();
-        // unmap doesn't work on duplicate, see Unsafe#invokeCleaner
-        unmapper = null;
-        fileChannel = null;
+        if (segmentShift < 0 || segmentShift > DEFAULT_SEGMENT_SHIFT)
+        {
+            throw new IllegalArgumentException("Invalid segment shift " + segmentShift);
+        }
+        this.segmentShift = segmentShift;
+        segmentMask = (1L << segmentShift) - 1;
+        unmapper = IOUtils::unmap;
+        fileChannel = FileChannel.open(path, EnumSet.of(StandardOpenOption.READ));
+        try
+        {
+            size = fileChannel.size();
+            // map the whole file to memory
+            int segmentCount = (int) ((size + segmentMask) >>> segmentShift);
+            ByteBuffer[] mapped = new ByteBuffer[segmentCount];
+            try
+            {
+                for (int i = 0; i < segmentCount; i++)
+                {
+                    long segmentStart = (long) i << segmentShift;
+                    mapped[i] = fileChannel.map(FileChannel.MapMode.READ_ONLY, segmentStart,
+                            Math.min(segmentMask + 1, size - segmentStart));
+                }
+            }
+            catch (IOException exception)
+            {
+                unmapAll(mapped);
+                throw exception;
+            }
+            segments = mapped;
+        }
+        catch (IOException exception)
+        {
+            fileChannel.close();
+            throw exception;
+        }
     }
 
     /**
@@ -107,14 +157,32 @@ public class RandomAccessReadMemoryMappedFile implements RandomAccessRead
     @Override
     public void close() throws IOException
     {
-        if (fileChannel != null)
+        fileChannel.close();
+        // wait for pending positional reads before unmapping the segments
+        segmentLock.writeLock().lock();
+        try
         {
-            fileChannel.close();
+            ByteBuffer[] mapped = segments;
+            segments = null;
+            if (mapped != null)
+            {
+                unmapAll(mapped);
+            }
         }
-        if (mappedByteBuffer != null)
+        finally
+        {
+            segmentLock.writeLock().unlock();
+        }
+    }
+
+    private void unmapAll(ByteBuffer[] buffers)
+    {
+        for (ByteBuffer buffer : buffers)
         {
-            Optional.ofNullable(unmapper).ifPresent(u -> u.accept(mappedByteBuffer));
-            mappedByteBuffer = null;
+            if (buffer != null)
+            {
+                unmapper.accept(buffer);
+            }
         }
     }
 
@@ -131,7 +199,7 @@ public class RandomAccessReadMemoryMappedFile implements RandomAccessRead
         }
         // it is allowed to jump beyond the end of the file
         // jump to the end of the reader
-        mappedByteBuffer.position((int) Math.min(position, size));
+        this.position = Math.min(position, size);
     }
 
     /**
@@ -141,7 +209,7 @@ public class RandomAccessReadMemoryMappedFile implements RandomAccessRead
     public long getPosition() throws IOException
     {
        checkClosed();
-       return mappedByteBuffer.position();
+       return position;
     }
     
     /**
@@ -150,11 +218,14 @@ public class RandomAccessReadMemoryMappedFile implements RandomAccessRead
     @Override
     public int read() throws IOException
     {
-        if (isEOF())
+        ByteBuffer[] mapped = getSegments();
+        if (position >= size)
         {
             return -1;
         }
-        return mappedByteBuffer.get() & 0xff;
+        int value = mapped[(int) (position >>> segmentShift)].get((int) (position & segmentMask)) & 0xff;
+        position++;
+        return value;
     }
 
     /**
@@ -163,14 +234,138 @@ public class RandomAccessReadMemoryMappedFile implements RandomAccessRead
     @Override
     public int read(byte[] b, int offset, int length) throws IOException
     {
-        if (isEOF())
+        int bytesRead = read(position, b, offset, length);
+        if (bytesRead > 0)
+        {
+            position += bytesRead;
+        }
+        return bytesRead;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read(long position, byte[] b, int offset, int length) throws IOException
+    {
+        checkPosition(position);
+        if (position >= size)
         {
             return -1;
         }
-        int remainingBytes = (int)size - mappedByteBuffer.position();
-        remainingBytes = Math.min(remainingBytes, length);
-        mappedByteBuffer.get(b, offset, remainingBytes);
-        return remainingBytes;
+        int remainingBytes = (int) Math.min(size - position, length);
+        int bytesRead = 0;
+        segmentLock.readLock().lock();
+        try
+        {
+            ByteBuffer[] mapped = getSegments();
+            while (bytesRead < remainingBytes)
+            {
+                ByteBuffer segment = duplicateAt(mapped, position + bytesRead);
+                int count = Math.min(segment.remaining(), remainingBytes - bytesRead);
+                segment.get(b, offset + bytesRead, count);
+                bytesRead += count;
+            }
+        }
+        finally
+        {
+            segmentLock.readLock().unlock();
+        }
+        return bytesRead;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read(long position, ByteBuffer buffer) throws IOException
+    {
+        checkPosition(position);
+        if (position >= size)
+        {
+            return -1;
+        }
+        int remainingBytes = (int) Math.min(size - position, buffer.remaining());
+        int bytesRead = 0;
+        segmentLock.readLock().lock();
+        try
+        {
+            ByteBuffer[] mapped = getSegments();
+            while (bytesRead < remainingBytes)
+            {
+                ByteBuffer segment = duplicateAt(mapped, position + bytesRead);
+                int count = Math.min(segment.remaining(), remainingBytes - bytesRead);
+                segment.limit(segment.position() + count);
+                buffer.put(segment);
+                bytesRead += count;
+            }
+        }
+        finally
+        {
+            segmentLock.readLock().unlock();
+        }
+        return bytesRead;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>
+     * The mapped memory is written to the target directly.
+     * </p>
+     */
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target)
+            throws IOException
+    {
+        checkPosition(position);
+        long remaining = Math.min(count, size - position);
+        long transferred = 0;
+        segmentLock.readLock().lock();
+        try
+        {
+            ByteBuffer[] mapped = getSegments();
+            while (transferred < remaining)
+            {
+                ByteBuffer segment = duplicateAt(mapped, position + transferred);
+                int bytes = (int) Math.min(segment.remaining(), remaining - transferred);
+                segment.limit(segment.position() + bytes);
+                while (segment.hasRemaining())
+                {
+                    target.write(segment);
+                }
+                transferred += bytes;
+            }
+        }
+        finally
+        {
+            segmentLock.readLock().unlock();
+        }
+        return transferred;
+    }
+
+    private void checkPosition(long position) throws IOException
+    {
+        checkClosed();
+        if (position < 0)
+        {
+            throw new IOException("Invalid position " + position);
+        }
+    }
+
+    /**
+     * Creates a duplicate of the segment containing the given position, positioned at the given position, so that the
+     * position of the segment itself isn't changed.
+     * 
+     * @param mapped the mapped segments
+     * @param position the position within the file, which has to be less than the size of the file
+     * @return the duplicate of the segment
+     */
+    private ByteBuffer duplicateAt(ByteBuffer[] mapped, long position)
+    {
+        ByteBuffer buffer = mapped[(int) (position >>> segmentShift)].duplicate();
+        buffer.position((int) (position & segmentMask));
+        return buffer;
     }
 
     /**
@@ -183,6 +378,22 @@ public class RandomAccessReadMemoryMappedFile implements RandomAccessRead
         return size;
     }
 
+    /**
+     * Returns the mapped segments, positional reads have to hold the read lock while using them.
+     * 
+     * @return the mapped segments
+     * @throws IOException If RandomAccessReadMemoryMappedFile already closed
+     */
+    private ByteBuffer[] getSegments() throws IOException
+    {
+        ByteBuffer[] mapped = segments;
+        if (mapped == null)
+        {
+            throw new IOException(getClass().getSimpleName() + " already closed");
+        }
+        return mapped;
+    }
+
     /**
      * Ensure that the RandomAccessReadMemoryMappedFile is not closed
      * 
@@ -202,7 +413,7 @@ public class RandomAccessReadMemoryMappedFile implements RandomAccessRead
     @Override
     public boolean isClosed()
     {
-        return mappedByteBuffer == null;
+        return segments == null;
     }
 
     /**
@@ -212,13 +423,12 @@ public class RandomAccessReadMemoryMappedFile implements RandomAccessRead
     public boolean isEOF() throws IOException
     {
         checkClosed();
-        return mappedByteBuffer.position() >= size;
+        return position >= size;
     }
 
     @Override
     public RandomAccessReadView createView(long startPosition, long streamLength)
     {
-        return new RandomAccessReadView(new RandomAccessReadMemoryMappedFile(this), startPosition,
-                streamLength, true);
+        return new RandomAccessReadView(this, startPosition, streamLength);
     }
 }
@@ -17,14 +17,22 @@
 package org.apache.pdfbox.io;
 
 import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * This class provides a view of a part of a random access read. It clips the section starting at the given start
  * position with the given length into a new random access read.
  * 
+ * The view reads the underlying random access read using positional reads, see
+ * {@link RandomAccessRead#read(long, byte[], int, int)}, so that it neither changes nor depends on the current position
+ * of the underlying random access read. Several views of the same random access read may be used by different threads
+ * at the same time if the underlying random access read supports concurrent positional reads. Small reads are served
+ * from a buffer of the view.
  */
 public class RandomAccessReadView implements RandomAccessRead
 {
+    private static final int BUFFER_SIZE = 1 << 12;
+
     // the underlying random access read
     private RandomAccessRead randomAccessRead;
     // the start position within the underlying source
@@ -35,6 +43,12 @@ public class RandomAccessReadView implements RandomAccessRead
     private final boolean closeInput;
     // current position within the view
     private long currentPosition = 0;
+    // buffered bytes of the view, created on demand
+    private byte[] buffer;
+    // position of the first buffered byte within the view
+    private long bufferPosition = 0;
+    // number of buffered bytes
+    private int bufferLength = 0;
 
     /**
      * Constructor.
@@ -87,7 +101,6 @@ public class RandomAccessReadView implements RandomAccessRead
         {
             throw new IOException("Invalid position " + newOffset);
         }
-        randomAccessRead.seek(startPosition + Math.min(newOffset, streamLength));
         currentPosition = newOffset;
     }
 
@@ -101,13 +114,11 @@ public class RandomAccessReadView implements RandomAccessRead
         {
             return -1;
         }
-        restorePosition();
-        int readValue = randomAccessRead.read();
-        if (readValue > -1)
+        if (!isBuffered(currentPosition) && fillBuffer() < 1)
         {
-            currentPosition++;
+            return -1;
         }
-        return readValue;
+        return buffer[(int) (currentPosition++ - bufferPosition)] & 0xff;
     }
 
     /**
@@ -120,10 +131,78 @@ public class RandomAccessReadView implements RandomAccessRead
         {
             return -1;
         }
-        restorePosition();
-        int readBytes = randomAccessRead.read(b, off, Math.min(len, available()));
-        currentPosition += readBytes;
-        return readBytes;
+        int length = (int) Math.min(len, streamLength - currentPosition);
+        int readBytes = 0;
+        if (isBuffered(currentPosition))
+        {
+            readBytes = Math.min(length, (int) (bufferPosition + bufferLength - currentPosition));
+            System.arraycopy(buffer, (int) (currentPosition - bufferPosition), b, off, readBytes);
+            currentPosition += readBytes;
+        }
+        if (readBytes < length)
+        {
+            int remaining = length - readBytes;
+            int read;
+            if (remaining >= BUFFER_SIZE)
+            {
+                // large reads bypass the buffer
+                read = readSequential(startPosition + currentPosition, b, off + readBytes,
+                        remaining);
+            }
+            else
+            {
+                read = Math.min(fillBuffer(), remaining);
+                if (read > 0)
+                {
+                    System.arraycopy(buffer, 0, b, off + readBytes, read);
+                }
+            }
+            if (read > 0)
+            {
+                currentPosition += read;
+                readBytes += read;
+            }
+        }
+        return readBytes > 0 || length == 0 ? readBytes : -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read(long position, byte[] b, int offset, int length) throws IOException
+    {
+        checkClosed();
+        if (position < 0)
+        {
+            throw new IOException("Invalid position " + position);
+        }
+        if (position >= streamLength)
+        {
+            return -1;
+        }
+        return randomAccessRead.read(startPosition + position, b, offset,
+                (int) Math.min(length, streamLength - position));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target)
+            throws IOException
+    {
+        checkClosed();
+        if (position < 0)
+        {
+            throw new IOException("Invalid position " + position);
+        }
+        if (position >= streamLength)
+        {
+            return 0;
+        }
+        return randomAccessRead.transferTo(startPosition + position,
+                Math.min(count, streamLength - position), target);
     }
 
     /**
@@ -147,6 +226,7 @@ public class RandomAccessReadView implements RandomAccessRead
             randomAccessRead.close();
         }
         randomAccessRead = null;
+        buffer = null;
     }
 
     /**
@@ -164,10 +244,7 @@ public class RandomAccessReadView implements RandomAccessRead
     @Override
     public void rewind(int bytes) throws IOException
     {
-        checkClosed();
-        restorePosition();
-        randomAccessRead.rewind(bytes);
-        currentPosition -= bytes;
+        seek(currentPosition - bytes);
     }
 
     /**
@@ -180,14 +257,43 @@ public class RandomAccessReadView implements RandomAccessRead
         return currentPosition >= streamLength;
     }
 
+    private boolean isBuffered(long position)
+    {
+        return position >= bufferPosition && position < bufferPosition + bufferLength;
+    }
+
     /**
-     * Restore the current position within the underlying random access read.
+     * Fills the buffer with the bytes starting at the current position.
      * 
-     * @throws IOException
+     * @return the number of buffered bytes
+     * @throws IOException if the underlying random access read can't be read
+     */
+    private int fillBuffer() throws IOException
+    {
+        if (buffer == null)
+        {
+            buffer = new byte[(int) Math.min(BUFFER_SIZE, streamLength)];
+        }
+        bufferPosition = currentPosition;
+        bufferLength = Math.max(0, readSequential(startPosition + currentPosition, buffer, 0,
+                (int) Math.min(buffer.length, streamLength - currentPosition)));
+        return bufferLength;
+    }
+
+    /**
+     * Reads bytes of the underlying random access read for the sequential reads of the view. Subclasses may track
+     * these reads, e.g. to read the following bytes in advance.
+     *
+     * @param position the position within the underlying random access read
+     * @param b the buffer to be filled
+     * @param off the offset within the buffer
+     * @param len the maximum number of bytes to be read
+     * @return the number of bytes read or -1 if there are no more bytes
+     * @throws IOException if the underlying random access read can't be read
      */
-    private void restorePosition() throws IOException
+    int readSequential(long position, byte[] b, int off, int len) throws IOException
     {
-        randomAccessRead.seek(startPosition + currentPosition);
+        return randomAccessRead.read(position, b, off, len);
     }
 
     /**
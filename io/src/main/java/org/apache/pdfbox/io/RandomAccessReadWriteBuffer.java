@@ -40,6 +40,17 @@ public class RandomAccessReadWriteBuffer extends RandomAccessReadBuffer implemen
         super(definedChunkSize);
     }
 
+    /**
+     * Constructor using the chunks of the given pool. The chunks are returned to the pool when the buffer is cleared
+     * or closed.
+     * 
+     * @param chunkPool the pool providing the chunks, the default chunk size is used if null
+     */
+    public RandomAccessReadWriteBuffer(ChunkPool chunkPool)
+    {
+        super(chunkPool);
+    }
+
     /**
      * {@inheritDoc}
      */
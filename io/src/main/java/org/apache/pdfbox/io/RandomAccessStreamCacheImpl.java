@@ -23,6 +23,25 @@ import java.io.IOException;
  */
 public class RandomAccessStreamCacheImpl implements RandomAccessStreamCache
 {
+    private final ChunkPool chunkPool;
+
+    /**
+     * Default constructor, every buffer allocates its own chunks.
+     */
+    public RandomAccessStreamCacheImpl()
+    {
+        this(null);
+    }
+
+    /**
+     * Constructor using the given pool for the chunks of all buffers.
+     * 
+     * @param chunkPool the pool providing the chunks, may be null
+     */
+    public RandomAccessStreamCacheImpl(ChunkPool chunkPool)
+    {
+        this.chunkPool = chunkPool;
+    }
 
     /**
      * {@inheritDoc}
@@ -39,7 +58,7 @@ public class RandomAccessStreamCacheImpl implements RandomAccessStreamCache
     @Override
     public RandomAccess createBuffer() throws IOException
     {
-        return new RandomAccessReadWriteBuffer();
+        return new RandomAccessReadWriteBuffer(chunkPool);
     }
 
 }
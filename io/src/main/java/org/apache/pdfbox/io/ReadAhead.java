@@ -0,0 +1,373 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-ahead settings for {@link RandomAccessReadBufferedFile}. As soon as a reader reads a number of consecutive
+ * pages, the following bytes are read asynchronously using the given executor, so that they are available when the
+ * reader gets there. The size of the window read in advance is doubled for every window as long as the reader keeps on
+ * reading forward, and is reset as soon as the reader jumps to another position.
+ *
+ * An instance may be shared by several readers, the statistics are collected for all of them.
+ */
+public final class ReadAhead
+{
+    /**
+     * The default number of consecutive pages which trigger the read-ahead.
+     */
+    public static final int DEFAULT_SEQUENTIAL_PAGES = 4;
+
+    /**
+     * The default size of the first window.
+     */
+    public static final int DEFAULT_INITIAL_WINDOW_SIZE = 1 << 16;
+
+    /**
+     * The default maximum size of a window.
+     */
+    public static final int DEFAULT_MAX_WINDOW_SIZE = 1 << 20;
+
+    private final Executor executor;
+    private final int sequentialPages;
+    private final int initialWindowSize;
+    private final int maxWindowSize;
+
+    private final LongAdder windowCount = new LongAdder();
+    private final LongAdder prefetchedBytes = new LongAdder();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder waitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * Create read-ahead settings using the default values.
+     *
+     * @param executor the executor reading the windows in the background
+     */
+    public ReadAhead(Executor executor)
+    {
+        this(executor, DEFAULT_SEQUENTIAL_PAGES, DEFAULT_INITIAL_WINDOW_SIZE,
+                DEFAULT_MAX_WINDOW_SIZE);
+    }
+
+    /**
+     * Create read-ahead settings.
+     *
+     * @param executor the executor reading the windows in the background
+     * @param sequentialPages the number of consecutive pages which trigger the read-ahead
+     * @param initialWindowSize the size of the first window
+     * @param maxWindowSize the maximum size of a window
+     */
+    public ReadAhead(Executor executor, int sequentialPages, int initialWindowSize,
+            int maxWindowSize)
+    {
+        if (sequentialPages < 1)
+        {
+            throw new IllegalArgumentException("Invalid number of pages " + sequentialPages);
+        }
+        if (initialWindowSize < 1 || maxWindowSize < initialWindowSize)
+        {
+            throw new IllegalArgumentException(
+                    "Invalid window size " + initialWindowSize + "/" + maxWindowSize);
+        }
+        this.executor = executor;
+        this.sequentialPages = sequentialPages;
+        this.initialWindowSize = initialWindowSize;
+        this.maxWindowSize = maxWindowSize;
+    }
+
+    /**
+     * Returns the number of windows which were read in advance.
+     *
+     * @return the number of windows
+     */
+    public long getWindowCount()
+    {
+        return windowCount.sum();
+    }
+
+    /**
+     * Returns the number of bytes which were read in advance.
+     *
+     * @return the number of bytes
+     */
+    public long getPrefetchedBytes()
+    {
+        return prefetchedBytes.sum();
+    }
+
+    /**
+     * Returns the number of pages taken from a window read in advance.
+     *
+     * @return the number of pages
+     */
+    public long getHitCount()
+    {
+        return hitCount.sum();
+    }
+
+    /**
+     * Returns the number of pages taken from a window which was still being read, so that the reader had to wait.
+     * These pages are included in the hit count.
+     *
+     * @return the number of pages
+     */
+    public long getWaitCount()
+    {
+        return waitCount.sum();
+    }
+
+    /**
+     * Returns the number of pages which weren't available in a window and were read synchronously.
+     *
+     * @return the number of pages
+     */
+    public long getMissCount()
+    {
+        return missCount.sum();
+    }
+
+    /**
+     * Creates the per reader state detecting the access pattern and holding the windows.
+     *
+     * @param fileChannel the channel of the file, only positional reads are used
+     * @param fileLength the length of the file
+     * @param pageSize the page size of the reader
+     * @return the prefetcher of the reader
+     */
+    Prefetcher createPrefetcher(FileChannel fileChannel, long fileLength, int pageSize)
+    {
+        return new Prefetcher(fileChannel, fileLength, pageSize);
+    }
+
+    /**
+     * A part of the file which is read in advance.
+     */
+    private static final class Window
+    {
+        private final long start;
+        private final int length;
+        private final CompletableFuture<byte[]> data;
+
+        Window(long start, int length, CompletableFuture<byte[]> data)
+        {
+            this.start = start;
+            this.length = length;
+            this.data = data;
+        }
+
+        boolean contains(long position)
+        {
+            return position >= start && position < start + length;
+        }
+
+        long end()
+        {
+            return start + length;
+        }
+    }
+
+    /**
+     * The read-ahead state of a single reader. Not thread safe, it is used by the reader only.
+     */
+    final class Prefetcher
+    {
+        private final FileChannel fileChannel;
+        private final long fileLength;
+        private final int pageSize;
+
+        private long lastPageOffset = -1;
+        private int consecutivePages;
+        private int windowSize = initialWindowSize;
+
+        // the window being consumed and the one read in advance of it
+        private Window current;
+        private Window next;
+
+        private Prefetcher(FileChannel fileChannel, long fileLength, int pageSize)
+        {
+            this.fileChannel = fileChannel;
+            this.fileLength = fileLength;
+            this.pageSize = pageSize;
+        }
+
+        /**
+         * Tells the prefetcher which page the reader switched to, the following bytes are read in advance if the
+         * reader reads forward.
+         *
+         * @param pageOffset the offset of the page
+         */
+        void pageAccessed(long pageOffset)
+        {
+            if (pageOffset == lastPageOffset + pageSize)
+            {
+                consecutivePages++;
+            }
+            else if (pageOffset != lastPageOffset)
+            {
+                consecutivePages = 0;
+                windowSize = initialWindowSize;
+            }
+            lastPageOffset = pageOffset;
+            if (consecutivePages >= sequentialPages)
+            {
+                schedule(pageOffset);
+            }
+        }
+
+        private void schedule(long pageOffset)
+        {
+            if (next != null && next.contains(pageOffset))
+            {
+                // the reader moved on to the next window
+                current = next;
+                next = null;
+            }
+            if (current != null && current.contains(pageOffset))
+            {
+                // read the following window as soon as the reader reached the second half of the current one
+                if (next == null && pageOffset - current.start >= current.length / 2)
+                {
+                    next = submit(current.end());
+                }
+                return;
+            }
+            if (current != null && current.contains(pageOffset + pageSize))
+            {
+                // the reader is about to read the current window again after jumping back
+                return;
+            }
+            current = submit(pageOffset + pageSize);
+            next = null;
+        }
+
+        private Window submit(long start)
+        {
+            if (start >= fileLength)
+            {
+                return null;
+            }
+            // windows are aligned to pages so that a page never spans two windows
+            int alignedSize = Math.max(pageSize, windowSize - windowSize % pageSize);
+            int length = (int) Math.min(alignedSize, fileLength - start);
+            windowSize = (int) Math.min(windowSize * 2L, maxWindowSize);
+            windowCount.increment();
+            prefetchedBytes.add(length);
+            return new Window(start, length,
+                    CompletableFuture.supplyAsync(() -> readWindow(start, length), executor));
+        }
+
+        private byte[] readWindow(long start, int length)
+        {
+            byte[] data = new byte[length];
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            try
+            {
+                while (buffer.hasRemaining())
+                {
+                    if (fileChannel.read(buffer, start + buffer.position()) < 0)
+                    {
+                        break;
+                    }
+                }
+            }
+            catch (IOException exception)
+            {
+                throw new UncheckedIOException(exception);
+            }
+            return data;
+        }
+
+        /**
+         * Copies the given page from a window into the given buffer.
+         *
+         * @param pageOffset the offset of the page
+         * @param page the buffer to be filled
+         * @return true if the page was taken from a window, false if it has to be read by the caller
+         */
+        boolean readPage(long pageOffset, ByteBuffer page)
+        {
+            Window window = null;
+            if (current != null && current.contains(pageOffset))
+            {
+                window = current;
+            }
+            else if (next != null && next.contains(pageOffset))
+            {
+                window = next;
+            }
+            if (window == null)
+            {
+                missCount.increment();
+                return false;
+            }
+            if (!window.data.isDone())
+            {
+                waitCount.increment();
+            }
+            byte[] data;
+            try
+            {
+                data = window.data.get();
+            }
+            catch (ExecutionException exception)
+            {
+                // the page is read synchronously, which reports the error if it persists
+                current = null;
+                next = null;
+                missCount.increment();
+                return false;
+            }
+            catch (InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+                missCount.increment();
+                return false;
+            }
+            int offset = (int) (pageOffset - window.start);
+            int length = Math.min(Math.min(pageSize, page.remaining()), data.length - offset);
+            page.put(data, offset, length);
+            hitCount.increment();
+            return true;
+        }
+
+        /**
+         * Drops all windows, pending reads are cancelled.
+         */
+        void close()
+        {
+            if (current != null)
+            {
+                current.data.cancel(false);
+            }
+            if (next != null)
+            {
+                next.data.cancel(false);
+            }
+            current = null;
+            next = null;
+        }
+    }
+}
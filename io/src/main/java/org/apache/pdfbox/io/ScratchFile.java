@@ -18,9 +18,20 @@ package org.apache.pdfbox.io;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
@@ -39,6 +50,25 @@ import org.apache.logging.log4j.LogManager;
  * this will release the used memory while for pages in temporary file this
  * simply marks the area as free to re-use.</p>
  * 
+ * <p>In-memory pages may be stored off-heap in direct byte buffers (see
+ * {@link MemoryUsageSetting#setUseDirectMemory(boolean)}). The direct memory is allocated
+ * in slabs of several pages, free pages keep their memory for re-use and all slabs are
+ * released when {@link ScratchFile#close()} is called.</p>
+ * 
+ * <p>In-memory pages may be stored compressed on the heap (see
+ * {@link MemoryUsageSetting#setUseCompressedMemory(boolean)}). The recently used pages are kept
+ * uncompressed, the maximum main memory is applied to the bytes actually used by the pages, so that
+ * several times more pages may be stored in memory before the temporary file is used.</p>
+ * 
+ * <p>The temporary file may be accessed using memory mapped regions of several pages (see
+ * {@link MemoryUsageSetting#setUseMappedTempFile(boolean)}). Pages are copied from and to the
+ * mapped regions without any system call and without holding the global I/O lock, so that
+ * buffers can be used concurrently.</p>
+ * 
+ * <p>Every thread caches some free pages, which are taken from and returned to the pool of free
+ * pages in batches, so that threads creating and closing buffers concurrently rarely wait for each
+ * other. The cached pages are returned to the pool if it runs out of pages.</p>
+ * 
  * <p>If a temporary file was created (done with the first page to be stored
  * in temporary file) it is deleted when {@link ScratchFile#close()} is called.</p>
  * 
@@ -58,6 +88,19 @@ public class ScratchFile implements RandomAccessStreamCache
      *  {@link #inMemoryPages} is setup for */
     private static final int INIT_UNRESTRICTED_MAINMEM_PAGECOUNT = 100000;
     private static final int PAGE_SIZE = 4096;
+    /** number of pages of a slab of direct memory */
+    private static final int DIRECT_SLAB_PAGE_COUNT = 64;
+    /** number of pages of a memory mapped region of the scratch file */
+    private static final int MAPPED_REGION_PAGE_COUNT = 1024;
+    /** number of recently used pages kept uncompressed if in-memory pages are compressed */
+    private static final int HOT_PAGE_COUNT = 64;
+    /** maximum ratio of the number of compressed in-memory pages to the number of pages fitting
+     *  into the restricted main memory uncompressed */
+    private static final int MAX_COMPRESSION_RATIO = 16;
+    /** maximum number of free pages cached per thread */
+    private static final int THREAD_PAGE_CACHE_SIZE = 32;
+    /** number of free pages a thread takes from {@link #freePages} at once */
+    private static final int THREAD_PAGE_BATCH_SIZE = 16;
     
     private final Object ioLock = new Object();
     private final File scratchFileDirectory;
@@ -65,18 +108,40 @@ public class ScratchFile implements RandomAccessStreamCache
     private File file;
     /** random access to scratch file; only to be accessed under synchronization of {@link #ioLock} */
     private java.io.RandomAccessFile raf;
+    /** channel of the scratch file if it is accessed using memory mapped regions; only to be accessed
+     *  under synchronization of {@link #ioLock} */
+    private FileChannel mappedChannel;
+    /** memory mapped regions of the scratch file, replaced by a larger copy when the file is enlarged */
+    private volatile MappedByteBuffer[] mappedRegions = new MappedByteBuffer[0];
+    /** guards the mapped regions against being unmapped while in use, null if no regions are used */
+    private final ReadWriteLock mappedRegionLock;
     private volatile int pageCount = 0;
     private final BitSet freePages = new BitSet();
+    /** free pages cached per thread, these pages aren't contained in {@link #freePages} */
+    private final ThreadLocal<PageCache> threadPageCache = ThreadLocal.withInitial(this::createPageCache);
+    /** the page caches of all threads; only to be accessed under synchronization of the list itself */
+    private final List<PageCache> pageCaches = new ArrayList<>();
     /** holds pointers to in-memory page content; will be initialized once in case of restricted
      *  main memory, otherwise it is enlarged as needed and first initialized to a size of
      *  {@link #INIT_UNRESTRICTED_MAINMEM_PAGECOUNT} */
     private volatile byte[][] inMemoryPages;
+    /** current number of in-memory pages, -1 if not initialized yet; only to be accessed under
+     *  synchronization of {@link #freePages} */
+    private int inMemoryPageCapacity = -1;
+    /** slabs of direct memory holding the in-memory pages if they are stored off-heap, allocated
+     *  as needed; only to be accessed under synchronization of {@link #ioLock} */
+    private final List<ByteBuffer> directSlabs;
+    /** compressed in-memory pages replacing {@link #inMemoryPages}, null if pages aren't compressed */
+    private final CompressedPageStore compressedPages;
+    /** maximum number of bytes of the compressed in-memory pages, -1 if not restricted */
+    private final long compressedMaxMemoryBytes;
     private final int inMemoryMaxPageCount;
     private final int maxPageCount;
     private final boolean useScratchFile;
     private final boolean maxMainMemoryIsRestricted;
+    private final IOListener ioListener;
 
-    private final List<ScratchFileBuffer> buffers = new ArrayList<>();
+    private final Set<ScratchFileBuffer> buffers = ConcurrentHashMap.newKeySet();
 
     private volatile boolean isClosed = false;
     
@@ -112,31 +177,60 @@ public class ScratchFile implements RandomAccessStreamCache
         maxMainMemoryIsRestricted = !memUsageSetting.useMainMemory()
                 || memUsageSetting.isMainMemoryRestricted();
         useScratchFile = maxMainMemoryIsRestricted && memUsageSetting.useTempFile();
+        ioListener = memUsageSetting.getIOListener();
         scratchFileDirectory = useScratchFile ? memUsageSetting.getTempDir() : null;
+        mappedRegionLock = useScratchFile && memUsageSetting.isMappedTempFileUsed()
+                ? new ReentrantReadWriteLock() : null;
+        directSlabs = memUsageSetting.useMainMemory() && memUsageSetting.isDirectMemoryUsed()
+                ? new ArrayList<>() : null;
+        // off-heap memory takes precedence over compression
+        compressedPages = memUsageSetting.useMainMemory() && directSlabs == null
+                && memUsageSetting.isCompressedMemoryUsed()
+                ? new CompressedPageStore(PAGE_SIZE, HOT_PAGE_COUNT) : null;
 
         if ((scratchFileDirectory != null) && (!scratchFileDirectory.isDirectory()))
         {
             throw new IOException("Scratch file directory does not exist: " + this.scratchFileDirectory);
         }
         
-        maxPageCount = memUsageSetting.isStorageRestricted() ?
-                           (int) Math.min(Integer.MAX_VALUE, memUsageSetting.getMaxStorageBytes() / PAGE_SIZE) :
+        long storagePageCount = memUsageSetting.isStorageRestricted() ?
+                           memUsageSetting.getMaxStorageBytes() / PAGE_SIZE :
                            Integer.MAX_VALUE;
                 
-        inMemoryMaxPageCount = memUsageSetting.useMainMemory() ? 
+        long mainMemoryPageCount = memUsageSetting.useMainMemory() ? 
                                    (memUsageSetting.isMainMemoryRestricted() ?
-                                       (int) Math.min(Integer.MAX_VALUE, memUsageSetting.getMaxMainMemoryBytes() / PAGE_SIZE) :
+                                       memUsageSetting.getMaxMainMemoryBytes() / PAGE_SIZE :
                                        Integer.MAX_VALUE) :
                                    0;
+        
+        if (compressedPages != null && memUsageSetting.isMainMemoryRestricted())
+        {
+            // the in-memory pages are limited by the bytes they use, reserve the page indexes of
+            // the best compression ratio; the scratch file pages follow these indexes
+            compressedMaxMemoryBytes = memUsageSetting.getMaxMainMemoryBytes();
+            long compressedPageCount = mainMemoryPageCount * MAX_COMPRESSION_RATIO;
+            storagePageCount += compressedPageCount - mainMemoryPageCount;
+            mainMemoryPageCount = compressedPageCount;
+        }
+        else
+        {
+            compressedMaxMemoryBytes = -1;
+        }
+        maxPageCount = (int) Math.min(Integer.MAX_VALUE, storagePageCount);
+        inMemoryMaxPageCount = (int) Math.min(Integer.MAX_VALUE, mainMemoryPageCount);
     }
 
     private void initPages()
     {
-        if (inMemoryPages == null)
+        if (inMemoryPageCapacity < 0)
         {
-            inMemoryPages = new byte[maxMainMemoryIsRestricted ? inMemoryMaxPageCount
-                    : INIT_UNRESTRICTED_MAINMEM_PAGECOUNT][];
-            freePages.set(0, inMemoryPages.length);
+            inMemoryPageCapacity = maxMainMemoryIsRestricted ? inMemoryMaxPageCount
+                    : INIT_UNRESTRICTED_MAINMEM_PAGECOUNT;
+            if (directSlabs == null && compressedPages == null)
+            {
+                inMemoryPages = new byte[inMemoryPageCapacity][];
+            }
+            freePages.set(0, inMemoryPageCapacity);
         }
     }
 
@@ -188,23 +282,69 @@ public class ScratchFile implements RandomAccessStreamCache
     }
     
     /**
-     * Returns a new free page, either from free page pool
-     * or by enlarging scratch file (may be created).
+     * The free pages cached by a single thread.
+     */
+    private static final class PageCache
+    {
+        private final WeakReference<Thread> owner = new WeakReference<>(Thread.currentThread());
+        private final int[] pages = new int[THREAD_PAGE_CACHE_SIZE];
+        private int count;
+
+        boolean isOwnerAlive()
+        {
+            Thread thread = owner.get();
+            return thread != null && thread.isAlive();
+        }
+    }
+
+    private PageCache createPageCache()
+    {
+        PageCache cache = new PageCache();
+        synchronized (pageCaches)
+        {
+            pageCaches.add(cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Returns a new free page, either from the page cache of the current thread, from free page pool
+     * or by enlarging scratch file (may be created). Some additional pages are moved from the pool to
+     * the cache of the current thread.
      * 
      * @return index of new page
      */
     int getNewPage() throws IOException
     {
+        PageCache cache = threadPageCache.get();
+        synchronized (cache)
+        {
+            // a cached in-memory page isn't used if the compressed pages exhausted the main memory
+            if (cache.count > 0 && !isClosed && (cache.pages[cache.count - 1] >= inMemoryMaxPageCount
+                    || !isCompressedMemoryExhausted()))
+            {
+                return cache.pages[--cache.count];
+            }
+        }
         synchronized (freePages)
         {
             initPages();
-            int idx = freePages.nextSetBit( 0 );
+            // skip the in-memory pages if the compressed pages exhausted the main memory
+            int firstIdx = isCompressedMemoryExhausted() ? inMemoryMaxPageCount : 0;
+            int idx = freePages.nextSetBit( firstIdx );
+            
+            if (idx < 0)
+            {
+                // use the pages cached by other threads before enlarging
+                reclaimCachedPages();
+                idx = freePages.nextSetBit( firstIdx );
+            }
             
             if (idx < 0)
             {
                 enlarge();
                 
-                idx = freePages.nextSetBit( 0 );
+                idx = freePages.nextSetBit( firstIdx );
                 if (idx < 0)
                 {
                     throw new IOException("Maximum allowed scratch file memory exceeded.");
@@ -212,16 +352,70 @@ public class ScratchFile implements RandomAccessStreamCache
             }
             
             freePages.clear(idx);
+            int lastIdx = idx;
             
-            if (idx >= pageCount)
+            synchronized (cache)
             {
-                pageCount = idx + 1;
+                int nextIdx = idx;
+                while (cache.count < THREAD_PAGE_BATCH_SIZE
+                        && (nextIdx = freePages.nextSetBit(nextIdx + 1)) >= 0)
+                {
+                    freePages.clear(nextIdx);
+                    cache.pages[cache.count++] = nextIdx;
+                    lastIdx = nextIdx;
+                }
+            }
+            
+            if (lastIdx >= pageCount)
+            {
+                pageCount = lastIdx + 1;
             }
             
             return idx;
         }
     }
 
+    /**
+     * Moves the pages cached by all threads back to the pool of free pages. The caches of threads
+     * which have terminated are dropped.
+     * 
+     * <p>Only to be called under synchronization on {@link #freePages}.</p>
+     */
+    private void reclaimCachedPages()
+    {
+        synchronized (pageCaches)
+        {
+            Iterator<PageCache> iterator = pageCaches.iterator();
+            while (iterator.hasNext())
+            {
+                PageCache cache = iterator.next();
+                synchronized (cache)
+                {
+                    for (int i = 0; i < cache.count; i++)
+                    {
+                        freePages.set(cache.pages[i]);
+                    }
+                    cache.count = 0;
+                }
+                if (!cache.isOwnerAlive())
+                {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the compressed in-memory pages use all of the restricted main memory.
+     * As the size of a page is known when it is written, the limit may be exceeded by the pages
+     * currently being filled by the buffers.
+     */
+    private boolean isCompressedMemoryExhausted()
+    {
+        return compressedMaxMemoryBytes >= 0
+                && compressedPages.getStoredBytes() >= compressedMaxMemoryBytes;
+    }
+
     /**
      * This will provide new free pages by either enlarging the scratch file 
      * by a number of pages defined by {@link #ENLARGE_PAGE_COUNT} - in case
@@ -247,7 +441,11 @@ public class ScratchFile implements RandomAccessStreamCache
                 return;
             }
 
-            if (useScratchFile)
+            if (mappedRegionLock != null)
+            {
+                enlargeMappedFile();
+            }
+            else if (useScratchFile)
             {
                 // create scratch file is needed
                 if ( raf == null )
@@ -268,7 +466,9 @@ public class ScratchFile implements RandomAccessStreamCache
                 }
                 
                 long fileLen = raf.length();
-                long expectedFileLen = ((long)pageCount - inMemoryMaxPageCount) * PAGE_SIZE;
+                // compressed in-memory pages may still be available when the scratch file is used
+                int firstFilePage = Math.max(pageCount, inMemoryMaxPageCount);
+                long expectedFileLen = ((long)firstFilePage - inMemoryMaxPageCount) * PAGE_SIZE;
                 
                 if (expectedFileLen != fileLen)
                 {
@@ -276,25 +476,29 @@ public class ScratchFile implements RandomAccessStreamCache
                 }
                     
                 // enlarge if we do not overflow
-                if (pageCount + ENLARGE_PAGE_COUNT > pageCount)
+                if (firstFilePage + ENLARGE_PAGE_COUNT > firstFilePage)
                 {
                     fileLen += ENLARGE_PAGE_COUNT * PAGE_SIZE;
         
                     raf.setLength(fileLen);
         
-                    freePages.set(pageCount, pageCount + ENLARGE_PAGE_COUNT);
+                    freePages.set(firstFilePage, firstFilePage + ENLARGE_PAGE_COUNT);
                 }
             }
             else if (!maxMainMemoryIsRestricted)
             {
                 // increase number of in-memory pages
-                int oldSize = inMemoryPages.length;
+                int oldSize = inMemoryPageCapacity;
                 int newSize = (int) Math.min( ((long)oldSize) * 2, Integer.MAX_VALUE);  // this handles integer overflow
                 if (newSize > oldSize)
                 {
-                    byte[][] newInMemoryPages = new byte[newSize][];
-                    System.arraycopy(inMemoryPages, 0, newInMemoryPages, 0, oldSize);
-                    inMemoryPages = newInMemoryPages;
+                    if (inMemoryPages != null)
+                    {
+                        byte[][] newInMemoryPages = new byte[newSize][];
+                        System.arraycopy(inMemoryPages, 0, newInMemoryPages, 0, oldSize);
+                        inMemoryPages = newInMemoryPages;
+                    }
+                    inMemoryPageCapacity = newSize;
                     
                     freePages.set(oldSize, newSize);
                 }
@@ -302,6 +506,66 @@ public class ScratchFile implements RandomAccessStreamCache
         }
     }
     
+    /**
+     * Enlarges the scratch file by mapping another region, the scratch file is created if needed.
+     * 
+     * <p>Only to be called under synchronization on {@link #freePages} and {@link #ioLock}.</p>
+     */
+    private void enlargeMappedFile() throws IOException
+    {
+        if (mappedChannel == null)
+        {
+            file = File.createTempFile("PDFBox", ".tmp", scratchFileDirectory);
+            try
+            {
+                mappedChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+            }
+            catch (IOException e)
+            {
+                if (!file.delete())
+                {
+                    LOG.warn("Error deleting scratch file: {}", file.getAbsolutePath());
+                }
+                throw e;
+            }
+        }
+        MappedByteBuffer[] regions = mappedRegions;
+        long firstPage = (long) inMemoryMaxPageCount + (long) regions.length * MAPPED_REGION_PAGE_COUNT;
+        if (firstPage + MAPPED_REGION_PAGE_COUNT > Integer.MAX_VALUE)
+        {
+            return;
+        }
+        // mapping a region beyond the end of the file enlarges the file
+        MappedByteBuffer region = mappedChannel.map(FileChannel.MapMode.READ_WRITE,
+                (long) regions.length * MAPPED_REGION_PAGE_COUNT * PAGE_SIZE,
+                (long) MAPPED_REGION_PAGE_COUNT * PAGE_SIZE);
+        MappedByteBuffer[] newRegions = Arrays.copyOf(regions, regions.length + 1);
+        newRegions[regions.length] = region;
+        mappedRegions = newRegions;
+        freePages.set((int) firstPage,
+                (int) Math.min(firstPage + MAPPED_REGION_PAGE_COUNT, maxPageCount));
+    }
+
+    /**
+     * Returns a duplicate of the mapped region holding the given page positioned at the page. Only to be called
+     * holding the read lock of {@link #mappedRegionLock}.
+     */
+    private ByteBuffer mappedPage(int pageIdx) throws IOException
+    {
+        checkClosed();
+        int filePageIdx = pageIdx - inMemoryMaxPageCount;
+        MappedByteBuffer[] regions = mappedRegions;
+        int regionIdx = filePageIdx / MAPPED_REGION_PAGE_COUNT;
+        if (regionIdx >= regions.length)
+        {
+            throw new IOException("Missing scratch file region to access page with index " + pageIdx);
+        }
+        ByteBuffer buffer = regions[regionIdx].duplicate();
+        buffer.position((filePageIdx % MAPPED_REGION_PAGE_COUNT) * PAGE_SIZE);
+        return buffer;
+    }
+
     /**
      * Returns byte size of a page.
      * 
@@ -332,7 +596,12 @@ public class ScratchFile implements RandomAccessStreamCache
         // check if we have the page in memory
         if (pageIdx < inMemoryMaxPageCount)
         {
-            byte[] page = inMemoryPages[pageIdx];
+            if (directSlabs != null)
+            {
+                return readDirectPage(pageIdx);
+            }
+            byte[] page = compressedPages != null ? compressedPages.readPage(pageIdx)
+                    : inMemoryPages[pageIdx];
             
             // handle case that we are closed
             if (page == null)
@@ -344,6 +613,21 @@ public class ScratchFile implements RandomAccessStreamCache
             return page;
         }
         
+        if (mappedRegionLock != null)
+        {
+            mappedRegionLock.readLock().lock();
+            try
+            {
+                byte[] page = new byte[PAGE_SIZE];
+                mappedPage(pageIdx).get(page);
+                return page;
+            }
+            finally
+            {
+                mappedRegionLock.readLock().unlock();
+            }
+        }
+
         synchronized (ioLock)
         {
             if (raf == null)
@@ -388,7 +672,15 @@ public class ScratchFile implements RandomAccessStreamCache
         
         if (pageIdx < inMemoryMaxPageCount)
         {
-            if (maxMainMemoryIsRestricted)
+            if (directSlabs != null)
+            {
+                writeDirectPage(pageIdx, page);
+            }
+            else if (compressedPages != null)
+            {
+                compressedPages.writePage(pageIdx, page);
+            }
+            else if (maxMainMemoryIsRestricted)
             {
                 inMemoryPages[pageIdx] = page;
             }
@@ -404,6 +696,18 @@ public class ScratchFile implements RandomAccessStreamCache
             // in case we were closed in between throw exception
             checkClosed();
         }
+        else if (mappedRegionLock != null)
+        {
+            mappedRegionLock.readLock().lock();
+            try
+            {
+                mappedPage(pageIdx).put(page);
+            }
+            finally
+            {
+                mappedRegionLock.readLock().unlock();
+            }
+        }
         else
         {
             synchronized (ioLock)
@@ -413,8 +717,62 @@ public class ScratchFile implements RandomAccessStreamCache
                 raf.write(page);
             }
         }
+        if (pageIdx >= inMemoryMaxPageCount && ioListener != null)
+        {
+            ioListener.spilled(PAGE_SIZE);
+        }
     }
     
+    /**
+     * Copies the content of an off-heap page into a new byte array.
+     */
+    private byte[] readDirectPage(int pageIdx) throws IOException
+    {
+        synchronized (ioLock)
+        {
+            checkClosed();
+            int slabIdx = pageIdx / DIRECT_SLAB_PAGE_COUNT;
+            ByteBuffer slab = slabIdx < directSlabs.size() ? directSlabs.get(slabIdx) : null;
+            if (slab == null)
+            {
+                throw new IOException("Requested page with index " + pageIdx + " was not written before.");
+            }
+            byte[] page = new byte[PAGE_SIZE];
+            ByteBuffer source = slab.duplicate();
+            source.position((pageIdx % DIRECT_SLAB_PAGE_COUNT) * PAGE_SIZE);
+            source.get(page);
+            return page;
+        }
+    }
+
+    /**
+     * Copies the given page into off-heap memory, the slab holding the page is allocated if needed.
+     */
+    private void writeDirectPage(int pageIdx, byte[] page) throws IOException
+    {
+        synchronized (ioLock)
+        {
+            checkClosed();
+            int slabIdx = pageIdx / DIRECT_SLAB_PAGE_COUNT;
+            while (directSlabs.size() <= slabIdx)
+            {
+                directSlabs.add(null);
+            }
+            ByteBuffer slab = directSlabs.get(slabIdx);
+            if (slab == null)
+            {
+                // the last slab only holds the remaining pages in case of restricted main memory
+                long slabPageCount = Math.min(DIRECT_SLAB_PAGE_COUNT,
+                        (long) inMemoryMaxPageCount - (long) slabIdx * DIRECT_SLAB_PAGE_COUNT);
+                slab = ByteBuffer.allocateDirect((int) slabPageCount * PAGE_SIZE);
+                directSlabs.set(slabIdx, slab);
+            }
+            ByteBuffer target = slab.duplicate();
+            target.position((pageIdx % DIRECT_SLAB_PAGE_COUNT) * PAGE_SIZE);
+            target.put(page);
+        }
+    }
+
     /**
      * Checks if this page handler has already been closed. If so,
      * an {@link IOException} is thrown.
@@ -440,46 +798,78 @@ public class ScratchFile implements RandomAccessStreamCache
     public RandomAccess createBuffer() throws IOException
     {
         ScratchFileBuffer newBuffer = new ScratchFileBuffer(this);
-        synchronized (buffers)
-        {
-            buffers.add(newBuffer);
-        }
+        buffers.add(newBuffer);
         return newBuffer;
     }
 
     void removeBuffer(ScratchFileBuffer buffer)
     {
-        synchronized (buffers)
-        {
-            buffers.remove(buffer);
-        }
+        buffers.remove(buffer);
     }
     /**
-     * Allows a buffer which is cleared/closed to release its pages to be re-used.
+     * Allows a buffer which is cleared/closed to release its pages to be re-used. The pages are put
+     * into the page cache of the current thread, the pages exceeding the cache are returned to the
+     * pool of free pages.
      * 
      * @param pageIndexes pages indexes of pages to release
-     * @param count number of page indexes contained in provided array 
+     * @param off index of the first page index to be used
+     * @param count number of page indexes to be used
      */
     void markPagesAsFree(int[] pageIndexes, int off, int count) {
         
+        if (isClosed)
+        {
+            return;
+        }
+        int end = off + count;
+        int aIdx = off;
+        PageCache cache = threadPageCache.get();
+        synchronized (cache)
+        {
+            for (; aIdx < end && cache.count < THREAD_PAGE_CACHE_SIZE; aIdx++)
+            {
+                int pageIdx = pageIndexes[aIdx];
+                if ((pageIdx>=0) && (pageIdx<pageCount))
+                {
+                    releasePage(pageIdx);
+                    cache.pages[cache.count++] = pageIdx;
+                }
+            }
+        }
+        if (aIdx == end)
+        {
+            return;
+        }
         synchronized (freePages)
         {
-            for (int aIdx = off; aIdx < count; aIdx++)
+            for (; aIdx < end; aIdx++)
             {
                 int pageIdx = pageIndexes[aIdx];
                 if ((pageIdx>=0) && (pageIdx<pageCount) && (!freePages.get(pageIdx)))
                 {
                     freePages.set(pageIdx);
-                    if (pageIdx < inMemoryMaxPageCount)
-                    {
-                        inMemoryPages[pageIdx] = null;  // remark: not in ioLock synchronization since behavior won't
-                                                        // change even in case of parallel called 'enlarge' method
-                    }
+                    releasePage(pageIdx);
                 }
                     
             }
         }
     }
+
+    /**
+     * Releases the memory of the given in-memory page.
+     */
+    private void releasePage(int pageIdx)
+    {
+        if (pageIdx < inMemoryMaxPageCount && inMemoryPages != null)
+        {
+            inMemoryPages[pageIdx] = null;  // remark: not in ioLock synchronization since behavior won't
+                                            // change even in case of parallel called 'enlarge' method
+        }
+        else if (pageIdx < inMemoryMaxPageCount && compressedPages != null)
+        {
+            compressedPages.freePage(pageIdx);
+        }
+    }
     
     /**
      * Closes and deletes the temporary file. No further interaction with
@@ -510,6 +900,31 @@ public class ScratchFile implements RandomAccessStreamCache
                 }
             }
             buffers.clear();
+            if (mappedRegionLock != null)
+            {
+                // wait for pending page copies before unmapping the regions
+                mappedRegionLock.writeLock().lock();
+                try
+                {
+                    Arrays.stream(mappedRegions).forEach(IOUtils::unmap);
+                    mappedRegions = new MappedByteBuffer[0];
+                }
+                finally
+                {
+                    mappedRegionLock.writeLock().unlock();
+                }
+                if (mappedChannel != null)
+                {
+                    try
+                    {
+                        mappedChannel.close();
+                    }
+                    catch (IOException ioe)
+                    {
+                        ioexc = ioe;
+                    }
+                }
+            }
             if (raf != null)
             {
                 try
@@ -526,12 +941,34 @@ public class ScratchFile implements RandomAccessStreamCache
             {
                 ioexc = new IOException("Error deleting scratch file: " + file.getAbsolutePath());
             }
+
+            if (directSlabs != null)
+            {
+                // release the direct memory explicitly instead of waiting for the garbage collector
+                directSlabs.forEach(IOUtils::unmap);
+                directSlabs.clear();
+            }
+            if (compressedPages != null)
+            {
+                compressedPages.close();
+            }
         }
         
         synchronized (freePages)
         {
             freePages.clear();
             pageCount = 0;
+            synchronized (pageCaches)
+            {
+                for (PageCache cache : pageCaches)
+                {
+                    synchronized (cache)
+                    {
+                        cache.count = 0;
+                    }
+                }
+                pageCaches.clear();
+            }
         }
         
         if (ioexc != null)
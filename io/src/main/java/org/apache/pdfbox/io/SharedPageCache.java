@@ -0,0 +1,339 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.io;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A page cache to be shared by several instances of {@link RandomAccessReadBufferedFile}, e.g. by all documents opened
+ * by a service. The memory used by the cache is limited by a global budget instead of a number of pages per reader.
+ *
+ * Pages are identified by the file they belong to and their offset within the file. The file is identified by its real
+ * path, its size and the time of the last modification, so that two readers of the same file share their pages and
+ * pages of a modified file aren't reused. Pages are only replaced if the budget is exhausted, they aren't removed when
+ * a reader is closed.
+ *
+ * The cache is split into stripes, each of them having its own lock and its own share of the budget. Pages are evicted
+ * in least recently used order per stripe.
+ */
+public final class SharedPageCache
+{
+    /**
+     * The default page size, which is the same as the one of a {@link RandomAccessReadBufferedFile} using its private
+     * cache.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 1 << 12;
+
+    private static final int STRIPE_COUNT = 16;
+
+    private final int pageSize;
+    private final long maxBytes;
+    private final Stripe[] stripes;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Reads a page of a file.
+     */
+    @FunctionalInterface
+    interface PageReader
+    {
+        /**
+         * Reads the page starting at the given offset.
+         *
+         * @param pageOffset the offset of the page within the file
+         * @return the content of the page, the array has the size of a page
+         * @throws IOException if the page couldn't be read
+         */
+        byte[] readPage(long pageOffset) throws IOException;
+    }
+
+    /**
+     * Create a shared page cache using the default page size.
+     *
+     * @param maxBytes the maximum number of bytes of all cached pages
+     */
+    public SharedPageCache(long maxBytes)
+    {
+        this(maxBytes, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Create a shared page cache.
+     *
+     * @param maxBytes the maximum number of bytes of all cached pages
+     * @param pageSize the size of a page, which has to be a power of two
+     */
+    public SharedPageCache(long maxBytes, int pageSize)
+    {
+        if (pageSize <= 0 || Integer.bitCount(pageSize) != 1)
+        {
+            throw new IllegalArgumentException("Page size must be a power of two: " + pageSize);
+        }
+        if (maxBytes < 0)
+        {
+            throw new IllegalArgumentException("Invalid budget " + maxBytes);
+        }
+        this.pageSize = pageSize;
+        this.maxBytes = maxBytes;
+        // every stripe holds at least one page
+        long maxPagesPerStripe = Math.max(1, maxBytes / pageSize / STRIPE_COUNT);
+        stripes = new Stripe[STRIPE_COUNT];
+        for (int i = 0; i < STRIPE_COUNT; i++)
+        {
+            stripes[i] = new Stripe(maxPagesPerStripe);
+        }
+    }
+
+    /**
+     * Returns the size of a page.
+     *
+     * @return the page size in bytes
+     */
+    public int getPageSize()
+    {
+        return pageSize;
+    }
+
+    /**
+     * Returns the maximum number of bytes of all cached pages.
+     *
+     * @return the budget of the cache in bytes
+     */
+    public long getMaxBytes()
+    {
+        return maxBytes;
+    }
+
+    /**
+     * Returns the number of bytes of all cached pages.
+     *
+     * @return the number of cached bytes
+     */
+    public long getCachedBytes()
+    {
+        long pages = 0;
+        for (Stripe stripe : stripes)
+        {
+            synchronized (stripe)
+            {
+                pages += stripe.size();
+            }
+        }
+        return pages * pageSize;
+    }
+
+    /**
+     * Returns the number of requested pages which were found in the cache.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount()
+    {
+        return hitCount.sum();
+    }
+
+    /**
+     * Returns the number of requested pages which had to be read from the file.
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount()
+    {
+        return missCount.sum();
+    }
+
+    /**
+     * Returns the number of pages which were removed from the cache to stay within the budget.
+     *
+     * @return the number of evicted pages
+     */
+    public long getEvictionCount()
+    {
+        return evictionCount.sum();
+    }
+
+    /**
+     * Removes all pages from the cache. The statistics aren't reset.
+     */
+    public void clear()
+    {
+        for (Stripe stripe : stripes)
+        {
+            synchronized (stripe)
+            {
+                stripe.clear();
+            }
+        }
+    }
+
+    /**
+     * Creates the key identifying the given file within the cache.
+     *
+     * @param path the path of the file
+     * @param length the length of the file
+     * @return the key of the file
+     * @throws IOException if the real path or the modification time of the file can't be determined
+     */
+    static Object createFileKey(Path path, long length) throws IOException
+    {
+        Path realPath = path.toRealPath();
+        return new FileKey(realPath, length, Files.getLastModifiedTime(realPath).toMillis());
+    }
+
+    /**
+     * Returns the given page, the page is read and added to the cache if it isn't cached yet. The returned array must
+     * not be modified as it may be used by other readers.
+     *
+     * @param fileKey the key of the file as created by {@link #createFileKey(Path, long)}
+     * @param pageOffset the offset of the page within the file
+     * @param reader the reader to be used if the page isn't cached
+     * @return the content of the page
+     * @throws IOException if the page couldn't be read
+     */
+    byte[] getPage(Object fileKey, long pageOffset, PageReader reader) throws IOException
+    {
+        PageKey key = new PageKey(fileKey, pageOffset);
+        Stripe stripe = stripes[spread(key.hashCode()) & (STRIPE_COUNT - 1)];
+        synchronized (stripe)
+        {
+            byte[] page = stripe.get(key);
+            if (page != null)
+            {
+                hitCount.increment();
+                return page;
+            }
+        }
+        missCount.increment();
+        // the page is read without holding the lock, if several threads miss the same page the first one wins
+        byte[] page = reader.readPage(pageOffset);
+        synchronized (stripe)
+        {
+            byte[] cached = stripe.putIfAbsent(key, page);
+            return cached != null ? cached : page;
+        }
+    }
+
+    private static int spread(int hash)
+    {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * A part of the cache with its own lock and LRU order.
+     */
+    private final class Stripe extends LinkedHashMap<PageKey, byte[]>
+    {
+        private static final long serialVersionUID = 3196306427950128339L;
+
+        private final long maxPages;
+
+        Stripe(long maxPages)
+        {
+            super(16, 0.75f, true);
+            this.maxPages = maxPages;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<PageKey, byte[]> eldest)
+        {
+            final boolean doRemove = size() > maxPages;
+            if (doRemove)
+            {
+                evictionCount.increment();
+            }
+            return doRemove;
+        }
+    }
+
+    private static final class FileKey
+    {
+        private final Path path;
+        private final long length;
+        private final long lastModified;
+
+        FileKey(Path path, long length, long lastModified)
+        {
+            this.path = path;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof FileKey))
+            {
+                return false;
+            }
+            FileKey other = (FileKey) obj;
+            return length == other.length && lastModified == other.lastModified
+                    && path.equals(other.path);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(path, length, lastModified);
+        }
+    }
+
+    private static final class PageKey
+    {
+        private final Object fileKey;
+        private final long pageOffset;
+
+        PageKey(Object fileKey, long pageOffset)
+        {
+            this.fileKey = fileKey;
+            this.pageOffset = pageOffset;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof PageKey))
+            {
+                return false;
+            }
+            PageKey other = (PageKey) obj;
+            return pageOffset == other.pageOffset && fileKey.equals(other.fileKey);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * fileKey.hashCode() + Long.hashCode(pageOffset);
+        }
+    }
+}
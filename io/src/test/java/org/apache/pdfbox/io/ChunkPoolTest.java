@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unittest for {@link org.apache.pdfbox.io.ChunkPool}
+ */
+class ChunkPoolTest
+{
+    @Test
+    void testReuse() throws IOException
+    {
+        ChunkPool chunkPool = new ChunkPool(1 << 20, 1024);
+        byte[] content = new byte[10 * 1024 + 17];
+        new Random(4711).nextBytes(content);
+
+        try (RandomAccess buffer = new RandomAccessReadWriteBuffer(chunkPool))
+        {
+            buffer.write(content);
+            assertArrayEquals(content, readAll(buffer));
+        }
+        assertEquals(11, chunkPool.getAcquireCount());
+        assertEquals(0, chunkPool.getReuseCount());
+        assertEquals(11, chunkPool.getReleaseCount());
+        assertEquals(11 * 1024, chunkPool.getPooledBytes());
+
+        // the recycled chunks hold the old data, which must not be visible
+        byte[] shorter = new byte[5000];
+        try (RandomAccess buffer = new RandomAccessReadWriteBuffer(chunkPool))
+        {
+            buffer.write(shorter);
+            assertArrayEquals(shorter, readAll(buffer));
+
+            // clearing the buffer returns all chunks but the first one
+            buffer.clear();
+            assertEquals(6 * 1024 + 4 * 1024, chunkPool.getPooledBytes());
+            assertEquals(0, buffer.length());
+            buffer.write(content, 0, 100);
+            assertEquals(100, buffer.length());
+        }
+        assertEquals(16, chunkPool.getAcquireCount());
+        assertEquals(5, chunkPool.getReuseCount());
+        assertEquals(5.0 / 16, chunkPool.getReuseRate());
+
+        // a read buffer copying an input stream
+        try (RandomAccessRead buffer = new RandomAccessReadBuffer(
+                new ByteArrayInputStream(content), chunkPool))
+        {
+            assertArrayEquals(content, readAll(buffer));
+        }
+        assertEquals(11 * 1024, chunkPool.getPooledBytes());
+        assertEquals(16, chunkPool.getReuseCount());
+    }
+
+    /**
+     * Positional reads racing the close of a buffer must either fail or return the bytes of the buffer, but never the
+     * bytes of another buffer reusing the released chunks.
+     */
+    @Test
+    void testReadWhileClosing() throws Exception
+    {
+        ChunkPool chunkPool = new ChunkPool(1 << 20, 1024);
+        byte[] content = new byte[16 * 1024];
+        Arrays.fill(content, (byte) 'a');
+        byte[] other = new byte[16 * 1024];
+        Arrays.fill(other, (byte) 'b');
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            for (int i = 0; i < 2000; i++)
+            {
+                RandomAccessReadBuffer buffer = new RandomAccessReadBuffer(
+                        new ByteArrayInputStream(content), chunkPool);
+                CountDownLatch started = new CountDownLatch(1);
+                Future<Boolean> reader = executor.submit(() ->
+                {
+                    byte[] bytes = new byte[content.length];
+                    started.countDown();
+                    try
+                    {
+                        while (true)
+                        {
+                            buffer.read(0, bytes, 0, bytes.length);
+                            for (byte b : bytes)
+                            {
+                                if (b != 'a')
+                                {
+                                    return false;
+                                }
+                            }
+                        }
+                    }
+                    catch (IOException e)
+                    {
+                        // the buffer was closed
+                        return true;
+                    }
+                });
+                started.await();
+                buffer.close();
+                // reuse the released chunks
+                try (RandomAccessReadBuffer reusing = new RandomAccessReadBuffer(
+                        new ByteArrayInputStream(other), chunkPool))
+                {
+                    assertTrue(reader.get(), "read bytes of another buffer");
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testMaxBytes() throws IOException
+    {
+        ChunkPool chunkPool = new ChunkPool(4096, 1024);
+        try (RandomAccess buffer = new RandomAccessReadWriteBuffer(chunkPool))
+        {
+            buffer.write(new byte[10 * 1024]);
+        }
+        assertEquals(4096, chunkPool.getPooledBytes());
+        assertEquals(10, chunkPool.getReleaseCount());
+        assertEquals(6, chunkPool.getDiscardCount());
+
+        chunkPool.clear();
+        assertEquals(0, chunkPool.getPooledBytes());
+    }
+
+    @Test
+    void testStreamCache() throws IOException
+    {
+        ChunkPool chunkPool = new ChunkPool(1 << 20);
+        try (RandomAccessStreamCache streamCache = IOUtils.createMemoryOnlyStreamCache(chunkPool)
+                .create())
+        {
+            for (int i = 0; i < 3; i++)
+            {
+                try (RandomAccess buffer = streamCache.createBuffer())
+                {
+                    buffer.write(new byte[3 * RandomAccessReadBuffer.DEFAULT_CHUNK_SIZE_4KB]);
+                }
+            }
+        }
+        assertEquals(9, chunkPool.getAcquireCount());
+        assertEquals(6, chunkPool.getReuseCount());
+    }
+
+    @Test
+    void testInvalidSettings()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new ChunkPool(1024, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ChunkPool(-1, 1024));
+    }
+
+    private static byte[] readAll(RandomAccessRead buffer) throws IOException
+    {
+        buffer.seek(0);
+        byte[] bytes = new byte[(int) buffer.length()];
+        int offset = 0;
+        while (offset < bytes.length)
+        {
+            offset += buffer.read(bytes, offset, bytes.length - offset);
+        }
+        return bytes;
+    }
+}
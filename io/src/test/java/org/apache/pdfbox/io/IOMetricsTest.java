@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unittest for {@link org.apache.pdfbox.io.IOMetrics}
+ */
+class IOMetricsTest
+{
+    private static final int PAGE_SIZE = 4096;
+
+    private byte[] content;
+    private Path tempFile;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        content = new byte[10000];
+        new Random(4711).nextBytes(content);
+        tempFile = Files.createTempFile("pdfbox", ".bin");
+        Files.write(tempFile, content);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException
+    {
+        Files.delete(tempFile);
+    }
+
+    @Test
+    void testRandomAccessRead() throws IOException
+    {
+        IOMetrics metrics = new IOMetrics();
+        RandomAccessReadBufferedFile file = new RandomAccessReadBufferedFile(tempFile);
+        file.setIOListener(metrics);
+        try (RandomAccessRead randomAccessRead = new InstrumentedRandomAccessRead(file, metrics))
+        {
+            byte[] buffer = new byte[100];
+            assertEquals(100, randomAccessRead.read(buffer));
+            assertArrayEquals(Arrays.copyOf(content, 100), buffer);
+
+            // the first page was read when the file was opened
+            randomAccessRead.seek(5000);
+            assertEquals(content[5000] & 0xff, randomAccessRead.read());
+            randomAccessRead.seek(10);
+            randomAccessRead.seek(5000);
+
+            assertEquals(100, randomAccessRead.read(9000, buffer, 0, 100));
+            try (RandomAccessRead view = randomAccessRead.createView(1000, 200))
+            {
+                byte[] viewBuffer = new byte[200];
+                assertEquals(200, view.read(viewBuffer));
+                assertArrayEquals(Arrays.copyOfRange(content, 1000, 1200), viewBuffer);
+            }
+        }
+        assertEquals(401, metrics.getBytesRead());
+        // the positional reads continue at 0, the view reads through a positional read as well
+        assertEquals(5, metrics.getSeekCount());
+        assertEquals(4900 + 4991 + 4990 + 9000 + 8100, metrics.getSeekDistance());
+        assertEquals(3, metrics.getCacheHits());
+        assertEquals(2, metrics.getCacheMisses());
+        assertEquals(0, metrics.getSpillBytes());
+
+        Map<String, Long> values = metrics.toMap();
+        assertEquals(Arrays.asList(IOMetrics.BYTES_READ, IOMetrics.SEEK_COUNT,
+                IOMetrics.SEEK_DISTANCE, IOMetrics.CACHE_HITS, IOMetrics.CACHE_MISSES,
+                IOMetrics.SPILL_BYTES), Arrays.asList(values.keySet().toArray()));
+        assertEquals(401L, values.get(IOMetrics.BYTES_READ));
+
+        metrics.reset();
+        assertEquals(0, metrics.getBytesRead());
+        assertEquals(0, metrics.getSeekDistance());
+    }
+
+    @Test
+    void testScratchFileSpill() throws IOException
+    {
+        IOMetrics metrics = new IOMetrics();
+        try (ScratchFile scratchFile = new ScratchFile(
+                MemoryUsageSetting.setupMixed(4 * PAGE_SIZE).setIOListener(metrics));
+                RandomAccess buffer = scratchFile.createBuffer())
+        {
+            buffer.write(new byte[10 * PAGE_SIZE]);
+            buffer.seek(0);
+        }
+        assertEquals(6 * PAGE_SIZE, metrics.getSpillBytes());
+        assertEquals(0, metrics.getBytesRead());
+    }
+}
@@ -29,8 +29,11 @@ import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -276,4 +279,58 @@ class RandomAccessReadBufferTest
         }
     }
 
+    @Test
+    void testPositionalRead() throws IOException
+    {
+        byte[] inputValues = new byte[10000];
+        for (int i = 0; i < inputValues.length; i++)
+        {
+            inputValues[i] = (byte) i;
+        }
+        try (RandomAccessReadBuffer randomAccessSource = new RandomAccessReadBuffer(
+                new ByteArrayInputStream(inputValues)))
+        {
+            randomAccessSource.seek(7);
+            // spanning the edges of the 4KB chunks
+            byte[] buffer = new byte[9000];
+            assertEquals(9000, randomAccessSource.read(1000, buffer, 0, 9000));
+            assertTrue(Arrays.equals(inputValues, 1000, 10000, buffer, 0, 9000));
+            assertEquals(10, randomAccessSource.read(9990, buffer, 5, 100));
+            assertEquals((byte) 9990, buffer[5]);
+            assertEquals(-1, randomAccessSource.read(10000, buffer, 0, 1));
+            ByteBuffer byteBuffer = ByteBuffer.allocate(3);
+            assertEquals(3, randomAccessSource.read(4095, byteBuffer));
+            assertEquals((byte) 4097, byteBuffer.get(2));
+            assertEquals(7, randomAccessSource.getPosition());
+            assertEquals(7, randomAccessSource.read());
+        }
+        // a direct byte buffer isn't backed by an array
+        ByteBuffer direct = ByteBuffer.allocateDirect(5);
+        direct.put(new byte[] { 1, 2, 3, 4, 5 }).rewind();
+        try (RandomAccessReadBuffer randomAccessSource = new RandomAccessReadBuffer(direct))
+        {
+            byte[] buffer = new byte[2];
+            assertEquals(2, randomAccessSource.read(3, buffer, 0, 2));
+            assertEquals(5, buffer[1]);
+            assertEquals(0, direct.position());
+        }
+    }
+
+    @Test
+    void testTransferTo() throws IOException
+    {
+        byte[] content = new byte[10000];
+        new Random(4711).nextBytes(content);
+        // chunks of 1024 bytes, the default implementation uses positional reads
+        try (RandomAccessReadWriteBuffer buffer = new RandomAccessReadWriteBuffer(1024))
+        {
+            buffer.write(content);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            assertEquals(9000, buffer.transferTo(1000, 20000, Channels.newChannel(output)));
+            Assertions.assertArrayEquals(Arrays.copyOfRange(content, 1000, 10000),
+                    output.toByteArray());
+            assertEquals(10000, buffer.getPosition());
+        }
+    }
+
 }
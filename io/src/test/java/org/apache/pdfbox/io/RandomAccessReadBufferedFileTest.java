@@ -20,10 +20,24 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -191,4 +205,115 @@ class RandomAccessReadBufferedFileTest
             assertEquals(3, view.getPosition());
         }
     }
+
+    @Test
+    void testPositionalRead() throws IOException, URISyntaxException
+    {
+        try (RandomAccessRead randomAccessSource = new RandomAccessReadBufferedFile(
+                new File(getClass().getResource("RandomAccessReadFile1.txt").toURI())))
+        {
+            randomAccessSource.seek(3);
+            byte[] buffer = new byte[10];
+            assertEquals(10, randomAccessSource.read(5, buffer, 0, 10));
+            assertEquals("5678901234", new String(buffer, StandardCharsets.US_ASCII));
+            assertEquals(5, randomAccessSource.read(125, buffer, 2, 8));
+            assertEquals("5656789234", new String(buffer, StandardCharsets.US_ASCII));
+            assertEquals(-1, randomAccessSource.read(130, buffer, 0, 10));
+            ByteBuffer byteBuffer = ByteBuffer.allocateDirect(4);
+            assertEquals(4, randomAccessSource.read(21, byteBuffer));
+            assertEquals(4, byteBuffer.position());
+            assertEquals('4', byteBuffer.get(3));
+            assertEquals(3, randomAccessSource.getPosition());
+            assertEquals('3', randomAccessSource.read());
+            Assertions.assertThrows(IOException.class,
+                    () -> randomAccessSource.read(-1, buffer, 0, 1),
+                    "read should have thrown an IOException");
+        }
+    }
+
+    @Test
+    void testConcurrentViews() throws Exception
+    {
+        byte[] content = new byte[1 << 20];
+        new Random(4711).nextBytes(content);
+        Path tempFile = Files.createTempFile("pdfbox", ".bin");
+        Files.write(tempFile, content);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (RandomAccessRead randomAccessSource = new RandomAccessReadBufferedFile(tempFile))
+        {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++)
+            {
+                int seed = i;
+                results.add(executor.submit(() ->
+                {
+                    Random random = new Random(seed);
+                    for (int j = 0; j < 200; j++)
+                    {
+                        int start = random.nextInt(content.length);
+                        int length = Math.min(random.nextInt(20000), content.length - start);
+                        try (RandomAccessReadView view = randomAccessSource.createView(start,
+                                length))
+                        {
+                            byte[] read = new byte[length];
+                            int offset = 0;
+                            // mix single byte and bulk reads
+                            while (offset < length && offset < 100)
+                            {
+                                read[offset++] = (byte) view.read();
+                            }
+                            while (offset < length)
+                            {
+                                offset += view.read(read, offset, length - offset);
+                            }
+                            if (!Arrays.equals(content, start, start + length, read, 0, length))
+                            {
+                                return false;
+                            }
+                        }
+                    }
+                    return true;
+                }));
+            }
+            // the main thread keeps on using the current position
+            randomAccessSource.seek(12345);
+            for (Future<Boolean> result : results)
+            {
+                assertTrue(result.get());
+            }
+            assertEquals(12345, randomAccessSource.getPosition());
+            assertEquals(content[12345] & 0xff, randomAccessSource.read());
+        }
+        finally
+        {
+            executor.shutdown();
+            Files.delete(tempFile);
+        }
+    }
+
+    @Test
+    void testTransferTo() throws IOException, URISyntaxException
+    {
+        try (RandomAccessRead randomAccessSource = new RandomAccessReadBufferedFile(
+                new File(getClass().getResource("RandomAccessReadFile1.txt").toURI()));
+             RandomAccessReadView view = randomAccessSource.createView(3, 10))
+        {
+            randomAccessSource.seek(3);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            WritableByteChannel channel = Channels.newChannel(output);
+            assertEquals(10, randomAccessSource.transferTo(5, 10, channel));
+            assertEquals(5, randomAccessSource.transferTo(125, 10, channel));
+            assertEquals(0, randomAccessSource.transferTo(130, 10, channel));
+            assertEquals("567890123456789", output.toString(StandardCharsets.US_ASCII));
+            assertEquals(3, randomAccessSource.getPosition());
+
+            // a view transfers the bytes of its range only
+            output.reset();
+            assertEquals(8, view.transferTo(2, 100, channel));
+            assertEquals(0, view.transferTo(10, 100, channel));
+            assertEquals("56789012", output.toString(StandardCharsets.US_ASCII));
+            assertEquals(0, view.getPosition());
+        }
+    }
+
 }
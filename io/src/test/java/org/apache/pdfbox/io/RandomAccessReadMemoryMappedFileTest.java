@@ -16,18 +16,29 @@
 
 package org.apache.pdfbox.io;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -214,4 +225,165 @@ class RandomAccessReadMemoryMappedFileTest
             assertEquals(3, view.getPosition());
         }
     }
+
+    @Test
+    void testPositionalRead() throws IOException, URISyntaxException
+    {
+        try (RandomAccessRead randomAccessSource = new RandomAccessReadMemoryMappedFile(
+                new File(getClass().getResource("RandomAccessReadFile1.txt").toURI())))
+        {
+            randomAccessSource.seek(3);
+            byte[] buffer = new byte[10];
+            assertEquals(10, randomAccessSource.read(5, buffer, 0, 10));
+            assertEquals("5678901234", new String(buffer, StandardCharsets.US_ASCII));
+            assertEquals(5, randomAccessSource.read(125, buffer, 2, 8));
+            assertEquals("5656789234", new String(buffer, StandardCharsets.US_ASCII));
+            assertEquals(-1, randomAccessSource.read(130, buffer, 0, 10));
+            ByteBuffer byteBuffer = ByteBuffer.allocateDirect(4);
+            assertEquals(4, randomAccessSource.read(21, byteBuffer));
+            assertEquals(4, byteBuffer.position());
+            assertEquals('4', byteBuffer.get(3));
+            assertEquals(3, randomAccessSource.getPosition());
+            assertEquals('3', randomAccessSource.read());
+            Assertions.assertThrows(IOException.class,
+                    () -> randomAccessSource.read(-1, buffer, 0, 1),
+                    "read should have thrown an IOException");
+        }
+    }
+
+    @Test
+    void testSegments() throws IOException, URISyntaxException
+    {
+        Path path = Paths.get(getClass().getResource("RandomAccessReadFile1.txt").toURI());
+        byte[] expected = Files.readAllBytes(path);
+        // segments of 16 bytes, the last one being shorter
+        try (RandomAccessRead randomAccessSource = new RandomAccessReadMemoryMappedFile(path, 4))
+        {
+            assertEquals(130, randomAccessSource.length());
+            for (int i = 0; i < expected.length; i++)
+            {
+                assertEquals(expected[i] & 0xff, randomAccessSource.read());
+            }
+            assertEquals(-1, randomAccessSource.read());
+            assertTrue(randomAccessSource.isEOF());
+
+            // reads crossing the border of one or more segments
+            randomAccessSource.seek(14);
+            byte[] buffer = new byte[40];
+            assertEquals(40, randomAccessSource.read(buffer));
+            assertArrayEquals(Arrays.copyOfRange(expected, 14, 54), buffer);
+            assertEquals(54, randomAccessSource.getPosition());
+            assertEquals(expected[54], randomAccessSource.peek());
+            randomAccessSource.rewind(6);
+            assertEquals(expected[48], randomAccessSource.read());
+
+            randomAccessSource.seek(120);
+            assertEquals(10, randomAccessSource.read(buffer));
+            assertArrayEquals(Arrays.copyOfRange(expected, 120, 130),
+                    Arrays.copyOf(buffer, 10));
+            assertEquals(-1, randomAccessSource.read(buffer));
+
+            assertEquals(33, randomAccessSource.read(95, buffer, 1, 33));
+            assertArrayEquals(Arrays.copyOfRange(expected, 95, 128),
+                    Arrays.copyOfRange(buffer, 1, 34));
+            ByteBuffer byteBuffer = ByteBuffer.allocate(100);
+            assertEquals(100, randomAccessSource.read(15, byteBuffer));
+            assertArrayEquals(Arrays.copyOfRange(expected, 15, 115), byteBuffer.array());
+            assertEquals(130, randomAccessSource.getPosition());
+
+            try (RandomAccessReadView view = randomAccessSource.createView(30, 50))
+            {
+                byte[] viewBytes = new byte[50];
+                assertEquals(50, view.read(viewBytes));
+                assertArrayEquals(Arrays.copyOfRange(expected, 30, 80), viewBytes);
+            }
+        }
+    }
+
+    @Test
+    void testTransferTo() throws IOException, URISyntaxException
+    {
+        Path path = Paths.get(getClass().getResource("RandomAccessReadFile1.txt").toURI());
+        byte[] expected = Files.readAllBytes(path);
+        // segments of 16 bytes, the transfers cross the border of one or more segments
+        try (RandomAccessRead randomAccessSource = new RandomAccessReadMemoryMappedFile(path, 4))
+        {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            WritableByteChannel channel = Channels.newChannel(output);
+            assertEquals(40, randomAccessSource.transferTo(14, 40, channel));
+            assertArrayEquals(Arrays.copyOfRange(expected, 14, 54), output.toByteArray());
+            output.reset();
+            assertEquals(30, randomAccessSource.transferTo(100, 100, channel));
+            assertArrayEquals(Arrays.copyOfRange(expected, 100, 130), output.toByteArray());
+            assertEquals(0, randomAccessSource.transferTo(130, 10, channel));
+            assertEquals(0, randomAccessSource.getPosition());
+        }
+    }
+
+    @Test
+    void testReadWhileClosing() throws Exception
+    {
+        Path tempFile = Files.createTempFile("PDFBOX", "bin");
+        byte[] content = new byte[64 * 1024];
+        Arrays.fill(content, (byte) 'a');
+        Files.write(tempFile, content);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            for (int i = 0; i < 500; i++)
+            {
+                // segments of 4 KiB, the reads cross the border of several segments
+                RandomAccessRead randomAccessSource = new RandomAccessReadMemoryMappedFile(tempFile, 12);
+                CountDownLatch started = new CountDownLatch(2);
+                Future<Boolean> reader = executor.submit(() ->
+                {
+                    byte[] bytes = new byte[content.length - 100];
+                    started.countDown();
+                    try
+                    {
+                        while (true)
+                        {
+                            randomAccessSource.read(100, bytes, 0, bytes.length);
+                            if (bytes[bytes.length - 1] != 'a')
+                            {
+                                return false;
+                            }
+                        }
+                    }
+                    catch (IOException e)
+                    {
+                        // the file was closed
+                        return true;
+                    }
+                });
+                Future<Boolean> transfer = executor.submit(() ->
+                {
+                    WritableByteChannel channel = Channels.newChannel(new ByteArrayOutputStream());
+                    started.countDown();
+                    try
+                    {
+                        while (true)
+                        {
+                            randomAccessSource.transferTo(0, content.length, channel);
+                        }
+                    }
+                    catch (IOException e)
+                    {
+                        // the file was closed
+                        return true;
+                    }
+                });
+                started.await();
+                randomAccessSource.close();
+                assertTrue(reader.get());
+                assertTrue(transfer.get());
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+            Files.delete(tempFile);
+        }
+    }
+
 }
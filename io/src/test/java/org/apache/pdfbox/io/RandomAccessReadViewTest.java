@@ -193,4 +193,29 @@ class RandomAccessReadViewTest
 
         }
     }
+
+    @Test
+    void testPositionalRead() throws IOException
+    {
+        byte[] values = { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19,
+                20 };
+        try (RandomAccessReadBuffer randomAccessSource = new RandomAccessReadBuffer(values);
+             RandomAccessReadView randomAccessReadView =
+                new RandomAccessReadView(randomAccessSource, 5, 10))
+        {
+            randomAccessReadView.seek(2);
+            byte[] buffer = new byte[20];
+            // the read is clipped to the view
+            assertEquals(4, randomAccessReadView.read(6, buffer, 0, 20));
+            assertEquals(11, buffer[0]);
+            assertEquals(14, buffer[3]);
+            assertEquals(-1, randomAccessReadView.read(10, buffer, 0, 1));
+            assertEquals(2, randomAccessReadView.getPosition());
+            assertEquals(7, randomAccessReadView.read());
+            // the view neither changes nor depends on the position of the source
+            randomAccessSource.seek(17);
+            assertEquals(8, randomAccessReadView.read());
+            assertEquals(17, randomAccessSource.getPosition());
+        }
+    }
 }
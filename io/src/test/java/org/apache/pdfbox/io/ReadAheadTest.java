@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unittest for {@link org.apache.pdfbox.io.ReadAhead}
+ */
+class ReadAheadTest
+{
+    private byte[] content;
+    private Path tempFile;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        // not a multiple of the page size
+        content = new byte[(1 << 20) + 1234];
+        new Random(4711).nextBytes(content);
+        tempFile = Files.createTempFile("pdfbox", ".bin");
+        Files.write(tempFile, content);
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException
+    {
+        executor.shutdown();
+        Files.delete(tempFile);
+    }
+
+    @Test
+    void testSequentialRead() throws IOException
+    {
+        ReadAhead readAhead = new ReadAhead(executor, 4, 10000, 1 << 18);
+        try (RandomAccessRead randomAccessRead = new RandomAccessReadBufferedFile(tempFile, null,
+                readAhead))
+        {
+            byte[] read = new byte[content.length];
+            int offset = 0;
+            // mix single byte and bulk reads
+            while (offset < 100000)
+            {
+                read[offset++] = (byte) randomAccessRead.read();
+            }
+            while (offset < content.length)
+            {
+                offset += randomAccessRead.read(read, offset,
+                        Math.min(3000, content.length - offset));
+            }
+            assertEquals(-1, randomAccessRead.read());
+            assertArrayEquals(content, read);
+        }
+        // the first pages until the read-ahead is triggered are read synchronously
+        int pageCount = (content.length + 4095) / 4096;
+        assertEquals(pageCount, readAhead.getHitCount() + readAhead.getMissCount());
+        assertTrue(readAhead.getMissCount() <= 5, "misses: " + readAhead.getMissCount());
+        assertTrue(readAhead.getWindowCount() > 1);
+        assertEquals(content.length - 5 * 4096, readAhead.getPrefetchedBytes());
+        assertTrue(readAhead.getWaitCount() <= readAhead.getHitCount());
+    }
+
+    @Test
+    void testView() throws IOException
+    {
+        ReadAhead readAhead = new ReadAhead(executor, 4, 10000, 1 << 18);
+        try (RandomAccessRead randomAccessRead = new RandomAccessReadBufferedFile(tempFile, null,
+                readAhead);
+                RandomAccessRead view = randomAccessRead.createView(100000, 500000))
+        {
+            byte[] read = new byte[500000];
+            int offset = 0;
+            while (offset < read.length)
+            {
+                offset += view.read(read, offset, Math.min(3000, read.length - offset));
+            }
+            assertEquals(-1, view.read());
+            assertArrayEquals(Arrays.copyOfRange(content, 100000, 600000), read);
+
+            // reading the view again is served by the page cache
+            view.seek(0);
+            assertEquals(content[100000] & 0xff, view.read());
+        }
+        // the first page of the file and the pages 24 to 146 of the view
+        assertEquals(124, readAhead.getHitCount() + readAhead.getMissCount());
+        assertTrue(readAhead.getHitCount() > 100, "hits: " + readAhead.getHitCount());
+        // the read-ahead doesn't go beyond the last page of the view
+        assertTrue(readAhead.getPrefetchedBytes() <= 147 * 4096 - 100000,
+                "prefetched: " + readAhead.getPrefetchedBytes());
+    }
+
+    @Test
+    void testRandomAccess() throws IOException
+    {
+        ReadAhead readAhead = new ReadAhead(executor);
+        Random random = new Random(42);
+        try (RandomAccessRead randomAccessRead = new RandomAccessReadBufferedFile(tempFile, null,
+                readAhead))
+        {
+            for (int i = 0; i < 1000; i++)
+            {
+                // every other page, which is never considered to be a sequential access
+                int position = random.nextInt(content.length / 8192) * 8192;
+                randomAccessRead.seek(position);
+                assertEquals(content[position] & 0xff, randomAccessRead.read());
+            }
+        }
+        assertEquals(0, readAhead.getWindowCount());
+        assertEquals(0, readAhead.getHitCount());
+    }
+
+    @Test
+    void testSharedPageCache() throws IOException
+    {
+        ReadAhead readAhead = new ReadAhead(executor);
+        SharedPageCache cache = new SharedPageCache(1 << 24, 1024);
+        for (int i = 0; i < 2; i++)
+        {
+            try (RandomAccessRead randomAccessRead = new RandomAccessReadBufferedFile(tempFile,
+                    cache, readAhead))
+            {
+                byte[] read = new byte[content.length];
+                int offset = 0;
+                while (offset < content.length)
+                {
+                    offset += randomAccessRead.read(read, offset, content.length - offset);
+                }
+                assertArrayEquals(content, read);
+            }
+        }
+        // the pages read in advance are put into the shared cache, the second reader doesn't need them
+        int pageCount = (content.length + 1023) / 1024;
+        assertEquals(pageCount, cache.getMissCount());
+        assertEquals(pageCount, cache.getHitCount());
+        assertEquals(pageCount, readAhead.getHitCount() + readAhead.getMissCount());
+        assertTrue(readAhead.getHitCount() > pageCount / 2);
+    }
+
+    @Test
+    void testCloseWithPendingWindows() throws IOException
+    {
+        ReadAhead readAhead = new ReadAhead(executor, 1, 1 << 20, 1 << 20);
+        RandomAccessRead randomAccessRead = new RandomAccessReadBufferedFile(tempFile, null,
+                readAhead);
+        randomAccessRead.seek(4096);
+        randomAccessRead.seek(8192);
+        assertEquals(content[8192] & 0xff, randomAccessRead.read());
+        randomAccessRead.close();
+        assertEquals(1, readAhead.getWindowCount());
+    }
+
+    @Test
+    void testInvalidSettings()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new ReadAhead(executor, 0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ReadAhead(executor, 1, 2, 1));
+    }
+}
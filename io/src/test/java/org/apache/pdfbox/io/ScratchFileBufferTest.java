@@ -16,6 +16,7 @@
  */
 package org.apache.pdfbox.io;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -23,6 +24,14 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.EOFException;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.Test;
 
@@ -163,4 +172,232 @@ class ScratchFileBufferTest
         }
     }
 
+    @Test
+    void testDirectMemory() throws IOException
+    {
+        // unrestricted main memory, restricted main memory and main memory spilling to a temporary file
+        MemoryUsageSetting[] settings = { MemoryUsageSetting.setupMainMemoryOnly(),
+                MemoryUsageSetting.setupMainMemoryOnly(300 * PAGE_SIZE),
+                MemoryUsageSetting.setupMixed(100 * PAGE_SIZE) };
+        for (MemoryUsageSetting setting : settings)
+        {
+            setting.setUseDirectMemory(true);
+            assertTrue(setting.isDirectMemoryUsed());
+            try (ScratchFile scratchFile = new ScratchFile(setting))
+            {
+                // several buffers with interleaved pages spanning more than one slab of direct memory
+                RandomAccess[] buffers = { scratchFile.createBuffer(), scratchFile.createBuffer() };
+                byte[][] contents = new byte[buffers.length][];
+                Random random = new Random(4711);
+                for (int i = 0; i < buffers.length; i++)
+                {
+                    contents[i] = new byte[140 * PAGE_SIZE + 123];
+                    random.nextBytes(contents[i]);
+                }
+                for (int offset = 0; offset < contents[0].length; offset += 1000)
+                {
+                    for (int i = 0; i < buffers.length; i++)
+                    {
+                        buffers[i].write(contents[i], offset,
+                                Math.min(1000, contents[i].length - offset));
+                    }
+                }
+                for (int i = 0; i < buffers.length; i++)
+                {
+                    assertArrayEquals(contents[i], readAll(buffers[i]), setting.toString());
+                }
+
+                // pages of a closed buffer are reused
+                buffers[0].close();
+                RandomAccess buffer = scratchFile.createBuffer();
+                byte[] content = new byte[50 * PAGE_SIZE];
+                random.nextBytes(content);
+                buffer.write(content);
+                assertArrayEquals(content, readAll(buffer), setting.toString());
+                assertArrayEquals(contents[1], readAll(buffers[1]), setting.toString());
+            }
+        }
+    }
+
+    @Test
+    void testMappedTempFile() throws Exception
+    {
+        MemoryUsageSetting[] settings = { MemoryUsageSetting.setupTempFileOnly(),
+                MemoryUsageSetting.setupMixed(100 * PAGE_SIZE),
+                MemoryUsageSetting.setupMixed(100 * PAGE_SIZE).setUseDirectMemory(true) };
+        for (MemoryUsageSetting setting : settings)
+        {
+            setting.setUseMappedTempFile(true);
+            assertTrue(setting.isMappedTempFileUsed());
+            try (ScratchFile scratchFile = new ScratchFile(setting))
+            {
+                // concurrent buffers spanning several mapped regions
+                ExecutorService executor = Executors.newFixedThreadPool(4);
+                try
+                {
+                    List<Future<Boolean>> results = new ArrayList<>();
+                    for (int i = 0; i < 8; i++)
+                    {
+                        int seed = i;
+                        results.add(executor.submit(() ->
+                        {
+                            RandomAccess buffer = scratchFile.createBuffer();
+                            byte[] content = new byte[700 * PAGE_SIZE + seed];
+                            new Random(seed).nextBytes(content);
+                            for (int offset = 0; offset < content.length; offset += 5000)
+                            {
+                                buffer.write(content, offset,
+                                        Math.min(5000, content.length - offset));
+                            }
+                            boolean equal = Arrays.equals(content, readAll(buffer));
+                            buffer.close();
+                            return equal;
+                        }));
+                    }
+                    for (Future<Boolean> result : results)
+                    {
+                        assertTrue(result.get(), setting.toString());
+                    }
+                }
+                finally
+                {
+                    executor.shutdown();
+                }
+
+                // pages of the closed buffers are reused
+                RandomAccess buffer = scratchFile.createBuffer();
+                byte[] content = new byte[3000 * PAGE_SIZE];
+                new Random(4711).nextBytes(content);
+                buffer.write(content);
+                assertArrayEquals(content, readAll(buffer), setting.toString());
+            }
+        }
+    }
+
+    @Test
+    void testCompressedMemory() throws IOException
+    {
+        // compressible content needing 4 times the restricted main memory uncompressed
+        Random random = new Random(4711);
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() < 1024 * PAGE_SIZE)
+        {
+            builder.append("BT /F1 12 Tf ").append(random.nextInt(600)).append(' ')
+                    .append(random.nextInt(800)).append(" Td (Hello) Tj ET\n");
+        }
+        byte[] text = Arrays.copyOf(builder.toString().getBytes(StandardCharsets.US_ASCII),
+                1024 * PAGE_SIZE);
+        MemoryUsageSetting setting = MemoryUsageSetting.setupMainMemoryOnly(256 * PAGE_SIZE)
+                .setUseCompressedMemory(true);
+        assertTrue(setting.isCompressedMemoryUsed());
+        try (ScratchFile scratchFile = new ScratchFile(setting))
+        {
+            RandomAccess buffer = scratchFile.createBuffer();
+            buffer.write(text);
+            assertArrayEquals(text, readAll(buffer));
+
+            // modify cold pages
+            byte[] expected = text.clone();
+            for (int i = 0; i < 50; i++)
+            {
+                int position = random.nextInt(text.length - 10);
+                buffer.seek(position);
+                buffer.write(new byte[10]);
+                Arrays.fill(expected, position, position + 10, (byte) 0);
+            }
+            assertArrayEquals(expected, readAll(buffer));
+
+            // random content doesn't compress and exceeds the main memory
+            RandomAccess randomBuffer = scratchFile.createBuffer();
+            byte[] content = new byte[600 * PAGE_SIZE];
+            random.nextBytes(content);
+            assertThrows(IOException.class, () -> randomBuffer.write(content));
+
+            // pages of a closed buffer are released
+            buffer.close();
+            randomBuffer.close();
+            RandomAccess newBuffer = scratchFile.createBuffer();
+            newBuffer.write(content, 0, 200 * PAGE_SIZE);
+            assertArrayEquals(Arrays.copyOf(content, 200 * PAGE_SIZE), readAll(newBuffer));
+        }
+
+        // spilling to a temporary file as soon as the compressed pages exhaust the main memory
+        setting = MemoryUsageSetting.setupMixed(256 * PAGE_SIZE).setUseCompressedMemory(true);
+        try (ScratchFile scratchFile = new ScratchFile(setting))
+        {
+            RandomAccess[] buffers = { scratchFile.createBuffer(), scratchFile.createBuffer() };
+            byte[] content = new byte[600 * PAGE_SIZE];
+            random.nextBytes(content);
+            for (int offset = 0; offset < text.length; offset += 5000)
+            {
+                buffers[0].write(text, offset, Math.min(5000, text.length - offset));
+                if (offset < content.length)
+                {
+                    buffers[1].write(content, offset, Math.min(5000, content.length - offset));
+                }
+            }
+            assertArrayEquals(text, readAll(buffers[0]));
+            assertArrayEquals(content, readAll(buffers[1]));
+        }
+    }
+
+    @Test
+    void testThreadPageCaches() throws Exception
+    {
+        try (ScratchFile scratchFile = new ScratchFile(
+                MemoryUsageSetting.setupMainMemoryOnly(64 * PAGE_SIZE)))
+        {
+            // many short-lived buffers leave free pages in the caches of the threads
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try
+            {
+                List<Future<Boolean>> results = new ArrayList<>();
+                for (int i = 0; i < 200; i++)
+                {
+                    int seed = i;
+                    results.add(executor.submit(() ->
+                    {
+                        RandomAccess buffer = scratchFile.createBuffer();
+                        byte[] content = new byte[3 * PAGE_SIZE + seed];
+                        new Random(seed).nextBytes(content);
+                        buffer.write(content);
+                        boolean equal = Arrays.equals(content, readAll(buffer));
+                        buffer.clear();
+                        buffer.write(content, 0, seed);
+                        equal &= Arrays.equals(Arrays.copyOf(content, seed), readAll(buffer));
+                        buffer.close();
+                        return equal;
+                    }));
+                }
+                for (Future<Boolean> result : results)
+                {
+                    assertTrue(result.get());
+                }
+            }
+            finally
+            {
+                executor.shutdown();
+            }
+
+            // all pages of the restricted main memory are available to a single buffer
+            RandomAccess buffer = scratchFile.createBuffer();
+            byte[] content = new byte[60 * PAGE_SIZE];
+            new Random(4711).nextBytes(content);
+            buffer.write(content);
+            assertArrayEquals(content, readAll(buffer));
+        }
+    }
+
+    private static byte[] readAll(RandomAccess buffer) throws IOException
+    {
+        buffer.seek(0);
+        byte[] bytes = new byte[(int) buffer.length()];
+        int offset = 0;
+        while (offset < bytes.length)
+        {
+            offset += buffer.read(bytes, offset, bytes.length - offset);
+        }
+        return bytes;
+    }
+
 }
@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unittest for {@link org.apache.pdfbox.io.SharedPageCache}
+ */
+class SharedPageCacheTest
+{
+    private byte[] content;
+    private Path tempFile;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        content = new byte[10000];
+        new Random(4711).nextBytes(content);
+        tempFile = Files.createTempFile("pdfbox", ".bin");
+        Files.write(tempFile, content);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException
+    {
+        Files.delete(tempFile);
+    }
+
+    @Test
+    void testSharedPages() throws IOException
+    {
+        SharedPageCache cache = new SharedPageCache(1 << 20, 256);
+        try (RandomAccessRead first = new RandomAccessReadBufferedFile(tempFile, cache))
+        {
+            assertArrayEquals(content, readFully(first));
+        }
+        // 40 pages, the last one being shorter
+        assertEquals(40, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+        assertEquals(40 * 256, cache.getCachedBytes());
+
+        // the pages are kept after closing the reader and are used by other readers
+        try (RandomAccessRead second = new RandomAccessReadBufferedFile(tempFile.toFile(), cache);
+                RandomAccessRead third = new RandomAccessReadBufferedFile(tempFile, cache))
+        {
+            assertArrayEquals(content, readFully(second));
+            third.seek(9990);
+            assertEquals(content[9990] & 0xff, third.read());
+            third.seek(300);
+            byte[] buffer = new byte[300];
+            assertEquals(212, third.read(buffer));
+            assertArrayEquals(Arrays.copyOfRange(content, 300, 512),
+                    Arrays.copyOf(buffer, 212));
+            assertEquals(content[512] & 0xff, third.read());
+            third.seek(10000);
+            assertEquals(-1, third.read());
+        }
+        assertEquals(40, cache.getMissCount());
+        assertEquals(45, cache.getHitCount());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    void testViewsAndPositionalReads() throws IOException
+    {
+        SharedPageCache cache = new SharedPageCache(1 << 20, 256);
+        try (RandomAccessRead first = new RandomAccessReadBufferedFile(tempFile, cache);
+                RandomAccessRead view = first.createView(1000, 5000))
+        {
+            assertArrayEquals(Arrays.copyOfRange(content, 1000, 6000), readFully(view));
+        }
+        // the first page read when the file was opened and the 21 pages of the view
+        assertEquals(22, cache.getMissCount());
+        assertEquals(22 * 256, cache.getCachedBytes());
+
+        // the pages read by the view are used by the positional reads of another reader
+        try (RandomAccessRead second = new RandomAccessReadBufferedFile(tempFile, cache))
+        {
+            byte[] buffer = new byte[5000];
+            assertEquals(5000, second.read(1000, buffer, 0, buffer.length));
+            assertArrayEquals(Arrays.copyOfRange(content, 1000, 6000), buffer);
+            assertEquals(0, second.getPosition());
+        }
+        assertEquals(22, cache.getMissCount());
+        assertEquals(22, cache.getHitCount());
+    }
+
+    @Test
+    void testBudget() throws IOException
+    {
+        // 16 stripes holding a single page each
+        SharedPageCache cache = new SharedPageCache(16 * 256, 256);
+        try (RandomAccessRead randomAccessRead = new RandomAccessReadBufferedFile(tempFile, cache))
+        {
+            assertArrayEquals(content, readFully(randomAccessRead));
+            assertArrayEquals(content, readFully(randomAccessRead));
+        }
+        assertTrue(cache.getCachedBytes() <= cache.getMaxBytes());
+        assertEquals(cache.getMissCount() - cache.getCachedBytes() / 256,
+                cache.getEvictionCount());
+        assertEquals(80, cache.getHitCount() + cache.getMissCount());
+
+        cache.clear();
+        assertEquals(0, cache.getCachedBytes());
+    }
+
+    @Test
+    void testModifiedFile() throws IOException
+    {
+        SharedPageCache cache = new SharedPageCache(1 << 20);
+        try (RandomAccessRead randomAccessRead = new RandomAccessReadBufferedFile(tempFile, cache))
+        {
+            assertArrayEquals(content, readFully(randomAccessRead));
+        }
+        content[0]++;
+        Files.write(tempFile, content);
+        Files.setLastModifiedTime(tempFile, FileTime.fromMillis(
+                Files.getLastModifiedTime(tempFile).toMillis() + 2000));
+        try (RandomAccessRead randomAccessRead = new RandomAccessReadBufferedFile(tempFile, cache))
+        {
+            assertArrayEquals(content, readFully(randomAccessRead));
+        }
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    void testConcurrentReaders() throws Exception
+    {
+        SharedPageCache cache = new SharedPageCache(8 * 1024, 512);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try
+        {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++)
+            {
+                int seed = i;
+                results.add(executor.submit(() ->
+                {
+                    Random random = new Random(seed);
+                    try (RandomAccessRead randomAccessRead = new RandomAccessReadBufferedFile(
+                            tempFile, cache))
+                    {
+                        for (int j = 0; j < 500; j++)
+                        {
+                            int position = random.nextInt(content.length);
+                            randomAccessRead.seek(position);
+                            if (randomAccessRead.read() != (content[position] & 0xff))
+                            {
+                                return false;
+                            }
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results)
+            {
+                assertTrue(result.get());
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        assertTrue(cache.getCachedBytes() <= cache.getMaxBytes());
+    }
+
+    @Test
+    void testInvalidPageSize()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new SharedPageCache(1 << 20, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new SharedPageCache(1 << 20, 0));
+    }
+
+    private static byte[] readFully(RandomAccessRead randomAccessRead) throws IOException
+    {
+        randomAccessRead.seek(0);
+        byte[] bytes = new byte[(int) randomAccessRead.length()];
+        int offset = 0;
+        while (offset < bytes.length)
+        {
+            offset += randomAccessRead.read(bytes, offset, bytes.length - offset);
+        }
+        assertEquals(-1, randomAccessRead.read());
+        return bytes;
+    }
+}
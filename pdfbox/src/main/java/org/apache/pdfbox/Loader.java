@@ -25,9 +25,11 @@ import java.io.InputStream;
 
 import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.apache.pdfbox.io.RandomAccessReadMemoryMappedFile;
 import org.apache.pdfbox.io.RandomAccessStreamCache.StreamCacheCreateFunction;
 import org.apache.pdfbox.io.RandomAccessReadBuffer;
 import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.pdfparser.DocumentSummary;
 import org.apache.pdfbox.pdfparser.FDFParser;
 import org.apache.pdfbox.pdfparser.PDFParser;
 import org.apache.pdfbox.pdmodel.PDDocument;
@@ -354,6 +356,172 @@ public class Loader
         }
     }
 
+    /**
+     * Parses a PDF using a sidecar file holding the resolved cross reference information. The sidecar file is created
+     * when the PDF is loaded for the first time or if it doesn't match the PDF any longer, subsequent loads skip the
+     * parsing of the cross reference sections and the brute force search for damaged files. Unrestricted main memory
+     * will be used for buffering PDF streams.
+     * 
+     * @param file file to be loaded. {@link org.apache.pdfbox.io.RandomAccessReadBufferedFile} is used to read the
+     * file.
+     * @param parseIndexFile the sidecar file, e.g. next to the PDF
+     * 
+     * @return loaded document
+     * 
+     * @throws InvalidPasswordException If the file required a non-empty password.
+     * @throws IOException in case of a file reading or parsing error
+     */
+    public static PDDocument loadPDFWithParseIndex(File file, File parseIndexFile) throws IOException
+    {
+        return Loader.loadPDFWithParseIndex(file, "", parseIndexFile,
+                IOUtils.createMemoryOnlyStreamCache());
+    }
+
+    /**
+     * Parses a PDF using a sidecar file holding the resolved cross reference information. The sidecar file is created
+     * when the PDF is loaded for the first time or if it doesn't match the PDF any longer, subsequent loads skip the
+     * parsing of the cross reference sections and the brute force search for damaged files.
+     * 
+     * @param file file to be loaded. {@link org.apache.pdfbox.io.RandomAccessReadBufferedFile} is used to read the
+     * file.
+     * @param password password to be used for decryption
+     * @param parseIndexFile the sidecar file, e.g. next to the PDF
+     * @param streamCacheCreateFunction a function to create an instance of a stream cache to be used for buffering
+     * new/altered PDF streams
+     * 
+     * @return loaded document
+     * 
+     * @throws InvalidPasswordException If the password is incorrect.
+     * @throws IOException in case of a file reading or parsing error
+     */
+    public static PDDocument loadPDFWithParseIndex(File file, String password, File parseIndexFile,
+            StreamCacheCreateFunction streamCacheCreateFunction) throws IOException
+    {
+        RandomAccessRead raFile = null;
+        try
+        {
+            // RandomAccessRead is not closed here, may be needed for signing
+            raFile = new RandomAccessReadBufferedFile(file);
+            PDFParser parser = new PDFParser(raFile, password, null, null,
+                    streamCacheCreateFunction);
+            parser.setParseIndexFile(parseIndexFile, file);
+            return parser.parse();
+        }
+        catch (IOException ioe)
+        {
+            IOUtils.closeQuietly(raFile);
+            throw ioe;
+        }
+    }
+
+    /**
+     * Parses a linearized PDF reading only the first page cross reference section, so that the first page is available
+     * without parsing the whole cross reference table. The remaining cross reference sections are parsed as soon as an
+     * object is requested which isn't part of the first page section, e.g. when accessing any other page. A PDF which
+     * isn't linearized or which was updated after the linearization is parsed as usual. Unrestricted main memory will
+     * be used for buffering PDF streams.
+     * 
+     * @param file file to be loaded. {@link org.apache.pdfbox.io.RandomAccessReadBufferedFile} is used to read the
+     * file.
+     * 
+     * @return loaded document
+     * 
+     * @throws InvalidPasswordException If the file required a non-empty password.
+     * @throws IOException in case of a file reading or parsing error
+     */
+    public static PDDocument loadLinearizedPDF(File file) throws IOException
+    {
+        return Loader.loadLinearizedPDF(file, "", IOUtils.createMemoryOnlyStreamCache());
+    }
+
+    /**
+     * Parses a linearized PDF reading only the first page cross reference section, so that the first page is available
+     * without parsing the whole cross reference table. The remaining cross reference sections are parsed as soon as an
+     * object is requested which isn't part of the first page section, e.g. when accessing any other page. A PDF which
+     * isn't linearized or which was updated after the linearization is parsed as usual.
+     * 
+     * @param file file to be loaded. {@link org.apache.pdfbox.io.RandomAccessReadBufferedFile} is used to read the
+     * file.
+     * @param password password to be used for decryption
+     * @param streamCacheCreateFunction a function to create an instance of a stream cache to be used for buffering
+     * new/altered PDF streams
+     * 
+     * @return loaded document
+     * 
+     * @throws InvalidPasswordException If the password is incorrect.
+     * @throws IOException in case of a file reading or parsing error
+     */
+    public static PDDocument loadLinearizedPDF(File file, String password,
+            StreamCacheCreateFunction streamCacheCreateFunction) throws IOException
+    {
+        RandomAccessRead raFile = null;
+        try
+        {
+            // RandomAccessRead is not closed here, may be needed for signing
+            raFile = new RandomAccessReadBufferedFile(file);
+            PDFParser parser = new PDFParser(raFile, password, null, null,
+                    streamCacheCreateFunction);
+            parser.setLinearizedLoading(true);
+            return parser.parse();
+        }
+        catch (IOException ioe)
+        {
+            IOUtils.closeQuietly(raFile);
+            throw ioe;
+        }
+    }
+
+    /**
+     * Parses a PDF using a memory mapped file instead of a buffered file. The file is mapped in segments, so that there
+     * isn't any limitation of the file size. Unrestricted main memory will be used for buffering PDF streams.
+     * 
+     * @param file file to be loaded. {@link org.apache.pdfbox.io.RandomAccessReadMemoryMappedFile} is used to read the
+     * file.
+     * 
+     * @return loaded document
+     * 
+     * @throws InvalidPasswordException If the file required a non-empty password.
+     * @throws IOException in case of a file reading or parsing error
+     */
+    public static PDDocument loadPDFMemoryMapped(File file) throws IOException
+    {
+        return Loader.loadPDFMemoryMapped(file, "", IOUtils.createMemoryOnlyStreamCache());
+    }
+
+    /**
+     * Parses a PDF using a memory mapped file instead of a buffered file. The file is mapped in segments, so that there
+     * isn't any limitation of the file size.
+     * 
+     * @param file file to be loaded. {@link org.apache.pdfbox.io.RandomAccessReadMemoryMappedFile} is used to read the
+     * file.
+     * @param password password to be used for decryption
+     * @param streamCacheCreateFunction a function to create an instance of a stream cache to be used for buffering
+     * new/altered PDF streams
+     * 
+     * @return loaded document
+     * 
+     * @throws InvalidPasswordException If the password is incorrect.
+     * @throws IOException in case of a file reading or parsing error
+     */
+    public static PDDocument loadPDFMemoryMapped(File file, String password,
+            StreamCacheCreateFunction streamCacheCreateFunction) throws IOException
+    {
+        RandomAccessRead raFile = null;
+        try
+        {
+            // RandomAccessRead is not closed here, may be needed for signing
+            raFile = new RandomAccessReadMemoryMappedFile(file);
+            PDFParser parser = new PDFParser(raFile, password, null, null,
+                    streamCacheCreateFunction);
+            return parser.parse();
+        }
+        catch (IOException ioe)
+        {
+            IOUtils.closeQuietly(raFile);
+            throw ioe;
+        }
+    }
+
     /**
      * Parses a PDF. Unrestricted main memory will be used for buffering PDF new streams.
      * 
@@ -466,4 +634,79 @@ public class Loader
         return parser.parse();
     }
 
+    /**
+     * Reads the version, the page count, the encryption state, the document information and the XMP metadata of a
+     * PDF without loading it. The page tree isn't loaded, only the page count of its root is read.
+     * 
+     * @param file file to be probed
+     * 
+     * @return the summary of the pdf
+     * 
+     * @throws InvalidPasswordException If the file required a non-empty password.
+     * @throws IOException in case of a file reading or parsing error
+     */
+    public static DocumentSummary probePDF(File file) throws IOException
+    {
+        return Loader.probePDF(file, "");
+    }
+
+    /**
+     * Reads the version, the page count, the encryption state, the document information and the XMP metadata of a
+     * PDF without loading it. The page tree isn't loaded, only the page count of its root is read.
+     * 
+     * @param file file to be probed
+     * @param password password to be used for decryption
+     * 
+     * @return the summary of the pdf
+     * 
+     * @throws InvalidPasswordException If the password is incorrect.
+     * @throws IOException in case of a file reading or parsing error
+     */
+    public static DocumentSummary probePDF(File file, String password) throws IOException
+    {
+        try (RandomAccessRead raFile = new RandomAccessReadBufferedFile(file))
+        {
+            return Loader.probePDF(raFile, password);
+        }
+    }
+
+    /**
+     * Reads the version, the page count, the encryption state, the document information and the XMP metadata of a
+     * PDF without loading it. The page tree isn't loaded, only the page count of its root is read.
+     * 
+     * @param input byte array that contains the document
+     * 
+     * @return the summary of the pdf
+     * 
+     * @throws InvalidPasswordException If the PDF required a non-empty password.
+     * @throws IOException In case of a reading or parsing error.
+     */
+    public static DocumentSummary probePDF(byte[] input) throws IOException
+    {
+        try (RandomAccessRead source = new RandomAccessReadBuffer(input))
+        {
+            return Loader.probePDF(source, "");
+        }
+    }
+
+    /**
+     * Reads the version, the page count, the encryption state, the document information and the XMP metadata of a
+     * PDF without loading it. The page tree isn't loaded, only the page count of its root is read. The given source
+     * isn't closed.
+     * 
+     * @param randomAccessRead random access read representing the pdf to be probed
+     * @param password password to be used for decryption
+     * 
+     * @return the summary of the pdf
+     * 
+     * @throws InvalidPasswordException If the password is incorrect.
+     * @throws IOException In case of a reading or parsing error.
+     */
+    public static DocumentSummary probePDF(RandomAccessRead randomAccessRead, String password)
+            throws IOException
+    {
+        PDFParser parser = new PDFParser(randomAccessRead, password);
+        return parser.probe();
+    }
+
 }
@@ -19,10 +19,10 @@ package org.apache.pdfbox.cos;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.Logger;
@@ -51,15 +51,15 @@ public class COSDocument extends COSBase implements Closeable
     /**
      * Maps ObjectKeys to a COSObject. Note that references to these objects
      * are also stored in COSDictionary objects that map a name to a specific object.
+     * The pool is accessed concurrently if several threads dereference objects of the same document.
      */
-    private final Map<COSObjectKey, COSObject> objectPool =
-        new HashMap<>();
+    private final COSObjectPool objectPool = new COSObjectPool();
 
     /**
-     * Maps object and generation id to object byte offsets.
+     * Maps object and generation id to object byte offsets. Primitive values are used to keep the memory footprint
+     * small for documents with a huge number of objects.
      */
-    private final Map<COSObjectKey, Long> xrefTable =
-        new HashMap<>();
+    private final COSObjectKeyOffsetMap xrefTable = new COSObjectKeyOffsetMap();
 
     /**
      * List containing all streams which are created when creating a new pdf.
@@ -84,6 +84,8 @@ public class COSDocument extends COSBase implements Closeable
 
     private boolean hasHybridXRef = false;
 
+    private volatile boolean hasDeferredXRefTable = false;
+
     private final RandomAccessStreamCache streamCache;
 
     /**
@@ -95,6 +97,11 @@ public class COSDocument extends COSBase implements Closeable
     
     private final COSDocumentState documentState = new COSDocumentState();
 
+    /**
+     * Is informed about every object loaded by the parser, used to release objects when streaming pages.
+     */
+    private volatile Consumer<COSObject> objectLoadListener;
+
     /**
      * Constructor. Uses main memory to buffer PDF streams.
      */
@@ -251,7 +258,7 @@ public class COSDocument extends COSBase implements Closeable
      */
     public List<COSObject> getObjectsByType(COSName type1, COSName type2)
     {
-        List<COSObjectKey> originKeys = new ArrayList<>(xrefTable.keySet());
+        List<COSObjectKey> originKeys = new ArrayList<>(getXrefTable().keySet());
         List<COSObject> retval = getObjectsByType(originKeys, type1, type2);
         // there might be some additional objects if the brute force parser was triggered
         // due to a broken cross reference table/stream
@@ -473,6 +480,12 @@ public class COSDocument extends COSBase implements Closeable
             firstException = IOUtils.closeAndLogException(streamCache, LOG, "Stream Cache",
                     firstException);
         }
+
+        if (parser != null)
+        {
+            firstException = IOUtils.closeAndLogException(parser, LOG, "COSParser",
+                    firstException);
+        }
         closed = true;
 
         // rethrow first exception to keep method contract
@@ -510,6 +523,42 @@ public class COSDocument extends COSBase implements Closeable
         return obj;
     }
 
+    /**
+     * Informs the document that the given object was loaded by the parser. Not for public use. Only COSParser should
+     * call this method.
+     *
+     * @param object the loaded object
+     */
+    public void objectLoaded(COSObject object)
+    {
+        Consumer<COSObject> listener = objectLoadListener;
+        if (listener != null)
+        {
+            listener.accept(object);
+        }
+    }
+
+    /**
+     * Sets a listener which is informed about every object loaded by the parser from now on. The listener may be
+     * called by several threads at the same time.
+     *
+     * @param objectLoadListener the listener or null to remove the current listener
+     */
+    public void setObjectLoadListener(Consumer<COSObject> objectLoadListener)
+    {
+        this.objectLoadListener = objectLoadListener;
+    }
+
+    /**
+     * Returns the listener informed about every object loaded by the parser.
+     *
+     * @return the current listener or null
+     */
+    public Consumer<COSObject> getObjectLoadListener()
+    {
+        return objectLoadListener;
+    }
+
     /**
      * Populate XRef HashMap with given values.
      * Each entry maps ObjectKeys to byte offsets in the file.
@@ -522,14 +571,58 @@ public class COSDocument extends COSBase implements Closeable
 
     /**
      * Returns the xrefTable which is a mapping of ObjectKeys
-     * to byte offsets in the file.
+     * to byte offsets in the file. A deferred part of the cross reference table is parsed beforehand.
      * @return mapping of ObjectsKeys to byte offsets
      */
-    public Map<COSObjectKey, Long> getXrefTable()
+    public COSObjectKeyOffsetMap getXrefTable()
     {
+        if (hasDeferredXRefTable)
+        {
+            try
+            {
+                parser.loadDeferredXRefTable();
+            }
+            catch (IOException exception)
+            {
+                LOG.error("Couldn't parse the deferred part of the cross reference table",
+                        exception);
+                hasDeferredXRefTable = false;
+            }
+        }
         return xrefTable;
     }
 
+    /**
+     * Internal PDFBox use only. Returns the part of the xrefTable parsed so far without parsing a deferred part of it.
+     * 
+     * @return mapping of ObjectsKeys to byte offsets
+     */
+    public COSObjectKeyOffsetMap getParsedXrefTable()
+    {
+        return xrefTable;
+    }
+
+    /**
+     * Determines if a part of the cross reference table wasn't parsed yet, e.g. if only the first page section of a
+     * linearized pdf was parsed. The remaining part is parsed by the parser on demand.
+     * 
+     * @return true if a part of the cross reference table wasn't parsed yet
+     */
+    public boolean hasDeferredXRefTable()
+    {
+        return hasDeferredXRefTable;
+    }
+
+    /**
+     * Internal PDFBox use only. Marks a part of the cross reference table as deferred or as parsed.
+     * 
+     * @param deferred true if a part of the cross reference table wasn't parsed yet
+     */
+    public void setHasDeferredXRefTable(boolean deferred)
+    {
+        hasDeferredXRefTable = deferred;
+    }
+
     /**
      * This method set the startxref value of the document. This will only 
      * be needed for incremental updates.
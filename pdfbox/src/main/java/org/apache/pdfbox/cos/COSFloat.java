@@ -19,7 +19,8 @@ package org.apache.pdfbox.cos;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.math.BigDecimal;
-import java.nio.charset.StandardCharsets;
+
+import org.apache.pdfbox.util.NumberFormatUtil;
 
 /**
  * This class represents a floating point number in a PDF document.
@@ -233,6 +234,29 @@ public class COSFloat extends COSNumber
      */
     public void writePDF( OutputStream output ) throws IOException
     {
-        output.write(formatString().getBytes(StandardCharsets.ISO_8859_1));
+        if (valueAsString == null && isPlainIntegral())
+        {
+            // same result as String.valueOf(float) without creating any strings
+            NumberFormatUtil.writeLong((long) value, output);
+            output.write('.');
+            output.write('0');
+            return;
+        }
+        String s = formatString();
+        for (int i = 0, length = s.length(); i < length; i++)
+        {
+            output.write(s.charAt(i));
+        }
+    }
+
+    /**
+     * Returns true if the value has no fraction digits and is small enough to be represented by
+     * {@link Float#toString(float)} without an exponent. Negative zero is excluded, as its sign
+     * would get lost.
+     */
+    private boolean isPlainIntegral()
+    {
+        return value == (long) value && Math.abs(value) < 1.0e7f
+                && Float.floatToRawIntBits(value) != Float.floatToRawIntBits(-0f);
     }
 }
@@ -18,7 +18,8 @@ package org.apache.pdfbox.cos;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
+
+import org.apache.pdfbox.util.NumberFormatUtil;
 
 /**
  * This class represents an integer number in a PDF document.
@@ -213,7 +214,7 @@ public final class COSInteger extends COSNumber
      */
     public void writePDF( OutputStream output ) throws IOException
     {
-        output.write(String.valueOf(value).getBytes(StandardCharsets.ISO_8859_1));
+        NumberFormatUtil.writeLong(value, output);
     }
 
 }
@@ -20,10 +20,17 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.ref.Cleaner;
 import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.apache.pdfbox.util.Hex;
 
 /**
@@ -38,6 +45,31 @@ public final class COSName extends COSBase implements Comparable<COSName>
             new ConcurrentHashMap<>(8192);
     private static final Cleaner CLEANER = Cleaner.create();
 
+    private static final Logger LOG = LogManager.getLogger(COSName.class);
+
+    // names looked up by their raw bytes, e.g. by the parser, the size has to be a power of 2
+    private static final int RAW_NAME_CACHE_SIZE = 2048;
+    // slots are overwritten without any locking, a slot holds an immutable entry or null
+    private static final RawName[] RAW_NAME_CACHE = new RawName[RAW_NAME_CACHE_SIZE];
+
+    private static final Charset ALTERNATIVE_CHARSET;
+
+    static
+    {
+        Charset cs;
+        String charsetName = "Windows-1252";
+        try
+        {
+            cs = Charset.forName(charsetName);
+        }
+        catch (IllegalArgumentException | UnsupportedOperationException e)
+        {
+            cs = StandardCharsets.ISO_8859_1;
+            LOG.warn("Charset is not supported: {}, falling back to {}", charsetName, cs.name(), e);
+        }
+        ALTERNATIVE_CHARSET = cs;
+    }
+
     //
     // IMPORTANT: this list is *alphabetized* and does not need any JavaDoc
     //
@@ -706,6 +738,65 @@ public final class COSName extends COSBase implements Comparable<COSName>
         return name;
     }
 
+    /**
+     * This will get a COSName object for the given raw bytes of a name, e.g. as read by the parser after resolving
+     * the #xx escapes. The bytes are decoded using UTF-8. Some malformed PDFs don't use UTF-8 (see PDFBOX-3347), the
+     * bytes are decoded using Windows-1252 in such cases.
+     *
+     * Recently used names are looked up by a hash of the bytes so that no string has to be created for them.
+     *
+     * @param bytes the buffer holding the raw bytes of the name
+     * @param offset the offset of the name within the buffer
+     * @param length the length of the name
+     * @return A COSName with the decoded name.
+     */
+    public static COSName getPDFName(byte[] bytes, int offset, int length)
+    {
+        int hash = 1;
+        for (int i = offset; i < offset + length; i++)
+        {
+            hash = 31 * hash + bytes[i];
+        }
+        int slot = (hash ^ hash >>> 16) & (RAW_NAME_CACHE_SIZE - 1);
+        RawName entry = RAW_NAME_CACHE[slot];
+        if (entry != null && entry.hash == hash && Arrays.equals(entry.bytes, 0,
+                entry.bytes.length, bytes, offset, offset + length))
+        {
+            return entry.name;
+        }
+        COSName name = getPDFName(decode(bytes, offset, length));
+        RAW_NAME_CACHE[slot] = new RawName(hash,
+                Arrays.copyOfRange(bytes, offset, offset + length), name);
+        return name;
+    }
+
+    private static String decode(byte[] bytes, int offset, int length)
+    {
+        boolean ascii = true;
+        for (int i = offset; i < offset + length && ascii; i++)
+        {
+            ascii = bytes[i] >= 0;
+        }
+        if (ascii)
+        {
+            return new String(bytes, offset, length, StandardCharsets.US_ASCII);
+        }
+        try
+        {
+            return StandardCharsets.UTF_8.newDecoder() //
+                    .onMalformedInput(CodingErrorAction.REPORT) //
+                    .onUnmappableCharacter(CodingErrorAction.REPORT) //
+                    .decode(ByteBuffer.wrap(bytes, offset, length)).toString();
+        }
+        catch (CharacterCodingException e)
+        {
+            // some malformed PDFs don't use UTF-8 see PDFBOX-3347
+            LOG.debug("Buffer could not be decoded using StandardCharsets.UTF_8 - trying {}",
+                    ALTERNATIVE_CHARSET.name(), e);
+            return new String(bytes, offset, length, ALTERNATIVE_CHARSET);
+        }
+    }
+
     /**
      * Private constructor. This will limit the number of COSName objects that are created.
      * 
@@ -802,4 +893,20 @@ public final class COSName extends COSBase implements Comparable<COSName>
         }
     }
 
+    /**
+     * A name together with the raw bytes it was decoded from.
+     */
+    private static final class RawName
+    {
+        private final int hash;
+        private final byte[] bytes;
+        private final COSName name;
+
+        private RawName(int hash, byte[] bytes, COSName name)
+        {
+            this.hash = hash;
+            this.bytes = bytes;
+            this.name = name;
+        }
+    }
 }
@@ -17,6 +17,7 @@
 package org.apache.pdfbox.cos;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 /**
  * This class represents an abstract number in a PDF document.
@@ -25,6 +26,14 @@ import java.io.IOException;
  */
 public abstract class COSNumber extends COSBase
 {
+    // 18 digits always fit into a long
+    private static final int MAX_FAST_INTEGER_DIGITS = 18;
+    // 7 digits always fit into the 24 bit mantissa of a float
+    private static final int MAX_FAST_FLOAT_DIGITS = 7;
+    // all of them are exact float values
+    private static final float[] POWERS_OF_TEN = { 1f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f,
+            1e8f, 1e9f, 1e10f };
+
     /**
      * This will get the float value of this number.
      *
@@ -94,6 +103,69 @@ public abstract class COSNumber extends COSBase
         }
     }
 
+    /**
+     * This factory method will get the appropriate number object for the given raw bytes of a number, e.g. as read by
+     * the parser. Plain integers and decimals with up to 7 significant digits are converted without creating a string,
+     * all other numbers are handled by {@link #get(String)}.
+     *
+     * @param bytes the buffer holding the bytes of the number
+     * @param offset the offset of the number within the buffer
+     * @param length the length of the number
+     *
+     * @return A number object, either float or int.
+     *
+     * @throws IOException If the bytes don't represent a number.
+     */
+    public static COSNumber get(byte[] bytes, int offset, int length) throws IOException
+    {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+        if (i < end && (bytes[i] == '-' || bytes[i] == '+'))
+        {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < end; i++)
+        {
+            int b = bytes[i];
+            if (b >= '0' && b <= '9')
+            {
+                mantissa = mantissa * 10 + b - '0';
+                digits++;
+                if (scale >= 0)
+                {
+                    scale++;
+                }
+            }
+            else if (b == '.' && scale < 0)
+            {
+                scale = 0;
+            }
+            else
+            {
+                break;
+            }
+        }
+        if (i == end && digits > 0)
+        {
+            if (scale < 0 && digits <= MAX_FAST_INTEGER_DIGITS)
+            {
+                return COSInteger.get(negative ? -mantissa : mantissa);
+            }
+            if (scale >= 0 && digits <= MAX_FAST_FLOAT_DIGITS && scale < POWERS_OF_TEN.length)
+            {
+                // both operands are exact, so the quotient is rounded like Float.parseFloat does
+                float value = mantissa / POWERS_OF_TEN[scale];
+                return value == 0 ? COSFloat.ZERO : new COSFloat(negative ? -value : value);
+            }
+        }
+        return get(new String(bytes, offset, length, StandardCharsets.ISO_8859_1));
+    }
+
     private static boolean isFloat( String number )
     {
         int length = number.length();
@@ -29,9 +29,15 @@ import org.apache.logging.log4j.LogManager;
  */
 public class COSObject extends COSBase implements COSUpdateInfo
 {
-    private COSBase baseObject;
+    // may be released by another thread at any time, see getObject()
+    private volatile COSBase baseObject;
     private ICOSParser parser;
-    private boolean isDereferenced = false;
+    // set after the referenced object is loaded, so that other threads never see a half parsed object
+    private volatile boolean isDereferenced = false;
+    // guarded by this, avoids endless recursions while the referenced object is loaded
+    private boolean isDereferencing = false;
+    // guarded by this, how often the referenced object was loaded by the parser
+    private int loadCount = 0;
     private final COSUpdateState updateState;
     
     private static final Logger LOG = LogManager.getLogger(COSObject.class);
@@ -108,31 +114,107 @@ public class COSObject extends COSBase implements COSUpdateInfo
      */
     public COSBase getObject()
     {
-        if (!isDereferenced && parser != null)
+        if (isDereferenced)
         {
-            try
-            {
-                // mark as dereferenced to avoid endless recursions
-                isDereferenced = true;
-                baseObject = parser.dereferenceCOSObject(this);
-                getUpdateState().dereferenceChild(baseObject);
-            }
-            catch (IOException e)
+            // read the reference once, it may be released by a concurrent unload() at any time
+            COSBase object = baseObject;
+            if (object != null)
             {
-                LOG.error("Can't dereference {}", this, e);
+                return object;
             }
-            finally
+        }
+        return loadObject();
+    }
+
+    /**
+     * Returns the referenced object holding the lock, the object is loaded if it wasn't loaded yet or if it was
+     * released in between.
+     */
+    private synchronized COSBase loadObject()
+    {
+        if (!isDereferenced && parser != null)
+        {
+            dereference();
+        }
+        return baseObject;
+    }
+
+    /**
+     * Loads the referenced object using the parser. The object is loaded exactly once, even if several threads ask
+     * for it at the same time. Those threads wait until the first one is done.
+     */
+    private synchronized void dereference()
+    {
+        if (isDereferenced || isDereferencing || parser == null)
+        {
+            return;
+        }
+        try
+        {
+            // mark as dereferencing to avoid endless recursions
+            isDereferencing = true;
+            baseObject = parser.dereferenceCOSObject(this);
+            getUpdateState().dereferenceChild(baseObject);
+            loadCount++;
+        }
+        catch (IOException e)
+        {
+            LOG.error("Can't dereference {}", this, e);
+        }
+        finally
+        {
+            // the parser is kept so that the object can be unloaded and loaded again
+            if (baseObject == null)
             {
                 parser = null;
             }
+            isDereferencing = false;
+            isDereferenced = true;
         }
-        return baseObject;
+    }
+
+    /**
+     * Releases the referenced object so that it is loaded again by the parser the next time it is requested. Objects
+     * which weren't loaded by a parser or which were updated are kept.
+     * 
+     * The released object itself stays valid, but any further changes to it are lost. Another instance is returned
+     * when the object is loaded again.
+     * 
+     * @return true if the referenced object was released
+     */
+    public synchronized boolean unload()
+    {
+        if (!isDereferenced || isDereferencing || parser == null || baseObject == null
+                || getKey() == null || updateState.isUpdated())
+        {
+            return false;
+        }
+        if (baseObject instanceof COSUpdateInfo
+                && ((COSUpdateInfo) baseObject).getUpdateState().isUpdated())
+        {
+            return false;
+        }
+        // clear the flag first, so that a concurrent getObject() takes the synchronized path
+        isDereferenced = false;
+        baseObject = null;
+        return true;
+    }
+
+    /**
+     * Returns how often the referenced object was loaded by the parser. A value greater than 1 indicates that the
+     * object was requested again after it was unloaded.
+     * 
+     * @return the number of times the referenced object was loaded
+     */
+    public synchronized int getLoadCount()
+    {
+        return loadCount;
     }
 
     /**
      * Sets the referenced object to COSNull and removes the initially assigned parser.
      */
-    public final void setToNull()
+    public final synchronized void setToNull()
     {
         if(baseObject != null)
         {
@@ -0,0 +1,604 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.cos;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A map of object keys to the byte offsets of the objects or the negated object numbers of the object streams holding
+ * them, as used for cross reference tables.
+ *
+ * The entries are stored in primitive arrays using open addressing keyed by the combined object number and generation
+ * (see {@link COSObjectKey#getInternalHash()}), so that neither keys nor offsets are boxed. This reduces the memory
+ * footprint of documents with millions of objects considerably. Keys are recreated on demand, including the index
+ * within an object stream.
+ *
+ * The map may be read concurrently while it is modified. Lookups don't block unless there is a concurrent
+ * modification. Iterators work on a snapshot of the map and never throw a ConcurrentModificationException.
+ */
+public class COSObjectKeyOffsetMap extends AbstractMap<COSObjectKey, Long>
+{
+    // combined object numbers and generations are never negative
+    private static final long FREE = -1;
+    private static final int MINIMUM_CAPACITY = 16;
+
+    private final StampedLock lock = new StampedLock();
+
+    private long[] keys;
+    private long[] offsets;
+    private int[] streamIndexes;
+    private int size = 0;
+    private int threshold;
+
+    /**
+     * Constructor.
+     */
+    public COSObjectKeyOffsetMap()
+    {
+        this(MINIMUM_CAPACITY);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param expectedSize the expected number of entries
+     */
+    public COSObjectKeyOffsetMap(int expectedSize)
+    {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Returns the offset for the given key.
+     *
+     * @param key the object key
+     * @param defaultValue the value to be returned if there isn't any entry for the given key
+     * @return the offset of the object, the negated object number of the object stream holding it or the given
+     * default value
+     */
+    public long getOffset(COSObjectKey key, long defaultValue)
+    {
+        return getOffset(key.getInternalHash(), defaultValue);
+    }
+
+    /**
+     * Returns the offset for the given combined object number and generation.
+     *
+     * @param internalHash the combined object number and generation, see {@link COSObjectKey#getInternalHash()}
+     * @param defaultValue the value to be returned if there isn't any entry for the given key
+     * @return the offset of the object, the negated object number of the object stream holding it or the given
+     * default value
+     */
+    public long getOffset(long internalHash, long defaultValue)
+    {
+        long stamp = lock.tryOptimisticRead();
+        long offset = lookupOffset(internalHash, defaultValue);
+        if (!lock.validate(stamp))
+        {
+            stamp = lock.readLock();
+            try
+            {
+                offset = lookupOffset(internalHash, defaultValue);
+            }
+            finally
+            {
+                lock.unlockRead(stamp);
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Returns the key of the entry for the given combined object number and generation. The returned key provides the
+     * index within the object stream if the object is compressed.
+     *
+     * @param internalHash the combined object number and generation, see {@link COSObjectKey#getInternalHash()}
+     * @return the key or null if there isn't any entry for the given values
+     */
+    public COSObjectKey getKey(long internalHash)
+    {
+        long stamp = lock.tryOptimisticRead();
+        int streamIndex = lookupStreamIndex(internalHash);
+        if (!lock.validate(stamp))
+        {
+            stamp = lock.readLock();
+            try
+            {
+                streamIndex = lookupStreamIndex(internalHash);
+            }
+            finally
+            {
+                lock.unlockRead(stamp);
+            }
+        }
+        if (streamIndex == Integer.MIN_VALUE)
+        {
+            return null;
+        }
+        return new COSObjectKey(internalHash >>> Short.SIZE, (int) (internalHash & 0xffff),
+                streamIndex);
+    }
+
+    /**
+     * Adds or replaces the offset for the given key.
+     *
+     * @param key the object key
+     * @param offset the offset of the object or the negated object number of the object stream holding it
+     * @return true if the key was added, false if an existing offset was replaced
+     */
+    public boolean putOffset(COSObjectKey key, long offset)
+    {
+        long stamp = lock.writeLock();
+        try
+        {
+            return insert(key.getInternalHash(), offset, key.getStreamIndex()) < 0;
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Long get(Object key)
+    {
+        if (!(key instanceof COSObjectKey))
+        {
+            return null;
+        }
+        long internalHash = ((COSObjectKey) key).getInternalHash();
+        long stamp = lock.tryOptimisticRead();
+        // the arrays may be replaced by a concurrent writer, they are validated before the result is used
+        long[] currentKeys = keys;
+        long[] currentOffsets = offsets;
+        int slot = findSlot(currentKeys, internalHash);
+        long offset = slot >= 0 && slot < currentOffsets.length ? currentOffsets[slot] : 0;
+        if (!lock.validate(stamp))
+        {
+            stamp = lock.readLock();
+            try
+            {
+                slot = findSlot(keys, internalHash);
+                offset = slot >= 0 ? offsets[slot] : 0;
+            }
+            finally
+            {
+                lock.unlockRead(stamp);
+            }
+        }
+        return slot >= 0 ? offset : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return key instanceof COSObjectKey
+                && getKey(((COSObjectKey) key).getInternalHash()) != null;
+    }
+
+    @Override
+    public Long put(COSObjectKey key, Long value)
+    {
+        long stamp = lock.writeLock();
+        try
+        {
+            long internalHash = key.getInternalHash();
+            int slot = findSlot(keys, internalHash);
+            Long previous = slot >= 0 ? offsets[slot] : null;
+            insert(internalHash, value, key.getStreamIndex());
+            return previous;
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void putAll(Map<? extends COSObjectKey, ? extends Long> map)
+    {
+        if (map instanceof COSObjectKeyOffsetMap)
+        {
+            COSObjectKeyOffsetMap other = (COSObjectKeyOffsetMap) map;
+            Snapshot snapshot = other.snapshot();
+            long stamp = lock.writeLock();
+            try
+            {
+                ensureCapacity(size + snapshot.size);
+                for (int i = 0; i < snapshot.keys.length; i++)
+                {
+                    if (snapshot.keys[i] != FREE)
+                    {
+                        insert(snapshot.keys[i], snapshot.offsets[i], snapshot.streamIndexes[i]);
+                    }
+                }
+            }
+            finally
+            {
+                lock.unlockWrite(stamp);
+            }
+        }
+        else
+        {
+            map.forEach(this::put);
+        }
+    }
+
+    @Override
+    public Long remove(Object key)
+    {
+        if (!(key instanceof COSObjectKey))
+        {
+            return null;
+        }
+        long stamp = lock.writeLock();
+        try
+        {
+            int slot = findSlot(keys, ((COSObjectKey) key).getInternalHash());
+            if (slot < 0)
+            {
+                return null;
+            }
+            long previous = offsets[slot];
+            removeSlot(slot);
+            return previous;
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void clear()
+    {
+        long stamp = lock.writeLock();
+        try
+        {
+            allocate(MINIMUM_CAPACITY);
+            size = 0;
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        long stamp = lock.readLock();
+        try
+        {
+            return size;
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    @Override
+    public Set<Entry<COSObjectKey, Long>> entrySet()
+    {
+        return new AbstractSet<Entry<COSObjectKey, Long>>()
+        {
+            @Override
+            public Iterator<Entry<COSObjectKey, Long>> iterator()
+            {
+                return new EntryIterator(snapshot());
+            }
+
+            @Override
+            public int size()
+            {
+                return COSObjectKeyOffsetMap.this.size();
+            }
+
+            @Override
+            public void clear()
+            {
+                COSObjectKeyOffsetMap.this.clear();
+            }
+        };
+    }
+
+    private long lookupOffset(long internalHash, long defaultValue)
+    {
+        long[] currentKeys = keys;
+        long[] currentOffsets = offsets;
+        int slot = findSlot(currentKeys, internalHash);
+        return slot >= 0 && slot < currentOffsets.length ? currentOffsets[slot] : defaultValue;
+    }
+
+    private int lookupStreamIndex(long internalHash)
+    {
+        long[] currentKeys = keys;
+        int[] currentStreamIndexes = streamIndexes;
+        int slot = findSlot(currentKeys, internalHash);
+        return slot >= 0 && slot < currentStreamIndexes.length ? currentStreamIndexes[slot]
+                : Integer.MIN_VALUE;
+    }
+
+    /**
+     * Returns the slot holding the given key or -1 if the key is missing. The probing is limited to the length of the
+     * array, so that an inconsistent state seen by an optimistic read can't lead to an endless loop.
+     */
+    private static int findSlot(long[] currentKeys, long internalHash)
+    {
+        int mask = currentKeys.length - 1;
+        int slot = mix(internalHash) & mask;
+        for (int probes = 0; probes <= mask; probes++)
+        {
+            long current = currentKeys[slot];
+            if (current == internalHash)
+            {
+                return slot;
+            }
+            if (current == FREE)
+            {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Inserts or replaces the entry, the write lock has to be held.
+     *
+     * @return the slot of the replaced entry or -1 if the entry was added
+     */
+    private int insert(long internalHash, long offset, int streamIndex)
+    {
+        int mask = keys.length - 1;
+        int slot = mix(internalHash) & mask;
+        while (keys[slot] != FREE)
+        {
+            if (keys[slot] == internalHash)
+            {
+                offsets[slot] = offset;
+                streamIndexes[slot] = streamIndex;
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size >= threshold)
+        {
+            resize(keys.length << 1);
+            return insert(internalHash, offset, streamIndex);
+        }
+        streamIndexes[slot] = streamIndex;
+        offsets[slot] = offset;
+        // publish the key last
+        keys[slot] = internalHash;
+        size++;
+        return -1;
+    }
+
+    /**
+     * Removes the entry at the given slot and moves following entries of the same probe sequence backwards, so that
+     * no tombstones are needed.
+     */
+    private void removeSlot(int slot)
+    {
+        int mask = keys.length - 1;
+        int free = slot;
+        int current = (slot + 1) & mask;
+        while (keys[current] != FREE)
+        {
+            int home = mix(keys[current]) & mask;
+            // move the entry if its home slot isn't located cyclically between the free and the current slot
+            if (((current - home) & mask) >= ((current - free) & mask))
+            {
+                keys[free] = keys[current];
+                offsets[free] = offsets[current];
+                streamIndexes[free] = streamIndexes[current];
+                free = current;
+            }
+            current = (current + 1) & mask;
+        }
+        keys[free] = FREE;
+        size--;
+    }
+
+    private void ensureCapacity(int expectedSize)
+    {
+        int capacity = capacityFor(expectedSize);
+        if (capacity > keys.length)
+        {
+            resize(capacity);
+        }
+    }
+
+    private void resize(int capacity)
+    {
+        long[] oldKeys = keys;
+        long[] oldOffsets = offsets;
+        int[] oldStreamIndexes = streamIndexes;
+        long[] newKeys = new long[capacity];
+        long[] newOffsets = new long[capacity];
+        int[] newStreamIndexes = new int[capacity];
+        Arrays.fill(newKeys, FREE);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            long key = oldKeys[i];
+            if (key != FREE)
+            {
+                int slot = mix(key) & mask;
+                while (newKeys[slot] != FREE)
+                {
+                    slot = (slot + 1) & mask;
+                }
+                newKeys[slot] = key;
+                newOffsets[slot] = oldOffsets[i];
+                newStreamIndexes[slot] = oldStreamIndexes[i];
+            }
+        }
+        offsets = newOffsets;
+        streamIndexes = newStreamIndexes;
+        keys = newKeys;
+        threshold = thresholdFor(capacity);
+    }
+
+    private void allocate(int capacity)
+    {
+        long[] newKeys = new long[capacity];
+        Arrays.fill(newKeys, FREE);
+        offsets = new long[capacity];
+        streamIndexes = new int[capacity];
+        keys = newKeys;
+        threshold = thresholdFor(capacity);
+    }
+
+    private Snapshot snapshot()
+    {
+        long stamp = lock.readLock();
+        try
+        {
+            return new Snapshot(keys.clone(), offsets.clone(), streamIndexes.clone(), size);
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static int thresholdFor(int capacity)
+    {
+        // load factor 0.75
+        return capacity - (capacity >>> 2);
+    }
+
+    private static int capacityFor(int expectedSize)
+    {
+        int capacity = MINIMUM_CAPACITY;
+        while (thresholdFor(capacity) < expectedSize && capacity < (1 << 30))
+        {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    static int mix(long internalHash)
+    {
+        long h = internalHash * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static final class Snapshot
+    {
+        private final long[] keys;
+        private final long[] offsets;
+        private final int[] streamIndexes;
+        private final int size;
+
+        private Snapshot(long[] keys, long[] offsets, int[] streamIndexes, int size)
+        {
+            this.keys = keys;
+            this.offsets = offsets;
+            this.streamIndexes = streamIndexes;
+            this.size = size;
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Entry<COSObjectKey, Long>>
+    {
+        private final Snapshot snapshot;
+        private int nextSlot = -1;
+        private COSObjectKey lastKey = null;
+
+        private EntryIterator(Snapshot snapshot)
+        {
+            this.snapshot = snapshot;
+            advance();
+        }
+
+        private void advance()
+        {
+            do
+            {
+                nextSlot++;
+            }
+            while (nextSlot < snapshot.keys.length && snapshot.keys[nextSlot] == FREE);
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return nextSlot < snapshot.keys.length;
+        }
+
+        @Override
+        public Entry<COSObjectKey, Long> next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            long internalHash = snapshot.keys[nextSlot];
+            lastKey = new COSObjectKey(internalHash >>> Short.SIZE,
+                    (int) (internalHash & 0xffff), snapshot.streamIndexes[nextSlot]);
+            Entry<COSObjectKey, Long> entry = new OffsetEntry(lastKey,
+                    snapshot.offsets[nextSlot]);
+            advance();
+            return entry;
+        }
+
+        @Override
+        public void remove()
+        {
+            if (lastKey == null)
+            {
+                throw new IllegalStateException();
+            }
+            COSObjectKeyOffsetMap.this.remove(lastKey);
+            lastKey = null;
+        }
+    }
+
+    private final class OffsetEntry extends SimpleEntry<COSObjectKey, Long>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private OffsetEntry(COSObjectKey key, Long value)
+        {
+            super(key, value);
+        }
+
+        @Override
+        public Long setValue(Long value)
+        {
+            COSObjectKeyOffsetMap.this.put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.cos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+/**
+ * The pool of indirect objects of a document keyed by the combined object number and generation.
+ *
+ * The objects are stored in an open addressing table backed by a primitive array of keys, as the objects know their
+ * keys by themselves. Lookups don't block unless the pool is modified at the same time.
+ */
+final class COSObjectPool
+{
+    private static final long FREE = -1;
+    private static final int MINIMUM_CAPACITY = 64;
+
+    private final StampedLock lock = new StampedLock();
+
+    private long[] keys;
+    private COSObject[] objects;
+    private int size = 0;
+
+    COSObjectPool()
+    {
+        allocate(MINIMUM_CAPACITY);
+    }
+
+    /**
+     * Returns the object for the given key.
+     *
+     * @param key the object key
+     * @return the pooled object or null if there isn't any object for the given key
+     */
+    COSObject get(COSObjectKey key)
+    {
+        long internalHash = key.getInternalHash();
+        long stamp = lock.tryOptimisticRead();
+        COSObject object = lookup(internalHash);
+        if (!lock.validate(stamp))
+        {
+            stamp = lock.readLock();
+            try
+            {
+                object = lookup(internalHash);
+            }
+            finally
+            {
+                lock.unlockRead(stamp);
+            }
+        }
+        return object;
+    }
+
+    /**
+     * Returns the object for the given key. A new object is created and added to the pool if there isn't any.
+     *
+     * @param key the object key
+     * @param factory the function to create a missing object
+     * @return the pooled object
+     */
+    COSObject computeIfAbsent(COSObjectKey key, Function<COSObjectKey, COSObject> factory)
+    {
+        COSObject object = get(key);
+        if (object != null)
+        {
+            return object;
+        }
+        long stamp = lock.writeLock();
+        try
+        {
+            long internalHash = key.getInternalHash();
+            int mask = keys.length - 1;
+            int slot = COSObjectKeyOffsetMap.mix(internalHash) & mask;
+            while (keys[slot] != FREE)
+            {
+                if (keys[slot] == internalHash)
+                {
+                    return objects[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            object = factory.apply(key);
+            if (size >= keys.length - (keys.length >>> 2))
+            {
+                resize(keys.length << 1);
+                slot = findFreeSlot(keys, internalHash);
+            }
+            objects[slot] = object;
+            // publish the key last
+            keys[slot] = internalHash;
+            size++;
+            return object;
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns a snapshot of all pooled objects.
+     *
+     * @return a list of all objects
+     */
+    List<COSObject> values()
+    {
+        long stamp = lock.readLock();
+        try
+        {
+            List<COSObject> values = new ArrayList<>(size);
+            for (int i = 0; i < keys.length; i++)
+            {
+                if (keys[i] != FREE)
+                {
+                    values.add(objects[i]);
+                }
+            }
+            return values;
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the number of pooled objects.
+     *
+     * @return the number of objects
+     */
+    int size()
+    {
+        long stamp = lock.readLock();
+        try
+        {
+            return size;
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private COSObject lookup(long internalHash)
+    {
+        long[] currentKeys = keys;
+        COSObject[] currentObjects = objects;
+        int mask = currentKeys.length - 1;
+        int slot = COSObjectKeyOffsetMap.mix(internalHash) & mask;
+        // limit the probing as an optimistic read may see an inconsistent state
+        for (int probes = 0; probes <= mask; probes++)
+        {
+            long current = currentKeys[slot];
+            if (current == internalHash)
+            {
+                return slot < currentObjects.length ? currentObjects[slot] : null;
+            }
+            if (current == FREE)
+            {
+                return null;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    private void resize(int capacity)
+    {
+        long[] oldKeys = keys;
+        COSObject[] oldObjects = objects;
+        long[] newKeys = new long[capacity];
+        COSObject[] newObjects = new COSObject[capacity];
+        Arrays.fill(newKeys, FREE);
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldKeys[i] != FREE)
+            {
+                int slot = findFreeSlot(newKeys, oldKeys[i]);
+                newKeys[slot] = oldKeys[i];
+                newObjects[slot] = oldObjects[i];
+            }
+        }
+        objects = newObjects;
+        keys = newKeys;
+    }
+
+    private void allocate(int capacity)
+    {
+        long[] newKeys = new long[capacity];
+        Arrays.fill(newKeys, FREE);
+        objects = new COSObject[capacity];
+        keys = newKeys;
+    }
+
+    private static int findFreeSlot(long[] currentKeys, long internalHash)
+    {
+        int mask = currentKeys.length - 1;
+        int slot = COSObjectKeyOffsetMap.mix(internalHash) & mask;
+        while (currentKeys[slot] != FREE)
+        {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
@@ -140,7 +140,8 @@ public class COSStream extends COSDictionary implements Closeable
         {
             if (randomAccessReadView != null)
             {
-                randomAccessReadView.seek(0);
+                // the stream keeps its own position, seeking the shared view here would move it under the feet of
+                // a stream of another thread
                 return new RandomAccessInputStream(randomAccessReadView);
             }
             else
@@ -155,6 +156,31 @@ public class COSStream extends COSDictionary implements Closeable
         }
     }
 
+    /**
+     * Returns a new RandomAccessRead which reads the encoded PDF stream data without copying it, e.g. to transfer the
+     * data of a stream read from a file directly to another file. Experts only!
+     * 
+     * @return RandomAccessRead containing raw, encoded PDF stream data.
+     * @throws IOException If the stream could not be read.
+     */
+    public RandomAccessRead createRawView() throws IOException
+    {
+        checkClosed();
+        if (isWriting)
+        {
+            throw new IllegalStateException("Cannot read while there is an open stream writer");
+        }
+        if (randomAccess != null)
+        {
+            return new RandomAccessReadView(randomAccess, 0, randomAccess.length());
+        }
+        if (randomAccessReadView != null)
+        {
+            return new RandomAccessReadView(randomAccessReadView, 0, randomAccessReadView.length());
+        }
+        throw new IOException("Create view called without data being written before to stream.");
+    }
+
     /**
      * Returns a new InputStream which reads the decoded stream data.
      * 
@@ -16,11 +16,12 @@
  */
 package org.apache.pdfbox.cos;
 
+import java.io.Closeable;
 import java.io.IOException;
 
 import org.apache.pdfbox.io.RandomAccessReadView;
 
-public interface ICOSParser
+public interface ICOSParser extends Closeable
 {
 
     /**
@@ -43,4 +44,25 @@ public interface ICOSParser
     RandomAccessReadView createRandomAccessReadView(long startPosition, long streamLength)
             throws IOException;
 
+    /**
+     * Parses the deferred part of the cross reference table, see {@link COSDocument#hasDeferredXRefTable()}. Does
+     * nothing if there isn't any.
+     * 
+     * @throws IOException if something went wrong when parsing the cross reference table
+     */
+    default void loadDeferredXRefTable() throws IOException
+    {
+    }
+
+    /**
+     * Releases the resources which were created by the parser to parse objects on demand, e.g. additional views of the
+     * source. The source itself isn't closed. Called when the document is closed.
+     * 
+     * @throws IOException if something went wrong when releasing the resources
+     */
+    @Override
+    default void close() throws IOException
+    {
+    }
+
 }
@@ -19,15 +19,9 @@ package org.apache.pdfbox.pdfparser;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
-import java.nio.ByteBuffer;
-import java.nio.charset.CharacterCodingException;
-import java.nio.charset.Charset;
-import java.nio.charset.CharsetDecoder;
-import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
-import java.util.HashMap;
-import java.util.Map;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
@@ -64,30 +58,7 @@ public abstract class BaseParser
 
     private static final int MAX_LENGTH_LONG = Long.toString(Long.MAX_VALUE).length();
 
-    private static final Charset ALTERNATIVE_CHARSET;
-
-    private final Map<Long, COSObjectKey> keyCache = new HashMap<>();
-
-    static
-    {
-        Charset cs;
-        String charsetName = "Windows-1252";
-        try
-        {
-            cs = Charset.forName(charsetName);
-        }
-        catch (IllegalArgumentException | UnsupportedOperationException e)
-        {
-            cs = StandardCharsets.ISO_8859_1;
-            LOG.warn("Charset is not supported: {}, falling back to {}", charsetName, cs.name(), e);
-        }
-        ALTERNATIVE_CHARSET = cs;
-    }
-
-    // CharSetDecoders are not threadsafe so not static
-    private final CharsetDecoder utf8Decoder = StandardCharsets.UTF_8.newDecoder()
-            .onMalformedInput(CodingErrorAction.REPORT)
-            .onUnmappableCharacter(CodingErrorAction.REPORT);
+    private static final int MAX_LENGTH_INT = Integer.toString(Integer.MAX_VALUE).length();
 
     protected static final int E = 'e';
     protected static final int N = 'n';
@@ -166,6 +137,12 @@ public abstract class BaseParser
      */
     protected COSDocument document;
 
+    /**
+     * Reusable buffer for the bytes of names and numbers.
+     */
+    private byte[] tokenBuffer = new byte[64];
+    private int tokenLength;
+
     /**
      * Default constructor.
      */
@@ -192,22 +169,13 @@ public abstract class BaseParser
      */
     protected COSObjectKey getObjectKey(long num, int gen)
     {
-        if (document == null || document.getXrefTable().isEmpty())
+        if (document == null || document.getParsedXrefTable().isEmpty())
         {
             return new COSObjectKey(num, gen);
         }
-        // use a cache to get the COSObjectKey as iterating over the xref-table-map gets slow for big pdfs
-        // in the long run we have to overhaul the object pool or even better remove it
-        Map<COSObjectKey, Long> xrefTable = document.getXrefTable();
-        if (xrefTable.size() > keyCache.size())
-        {
-            for (COSObjectKey key : xrefTable.keySet())
-            {
-                keyCache.putIfAbsent(key.getInternalHash(), key);
-            }
-        }
-        long internalHashCode = COSObjectKey.computeInternalHash(num, gen);
-        COSObjectKey foundKey = keyCache.get(internalHashCode);
+        // the xref table recreates the key including the index within an object stream
+        COSObjectKey foundKey = document.getParsedXrefTable()
+                .getKey(COSObjectKey.computeInternalHash(num, gen));
         return foundKey != null ? foundKey : new COSObjectKey(num, gen);
     }
 
@@ -829,7 +797,7 @@ public abstract class BaseParser
     protected COSName parseCOSName() throws IOException
     {
         readExpectedChar('/');
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        tokenLength = 0;
         int c = source.read();
         while (!isEndOfName(c))
         {
@@ -846,15 +814,7 @@ public abstract class BaseParser
                 // valid hex digits.
                 if (isHexDigit((char)ch1) && isHexDigit((char)ch2))
                 {
-                    String hex = Character.toString((char) ch1) + (char) ch2;
-                    try
-                    {
-                        buffer.write(Integer.parseInt(hex, 16));
-                    }
-                    catch (NumberFormatException e)
-                    {
-                        throw new IOException("Error: expected hex digit, actual='" + hex + "'", e);
-                    }
+                    appendToken(Character.digit(ch1, 16) << 4 | Character.digit(ch2, 16));
                     c = source.read();
                 }
                 else
@@ -868,12 +828,12 @@ public abstract class BaseParser
                     }
                     source.rewind(1);
                     c = ch1;
-                    buffer.write(ch);
+                    appendToken(ch);
                 }
             }
             else
             {
-                buffer.write(ch);
+                appendToken(ch);
                 c = source.read();
             }
         }
@@ -882,29 +842,23 @@ public abstract class BaseParser
             source.rewind(1);
         }
 
-        return COSName.getPDFName(decodeBuffer(buffer));
+        return COSName.getPDFName(tokenBuffer, 0, tokenLength);
     }
 
     /**
-     * Tries to decode the buffer content to an UTF-8 String. If that fails, tries the alternative Encoding.
-     * 
-     * @param buffer the {@link ByteArrayOutputStream} containing the bytes to decode
-     * @return the decoded String
+     * Appends a byte to the token buffer and grows it if needed.
+     *
+     * @param b the byte to be appended
      */
-    private String decodeBuffer(ByteArrayOutputStream buffer)
+    private void appendToken(int b)
     {
-        try
-        {
-            return utf8Decoder.decode(ByteBuffer.wrap(buffer.toByteArray())).toString();
-        }
-        catch (CharacterCodingException e)
+        if (tokenLength == tokenBuffer.length)
         {
-            // some malformed PDFs don't use UTF-8 see PDFBOX-3347
-            LOG.debug("Buffer could not be decoded using StandardCharsets.UTF_8 - trying {}", ALTERNATIVE_CHARSET.name(), e);
-            return buffer.toString(ALTERNATIVE_CHARSET);
+            tokenBuffer = Arrays.copyOf(tokenBuffer, tokenLength * 2);
         }
+        tokenBuffer[tokenLength++] = (byte) b;
     }
-    
+
     /**
      * This will parse a directory object from the stream.
      *
@@ -984,20 +938,18 @@ public abstract class BaseParser
 
     private COSNumber parseCOSNumber() throws IOException
     {
-        StringBuilder buf = new StringBuilder();
-        int ic = source.read();
-        char c = (char) ic;
-        while (Character.isDigit(c) || c == '-' || c == '+' || c == '.' || c == 'E' || c == 'e')
+        tokenLength = 0;
+        int c = source.read();
+        while (isDigit(c) || c == '-' || c == '+' || c == '.' || c == 'E' || c == 'e')
         {
-            buf.append(c);
-            ic = source.read();
-            c = (char) ic;
+            appendToken(c);
+            c = source.read();
         }
-        if (ic != -1)
+        if (c != -1)
         {
             source.rewind(1);
         }
-        return COSNumber.get(buf.toString());
+        return COSNumber.get(tokenBuffer, 0, tokenLength);
     }
 
     /**
@@ -1345,22 +1297,16 @@ public abstract class BaseParser
     protected int readInt() throws IOException
     {
         skipSpaces();
-        int retval = 0;
-
-        StringBuilder intBuffer = readStringNumber();
-
-        try
-        {
-            retval = Integer.parseInt( intBuffer.toString() );
-        }
-        catch( NumberFormatException e )
+        int length = readDigits();
+        long retval = parseDigits(length);
+        if (length == 0 || length > MAX_LENGTH_INT || retval > Integer.MAX_VALUE)
         {
-            source.rewind(intBuffer.toString().getBytes(StandardCharsets.ISO_8859_1).length);
+            source.rewind(length);
             throw new IOException("Error: Expected an integer type at offset " +
                     source.getPosition() +
-                                  ", instead got '" + intBuffer + "'", e);
+                                  ", instead got '" + tokenToString(length) + "'");
         }
-        return retval;
+        return (int) retval;
     }
     
 
@@ -1374,21 +1320,67 @@ public abstract class BaseParser
     protected long readLong() throws IOException
     {
         skipSpaces();
-        long retval = 0;
-
-        StringBuilder longBuffer = readStringNumber();
+        int length = readDigits();
+        long retval = parseDigits(length);
+        if (length == 0 || retval < 0)
+        {
+            source.rewind(length);
+            throw new IOException( "Error: Expected a long type at offset "
+                    + source.getPosition() + ", instead got '" + tokenToString(length) + "'");
+        }
+        return retval;
+    }
 
-        try
+    /**
+     * Reads the digits of an integer or a long into the token buffer. Valid delimiters are any non digit values.
+     *
+     * @return the number of digits
+     * @throws IOException if the number is getting too long or if thrown by the {@link #source} methods.
+     */
+    private int readDigits() throws IOException
+    {
+        tokenLength = 0;
+        int lastByte;
+        while (isDigit(lastByte = source.read()))
         {
-            retval = Long.parseLong( longBuffer.toString() );
+            appendToken(lastByte);
+            if (tokenLength > MAX_LENGTH_LONG)
+            {
+                throw new IOException("Number '" + tokenToString(tokenLength) +
+                        "' is getting too long, stop reading at offset " + source.getPosition());
+            }
         }
-        catch( NumberFormatException e )
+        if( lastByte != -1 )
         {
-            source.rewind(longBuffer.toString().getBytes(StandardCharsets.ISO_8859_1).length);
-            throw new IOException( "Error: Expected a long type at offset "
-                    + source.getPosition() + ", instead got '" + longBuffer + "'", e);
+            source.rewind(1);
         }
-        return retval;
+        return tokenLength;
+    }
+
+    /**
+     * Computes the value of the digits in the token buffer.
+     *
+     * @param length the number of digits
+     * @return the value or a negative value if it doesn't fit into a long
+     */
+    private long parseDigits(int length)
+    {
+        long value = 0;
+        for (int i = 0; i < length; i++)
+        {
+            int digit = tokenBuffer[i] - '0';
+            if (value > (Long.MAX_VALUE - digit) / 10)
+            {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private String tokenToString(int length)
+    {
+        return new String(tokenBuffer, 0, length, StandardCharsets.ISO_8859_1);
     }
 
     /**
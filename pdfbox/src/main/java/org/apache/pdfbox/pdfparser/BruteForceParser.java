@@ -33,8 +33,10 @@ import org.apache.pdfbox.cos.COSDocument;
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSObject;
 import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.cos.COSObjectKeyOffsetMap;
 import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.pdfparser.MarkerScanner.Marker;
 import org.apache.pdfbox.pdfparser.XrefTrailerResolver.XRefType;
 import org.apache.pdfbox.pdmodel.encryption.ProtectionPolicy;
 import org.apache.pdfbox.pdmodel.encryption.SecurityHandler;
@@ -44,6 +46,13 @@ import org.apache.pdfbox.pdmodel.encryption.SecurityHandler;
  */
 public class BruteForceParser
 {
+    /**
+     * Large files are split into chunks which are scanned concurrently for objects and other markers. Set this system
+     * property to "false" to scan them sequentially.
+     */
+    public static final String SYSPROP_PARALLEL_SCAN =
+            "org.apache.pdfbox.pdfparser.bruteForceParser.parallelScan";
+
     private static final char[] XREF_TABLE = { 'x', 'r', 'e', 'f' };
     private static final char[] XREF_STREAM = { '/', 'X', 'R', 'e', 'f' };
 
@@ -73,10 +82,15 @@ public class BruteForceParser
     /**
      * Contains all found objects of a brute force search.
      */
-    private final Map<COSObjectKey, Long> bfSearchCOSObjectKeyOffsets = new HashMap<>();
+    private final COSObjectKeyOffsetMap bfSearchCOSObjectKeyOffsets = new COSObjectKeyOffsetMap();
 
     private boolean bfSearchTriggered = false;
 
+    /**
+     * The offsets of all markers found by a single scan of the whole pdf, created on demand.
+     */
+    private Map<Marker, long[]> markers = null;
+
     private final COSParser parser;
     private final COSDocument document;
     private final RandomAccessRead source;
@@ -124,6 +138,26 @@ public class BruteForceParser
         return bfSearchCOSObjectKeyOffsets;
     }
 
+    /**
+     * Returns the offsets of all markers. The whole pdf is scanned only once, large files are split into chunks which
+     * are scanned concurrently.
+     * 
+     * @param marker the marker
+     * @return the sorted offsets of the given marker
+     * @throws IOException if something went wrong
+     */
+    private long[] getMarkerOffsets(Marker marker) throws IOException
+    {
+        if (markers == null)
+        {
+            boolean parallel = Boolean
+                    .parseBoolean(System.getProperty(SYSPROP_PARALLEL_SCAN, "true"));
+            markers = new MarkerScanner(source, MINIMUM_SEARCH_OFFSET,
+                    MarkerScanner.DEFAULT_CHUNK_SIZE, parallel).scan();
+        }
+        return markers.get(marker);
+    }
+
     /**
      * Brute force search for every object in the pdf.
      * 
@@ -133,21 +167,30 @@ public class BruteForceParser
     {
         long lastEOFMarker = bfSearchForLastEOFMarker();
         long originOffset = source.getPosition();
-        long currentOffset = MINIMUM_SEARCH_OFFSET;
         long lastObjectId = Long.MIN_VALUE;
         int lastGenID = Integer.MIN_VALUE;
         long lastObjOffset = Long.MIN_VALUE;
-        char[] endobjString = "ndo".toCharArray();
         char[] endobjRemainingString = "bj".toCharArray();
         boolean endOfObjFound = false;
-        do
+        long[] objMarkers = getMarkerOffsets(Marker.OBJ);
+        long[] endobjMarkers = getMarkerOffsets(Marker.ENDOBJ);
+        int objIndex = 0;
+        int endobjIndex = 0;
+        // process both kinds of markers in the order of their offsets
+        while (objIndex < objMarkers.length || endobjIndex < endobjMarkers.length)
         {
-            source.seek(currentOffset);
-            int nextChar = source.read();
-            currentOffset++;
-            if (BaseParser.isWhitespace(nextChar) && parser.isString(OBJ_MARKER))
+            boolean isObjMarker = endobjIndex == endobjMarkers.length
+                    || objIndex < objMarkers.length
+                            && objMarkers[objIndex] < endobjMarkers[endobjIndex];
+            long markerOffset = isObjMarker ? objMarkers[objIndex++]
+                    : endobjMarkers[endobjIndex++];
+            if (markerOffset >= lastEOFMarker)
             {
-                long tempOffset = currentOffset - 2;
+                break;
+            }
+            if (isObjMarker)
+            {
+                long tempOffset = markerOffset - 1;
                 source.seek(tempOffset);
                 int genID = source.peek();
                 // is the next char a digit?
@@ -181,7 +224,6 @@ public class BruteForceParser
                             lastObjectId = objectId;
                             lastGenID = genID;
                             lastObjOffset = tempOffset + 1;
-                            currentOffset += OBJ_MARKER.length - 1;
                             endOfObjFound = false;
                         }
                     }
@@ -190,21 +232,15 @@ public class BruteForceParser
             // check for "endo" as abbreviation for "endobj", as the pdf may be cut off
             // in the middle of the keyword, see PDFBOX-3936.
             // We could possibly implement a more intelligent algorithm if necessary
-            else if (nextChar == 'e' && parser.isString(endobjString))
+            else
             {
-                currentOffset += endobjString.length;
-                source.seek(currentOffset);
-                if (parser.isEOF())
+                source.seek(markerOffset + Marker.ENDOBJ.length());
+                if (parser.isEOF() || parser.isString(endobjRemainingString))
                 {
                     endOfObjFound = true;
                 }
-                else if (parser.isString(endobjRemainingString))
-                {
-                    currentOffset += endobjRemainingString.length;
-                    endOfObjFound = true;
-                }
             }
-        } while (currentOffset < lastEOFMarker && !parser.isEOF());
+        }
         if ((lastEOFMarker < Long.MAX_VALUE || endOfObjFound) && lastObjOffset > 0)
         {
             // if the pdf wasn't cut off in the middle or if the last object ends with a "endobj" marker
@@ -382,11 +418,16 @@ public class BruteForceParser
     private boolean bfSearchForTrailer(COSDictionary trailer) throws IOException
     {
         long originOffset = source.getPosition();
-        source.seek(MINIMUM_SEARCH_OFFSET);
         // search for trailer marker
-        long trailerOffset = findString(TRAILER_MARKER);
-        while (trailerOffset != -1)
+        long parsedUntil = MINIMUM_SEARCH_OFFSET;
+        for (long trailerOffset : getMarkerOffsets(Marker.TRAILER))
         {
+            if (trailerOffset < parsedUntil)
+            {
+                // skip markers within the dictionary parsed before
+                continue;
+            }
+            source.seek(trailerOffset + TRAILER_MARKER.length);
             try
             {
                 boolean rootFound = false;
@@ -443,7 +484,7 @@ public class BruteForceParser
                 LOG.debug("An exception occurred during brute force search for trailer - ignoring",
                         exception);
             }
-            trailerOffset = findString(TRAILER_MARKER);
+            parsedUntil = source.getPosition();
         }
         source.seek(originOffset);
         return false;
@@ -525,10 +566,14 @@ public class BruteForceParser
     {
         long lastEOFMarker = -1;
         long originOffset = source.getPosition();
-        source.seek(MINIMUM_SEARCH_OFFSET);
-        long tempMarker = findString(EOF_MARKER);
-        while (tempMarker != -1)
+        long parsedUntil = MINIMUM_SEARCH_OFFSET;
+        for (long tempMarker : getMarkerOffsets(Marker.EOF))
         {
+            if (tempMarker < parsedUntil)
+            {
+                continue;
+            }
+            source.seek(tempMarker + EOF_MARKER.length);
             try
             {
                 // check if the following data is some valid pdf content
@@ -548,7 +593,7 @@ public class BruteForceParser
                         exception);
                 lastEOFMarker = tempMarker;
             }
-            tempMarker = findString(EOF_MARKER);
+            parsedUntil = source.getPosition();
         }
         source.seek(originOffset);
         // no EOF marker found
@@ -568,11 +613,9 @@ public class BruteForceParser
     private Map<Long, COSObjectKey> bfSearchForObjStreamOffsets() throws IOException
     {
         HashMap<Long, COSObjectKey> bfSearchObjStreamsOffsets = new HashMap<>();
-        source.seek(MINIMUM_SEARCH_OFFSET);
         char[] string = " obj".toCharArray();
         // search for object stream marker
-        long positionObjStream = findString(OBJ_STREAM);
-        while (positionObjStream != -1)
+        for (long positionObjStream : getMarkerOffsets(Marker.OBJ_STREAM))
         {
             // search backwards for the beginning of the object
             long newOffset = -1;
@@ -627,8 +670,6 @@ public class BruteForceParser
                     }
                 }
             }
-            source.seek(positionObjStream + OBJ_STREAM.length);
-            positionObjStream = findString(OBJ_STREAM);
         }
         return bfSearchObjStreamsOffsets;
     }
@@ -642,10 +683,8 @@ public class BruteForceParser
     {
         List<Long> bfSearchXRefTablesOffsets = new ArrayList<>();
         // a pdf may contain more than one xref entry
-        source.seek(MINIMUM_SEARCH_OFFSET);
         // search for xref tables
-        long newOffset = findString(XREF_TABLE);
-        while (newOffset != -1)
+        for (long newOffset : getMarkerOffsets(Marker.XREF_TABLE))
         {
             source.seek(newOffset - 1);
             // ensure that we don't read "startxref" instead of "xref"
@@ -653,8 +692,6 @@ public class BruteForceParser
             {
                 bfSearchXRefTablesOffsets.add(newOffset);
             }
-            source.seek(newOffset + 4);
-            newOffset = findString(XREF_TABLE);
         }
         return bfSearchXRefTablesOffsets;
     }
@@ -668,12 +705,10 @@ public class BruteForceParser
     {
         List<Long> bfSearchXRefStreamsOffsets = new ArrayList<>();
         // a pdf may contain more than one /XRef entry
-        source.seek(MINIMUM_SEARCH_OFFSET);
         // search for XRef streams
         String objString = " obj";
         char[] string = objString.toCharArray();
-        long xrefOffset = findString(XREF_STREAM);
-        while (xrefOffset != -1)
+        for (long xrefOffset : getMarkerOffsets(Marker.XREF_STREAM))
         {
             // search backwards for the beginning of the stream
             long newOffset = -1;
@@ -728,8 +763,6 @@ public class BruteForceParser
             {
                 bfSearchXRefStreamsOffsets.add(newOffset);
             }
-            source.seek(xrefOffset + 5);
-            xrefOffset = findString(XREF_STREAM);
         }
         return bfSearchXRefStreamsOffsets;
     }
@@ -768,46 +801,6 @@ public class BruteForceParser
                 || dictionary.containsKey(COSName.FDF);
     }
 
-    /**
-     * Search for the given string. The search starts at the current position and returns the start position if the
-     * string was found. -1 is returned if there isn't any further occurrence of the given string. After returning the
-     * current position is either the end of the string or the end of the input.
-     * 
-     * @param string the string to be searched
-     * @return the start position of the found string
-     * @throws IOException if something went wrong
-     */
-    private long findString(char[] string) throws IOException
-    {
-        long position = -1L;
-        int stringLength = string.length;
-        int counter = 0;
-        int readChar = source.read();
-        while (readChar != -1)
-        {
-            if (readChar == string[counter])
-            {
-                if (counter == 0)
-                {
-                    position = source.getPosition() - 1;
-                }
-                counter++;
-                if (counter == stringLength)
-                {
-                    return position;
-                }
-            }
-            else if (counter > 0)
-            {
-                counter = 0;
-                position = -1L;
-                continue;
-            }
-            readChar = source.read();
-        }
-        return position;
-    }
-
     /**
      * Rebuild the trailer dictionary if startxref can't be found.
      *
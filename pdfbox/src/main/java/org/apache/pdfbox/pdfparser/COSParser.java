@@ -16,12 +16,15 @@
  */
 package org.apache.pdfbox.pdfparser;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.security.KeyStore;
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +41,7 @@ import org.apache.pdfbox.cos.COSNull;
 import org.apache.pdfbox.cos.COSNumber;
 import org.apache.pdfbox.cos.COSObject;
 import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.cos.COSObjectKeyOffsetMap;
 import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.cos.ICOSParser;
 import org.apache.pdfbox.io.IOUtils;
@@ -91,10 +95,21 @@ public class COSParser extends BaseParser implements ICOSParser
     public static final String SYSPROP_EOFLOOKUPRANGE =
             "org.apache.pdfbox.pdfparser.nonSequentialPDFParser.eofLookupRange";
 
+    /**
+     * The maximum number of parsed object streams whose objects are kept until they are dereferenced.
+     */
+    public static final String SYSPROP_OBJECTSTREAMCACHESIZE =
+            "org.apache.pdfbox.pdfparser.objectStreamCacheSize";
+
     /**
      * How many trailing bytes to read for EOF marker.
      */
     private static final int DEFAULT_TRAIL_BYTECOUNT = 2048;
+    /**
+     * How many idle parsers are kept to dereference objects, the views of further parsers are closed when they are
+     * returned.
+     */
+    private static final int MAX_IDLE_OBJECT_PARSERS = 16;
     /**
      * EOF-marker.
      */
@@ -120,13 +135,31 @@ public class COSParser extends BaseParser implements ICOSParser
     
     private BruteForceParser bruteForceParser = null;
     private PDEncryption encryption = null;
-    private final Map<COSObjectKey, Long> xrefTable = new HashMap<>();
+    private final COSObjectKeyOffsetMap xrefTable = new COSObjectKeyOffsetMap();
     
     /**
-     * Intermediate cache. Contains all objects of already read compressed object streams. Objects are removed after
+     * Intermediate cache. Contains the objects of recently read compressed object streams. Objects are removed after
      * dereferencing them.
      */
-    private final Map<Long, Map<COSObjectKey, COSBase>> decompressedObjects = new HashMap<>();
+    private final ObjectStreamCache objectStreamCache;
+
+    /**
+     * The parser this one was derived from, null for the main parser. A derived parser shares the document and the
+     * state of the main parser but reads the pdf using its own view of the source.
+     */
+    private final COSParser mainParser;
+
+    /**
+     * Idle parsers used to dereference objects after the initial parse. A parser is borrowed for every object to be
+     * dereferenced and returned afterwards, so that several threads can parse different objects of the same document
+     * in parallel. Guarded by itself.
+     */
+    private final Deque<COSParser> idleObjectParsers = new ArrayDeque<>();
+
+    /**
+     * True if the parser was closed, parsers returned afterwards are closed as well. Guarded by the idle parsers.
+     */
+    private boolean objectParsersClosed = false;
 
     /**
      * The security handler.
@@ -138,6 +171,26 @@ public class COSParser extends BaseParser implements ICOSParser
      */
     private int readTrailBytes = DEFAULT_TRAIL_BYTECOUNT; 
 
+    /**
+     * The sidecar file holding the resolved cross reference information, may be null.
+     */
+    private File parseIndexFile = null;
+
+    /**
+     * The file the source was opened from, the parse index is bound to it, may be null.
+     */
+    private File parseIndexSourceFile = null;
+
+    /**
+     * True if only the first page cross reference section of a linearized pdf shall be parsed initially.
+     */
+    private boolean linearizedLoading = false;
+
+    /**
+     * The offset of the first page cross reference section if the remaining sections are deferred, -1 otherwise.
+     */
+    private long deferredXrefOffset = -1;
+
     private static final Logger LOG = LogManager.getLogger(COSParser.class);
 
     /**
@@ -187,9 +240,31 @@ public class COSParser extends BaseParser implements ICOSParser
         this.keyAlias = keyAlias;
         fileLen = source.length();
         keyStoreInputStream = keyStore;
+        objectStreamCache = new ObjectStreamCache(ObjectStreamCache.DEFAULT_MAXIMUM_SIZE);
+        mainParser = null;
         init(streamCacheCreateFunction);
     }
 
+    /**
+     * Constructor for a parser which dereferences objects on behalf of the given main parser.
+     * 
+     * @param mainParser the main parser holding the document and the state of the initial parse
+     * @param view a view of the whole source, to be used exclusively by the new parser
+     */
+    private COSParser(COSParser mainParser, RandomAccessRead view)
+    {
+        super(view);
+        this.mainParser = mainParser;
+        fileLen = mainParser.fileLen;
+        isLenient = mainParser.isLenient;
+        initialParseDone = true;
+        objectStreamCache = mainParser.objectStreamCache;
+        encryption = mainParser.encryption;
+        securityHandler = mainParser.securityHandler;
+        accessPermission = mainParser.accessPermission;
+        document = mainParser.document;
+    }
+
     private void init(StreamCacheCreateFunction streamCacheCreateFunction)
     {
         String eofLookupRangeStr = System.getProperty(SYSPROP_EOFLOOKUPRANGE);
@@ -206,6 +281,19 @@ public class COSParser extends BaseParser implements ICOSParser
                         eofLookupRangeStr);
             }
         }
+        String objectStreamCacheSizeStr = System.getProperty(SYSPROP_OBJECTSTREAMCACHESIZE);
+        if (objectStreamCacheSizeStr != null)
+        {
+            try
+            {
+                objectStreamCache.setMaximumSize(Integer.parseInt(objectStreamCacheSizeStr));
+            }
+            catch (IllegalArgumentException ex)
+            {
+                LOG.warn("System property " + SYSPROP_OBJECTSTREAMCACHESIZE
+                        + " does not contain a valid size, but: '{}'", objectStreamCacheSizeStr);
+            }
+        }
         document = new COSDocument(streamCacheCreateFunction, this);
     }
 
@@ -232,6 +320,60 @@ public class COSParser extends BaseParser implements ICOSParser
         }
     }
 
+    /**
+     * Returns the cache holding the objects of parsed object streams until they are dereferenced. The cache provides
+     * hit and miss counters and its size may be adjusted. The default size may be set using the system property
+     * {@link #SYSPROP_OBJECTSTREAMCACHESIZE}.
+     * 
+     * @return the object stream cache
+     */
+    public ObjectStreamCache getObjectStreamCache()
+    {
+        return objectStreamCache;
+    }
+
+    /**
+     * Sets the sidecar file holding the resolved cross reference information of the pdf, i.e. the cross reference
+     * table including the object stream membership of compressed objects and the trailer. If the file exists and was
+     * created for the very same source, the parsing of the cross reference sections and the brute force search are
+     * skipped. Otherwise the file is (re)created after the cross reference information was resolved. A sidecar file
+     * which can't be read or written is ignored.
+     * 
+     * @param parseIndexFile the sidecar file or null to disable the index
+     */
+    public void setParseIndexFile(File parseIndexFile)
+    {
+        setParseIndexFile(parseIndexFile, null);
+    }
+
+    /**
+     * Sets the sidecar file holding the resolved cross reference information of the pdf, see
+     * {@link #setParseIndexFile(File)}. The index is additionally bound to the last modification time and the file key
+     * of the given source file, so that a file which was modified in place isn't matched even if its length and its
+     * sampled checksum didn't change.
+     * 
+     * @param parseIndexFile the sidecar file or null to disable the index
+     * @param sourceFile the file the source of the parser was opened from or null if it isn't a file
+     */
+    public void setParseIndexFile(File parseIndexFile, File sourceFile)
+    {
+        this.parseIndexFile = parseIndexFile;
+        this.parseIndexSourceFile = sourceFile;
+    }
+
+    /**
+     * Enables the parsing of the first page cross reference section of a linearized pdf only. The objects of the first
+     * page are resolved using that section, the remaining sections are parsed as soon as any other object is
+     * requested. The page tree isn't checked for consistency in that case. Ignored if the pdf isn't linearized, if it
+     * was updated after the linearization or if a parse index is used.
+     * 
+     * @param linearizedLoading true if the remaining cross reference sections shall be parsed on demand
+     */
+    public void setLinearizedLoading(boolean linearizedLoading)
+    {
+        this.linearizedLoading = linearizedLoading;
+    }
+
     /**
      * Read the trailer information and provide a COSDictionary containing the trailer information.
      * 
@@ -239,6 +381,185 @@ public class COSParser extends BaseParser implements ICOSParser
      * @throws IOException if something went wrong
      */
     protected COSDictionary retrieveTrailer() throws IOException
+    {
+        if (parseIndexFile == null)
+        {
+            COSDictionary trailer = linearizedLoading ? retrieveFirstPageTrailer() : null;
+            return trailer != null ? trailer : parseTrailer();
+        }
+        COSDictionary trailer = retrieveTrailerFromIndex();
+        if (trailer != null)
+        {
+            return trailer;
+        }
+        trailer = parseTrailer();
+        try
+        {
+            ParseIndex.create(source, parseIndexSourceFile, document, xrefTable, trailerWasRebuild)
+                    .write(parseIndexFile);
+        }
+        catch (IOException exception)
+        {
+            LOG.warn("Couldn't write parse index {}", parseIndexFile, exception);
+        }
+        return trailer;
+    }
+
+    private COSDictionary retrieveTrailerFromIndex() throws IOException
+    {
+        if (!parseIndexFile.isFile())
+        {
+            return null;
+        }
+        ParseIndex parseIndex;
+        try
+        {
+            parseIndex = ParseIndex.read(parseIndexFile);
+            if (!parseIndex.matches(source, parseIndexSourceFile))
+            {
+                LOG.debug("Parse index {} doesn't match the source, it will be recreated",
+                        parseIndexFile);
+                return null;
+            }
+        }
+        catch (IOException exception)
+        {
+            LOG.warn("Couldn't read parse index {}, it will be recreated", parseIndexFile,
+                    exception);
+            return null;
+        }
+        COSDictionary trailer = parseIndex.apply(document, xrefTable);
+        trailerWasRebuild = parseIndex.isTrailerRebuilt();
+        prepareDecryption();
+        return trailer;
+    }
+
+    /**
+     * Parses the first page cross reference section of a linearized pdf and defers the parsing of the remaining
+     * sections.
+     * 
+     * @return the trailer of the first page section or null if the pdf can't be loaded that way
+     * @throws IOException if the decryption failed
+     */
+    private COSDictionary retrieveFirstPageTrailer() throws IOException
+    {
+        COSDictionary trailer;
+        try
+        {
+            long xrefOffset = findFirstPageXrefOffset();
+            if (xrefOffset < 0)
+            {
+                return null;
+            }
+            trailer = new XrefParser(this).parseFirstPageXref(document, xrefOffset);
+            if (trailer.getItem(COSName.ROOT) == null
+                    || (bruteForceParser != null && bruteForceParser.bfSearchTriggered()))
+            {
+                LOG.debug("Invalid first page cross reference section, parsing all sections");
+                document.getParsedXrefTable().clear();
+                return null;
+            }
+            document.setStartXref(xrefOffset);
+            document.setTrailer(trailer);
+            if (trailer.getLong(COSName.PREV) > 0)
+            {
+                deferredXrefOffset = xrefOffset;
+                document.setHasDeferredXRefTable(true);
+            }
+        }
+        catch (IOException exception)
+        {
+            LOG.debug("Couldn't parse the first page cross reference section, parsing all sections",
+                    exception);
+            document.getParsedXrefTable().clear();
+            return null;
+        }
+        prepareDecryption();
+        return trailer;
+    }
+
+    /**
+     * Looks for the linearization dictionary which has to be the first object of the pdf. The first page cross
+     * reference section follows immediately.
+     * 
+     * @return the offset of the first page cross reference section or -1 if the pdf isn't linearized or if it was
+     * updated after the linearization
+     * @throws IOException if the linearization dictionary can't be read
+     */
+    private long findFirstPageXrefOffset() throws IOException
+    {
+        source.seek(0);
+        skipSpaces();
+        if (!isDigit())
+        {
+            return -1;
+        }
+        readObjectNumber();
+        readGenerationNumber();
+        readObjectMarker();
+        skipSpaces();
+        COSBase object = parseDirObject();
+        if (!(object instanceof COSDictionary)
+                || !((COSDictionary) object).containsKey(COSName.LINEARIZED)
+                || ((COSDictionary) object).getLong(COSName.L) != fileLen)
+        {
+            return -1;
+        }
+        skipSpaces();
+        if (!ENDOBJ_STRING.equals(readString()))
+        {
+            return -1;
+        }
+        skipSpaces();
+        return source.getPosition();
+    }
+
+    /**
+     * Parses all cross reference sections if only the first page section of a linearized pdf was parsed so far. The
+     * resulting cross reference table is the same as if the pdf was parsed completely in the first place.
+     * 
+     * @throws IOException if the cross reference sections can't be parsed
+     */
+    @Override
+    public void loadDeferredXRefTable() throws IOException
+    {
+        if (mainParser != null)
+        {
+            mainParser.loadDeferredXRefTable();
+            return;
+        }
+        synchronized (this)
+        {
+            if (deferredXrefOffset < 0)
+            {
+                return;
+            }
+            long xrefOffset = deferredXrefOffset;
+            deferredXrefOffset = -1;
+            long originOffset = source.getPosition();
+            try
+            {
+                // parse the chain again starting with the first page section, so that the sections are resolved
+                // in the same order as for a complete parse, but keep the trailer of the first page section
+                XrefParser xrefParser = new XrefParser(this);
+                xrefParser.parseXrefSections(document, xrefOffset, true);
+                xrefTable.putAll(xrefParser.getXrefTable());
+                if (bruteForceParser != null && bruteForceParser.bfSearchTriggered())
+                {
+                    getBruteForceParser().bfSearchForObjStreams(xrefTable);
+                }
+            }
+            finally
+            {
+                source.seek(originOffset);
+                // the flag is only cleared once the table is complete, other threads seeing it wait for this lock
+                // instead of reading the partial table
+                document.setHasDeferredXRefTable(false);
+            }
+        }
+    }
+
+    private COSDictionary parseTrailer() throws IOException
     {
         COSDictionary trailer = null;
         boolean rebuildTrailer = false;
@@ -428,6 +749,18 @@ public class COSParser extends BaseParser implements ICOSParser
     @Override
     public COSBase dereferenceCOSObject(COSObject obj) throws IOException
     {
+        COSParser objectParser = borrowObjectParser();
+        if (objectParser != this)
+        {
+            try
+            {
+                return objectParser.dereferenceCOSObject(obj);
+            }
+            finally
+            {
+                returnObjectParser(objectParser);
+            }
+        }
         long currentPos = source.getPosition();
         COSObjectKey key = obj.getKey();
         COSBase parsedObj = parseObjectDynamically(key, false);
@@ -435,6 +768,7 @@ public class COSParser extends BaseParser implements ICOSParser
         {
             parsedObj.setDirect(false);
             parsedObj.setKey(key);
+            document.objectLoaded(obj);
         }
         if (currentPos > 0)
         {
@@ -447,9 +781,116 @@ public class COSParser extends BaseParser implements ICOSParser
     public RandomAccessReadView createRandomAccessReadView(long startPosition, long streamLength)
             throws IOException
     {
+        if (mainParser != null)
+        {
+            return mainParser.createRandomAccessReadView(startPosition, streamLength);
+        }
         return source.createView(startPosition, streamLength);
     }
 
+    /**
+     * Borrows a parser to dereference an object. Once the initial parse is done every caller gets a parser reading
+     * from its own view of the source, so that objects can be parsed concurrently. The main parser itself is used
+     * while the initial parse is in progress or if the source doesn't support views, it mustn't be returned.
+     * 
+     * @return the parser to be used to dereference objects
+     */
+    private COSParser borrowObjectParser()
+    {
+        if (mainParser != null || !initialParseDone)
+        {
+            return this;
+        }
+        synchronized (idleObjectParsers)
+        {
+            COSParser objectParser = idleObjectParsers.poll();
+            if (objectParser != null)
+            {
+                return objectParser;
+            }
+        }
+        return createObjectParser();
+    }
+
+    /**
+     * Returns a borrowed parser, which is closed if enough parsers are idle or if this parser was closed.
+     * 
+     * @param objectParser the parser to be returned
+     */
+    private void returnObjectParser(COSParser objectParser)
+    {
+        synchronized (idleObjectParsers)
+        {
+            if (!objectParsersClosed && idleObjectParsers.size() < MAX_IDLE_OBJECT_PARSERS)
+            {
+                idleObjectParsers.push(objectParser);
+                return;
+            }
+        }
+        IOUtils.closeQuietly(objectParser);
+    }
+
+    /**
+     * Returns the number of idle parsers used to dereference objects.
+     * 
+     * @return the number of idle parsers
+     */
+    int getIdleObjectParserCount()
+    {
+        synchronized (idleObjectParsers)
+        {
+            return idleObjectParsers.size();
+        }
+    }
+
+    /**
+     * Closes the parsers used to dereference objects and their views. The source itself isn't closed, as it is owned
+     * by the caller. Parsers still in use are closed as soon as they are returned.
+     * 
+     * @throws IOException if a view couldn't be closed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (mainParser != null)
+        {
+            // a parser dereferencing objects owns its view
+            source.close();
+            return;
+        }
+        List<COSParser> objectParsers;
+        synchronized (idleObjectParsers)
+        {
+            objectParsersClosed = true;
+            objectParsers = new ArrayList<>(idleObjectParsers);
+            idleObjectParsers.clear();
+        }
+        IOException firstException = null;
+        for (COSParser objectParser : objectParsers)
+        {
+            firstException = IOUtils.closeAndLogException(objectParser, LOG, "COSParser",
+                    firstException);
+        }
+        if (firstException != null)
+        {
+            throw firstException;
+        }
+    }
+
+    private COSParser createObjectParser()
+    {
+        try
+        {
+            return new COSParser(this, source.createView(0, fileLen));
+        }
+        catch (IOException exception)
+        {
+            LOG.debug("Can't create a view of the source, objects are dereferenced sequentially",
+                    exception);
+            return this;
+        }
+    }
+
     /**
      * Parse the object for the given object key.
      * 
@@ -499,16 +940,34 @@ public class COSParser extends BaseParser implements ICOSParser
             throws IOException
     {
         // read offset or object stream object number from xref table
-        Long offsetOrObjstmObNr = document.getXrefTable().get(objKey);
+        Long offsetOrObjstmObNr = document.getParsedXrefTable().get(objKey);
+
+        // the object may be part of a deferred cross reference section
+        if (offsetOrObjstmObNr == null && document.hasDeferredXRefTable())
+        {
+            try
+            {
+                loadDeferredXRefTable();
+            }
+            catch (IOException exception)
+            {
+                if (!isLenient)
+                {
+                    throw exception;
+                }
+                LOG.error("Couldn't parse the deferred cross reference sections", exception);
+            }
+            offsetOrObjstmObNr = document.getParsedXrefTable().get(objKey);
+        }
 
         // maybe something is wrong with the xref table -> perform brute force search for all objects
         if (offsetOrObjstmObNr == null && isLenient)
         {
-            offsetOrObjstmObNr =  getBruteForceParser().getBFCOSObjectOffsets().get(objKey);
+            offsetOrObjstmObNr = getBFCOSObjectOffset(objKey);
             if (offsetOrObjstmObNr != null)
             {
                 LOG.debug("Set missing offset {} for object {}", offsetOrObjstmObNr, objKey);
-                document.getXrefTable().put(objKey, offsetOrObjstmObNr);
+                document.getParsedXrefTable().put(objKey, offsetOrObjstmObNr);
             }
         }
 
@@ -522,6 +981,16 @@ public class COSParser extends BaseParser implements ICOSParser
         return offsetOrObjstmObNr;
     }
 
+    private Long getBFCOSObjectOffset(COSObjectKey objKey) throws IOException
+    {
+        // the brute force parser reads from the source of the main parser
+        COSParser parser = mainParser != null ? mainParser : this;
+        synchronized (parser)
+        {
+            return parser.getBruteForceParser().getBFCOSObjectOffsets().get(objKey);
+        }
+    }
+
     private COSBase parseFileObject(Long objOffset, final COSObjectKey objKey)
             throws IOException
     {
@@ -620,26 +1089,30 @@ public class COSParser extends BaseParser implements ICOSParser
      */
     protected COSBase parseObjectStreamObject(long objstmObjNr, COSObjectKey key) throws IOException
     {
-        Map<COSObjectKey, COSBase> streamObjects = decompressedObjects.computeIfAbsent(objstmObjNr,
-                n -> new HashMap<>());
+        final COSObjectKey objKey = getObjectKey(objstmObjNr, 0);
+        final COSBase objstmBaseObj = document.getObjectFromPool(objKey).getObject();
         // did we already read the compressed object stream?
-        COSBase objectStreamObject = streamObjects.remove(key);
-        if (objectStreamObject != null)
+        COSBase objectStreamObject = objectStreamCache.remove(objstmObjNr, key);
+        if (objectStreamObject != null || !(objstmBaseObj instanceof COSStream))
         {
             return objectStreamObject;
         }
-        final COSObjectKey objKey = getObjectKey(objstmObjNr, 0);
-        final COSBase objstmBaseObj = document.getObjectFromPool(objKey).getObject();
-        if (objstmBaseObj instanceof COSStream)
+        // several threads may ask for objects of the same object stream
+        synchronized (objstmBaseObj)
         {
+            // another thread may have parsed the object stream in the meantime
+            objectStreamObject = objectStreamCache.remove(objstmObjNr, key);
+            if (objectStreamObject != null)
+            {
+                return objectStreamObject;
+            }
             try
             {
-                PDFObjectStreamParser parser = new PDFObjectStreamParser((COSStream) objstmBaseObj,
-                        document);
+                PDFObjectStreamParser parser = new PDFObjectStreamParser(
+                        (COSStream) objstmBaseObj, document);
                 Map<COSObjectKey, COSBase> allStreamObjects = parser.parseAllObjects();
                 objectStreamObject = allStreamObjects.remove(key);
-                allStreamObjects.entrySet().stream()
-                        .forEach(e -> streamObjects.putIfAbsent(e.getKey(), e.getValue()));
+                objectStreamCache.put(objstmObjNr, allStreamObjects);
             }
             catch (IOException ex)
             {
@@ -653,8 +1126,8 @@ public class COSParser extends BaseParser implements ICOSParser
                     throw ex;
                 }
             }
+            return objectStreamObject;
         }
-        return objectStreamObject;
     }
 
     /** 
@@ -910,6 +1383,10 @@ public class COSParser extends BaseParser implements ICOSParser
 
     protected BruteForceParser getBruteForceParser() throws IOException
     {
+        if (mainParser != null)
+        {
+            return mainParser.getBruteForceParser();
+        }
     	if (bruteForceParser == null)
     	{
             bruteForceParser = new BruteForceParser(document, this);
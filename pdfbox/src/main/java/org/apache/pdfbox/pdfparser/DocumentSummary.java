@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfparser;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.pdfbox.pdmodel.encryption.AccessPermission;
+
+/**
+ * An immutable summary of the metadata of a pdf as returned by {@link org.apache.pdfbox.Loader#probePDF(java.io.File)}.
+ * It is gathered without loading the page tree.
+ */
+public final class DocumentSummary
+{
+    private final float version;
+    private final int pageCount;
+    private final boolean encrypted;
+    private final AccessPermission accessPermission;
+    private final Map<String, String> documentInformation;
+    private final byte[] xmpMetadata;
+
+    DocumentSummary(float version, int pageCount, boolean encrypted,
+            AccessPermission accessPermission, Map<String, String> documentInformation,
+            byte[] xmpMetadata)
+    {
+        this.version = version;
+        this.pageCount = pageCount;
+        this.encrypted = encrypted;
+        this.accessPermission = accessPermission;
+        this.documentInformation = Collections.unmodifiableMap(documentInformation);
+        this.xmpMetadata = xmpMetadata;
+    }
+
+    /**
+     * Returns the version of the pdf, the more recent one of the header version and the version of the document
+     * catalog.
+     *
+     * @return the version of the pdf
+     */
+    public float getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Returns the number of pages as given by the root of the page tree.
+     *
+     * @return the number of pages
+     */
+    public int getPageCount()
+    {
+        return pageCount;
+    }
+
+    /**
+     * Indicates if the pdf is encrypted.
+     *
+     * @return true if the pdf is encrypted
+     */
+    public boolean isEncrypted()
+    {
+        return encrypted;
+    }
+
+    /**
+     * Returns the access permissions granted when the pdf was opened. The returned instance is read only.
+     *
+     * @return the access permission
+     */
+    public AccessPermission getAccessPermission()
+    {
+        return accessPermission;
+    }
+
+    /**
+     * Returns the entries of the document information dictionary with text or name values, e.g. "Title" or
+     * "Producer". Dates are provided in their PDF string representation.
+     *
+     * @return an unmodifiable map of all entries, empty if there isn't any document information dictionary
+     */
+    public Map<String, String> getDocumentInformation()
+    {
+        return documentInformation;
+    }
+
+    /**
+     * Returns the value of the given entry of the document information dictionary.
+     *
+     * @param key the key of the entry, e.g. "Title"
+     * @return the value of the entry or null if the entry is missing
+     */
+    public String getDocumentInformation(String key)
+    {
+        return documentInformation.get(key);
+    }
+
+    /**
+     * Returns the XMP metadata of the document catalog.
+     *
+     * @return a copy of the decoded metadata stream or null if there isn't any metadata
+     */
+    public byte[] getXMPMetadata()
+    {
+        return xmpMetadata != null ? xmpMetadata.clone() : null;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "DocumentSummary{version=" + version + ", pageCount=" + pageCount + ", encrypted="
+                + encrypted + ", documentInformation=" + documentInformation + "}";
+    }
+}
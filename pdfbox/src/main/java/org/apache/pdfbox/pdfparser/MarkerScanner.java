@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfparser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.apache.pdfbox.io.RandomAccessRead;
+
+/**
+ * Finds all occurrences of the markers the {@link BruteForceParser} is looking for in a single pass over the source.
+ *
+ * The source is split into chunks which may be scanned concurrently, the chunks are read using positional reads. Every
+ * chunk reads a few bytes beyond its end so that a marker spanning the edge of two chunks is found by the chunk it
+ * starts in. The results of all chunks are merged in the order of the chunks, so that the offsets of every marker are
+ * sorted.
+ */
+final class MarkerScanner
+{
+    /**
+     * The default size of the chunks. Sources up to this size are scanned by the calling thread.
+     */
+    static final int DEFAULT_CHUNK_SIZE = 1 << 22;
+
+    /**
+     * The markers to be searched for.
+     */
+    enum Marker
+    {
+        /**
+         * A whitespace followed by "obj", the offset of the whitespace is reported.
+         */
+        OBJ(" obj"),
+        /**
+         * "endo", the abbreviation of "endobj" as the pdf may be cut off in the middle of the keyword.
+         */
+        ENDOBJ("endo"),
+        EOF("%%EOF"),
+        OBJ_STREAM("/ObjStm"),
+        XREF_TABLE("xref"),
+        XREF_STREAM("/XRef"),
+        TRAILER("trailer");
+
+        private final byte[] bytes;
+
+        Marker(String marker)
+        {
+            bytes = marker.getBytes(StandardCharsets.US_ASCII);
+        }
+
+        int length()
+        {
+            return bytes.length;
+        }
+    }
+
+    private static final int MAX_MARKER_LENGTH = Arrays.stream(Marker.values())
+            .mapToInt(Marker::length).max().orElse(0);
+
+    private final RandomAccessRead source;
+    private final long start;
+    private final long end;
+    private final int chunkSize;
+    private final boolean parallel;
+
+    /**
+     * Constructor.
+     *
+     * @param source the source to be scanned
+     * @param start the offset where to start the scan
+     * @param chunkSize the size of the chunks
+     * @param parallel true if the chunks shall be scanned concurrently
+     * @throws IOException if the length of the source can't be determined
+     */
+    MarkerScanner(RandomAccessRead source, long start, int chunkSize, boolean parallel)
+            throws IOException
+    {
+        this.source = source;
+        this.start = start;
+        this.end = source.length();
+        this.chunkSize = chunkSize;
+        this.parallel = parallel;
+    }
+
+    /**
+     * Scans the source. The position of the source isn't changed.
+     *
+     * @return the sorted offsets of every marker
+     * @throws IOException if the source can't be read
+     */
+    Map<Marker, long[]> scan() throws IOException
+    {
+        if (end <= start)
+        {
+            return merge(List.of());
+        }
+        int chunkCount = (int) ((end - start + chunkSize - 1) / chunkSize);
+        if (parallel && chunkCount > 1)
+        {
+            try
+            {
+                List<Map<Marker, long[]>> chunks = IntStream.range(0, chunkCount).parallel()
+                        .mapToObj(this::scanChunkUnchecked) //
+                        .collect(Collectors.toList());
+                return merge(chunks);
+            }
+            catch (UncheckedIOException exception)
+            {
+                throw exception.getCause();
+            }
+        }
+        List<Map<Marker, long[]>> chunks = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++)
+        {
+            chunks.add(scanChunk(i));
+        }
+        return merge(chunks);
+    }
+
+    private Map<Marker, long[]> scanChunkUnchecked(int chunk)
+    {
+        try
+        {
+            return scanChunk(chunk);
+        }
+        catch (IOException exception)
+        {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Scans a single chunk.
+     *
+     * @param chunk the index of the chunk
+     * @return the offsets of all markers starting within the chunk
+     * @throws IOException if the source can't be read
+     */
+    private Map<Marker, long[]> scanChunk(int chunk) throws IOException
+    {
+        long chunkStart = start + (long) chunk * chunkSize;
+        int limit = (int) Math.min(chunkSize, end - chunkStart);
+        byte[] buffer = new byte[(int) Math.min(limit + (long) MAX_MARKER_LENGTH, end - chunkStart)];
+        int length = Math.max(0, source.read(chunkStart, buffer, 0, buffer.length));
+        Map<Marker, LongStream.Builder> hits = new EnumMap<>(Marker.class);
+        for (Marker marker : Marker.values())
+        {
+            hits.put(marker, LongStream.builder());
+        }
+        for (int i = 0; i < Math.min(limit, length); i++)
+        {
+            switch (buffer[i])
+            {
+            case 0:
+            case 9:
+            case 10:
+            case 12:
+            case 13:
+            case 32:
+                addIfMatches(buffer, length, i, 1, Marker.OBJ, chunkStart, hits);
+                break;
+            case 'e':
+                addIfMatches(buffer, length, i, 0, Marker.ENDOBJ, chunkStart, hits);
+                break;
+            case '%':
+                addIfMatches(buffer, length, i, 0, Marker.EOF, chunkStart, hits);
+                break;
+            case '/':
+                addIfMatches(buffer, length, i, 0, Marker.OBJ_STREAM, chunkStart, hits);
+                addIfMatches(buffer, length, i, 0, Marker.XREF_STREAM, chunkStart, hits);
+                break;
+            case 'x':
+                addIfMatches(buffer, length, i, 0, Marker.XREF_TABLE, chunkStart, hits);
+                break;
+            case 't':
+                addIfMatches(buffer, length, i, 0, Marker.TRAILER, chunkStart, hits);
+                break;
+            default:
+                break;
+            }
+        }
+        Map<Marker, long[]> result = new EnumMap<>(Marker.class);
+        hits.forEach((marker, builder) -> result.put(marker, builder.build().toArray()));
+        return result;
+    }
+
+    /**
+     * Adds the given offset if the marker starts there, the first bytes of the marker may be skipped if they were
+     * checked by the caller.
+     */
+    private static void addIfMatches(byte[] buffer, int length, int offset, int skip,
+            Marker marker, long chunkStart, Map<Marker, LongStream.Builder> hits)
+    {
+        byte[] bytes = marker.bytes;
+        if (offset + bytes.length > length)
+        {
+            return;
+        }
+        for (int i = skip; i < bytes.length; i++)
+        {
+            if (buffer[offset + i] != bytes[i])
+            {
+                return;
+            }
+        }
+        hits.get(marker).add(chunkStart + offset);
+    }
+
+    private static Map<Marker, long[]> merge(List<Map<Marker, long[]>> chunks)
+    {
+        Map<Marker, long[]> result = new EnumMap<>(Marker.class);
+        for (Marker marker : Marker.values())
+        {
+            result.put(marker, chunks.stream() //
+                    .flatMapToLong(chunk -> Arrays.stream(chunk.get(marker))) //
+                    .toArray());
+        }
+        return result;
+    }
+}
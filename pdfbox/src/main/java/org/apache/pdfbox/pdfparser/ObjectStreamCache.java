@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfparser;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSObjectKey;
+
+/**
+ * A size-bounded cache holding the objects of already parsed compressed object streams which weren't dereferenced
+ * yet.
+ *
+ * An object is removed from the cache when it is dereferenced. If the maximum number of object streams is exceeded the
+ * least recently used object stream is evicted. Its remaining objects are parsed again if they are requested later
+ * on.
+ */
+public class ObjectStreamCache
+{
+    /**
+     * The default maximum number of cached object streams.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+    private final LinkedHashMap<Long, Map<COSObjectKey, COSBase>> objectStreams = new LinkedHashMap<>(
+            16, 0.75f, true);
+
+    private int maximumSize;
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param maximumSize the maximum number of cached object streams
+     */
+    public ObjectStreamCache(int maximumSize)
+    {
+        setMaximumSize(maximumSize);
+    }
+
+    /**
+     * Removes the given object of the given object stream from the cache.
+     *
+     * @param objstmObjNr the object number of the object stream
+     * @param key the key of the compressed object
+     * @return the cached object or null if the object isn't cached
+     */
+    synchronized COSBase remove(long objstmObjNr, COSObjectKey key)
+    {
+        Map<COSObjectKey, COSBase> objects = objectStreams.get(objstmObjNr);
+        if (objects == null)
+        {
+            return null;
+        }
+        COSBase object = objects.remove(key);
+        if (object != null)
+        {
+            hitCount++;
+        }
+        if (objects.isEmpty())
+        {
+            objectStreams.remove(objstmObjNr);
+        }
+        return object;
+    }
+
+    /**
+     * Adds the not yet dereferenced objects of a freshly parsed object stream. Objects already present in the cache are
+     * kept.
+     *
+     * @param objstmObjNr the object number of the object stream
+     * @param objects the remaining objects of the object stream
+     */
+    synchronized void put(long objstmObjNr, Map<COSObjectKey, COSBase> objects)
+    {
+        missCount++;
+        if (objects.isEmpty())
+        {
+            return;
+        }
+        Map<COSObjectKey, COSBase> cachedObjects = objectStreams.computeIfAbsent(objstmObjNr,
+                n -> new HashMap<>());
+        objects.forEach(cachedObjects::putIfAbsent);
+        evict();
+    }
+
+    private void evict()
+    {
+        Iterator<Map.Entry<Long, Map<COSObjectKey, COSBase>>> iterator = objectStreams.entrySet()
+                .iterator();
+        while (objectStreams.size() > maximumSize && iterator.hasNext())
+        {
+            iterator.next();
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Removes all objects from the cache. The counters are kept.
+     */
+    public synchronized void clear()
+    {
+        objectStreams.clear();
+    }
+
+    /**
+     * Returns the maximum number of cached object streams.
+     *
+     * @return the maximum number of object streams
+     */
+    public synchronized int getMaximumSize()
+    {
+        return maximumSize;
+    }
+
+    /**
+     * Sets the maximum number of cached object streams. Object streams are evicted immediately if the cache holds more
+     * object streams than allowed.
+     *
+     * @param maximumSize the maximum number of object streams, 0 disables the caching
+     * @throws IllegalArgumentException if the given size is negative
+     */
+    public final synchronized void setMaximumSize(int maximumSize)
+    {
+        if (maximumSize < 0)
+        {
+            throw new IllegalArgumentException("Maximum size must not be negative: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        evict();
+    }
+
+    /**
+     * Returns the number of currently cached object streams.
+     *
+     * @return the number of object streams
+     */
+    public synchronized int size()
+    {
+        return objectStreams.size();
+    }
+
+    /**
+     * Returns the number of compressed objects which were taken from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public synchronized long getHitCount()
+    {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of times an object stream had to be parsed because the requested object wasn't cached.
+     *
+     * @return the number of cache misses
+     */
+    public synchronized long getMissCount()
+    {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of object streams which were evicted from the cache before all of their objects were
+     * dereferenced.
+     *
+     * @return the number of evicted object streams
+     */
+    public synchronized long getEvictionCount()
+    {
+        return evictionCount;
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return "ObjectStreamCache{size=" + objectStreams.size() + ", maximumSize=" + maximumSize
+                + ", hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount
+                + "}";
+    }
+}
@@ -19,16 +19,23 @@ package org.apache.pdfbox.pdfparser;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSBase;
 import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.cos.COSString;
 import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.io.RandomAccessRead;
 import org.apache.pdfbox.io.RandomAccessStreamCache.StreamCacheCreateFunction;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.encryption.AccessPermission;
 import org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException;
 
 public class PDFParser extends COSParser
@@ -116,8 +123,12 @@ public class PDFParser extends COSParser
         {
             root.setItem(COSName.TYPE, COSName.CATALOG);
         }
-        // check pages dictionaries
-        checkPages(root);
+        // check pages dictionaries, unless only the first page cross reference section of a linearized pdf was
+        // parsed as checking them would require all of them
+        if (!document.hasDeferredXRefTable())
+        {
+            checkPages(root);
+        }
         document.setDecrypted();
         initialParseDone = true;
     }
@@ -153,19 +164,7 @@ public class PDFParser extends COSParser
         boolean exceptionOccurred = true;
         try
         {
-            // PDFBOX-1922 read the version header and rewind
-            if (!parsePDFHeader() && !parseFDFHeader())
-            {
-                if (lenient)
-                {
-                    LOG.warn("Error: Header doesn't contain versioninfo");
-                }
-                else
-                {
-                    throw new IOException("Error: Header doesn't contain versioninfo");
-                }
-            }
-    
+            checkHeader(lenient);
             if (!initialParseDone)
             {
                 initialParse();
@@ -185,6 +184,123 @@ public class PDFParser extends COSParser
         }
     }
 
+    /**
+     * Parses only the trailer, the document catalog, the root of the page tree and the document information
+     * dictionary and returns a summary of them. Neither the page tree is checked nor the document is prepared for
+     * further processing. The parser can't be used for anything else afterwards. Lenient mode is active.
+     *
+     * @return the summary of the pdf
+     *
+     * @throws InvalidPasswordException If the password is incorrect.
+     * @throws IOException If there is an error reading from the stream or corrupt data is found.
+     */
+    public DocumentSummary probe() throws IOException
+    {
+        setLenient(true);
+        try
+        {
+            checkHeader(true);
+            COSDictionary trailer = retrieveTrailer();
+            COSDictionary root = trailer.getCOSDictionary(COSName.ROOT);
+            if (root == null)
+            {
+                throw new IOException("Missing root object specification in trailer.");
+            }
+            document.setDecrypted();
+            return createSummary(trailer, root);
+        }
+        finally
+        {
+            if (document != null)
+            {
+                IOUtils.closeQuietly(document);
+                document = null;
+            }
+        }
+    }
+
+    private DocumentSummary createSummary(COSDictionary trailer, COSDictionary root)
+            throws IOException
+    {
+        float version = document.getVersion();
+        // there may be a second version information in the document catalog starting with 1.4
+        if (version >= 1.4f && root.getCOSName(COSName.VERSION) != null)
+        {
+            try
+            {
+                version = Math.max(version,
+                        Float.parseFloat(root.getCOSName(COSName.VERSION).getName()));
+            }
+            catch (NumberFormatException exception)
+            {
+                LOG.error("Can't extract the version number of the document catalog.", exception);
+            }
+        }
+        COSDictionary pages = root.getCOSDictionary(COSName.PAGES);
+        int pageCount = pages != null ? pages.getInt(COSName.COUNT, 0) : 0;
+
+        Map<String, String> documentInformation = new LinkedHashMap<>();
+        COSDictionary info = trailer.getCOSDictionary(COSName.INFO);
+        if (info != null)
+        {
+            info.forEach((key, value) ->
+            {
+                COSBase object = value instanceof COSObject ? ((COSObject) value).getObject()
+                        : value;
+                if (object instanceof COSString)
+                {
+                    documentInformation.put(key.getName(), ((COSString) object).getString());
+                }
+                else if (object instanceof COSName)
+                {
+                    documentInformation.put(key.getName(), ((COSName) object).getName());
+                }
+            });
+        }
+
+        byte[] xmpMetadata = null;
+        COSStream metadata = root.getCOSStream(COSName.METADATA);
+        if (metadata != null)
+        {
+            try (InputStream is = metadata.createInputStream())
+            {
+                xmpMetadata = is.readAllBytes();
+            }
+        }
+
+        AccessPermission accessPermission = getAccessPermission();
+        if (accessPermission == null)
+        {
+            accessPermission = AccessPermission.getOwnerAccessPermission();
+        }
+        else
+        {
+            accessPermission = new AccessPermission(accessPermission.getPermissionBytes());
+        }
+        accessPermission.setReadOnly();
+        return new DocumentSummary(version, pageCount, getEncryption() != null, accessPermission,
+                documentInformation, xmpMetadata);
+    }
+
+    /**
+     * Read the version header and rewind.
+     */
+    private void checkHeader(boolean lenient) throws IOException
+    {
+        // PDFBOX-1922 read the version header and rewind
+        if (!parsePDFHeader() && !parseFDFHeader())
+        {
+            if (lenient)
+            {
+                LOG.warn("Error: Header doesn't contain versioninfo");
+            }
+            else
+            {
+                throw new IOException("Error: Header doesn't contain versioninfo");
+            }
+        }
+    }
+
     /**
      * Create the resulting document. Maybe overwritten if the parser uses another class as document.
      * 
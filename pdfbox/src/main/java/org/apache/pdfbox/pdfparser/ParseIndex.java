@@ -0,0 +1,457 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfparser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSBoolean;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSDocument;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSNull;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.cos.COSObjectKeyOffsetMap;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.util.Hex;
+
+/**
+ * The resolved cross reference information of a pdf, i.e. the cross reference table including the object stream
+ * membership of compressed objects and the trailer, which may be stored in a sidecar file to skip the parsing of the
+ * cross reference sections or the brute force search when the pdf is loaded again.
+ *
+ * An index is bound to the source it was created for by the length of the source and a CRC32 checksum of its first and
+ * last {@link #SAMPLE_SIZE} bytes. The whole source isn't read as this would take longer than parsing the cross
+ * reference for huge files. As every incremental update appends to the source and changes its end, the sampled
+ * checksum detects updated files. If the source is a file, the index is bound to its last modification time and its
+ * file key as well, so that a file which was rewritten in place keeping its length and the sampled bytes isn't matched.
+ */
+final class ParseIndex
+{
+    /**
+     * The number of bytes at the beginning and at the end of the source covered by the checksum.
+     */
+    static final int SAMPLE_SIZE = 1 << 20;
+
+    private static final int MAGIC = 0x50424958; // PBIX
+    private static final int FORMAT_VERSION = 2;
+
+    private final long sourceLength;
+    private final long sourceChecksum;
+    private final long sourceModified;
+    private final String sourceFileKey;
+    private final long startXref;
+    private final boolean xrefStream;
+    private final boolean hybridXref;
+    private final boolean trailerRebuilt;
+    private final long highestXRefObjectNumber;
+    private final COSObjectKeyOffsetMap xrefTable;
+    private final byte[] trailer;
+
+    private ParseIndex(long sourceLength, long sourceChecksum, long sourceModified,
+            String sourceFileKey, long startXref, boolean xrefStream, boolean hybridXref,
+            boolean trailerRebuilt, long highestXRefObjectNumber, COSObjectKeyOffsetMap xrefTable,
+            byte[] trailer)
+    {
+        this.sourceLength = sourceLength;
+        this.sourceChecksum = sourceChecksum;
+        this.sourceModified = sourceModified;
+        this.sourceFileKey = sourceFileKey;
+        this.startXref = startXref;
+        this.xrefStream = xrefStream;
+        this.hybridXref = hybridXref;
+        this.trailerRebuilt = trailerRebuilt;
+        this.highestXRefObjectNumber = highestXRefObjectNumber;
+        this.xrefTable = xrefTable;
+        this.trailer = trailer;
+    }
+
+    /**
+     * Creates an index of the current state of the given document.
+     *
+     * @param source the source of the document
+     * @param sourceFile the file of the source or null if the source isn't a file
+     * @param document the document after the trailer was retrieved
+     * @param parserXrefTable the cross reference table of the parser, which includes the compressed objects found by a
+     * brute force search
+     * @param trailerRebuilt true if the trailer was rebuilt by a brute force search
+     * @return the index
+     * @throws IOException if the source can't be read or if the trailer contains unsupported objects
+     */
+    static ParseIndex create(RandomAccessRead source, File sourceFile, COSDocument document,
+            Map<COSObjectKey, Long> parserXrefTable, boolean trailerRebuilt) throws IOException
+    {
+        BasicFileAttributes attributes = readAttributes(sourceFile);
+        ByteArrayOutputStream trailerBytes = new ByteArrayOutputStream();
+        writeObject(document.getTrailer(), trailerBytes);
+        COSObjectKeyOffsetMap xrefTable = new COSObjectKeyOffsetMap();
+        xrefTable.putAll(document.getXrefTable());
+        // objects which would have to be searched for otherwise
+        parserXrefTable.forEach(xrefTable::putIfAbsent);
+        return new ParseIndex(source.length(), checksum(source), lastModified(attributes),
+                fileKey(attributes), document.getStartXref(), document.isXRefStream(),
+                document.hasHybridXRef(), trailerRebuilt, document.getHighestXRefObjectNumber(),
+                xrefTable, trailerBytes.toByteArray());
+    }
+
+    /**
+     * Reads an index from the given file.
+     *
+     * @param file the index file
+     * @return the index
+     * @throws IOException if the file can't be read or isn't a valid index
+     */
+    static ParseIndex read(File file) throws IOException
+    {
+        try (InputStream is = Files.newInputStream(file.toPath()))
+        {
+            CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(is),
+                    new CRC32());
+            DataInputStream input = new DataInputStream(checked);
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION)
+            {
+                throw new IOException("Not a parse index: " + file);
+            }
+            long sourceLength = input.readLong();
+            long sourceChecksum = input.readLong();
+            long sourceModified = input.readLong();
+            String sourceFileKey = input.readUTF();
+            long startXref = input.readLong();
+            int flags = input.readByte();
+            long highestXRefObjectNumber = input.readLong();
+            COSObjectKeyOffsetMap xrefTable = readXrefTable(input);
+            int trailerLength = input.readInt();
+            if (trailerLength < 0 || trailerLength > file.length())
+            {
+                throw new IOException("Invalid length of trailer: " + trailerLength);
+            }
+            byte[] trailer = new byte[trailerLength];
+            input.readFully(trailer);
+            long expectedChecksum = checked.getChecksum().getValue();
+            if (input.readLong() != expectedChecksum)
+            {
+                throw new IOException("Corrupt parse index: " + file);
+            }
+            return new ParseIndex(sourceLength, sourceChecksum, sourceModified, sourceFileKey,
+                    startXref, (flags & 1) != 0, (flags & 2) != 0, (flags & 4) != 0,
+                    highestXRefObjectNumber, xrefTable, trailer);
+        }
+    }
+
+    /**
+     * Writes this index to the given file. The index is written to a temporary file first which replaces the given
+     * file afterwards, so that concurrent readers never see a partially written index.
+     *
+     * @param file the index file
+     * @throws IOException if the file can't be written
+     */
+    void write(File file) throws IOException
+    {
+        File directory = file.getAbsoluteFile().getParentFile();
+        File tempFile = File.createTempFile(file.getName(), ".tmp", directory);
+        try
+        {
+            try (OutputStream os = Files.newOutputStream(tempFile.toPath()))
+            {
+                CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(os),
+                        new CRC32());
+                DataOutputStream output = new DataOutputStream(checked);
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                output.writeLong(sourceLength);
+                output.writeLong(sourceChecksum);
+                output.writeLong(sourceModified);
+                output.writeUTF(sourceFileKey);
+                output.writeLong(startXref);
+                output.writeByte((xrefStream ? 1 : 0) | (hybridXref ? 2 : 0) | (trailerRebuilt ? 4 : 0));
+                output.writeLong(highestXRefObjectNumber);
+                writeXrefTable(xrefTable, output);
+                output.writeInt(trailer.length);
+                output.write(trailer);
+                output.flush();
+                output.writeLong(checked.getChecksum().getValue());
+                output.flush();
+            }
+            try
+            {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (AtomicMoveNotSupportedException e)
+            {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    /**
+     * Checks if this index was created for the given source.
+     *
+     * @param source the source of the pdf
+     * @param sourceFile the file of the source or null if the source isn't a file
+     * @return true if the length, the checksum and the modification time and file key of the source match
+     * @throws IOException if the source can't be read
+     */
+    boolean matches(RandomAccessRead source, File sourceFile) throws IOException
+    {
+        BasicFileAttributes attributes = readAttributes(sourceFile);
+        return source.length() == sourceLength && lastModified(attributes) == sourceModified
+                && fileKey(attributes).equals(sourceFileKey) && checksum(source) == sourceChecksum;
+    }
+
+    /**
+     * Transfers the cross reference information to the given document.
+     *
+     * @param document the document to be initialized
+     * @param parserXrefTable the cross reference table of the parser
+     * @return the trailer
+     * @throws IOException if the trailer can't be parsed
+     */
+    COSDictionary apply(COSDocument document, Map<COSObjectKey, Long> parserXrefTable)
+            throws IOException
+    {
+        document.setStartXref(startXref);
+        document.setIsXRefStream(xrefStream);
+        if (hybridXref)
+        {
+            document.setHasHybridXRef();
+        }
+        document.getXrefTable().clear();
+        document.addXRefTable(xrefTable);
+        document.setHighestXRefObjectNumber(highestXRefObjectNumber);
+        parserXrefTable.clear();
+        parserXrefTable.putAll(xrefTable);
+        COSDictionary trailerDictionary = new TrailerParser(new RandomAccessReadBuffer(trailer),
+                document).parseTrailer();
+        document.setTrailer(trailerDictionary);
+        return trailerDictionary;
+    }
+
+    /**
+     * Indicates if the trailer was rebuilt by a brute force search when the index was created.
+     *
+     * @return true if the trailer was rebuilt
+     */
+    boolean isTrailerRebuilt()
+    {
+        return trailerRebuilt;
+    }
+
+    private static BasicFileAttributes readAttributes(File sourceFile) throws IOException
+    {
+        return sourceFile != null
+                ? Files.readAttributes(sourceFile.toPath(), BasicFileAttributes.class)
+                : null;
+    }
+
+    private static long lastModified(BasicFileAttributes attributes)
+    {
+        return attributes != null ? attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS) : -1;
+    }
+
+    /**
+     * Returns the file key, e.g. the device and inode, as the string representation is the only portable form of it.
+     */
+    private static String fileKey(BasicFileAttributes attributes)
+    {
+        Object fileKey = attributes != null ? attributes.fileKey() : null;
+        return fileKey != null ? fileKey.toString() : "";
+    }
+
+    private static long checksum(RandomAccessRead source) throws IOException
+    {
+        CRC32 crc = new CRC32();
+        long length = source.length();
+        byte[] buffer = new byte[8192];
+        long position = source.getPosition();
+        try
+        {
+            updateChecksum(source, 0, Math.min(length, SAMPLE_SIZE), crc, buffer);
+            long tailStart = Math.max(SAMPLE_SIZE, length - SAMPLE_SIZE);
+            updateChecksum(source, tailStart, length - tailStart, crc, buffer);
+        }
+        finally
+        {
+            source.seek(position);
+        }
+        return crc.getValue();
+    }
+
+    private static void updateChecksum(RandomAccessRead source, long start, long count, CRC32 crc,
+            byte[] buffer) throws IOException
+    {
+        source.seek(start);
+        long remaining = count;
+        while (remaining > 0)
+        {
+            int read = source.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 1)
+            {
+                throw new IOException("Unexpected end of source at offset " + source.getPosition());
+            }
+            crc.update(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+
+    private static void writeXrefTable(COSObjectKeyOffsetMap xrefTable, DataOutputStream output)
+            throws IOException
+    {
+        output.writeInt(xrefTable.size());
+        for (Map.Entry<COSObjectKey, Long> entry : xrefTable.entrySet())
+        {
+            COSObjectKey key = entry.getKey();
+            output.writeLong(key.getNumber());
+            output.writeInt(key.getGeneration());
+            output.writeInt(key.getStreamIndex());
+            output.writeLong(entry.getValue());
+        }
+    }
+
+    private static COSObjectKeyOffsetMap readXrefTable(DataInputStream input) throws IOException
+    {
+        int size = input.readInt();
+        if (size < 0)
+        {
+            throw new IOException("Invalid size of cross reference table: " + size);
+        }
+        COSObjectKeyOffsetMap xrefTable = new COSObjectKeyOffsetMap();
+        for (int i = 0; i < size; i++)
+        {
+            long number = input.readLong();
+            int generation = input.readInt();
+            int streamIndex = input.readInt();
+            xrefTable.putOffset(new COSObjectKey(number, generation, streamIndex), input.readLong());
+        }
+        return xrefTable;
+    }
+
+    /**
+     * Writes the given direct object using the PDF syntax, indirect objects are written as references.
+     */
+    private static void writeObject(COSBase object, OutputStream output) throws IOException
+    {
+        if (object instanceof COSObject)
+        {
+            COSObjectKey key = ((COSObject) object).getKey();
+            if (key == null)
+            {
+                throw new IOException("Indirect object without a key");
+            }
+            output.write((key.getNumber() + " " + key.getGeneration() + " R")
+                    .getBytes(StandardCharsets.ISO_8859_1));
+        }
+        else if (object instanceof COSDictionary)
+        {
+            output.write("<<".getBytes(StandardCharsets.ISO_8859_1));
+            for (Map.Entry<COSName, COSBase> entry : ((COSDictionary) object).entrySet())
+            {
+                entry.getKey().writePDF(output);
+                output.write(' ');
+                writeObject(entry.getValue(), output);
+                output.write('\n');
+            }
+            output.write(">>".getBytes(StandardCharsets.ISO_8859_1));
+        }
+        else if (object instanceof COSArray)
+        {
+            output.write('[');
+            for (COSBase item : (COSArray) object)
+            {
+                writeObject(item, output);
+                output.write(' ');
+            }
+            output.write(']');
+        }
+        else if (object instanceof COSString)
+        {
+            output.write('<');
+            Hex.writeHexBytes(((COSString) object).getBytes(), output);
+            output.write('>');
+        }
+        else if (object instanceof COSName)
+        {
+            ((COSName) object).writePDF(output);
+        }
+        else if (object instanceof COSInteger)
+        {
+            ((COSInteger) object).writePDF(output);
+        }
+        else if (object instanceof COSFloat)
+        {
+            ((COSFloat) object).writePDF(output);
+        }
+        else if (object instanceof COSBoolean)
+        {
+            ((COSBoolean) object).writePDF(output);
+        }
+        else if (object == null || object instanceof COSNull)
+        {
+            COSNull.NULL.writePDF(output);
+        }
+        else
+        {
+            throw new IOException("Unsupported trailer entry " + object.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Parses the stored trailer, references are resolved using the object pool of the document.
+     */
+    private static final class TrailerParser extends BaseParser
+    {
+        private TrailerParser(RandomAccessRead source, COSDocument document)
+        {
+            super(source);
+            this.document = document;
+        }
+
+        private COSDictionary parseTrailer() throws IOException
+        {
+            skipSpaces();
+            return parseCOSDictionary(true);
+        }
+    }
+}
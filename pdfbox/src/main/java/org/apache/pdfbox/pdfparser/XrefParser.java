@@ -98,7 +98,44 @@ public class XrefParser
             startXrefOffset = fixedOffset;
         }
         document.setStartXref(startXrefOffset);
+        COSDictionary trailer = parseXrefSections(document, startXrefOffset, true);
+        document.setTrailer(trailer);
+        return trailer;
+    }
+
+    /**
+     * Parses the first page cross reference section of a linearized pdf, but none of the sections referenced by its
+     * /Prev entry. The parsed part of the cross reference table is added to the document.
+     * 
+     * @param document the corresponding COS document of the pdf.
+     * @param xrefOffset offset of the first page cross reference section
+     * 
+     * @return the trailer dictionary of the first page section
+     * 
+     * @throws IOException if something went wrong
+     */
+    COSDictionary parseFirstPageXref(COSDocument document, long xrefOffset) throws IOException
+    {
+        return parseXrefSections(document, xrefOffset, false);
+    }
+
+    /**
+     * Parses the cross reference section at the given offset and, if requested, the chain of sections referenced by
+     * the /Prev entries. The resolved cross reference table is added to the document, the trailer isn't.
+     * 
+     * @param document the corresponding COS document of the pdf.
+     * @param startXrefOffset offset of the first section to be parsed
+     * @param followPrev true if the /Prev entries shall be followed
+     * 
+     * @return the resolved trailer dictionary
+     * 
+     * @throws IOException if something went wrong
+     */
+    COSDictionary parseXrefSections(COSDocument document, long startXrefOffset, boolean followPrev)
+            throws IOException
+    {
         long prev = startXrefOffset;
+        long fixedOffset;
         // ---- parse whole chain of xref tables/object streams using PREV reference
         Set<Long> prevSet = new HashSet<>();
         COSDictionary trailer = null;
@@ -163,6 +200,12 @@ public class XrefParser
                 prev = parseXrefObjStream(prev, true);
                 trailer = xrefTrailerResolver.getCurrentTrailer();
             }
+            if (!followPrev)
+            {
+                // the referenced sections aren't parsed, remove the reference to avoid a warning when resolving
+                trailer.removeItem(COSName.PREV);
+                break;
+            }
             if (prev > 0)
             {
                 // check the xref table reference
@@ -181,7 +224,10 @@ public class XrefParser
         // ---- build valid xrefs out of the xref chain
         xrefTrailerResolver.setStartxref(startXrefOffset);
         trailer = xrefTrailerResolver.getTrailer();
-        document.setTrailer(trailer);
+        if (!followPrev && prev > 0)
+        {
+            trailer.setLong(COSName.PREV, prev);
+        }
         document.setIsXRefStream(XRefType.STREAM == xrefTrailerResolver.getXrefType());
         // check the offsets of all referenced objects
         checkXrefOffsets();
@@ -31,6 +31,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.cos.COSObjectKeyOffsetMap;
 
 /**
  * This class will collect all XRef/trailer objects and creates correct
@@ -64,7 +65,7 @@ public class XrefTrailerResolver
 
         private XRefType xrefType;
 
-        private final Map<COSObjectKey, Long> xrefTable = new HashMap<>();
+        private final COSObjectKeyOffsetMap xrefTable = new COSObjectKeyOffsetMap();
         
         /**
          *  Default constructor.
@@ -16,9 +16,14 @@
  */
 package org.apache.pdfbox.pdfwriter;
 
+import java.io.FileOutputStream;
 import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+
+import org.apache.pdfbox.io.BufferedFileOutputStream;
+import org.apache.pdfbox.io.RandomAccessRead;
 
 /**
  * simple output stream with some minor features for generating "pretty" PDF files.
@@ -116,6 +121,60 @@ public class COSStandardOutputStream extends FilterOutputStream
         position += len;
     }
 
+    /**
+     * This will write all bytes of the given source to the stream. If the underlying stream is a
+     * {@link FileOutputStream} or a {@link BufferedFileOutputStream}, the bytes are transferred to the
+     * channel of the file directly, see {@link RandomAccessRead#transferTo(long, long, java.nio.channels.WritableByteChannel)}.
+     * Otherwise they are copied to the underlying stream.
+     *
+     * @param source The source to be written.
+     *
+     * @throws IOException If the source can't be read or the underlying stream throws an exception.
+     */
+    public void write(RandomAccessRead source) throws IOException
+    {
+        long length = source.length();
+        long transferred = 0;
+        FileChannel channel = getFileChannel();
+        if (channel != null)
+        {
+            transferred = source.transferTo(0, length, channel);
+        }
+        else
+        {
+            byte[] buffer = new byte[8192];
+            int bytesRead;
+            while (transferred < length && (bytesRead = source.read(transferred, buffer, 0,
+                    (int) Math.min(buffer.length, length - transferred))) > 0)
+            {
+                out.write(buffer, 0, bytesRead);
+                transferred += bytesRead;
+            }
+        }
+        if (transferred > 0)
+        {
+            setOnNewLine(false);
+        }
+        position += transferred;
+    }
+
+    /**
+     * Returns the channel of the underlying file positioned after the bytes written so far, or null if the underlying
+     * stream doesn't write to a file.
+     */
+    private FileChannel getFileChannel() throws IOException
+    {
+        if (out instanceof BufferedFileOutputStream)
+        {
+            return ((BufferedFileOutputStream) out).flushToChannel();
+        }
+        if (out instanceof FileOutputStream)
+        {
+            return ((FileOutputStream) out).getChannel();
+        }
+        return null;
+    }
+
     /**
      * This will write a single byte to the stream.
      *
@@ -24,21 +24,16 @@ import java.io.SequenceInputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
-import java.text.NumberFormat;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Hashtable;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.apache.pdfbox.cos.COSArray;
@@ -66,7 +61,9 @@ import org.apache.pdfbox.pdfparser.xref.NormalXReference;
 import org.apache.pdfbox.pdfparser.xref.ObjectStreamXReference;
 import org.apache.pdfbox.pdfparser.xref.XReferenceEntry;
 import org.apache.pdfbox.pdfwriter.compress.COSWriterCompressionPool;
+import org.apache.pdfbox.pdfwriter.compress.COSWriterDeduplicator;
 import org.apache.pdfbox.pdfwriter.compress.COSWriterObjectStream;
+import org.apache.pdfbox.pdfwriter.compress.COSWriterStreamCompressor;
 import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.encryption.ProtectionPolicy;
@@ -75,6 +72,7 @@ import org.apache.pdfbox.pdmodel.fdf.FDFDocument;
 import org.apache.pdfbox.pdmodel.interactive.digitalsignature.COSFilterInputStream;
 import org.apache.pdfbox.pdmodel.interactive.digitalsignature.SignatureInterface;
 import org.apache.pdfbox.util.Hex;
+import org.apache.pdfbox.util.NumberFormatUtil;
 
 /**
  * This class acts on a in-memory representation of a PDF document.
@@ -164,12 +162,14 @@ public class COSWriter implements ICOSVisitor
      */
     public static final byte[] ENDSTREAM = "endstream".getBytes(StandardCharsets.US_ASCII);
     
-    private static final NumberFormat formatXrefOffset = new DecimalFormat("0000000000",
-            DecimalFormatSymbols.getInstance(Locale.US));
+    // the number of digits of the offset of a xref table entry
+    private static final int XREF_OFFSET_DIGITS = 10;
 
-    // the decimal format for the xref object generation number data
-    private static final NumberFormat formatXrefGeneration = new DecimalFormat("00000",
-            DecimalFormatSymbols.getInstance(Locale.US));
+    // the number of digits of the generation number of a xref table entry
+    private static final int XREF_GENERATION_DIGITS = 5;
+
+    // buffer used to format numbers and xref table entries without creating strings
+    private final byte[] formatBuffer = new byte[2 * NumberFormatUtil.MAX_LONG_LENGTH + 4];
 
     // the stream where we create the pdf output
     private OutputStream output;
@@ -183,14 +183,15 @@ public class COSWriter implements ICOSVisitor
     // the current object number
     private long number = 0;
 
+    // the initial size of the object tables if the number of objects isn't known
+    private static final int DEFAULT_OBJECT_COUNT = 64;
+
     // maps the object to the keys generated in the writer
     // these are used for indirect references in other objects
-    //A hashtable is used on purpose over a hashmap
-    //so that null entries will not get added.
-    @SuppressWarnings({"squid:S1149"})
-    private final Map<COSBase,COSObjectKey> objectKeys = new Hashtable<>();
+    // the objects are compared by identity, equal but distinct objects get their own keys
+    private Map<COSBase, COSObjectKey> objectKeys = new IdentityHashMap<>(DEFAULT_OBJECT_COUNT);
 
-    private final Map<COSObjectKey,COSBase> keyObject = new HashMap<>();
+    private COSWriterObjectTable keyObject = new COSWriterObjectTable(DEFAULT_OBJECT_COUNT);
 
     // the list of x ref entries to be made so far
     private final List<XReferenceEntry> xRefEntries = new ArrayList<>();
@@ -198,8 +199,11 @@ public class COSWriter implements ICOSVisitor
     //A list of objects to write.
     private final Deque<COSBase> objectsToWrite = new ArrayDeque<>();
 
+    // the objects of the list of objects to write, to find them without searching the list
+    private final Set<COSBase> queuedObjects = newIdentitySet(DEFAULT_OBJECT_COUNT);
+
     //a list of objects already written
-    private final Set<COSBase> writtenObjects = new HashSet<>();
+    private Set<COSBase> writtenObjects = newIdentitySet(DEFAULT_OBJECT_COUNT);
 
     //An 'actual' is any COSBase that is not a COSObject.
     //need to keep a list of the actuals that are added
@@ -207,7 +211,7 @@ public class COSWriter implements ICOSVisitor
     //when adding a COSObject and then later adding
     //the actual for that object, so we will track
     //actuals separately.
-    private final Set<COSBase> actualsAdded = new HashSet<>();
+    private Set<COSBase> actualsAdded = newIdentitySet(DEFAULT_OBJECT_COUNT);
 
     private COSObjectKey currentObjectKey = null;
     private PDDocument pdDocument = null;
@@ -227,8 +231,17 @@ public class COSWriter implements ICOSVisitor
     private byte[] incrementPart;
     private COSArray byteRangeArray;
     private final CompressParameters compressParameters;
+    private final COSWriterStreamCompressor streamCompressor;
     private boolean blockAddingObject = false;
 
+    // streaming, the objects written so far are released page by page
+    private boolean streaming = false;
+    private Predicate<COSBase> deferredObjectFilter = null;
+    private final List<COSBase> deferredObjects = new ArrayList<>();
+    private final List<COSBase> flushedObjects = new ArrayList<>();
+    // keys of the released objects, as long as they may be referenced by other objects
+    private COSWriterReleasedObjects releasedObjectKeys = null;
+
     /**
      * COSWriter constructor.
      *
@@ -251,6 +264,9 @@ public class COSWriter implements ICOSVisitor
         setOutput(outputStream);
         setStandardOutput(new COSStandardOutputStream(output));
         this.compressParameters = compressParameters;
+        streamCompressor = compressParameters != null && compressParameters.isCompressStreams()
+                ? new COSWriterStreamCompressor(compressParameters.getStreamCompressionExecutor())
+                : null;
     }
 
     /**
@@ -271,6 +287,7 @@ public class COSWriter implements ICOSVisitor
         setStandardOutput(new COSStandardOutputStream(output, inputData.length()));
         // disable compressed object streams
         compressParameters = CompressParameters.NO_COMPRESSION;
+        streamCompressor = null;
         incrementalInput = inputData;
         incrementalOutput = outputStream;
         incrementalUpdate = true;
@@ -306,7 +323,32 @@ public class COSWriter implements ICOSVisitor
         // COSArray.setDirect(true) is called at some places in the current implementation for
         // documentational purposes only.
         this(outputStream, inputData);
-        this.objectsToWrite.addAll(objectsToWrite);
+        objectsToWrite.forEach(this::queueObject);
+    }
+
+    private static Set<COSBase> newIdentitySet(int expectedSize)
+    {
+        return Collections.newSetFromMap(new IdentityHashMap<>(expectedSize));
+    }
+
+    /**
+     * Sizes the tables keeping track of the objects for the number of objects of the given document, so that they
+     * aren't resized over and over again while writing documents with many objects.
+     */
+    private void allocateObjectTables(COSDocument cosDoc)
+    {
+        int objectCount = Math.max(cosDoc.getXrefTable().size(), DEFAULT_OBJECT_COUNT);
+        // the keys of the indirect objects and of the objects referenced by them
+        objectKeys = new IdentityHashMap<>(2 * objectCount);
+        keyObject = new COSWriterObjectTable(objectCount);
+        writtenObjects = newIdentitySet(2 * objectCount);
+        actualsAdded = newIdentitySet(objectCount);
+    }
+
+    private void queueObject(COSBase object)
+    {
+        objectsToWrite.add(object);
+        queuedObjects.add(object);
     }
 
     /**
@@ -484,6 +526,21 @@ public class COSWriter implements ICOSVisitor
                 keyObject.put(key, object);
             }
             number = compressionPool.getHighestXRefObjectNumber();
+            if (streamCompressor != null)
+            {
+                for (COSObjectKey key : compressionPool.getTopLevelObjects())
+                {
+                    COSBase object = keyObject.get(key);
+                    if (object instanceof COSObject)
+                    {
+                        object = ((COSObject) object).getObject();
+                    }
+                    if (object instanceof COSStream)
+                    {
+                        streamCompressor.queue((COSStream) object);
+                    }
+                }
+            }
             for (COSObjectKey key : compressionPool.getTopLevelObjects())
             {
                 currentObjectKey = key;
@@ -531,11 +588,25 @@ public class COSWriter implements ICOSVisitor
     {
         while (!objectsToWrite.isEmpty())
         {
-            doWriteObject(objectsToWrite.removeFirst());
+            COSBase object = objectsToWrite.removeFirst();
+            queuedObjects.remove(object);
+            if (deferredObjectFilter == null)
+            {
+                doWriteObject(object);
+            }
+            else if (deferredObjectFilter.test(object))
+            {
+                deferredObjects.add(object);
+            }
+            else
+            {
+                doWriteObject(object);
+                flushedObjects.add(object);
+            }
         }
     }
 
-    private void addObjectToWrite( COSBase object )
+    private void addObjectToWrite( COSBase object ) throws IOException
     {
         if (blockAddingObject)
         {
@@ -549,10 +620,15 @@ public class COSWriter implements ICOSVisitor
 
         if (writtenObjects.contains(object) //
                 || actualsAdded.contains(actual) //
-                || objectsToWrite.contains(object))
+                || queuedObjects.contains(object))
         {
             return;
         }
+        if (streaming && (actual == null || releasedObjectKeys.contains(actual)))
+        {
+            // missing objects aren't written, released objects were written before
+            return;
+        }
 
         COSBase cosBase = null;
         COSObjectKey cosObjectKey = null;
@@ -568,11 +644,16 @@ public class COSWriter implements ICOSVisitor
                 }
             }
         }
-        objectsToWrite.add(object);
+        queueObject(object);
         if (actual != null)
         {
             actualsAdded.add(actual);
         }
+        if (streamCompressor != null && actual instanceof COSStream)
+        {
+            // start compressing the stream ahead of writing it
+            streamCompressor.queue((COSStream) actual);
+        }
     }
 
     /**
@@ -590,14 +671,10 @@ public class COSWriter implements ICOSVisitor
         {
             return;
         }
-        // add a x ref entry
-        addXRefEntry(new NormalXReference(getStandardOutput().getPos(), key, obj));
+        // add a x ref entry, the object isn't needed for the xref stream of a streamed document
+        addXRefEntry(new NormalXReference(getStandardOutput().getPos(), key, streaming ? null : obj));
         // write the object
-        getStandardOutput()
-                .write(String.valueOf(key.getNumber()).getBytes(StandardCharsets.ISO_8859_1));
-        getStandardOutput().write(SPACE);
-        getStandardOutput()
-                .write(String.valueOf(key.getGeneration()).getBytes(StandardCharsets.ISO_8859_1));
+        writeNumberPair(key.getNumber(), key.getGeneration());
         getStandardOutput().write(SPACE);
         getStandardOutput().write(OBJ);
         getStandardOutput().writeEOL();
@@ -988,24 +1065,35 @@ public class COSWriter implements ICOSVisitor
 
     private void writeXrefRange(long x, long y) throws IOException
     {
-        getStandardOutput().write(String.valueOf(x).getBytes(StandardCharsets.ISO_8859_1));
-        getStandardOutput().write(SPACE);
-        getStandardOutput().write(String.valueOf(y).getBytes(StandardCharsets.ISO_8859_1));
+        writeNumberPair(x, y);
         getStandardOutput().writeEOL();
     }
 
     private void writeXrefEntry(XReferenceEntry entry) throws IOException
     {
-        String offset = formatXrefOffset.format(entry.getSecondColumnValue());
-        String generation = formatXrefGeneration.format(entry.getThirdColumnValue());
-        getStandardOutput().write(offset.getBytes(StandardCharsets.ISO_8859_1));
-        getStandardOutput().write(SPACE);
-        getStandardOutput().write(generation.getBytes(StandardCharsets.ISO_8859_1));
-        getStandardOutput().write(SPACE);
-        getStandardOutput().write(entry instanceof FreeXReference ? XREF_FREE : XREF_USED);
+        int length = NumberFormatUtil.formatLongPadded(entry.getSecondColumnValue(),
+                XREF_OFFSET_DIGITS, formatBuffer, 0);
+        formatBuffer[length++] = SPACE[0];
+        length = NumberFormatUtil.formatLongPadded(entry.getThirdColumnValue(),
+                XREF_GENERATION_DIGITS, formatBuffer, length);
+        formatBuffer[length++] = SPACE[0];
+        formatBuffer[length++] = entry instanceof FreeXReference ? XREF_FREE[0] : XREF_USED[0];
+        getStandardOutput().write(formatBuffer, 0, length);
         getStandardOutput().writeCRLF();
     }
 
+    /**
+     * Writes two numbers separated by a space, e.g. the object number and the generation number of
+     * an object key.
+     */
+    private void writeNumberPair(long first, long second) throws IOException
+    {
+        int length = NumberFormatUtil.formatLong(first, formatBuffer, 0);
+        formatBuffer[length++] = SPACE[0];
+        length = NumberFormatUtil.formatLong(second, formatBuffer, length);
+        getStandardOutput().write(formatBuffer, 0, length);
+    }
+
     /**
      * check the xref entries and write out the ranges.  The format of the
      * returned array is exactly the same as the pdf specification.  See section
@@ -1089,6 +1177,14 @@ public class COSWriter implements ICOSVisitor
         {
             actual = obj;
         }
+        if (releasedObjectKeys != null)
+        {
+            COSObjectKey releasedKey = releasedObjectKeys.get(actual);
+            if (releasedKey != null)
+            {
+                return releasedKey;
+            }
+        }
         COSObjectKey actualKey = objectKeys.computeIfAbsent(actual,
                 k -> new COSObjectKey(++number, 0));
         // check if the returned key and the origin key of the given object are the same
@@ -1292,6 +1388,18 @@ public class COSWriter implements ICOSVisitor
         }
     }
 
+    private void doWriteEndOfFile() throws IOException
+    {
+        // write endof
+        getStandardOutput().write(STARTXREF);
+        getStandardOutput().writeEOL();
+        getStandardOutput().write(formatBuffer, 0,
+                NumberFormatUtil.formatLong(getStartxref(), formatBuffer, 0));
+        getStandardOutput().writeEOL();
+        getStandardOutput().write(EOF);
+        getStandardOutput().writeEOL();
+    }
+
     @Override
     public void visitFromDocument(COSDocument doc) throws IOException
     {
@@ -1327,13 +1435,7 @@ public class COSWriter implements ICOSVisitor
             doWriteTrailer(doc);
         }
 
-        // write endof
-        getStandardOutput().write(STARTXREF);
-        getStandardOutput().writeEOL();
-        getStandardOutput().write(String.valueOf(getStartxref()).getBytes(StandardCharsets.ISO_8859_1));
-        getStandardOutput().writeEOL();
-        getStandardOutput().write(EOF);
-        getStandardOutput().writeEOL();
+        doWriteEndOfFile();
 
         if (incrementalUpdate)
         {
@@ -1358,7 +1460,8 @@ public class COSWriter implements ICOSVisitor
     @Override
     public void visitFromInt(COSInteger obj) throws IOException
     {
-        obj.writePDF( getStandardOutput() );
+        getStandardOutput().write(formatBuffer, 0,
+                NumberFormatUtil.formatLong(obj.longValue(), formatBuffer, 0));
     }
 
     @Override
@@ -1383,9 +1486,7 @@ public class COSWriter implements ICOSVisitor
     public void writeReference(COSBase obj) throws IOException
     {
             COSObjectKey key = getObjectKey(obj);
-            getStandardOutput().write(String.valueOf(key.getNumber()).getBytes(StandardCharsets.ISO_8859_1));
-            getStandardOutput().write(SPACE);
-            getStandardOutput().write(String.valueOf(key.getGeneration()).getBytes(StandardCharsets.ISO_8859_1));
+            writeNumberPair(key.getNumber(), key.getGeneration());
             getStandardOutput().write(SPACE);
             getStandardOutput().write(REFERENCE);
     }
@@ -1393,35 +1494,31 @@ public class COSWriter implements ICOSVisitor
     @Override
     public void visitFromStream(COSStream obj) throws IOException
     {
+        if (streamCompressor != null)
+        {
+            streamCompressor.compress(obj);
+        }
         if (willEncrypt)
         {
             pdDocument.getEncryption().getSecurityHandler()
                 .encryptStream(obj, currentObjectKey.getNumber(), currentObjectKey.getGeneration());
         }
 
-        InputStream input = null;
-        try
-        {
-            // write the stream content
-            visitFromDictionary(obj);
-            getStandardOutput().write(STREAM);
-            getStandardOutput().writeCRLF();
-            if (obj.hasData())
-            {
-                input = obj.createRawInputStream();
-                input.transferTo(getStandardOutput());
-            }
-            getStandardOutput().writeCRLF();
-            getStandardOutput().write(ENDSTREAM);
-            getStandardOutput().writeEOL();
-        }
-        finally
+        // write the stream content
+        visitFromDictionary(obj);
+        getStandardOutput().write(STREAM);
+        getStandardOutput().writeCRLF();
+        if (obj.hasData())
         {
-            if (input != null)
+            // the encoded data of a stream read from a file is transferred without copying it if possible
+            try (RandomAccessRead source = obj.createRawView())
             {
-                input.close();
+                getStandardOutput().write(source);
             }
         }
+        getStandardOutput().writeCRLF();
+        getStandardOutput().write(ENDSTREAM);
+        getStandardOutput().writeEOL();
     }
 
     @Override
@@ -1483,11 +1580,12 @@ public class COSWriter implements ICOSVisitor
     {
         pdDocument = doc;
         COSDocument cosDoc = pdDocument.getDocument();
+        allocateObjectTables(cosDoc);
         COSDictionary trailer = cosDoc.getTrailer();
         if (incrementalUpdate)
         {
             trailer.toIncrement().exclude(trailer).forEach(base -> {
-                objectsToWrite.add(base);
+                queueObject(base);
                 if (base instanceof COSObject)
                 {
                     actualsAdded.add(((COSObject) base).getObject());
@@ -1504,9 +1602,10 @@ public class COSWriter implements ICOSVisitor
         {
             prepareIncrement();
         }
-        long idTime = pdDocument.getDocumentId() == null ? System.currentTimeMillis()
-                : pdDocument.getDocumentId();
-
+        else if (compressParameters != null && compressParameters.isDeduplicateObjects())
+        {
+            new COSWriterDeduplicator().deduplicate(trailer);
+        }
         // if the document says we should remove encryption, then we shouldn't encrypt
         if (doc.isAllSecurityToBeRemoved())
         {
@@ -1538,6 +1637,34 @@ public class COSWriter implements ICOSVisitor
             }
         }
 
+        updateDocumentId(trailer);
+        try
+        {
+            cosDoc.accept(this);
+        }
+        finally
+        {
+            if (streamCompressor != null)
+            {
+                streamCompressor.cancel();
+            }
+        }
+        if (!incrementalUpdate)
+        {
+            cosDoc.setHighestXRefObjectNumber(number);
+        }
+    }
+
+    /**
+     * Creates or updates the ID of the document, which is stored in the trailer.
+     *
+     * @param trailer the trailer of the document
+     */
+    private void updateDocumentId(COSDictionary trailer)
+    {
+        long idTime = pdDocument.getDocumentId() == null ? System.currentTimeMillis()
+                : pdDocument.getDocumentId();
+
         COSArray idArray;
         boolean missingID = true;
         COSBase base = trailer.getDictionaryObject(COSName.ID);
@@ -1588,11 +1715,120 @@ public class COSWriter implements ICOSVisitor
             idArray.add( secondID );
             trailer.setItem(COSName.ID, idArray);
         }
-        cosDoc.accept(this);
-        if (!incrementalUpdate)
+    }
+
+    /**
+     * Starts writing the given document object by object instead of writing it at once, see
+     * {@link org.apache.pdfbox.pdmodel.StreamingDocumentWriter}. The header is written immediately, the objects are
+     * written using {@link #writeStreamedObject(COSBase, Predicate)} and the document is completed by
+     * {@link #finishStreaming()}. The document is saved using a cross-reference stream, encryption isn't supported.
+     *
+     * @param doc The document to write.
+     *
+     * @throws IOException If an error occurs while writing the header.
+     */
+    public void startStreaming(PDDocument doc) throws IOException
+    {
+        if (streaming || pdDocument != null)
         {
-            cosDoc.setHighestXRefObjectNumber(number);
+            throw new IllegalStateException("The writer has already been used");
         }
+        if (doc.getEncryption() != null || incrementalUpdate)
+        {
+            throw new IllegalStateException("Encrypted documents and incremental updates can't be streamed");
+        }
+        pdDocument = doc;
+        COSDocument cosDoc = doc.getDocument();
+        allocateObjectTables(cosDoc);
+        number = cosDoc.getHighestXRefObjectNumber();
+        willEncrypt = false;
+        // cross-reference streams need version 1.5
+        doc.setVersion(Math.max(doc.getVersion(), 1.5f));
+        cosDoc.setVersion(Math.max(cosDoc.getVersion(), 1.5f));
+        cosDoc.setIsXRefStream(true);
+        doWriteHeader(cosDoc);
+        streaming = true;
+        releasedObjectKeys = new COSWriterReleasedObjects();
+    }
+
+    /**
+     * Writes the given object and all objects referenced by it, which weren't written before, except for the objects
+     * accepted by the given filter. The deferred objects are written by {@link #finishStreaming()}, so that they may
+     * still be changed, e.g. fonts which are subset at the end.
+     * <p>
+     * The written objects are released: the writer only keeps their keys as long as the objects are referenced
+     * elsewhere, and the data of written streams is released by closing them. Written objects must not be changed
+     * anymore as they aren't written again.
+     * </p>
+     *
+     * @param object The object to write.
+     * @param deferredObjects The filter accepting the objects to be written at the end.
+     *
+     * @throws IOException If an error occurs while writing the objects.
+     */
+    public void writeStreamedObject(COSBase object, Predicate<COSBase> deferredObjects)
+            throws IOException
+    {
+        if (!streaming)
+        {
+            throw new IllegalStateException("Streaming hasn't been started");
+        }
+        deferredObjectFilter = deferredObjects;
+        try
+        {
+            addObjectToWrite(object);
+            doWriteObjects();
+        }
+        finally
+        {
+            deferredObjectFilter = null;
+        }
+        for (COSBase flushed : flushedObjects)
+        {
+            COSBase actual = flushed instanceof COSObject ? ((COSObject) flushed).getObject()
+                    : flushed;
+            COSObjectKey key = objectKeys.remove(flushed);
+            writtenObjects.remove(flushed);
+            if (actual == null)
+            {
+                continue;
+            }
+            COSObjectKey actualKey = objectKeys.remove(actual);
+            key = actualKey != null ? actualKey : key;
+            keyObject.remove(key);
+            actualsAdded.remove(actual);
+            writtenObjects.remove(actual);
+            releasedObjectKeys.put(actual, key);
+            if (actual instanceof COSStream)
+            {
+                ((COSStream) actual).close();
+            }
+        }
+        flushedObjects.clear();
+    }
+
+    /**
+     * Completes a document written object by object. The deferred objects and all objects which weren't written so
+     * far are written, followed by the cross-reference stream and the trailer.
+     *
+     * @throws IOException If an error occurs while writing the objects.
+     */
+    public void finishStreaming() throws IOException
+    {
+        if (!streaming)
+        {
+            throw new IllegalStateException("Streaming hasn't been started");
+        }
+        COSDocument cosDoc = pdDocument.getDocument();
+        updateDocumentId(cosDoc.getTrailer());
+        deferredObjects.forEach(this::queueObject);
+        deferredObjects.clear();
+        doWriteBody(cosDoc);
+        doWriteXRefInc(cosDoc);
+        doWriteEndOfFile();
+        getStandardOutput().flush();
+        cosDoc.setHighestXRefObjectNumber(number);
+        streaming = false;
     }
 
     /**
@@ -1609,7 +1845,7 @@ public class COSWriter implements ICOSVisitor
         if (incrementalUpdate)
         {
             COSDictionary trailer = cosDoc.getTrailer();
-            trailer.toIncrement().exclude(trailer).forEach(objectsToWrite::add);
+            trailer.toIncrement().exclude(trailer).forEach(this::queueObject);
         }
         willEncrypt = false;
         cosDoc.accept(this);
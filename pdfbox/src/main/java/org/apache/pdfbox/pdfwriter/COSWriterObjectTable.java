@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfwriter;
+
+import java.util.Arrays;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSObjectKey;
+
+/**
+ * The objects known to the {@link COSWriter} keyed by the combined object number and generation of their keys.
+ *
+ * The objects are stored in an open addressing table backed by a primitive array of keys, so that neither boxed keys
+ * nor entries are created for the objects of a document. The table isn't thread safe, as the writer isn't either.
+ */
+final class COSWriterObjectTable
+{
+    private static final long FREE = -1;
+    private static final int MINIMUM_CAPACITY = 64;
+
+    private long[] keys;
+    private COSBase[] objects;
+    private int size = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param expectedSize the expected number of objects, the table is sized to hold them without being resized
+     */
+    COSWriterObjectTable(int expectedSize)
+    {
+        int capacity = MINIMUM_CAPACITY;
+        // keep the load factor below 3/4
+        while (capacity - (capacity >>> 2) <= expectedSize && capacity < 1 << 30)
+        {
+            capacity <<= 1;
+        }
+        keys = new long[capacity];
+        Arrays.fill(keys, FREE);
+        objects = new COSBase[capacity];
+    }
+
+    /**
+     * Returns the object for the given key.
+     *
+     * @param key the object key
+     * @return the object or null if there isn't any object for the given key
+     */
+    COSBase get(COSObjectKey key)
+    {
+        if (key == null)
+        {
+            return null;
+        }
+        int slot = findSlot(keys, key.getInternalHash());
+        return keys[slot] == FREE ? null : objects[slot];
+    }
+
+    /**
+     * Stores the given object for the given key and replaces any object stored before.
+     *
+     * @param key the object key
+     * @param object the object
+     */
+    void put(COSObjectKey key, COSBase object)
+    {
+        long internalHash = key.getInternalHash();
+        int slot = findSlot(keys, internalHash);
+        if (keys[slot] == FREE)
+        {
+            if (size >= keys.length - (keys.length >>> 2))
+            {
+                resize(keys.length << 1);
+                slot = findSlot(keys, internalHash);
+            }
+            keys[slot] = internalHash;
+            size++;
+        }
+        objects[slot] = object;
+    }
+
+    /**
+     * Removes the object for the given key.
+     *
+     * @param key the object key
+     */
+    void remove(COSObjectKey key)
+    {
+        if (key == null)
+        {
+            return;
+        }
+        int hole = findSlot(keys, key.getInternalHash());
+        if (keys[hole] == FREE)
+        {
+            return;
+        }
+        // shift the following entries of the probe sequence back instead of leaving a tombstone
+        int mask = keys.length - 1;
+        int slot = (hole + 1) & mask;
+        while (keys[slot] != FREE)
+        {
+            int home = mix(keys[slot]) & mask;
+            if (((slot - home) & mask) >= ((slot - hole) & mask))
+            {
+                keys[hole] = keys[slot];
+                objects[hole] = objects[slot];
+                hole = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[hole] = FREE;
+        objects[hole] = null;
+        size--;
+    }
+
+    /**
+     * Returns the number of objects.
+     *
+     * @return the number of objects
+     */
+    int size()
+    {
+        return size;
+    }
+
+    private void resize(int capacity)
+    {
+        long[] oldKeys = keys;
+        COSBase[] oldObjects = objects;
+        keys = new long[capacity];
+        Arrays.fill(keys, FREE);
+        objects = new COSBase[capacity];
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldKeys[i] != FREE)
+            {
+                int slot = findSlot(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                objects[slot] = oldObjects[i];
+            }
+        }
+    }
+
+    /**
+     * Returns the slot of the given key or the free slot where it has to be inserted.
+     */
+    private static int findSlot(long[] currentKeys, long internalHash)
+    {
+        int mask = currentKeys.length - 1;
+        int slot = mix(internalHash) & mask;
+        while (currentKeys[slot] != FREE && currentKeys[slot] != internalHash)
+        {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(long internalHash)
+    {
+        long h = internalHash * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfwriter;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSObjectKey;
+
+/**
+ * The keys of the objects released by a streaming {@link COSWriter}, kept as long as the objects may be referenced by
+ * other objects.
+ *
+ * The objects are compared by identity like the other object tables of the writer, as equal but distinct objects,
+ * e.g. two strings with the same value, are different indirect objects. The objects are weakly referenced, so that
+ * the entries of objects which aren't used anymore are removed. The table isn't thread safe, as the writer isn't
+ * either.
+ */
+final class COSWriterReleasedObjects
+{
+    private final Map<IdentityWeakReference, COSObjectKey> keys = new HashMap<>();
+    private final ReferenceQueue<COSBase> queue = new ReferenceQueue<>();
+
+    /**
+     * Returns the key of the given released object.
+     *
+     * @param object the object
+     * @return the key or null if the object wasn't released
+     */
+    COSObjectKey get(COSBase object)
+    {
+        expungeStaleEntries();
+        return keys.get(new IdentityWeakReference(object, null));
+    }
+
+    /**
+     * Indicates if the given object was released.
+     *
+     * @param object the object
+     * @return true if the object was released
+     */
+    boolean contains(COSBase object)
+    {
+        return get(object) != null;
+    }
+
+    /**
+     * Stores the key of the given released object.
+     *
+     * @param object the object
+     * @param key the key of the object
+     */
+    void put(COSBase object, COSObjectKey key)
+    {
+        expungeStaleEntries();
+        keys.put(new IdentityWeakReference(object, queue), key);
+    }
+
+    /**
+     * Returns the number of released objects which weren't garbage collected so far.
+     *
+     * @return the number of objects
+     */
+    int size()
+    {
+        expungeStaleEntries();
+        return keys.size();
+    }
+
+    private void expungeStaleEntries()
+    {
+        Reference<? extends COSBase> reference;
+        while ((reference = queue.poll()) != null)
+        {
+            keys.remove(reference);
+        }
+    }
+
+    /**
+     * A weak reference comparing its referent by identity. A cleared reference is only equal to itself.
+     */
+    private static final class IdentityWeakReference extends WeakReference<COSBase>
+    {
+        private final int hashCode;
+
+        private IdentityWeakReference(COSBase referent, ReferenceQueue<COSBase> queue)
+        {
+            super(referent, queue);
+            hashCode = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof IdentityWeakReference))
+            {
+                return false;
+            }
+            COSBase referent = get();
+            return referent != null && referent == ((IdentityWeakReference) obj).get();
+        }
+    }
+}
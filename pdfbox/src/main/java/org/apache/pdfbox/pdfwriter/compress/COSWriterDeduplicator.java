@@ -0,0 +1,408 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfwriter.compress;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSBoolean;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.io.RandomAccessRead;
+
+/**
+ * An instance of this class collapses identical streams and resource dictionaries of a document into a single object
+ * before the document is written.
+ * <p>
+ * All streams are candidates, as well as the indirect dictionaries reachable from resource dictionaries, except for
+ * optional content and dictionaries which may be distinct on purpose such as pages and annotations. The candidates are
+ * compared by a SHA-256 hash of their content: the entries of dictionaries in the order of their keys, the encoded data
+ * of streams and the objects referenced by them. A referenced candidate is represented by the object it is collapsed
+ * into, any other indirect object by its identity. Candidates are only collapsed if all the objects they reference are
+ * the same, candidates referencing each other in a cycle are never collapsed.
+ * </p>
+ * <p>
+ * The references to the collapsed objects are replaced by references to the remaining object in all dictionaries and
+ * arrays of the document.
+ * </p>
+ */
+public class COSWriterDeduplicator
+{
+    // deeper nested candidates are compared by their identity to limit the recursion
+    private static final int MAX_DEPTH = 256;
+
+    // resource dictionaries are collapsed, except for the ones which are distinct on purpose
+    private static final Set<COSName> EXCLUDED_KEYS = Set.of(COSName.OC, COSName.PROPERTIES,
+            COSName.PARENT, COSName.P);
+    private static final Set<COSName> EXCLUDED_TYPES = Set.of(COSName.PAGE, COSName.PAGES,
+            COSName.ANNOT, COSName.OCG, COSName.OCMD);
+
+    private static final byte NULL = 0;
+    private static final byte BOOLEAN = 1;
+    private static final byte INTEGER = 2;
+    private static final byte FLOAT = 3;
+    private static final byte NAME = 4;
+    private static final byte STRING = 5;
+    private static final byte ARRAY = 6;
+    private static final byte DICTIONARY = 7;
+    private static final byte STREAM = 8;
+    private static final byte REFERENCE = 9;
+
+    // the candidates in the order they are found
+    private final List<COSBase> candidates = new ArrayList<>();
+    private final Set<COSBase> candidateSet = Collections.newSetFromMap(new IdentityHashMap<>());
+    // all dictionaries, streams and arrays of the document, to replace the references to collapsed objects
+    private final List<COSBase> containers = new ArrayList<>();
+    // the value used to reference an object, the indirect object if there is one
+    private final Map<COSBase, COSBase> references = new IdentityHashMap<>();
+
+    private final Map<COSBase, COSBase> representatives = new IdentityHashMap<>();
+    private final Set<COSBase> resolving = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<ByteBuffer, COSBase> objectsByHash = new HashMap<>();
+    private final Map<COSBase, Integer> identities = new IdentityHashMap<>();
+    private final byte[] buffer = new byte[8192];
+
+    /**
+     * Collapses the identical streams and resource dictionaries reachable from the given trailer.
+     *
+     * @param trailer the trailer of the document to be written
+     * @return the number of collapsed objects
+     * @throws IOException if the data of a stream can't be read
+     */
+    public int deduplicate(COSDictionary trailer) throws IOException
+    {
+        collect(trailer);
+        int collapsed = 0;
+        for (COSBase candidate : candidates)
+        {
+            if (resolve(candidate, 0) != candidate)
+            {
+                collapsed++;
+            }
+        }
+        if (collapsed > 0)
+        {
+            for (COSBase container : containers)
+            {
+                replaceReferences(container);
+            }
+        }
+        return collapsed;
+    }
+
+    /**
+     * Collects the candidates and all containers of the document without recursion, as e.g. linked lists of outline
+     * items may be deeply nested.
+     */
+    private void collect(COSDictionary trailer)
+    {
+        Set<COSBase> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<COSBase> visitedAsResource = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<COSBase> pending = new ArrayDeque<>();
+        Deque<Boolean> pendingAsResource = new ArrayDeque<>();
+        pending.push(trailer);
+        pendingAsResource.push(Boolean.FALSE);
+        while (!pending.isEmpty())
+        {
+            COSBase value = pending.pop();
+            boolean resource = pendingAsResource.pop();
+            COSBase object = value instanceof COSObject ? ((COSObject) value).getObject() : value;
+            if (!(object instanceof COSDictionary) && !(object instanceof COSArray))
+            {
+                continue;
+            }
+            references.putIfAbsent(object, value);
+            if (resource && object instanceof COSDictionary && isExcludedType((COSDictionary) object))
+            {
+                resource = false;
+            }
+            boolean firstVisit = visited.add(object);
+            if (!firstVisit && (!resource || visitedAsResource.contains(object)))
+            {
+                // visit the objects found as resource again if they were visited as other object before
+                continue;
+            }
+            if (firstVisit)
+            {
+                containers.add(object);
+            }
+            if (resource)
+            {
+                visitedAsResource.add(object);
+            }
+            if (object instanceof COSStream
+                    || resource && object instanceof COSDictionary && !object.isDirect())
+            {
+                if (candidateSet.add(object))
+                {
+                    candidates.add(object);
+                }
+            }
+            if (object instanceof COSDictionary)
+            {
+                for (Map.Entry<COSName, COSBase> entry : ((COSDictionary) object).entrySet())
+                {
+                    pending.push(entry.getValue());
+                    pendingAsResource.push(COSName.RESOURCES.equals(entry.getKey())
+                            || resource && !EXCLUDED_KEYS.contains(entry.getKey()));
+                }
+            }
+            else
+            {
+                for (COSBase element : (COSArray) object)
+                {
+                    pending.push(element);
+                    pendingAsResource.push(resource);
+                }
+            }
+        }
+    }
+
+    private static boolean isExcludedType(COSDictionary dictionary)
+    {
+        COSName type = dictionary.getCOSName(COSName.TYPE);
+        return type != null && EXCLUDED_TYPES.contains(type);
+    }
+
+    /**
+     * Returns the object the given candidate is collapsed into, which is the candidate itself if there isn't any
+     * identical object found before.
+     */
+    private COSBase resolve(COSBase candidate, int depth) throws IOException
+    {
+        COSBase representative = representatives.get(candidate);
+        if (representative != null)
+        {
+            return representative;
+        }
+        if (depth > MAX_DEPTH || !resolving.add(candidate))
+        {
+            // compare nested candidates and the ones being part of a cycle by their identity
+            return candidate;
+        }
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (candidate instanceof COSStream)
+            {
+                updateStream(digest, (COSStream) candidate, depth);
+            }
+            else
+            {
+                updateDictionary(digest, (COSDictionary) candidate, depth, null);
+            }
+            representative = objectsByHash.putIfAbsent(ByteBuffer.wrap(digest.digest()), candidate);
+            if (representative == null)
+            {
+                representative = candidate;
+            }
+            representatives.put(candidate, representative);
+            return representative;
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // should never happen
+            throw new IOException(e);
+        }
+        finally
+        {
+            resolving.remove(candidate);
+        }
+    }
+
+    private void updateStream(MessageDigest digest, COSStream stream, int depth) throws IOException
+    {
+        digest.update(STREAM);
+        // the length is given by the data, it may be an indirect object
+        updateDictionary(digest, stream, depth, COSName.LENGTH);
+        if (!stream.hasData())
+        {
+            digest.update(NULL);
+            return;
+        }
+        try (RandomAccessRead data = stream.createRawView())
+        {
+            updateLong(digest, data.length());
+            int read;
+            while ((read = data.read(buffer)) > 0)
+            {
+                digest.update(buffer, 0, read);
+            }
+        }
+    }
+
+    private void updateDictionary(MessageDigest digest, COSDictionary dictionary, int depth,
+            COSName excludedKey) throws IOException
+    {
+        digest.update(DICTIONARY);
+        List<Map.Entry<COSName, COSBase>> entries = new ArrayList<>(dictionary.entrySet());
+        entries.sort(Comparator.comparing(Map.Entry::getKey));
+        for (Map.Entry<COSName, COSBase> entry : entries)
+        {
+            if (entry.getValue() != null && !entry.getKey().equals(excludedKey))
+            {
+                update(digest, entry.getKey(), depth);
+                update(digest, entry.getValue(), depth);
+            }
+        }
+        digest.update(DICTIONARY);
+    }
+
+    private void update(MessageDigest digest, COSBase value, int depth) throws IOException
+    {
+        COSBase object = value instanceof COSObject ? ((COSObject) value).getObject() : value;
+        if (object == null)
+        {
+            digest.update(NULL);
+        }
+        else if (candidateSet.contains(object))
+        {
+            updateReference(digest, resolve(object, depth + 1));
+        }
+        else if (value instanceof COSObject || object instanceof COSStream
+                || object instanceof COSDictionary && !object.isDirect()
+                || object instanceof COSArray && !object.isDirect())
+        {
+            // indirect objects which aren't candidates are distinct
+            updateReference(digest, object);
+        }
+        else if (object instanceof COSDictionary)
+        {
+            updateDictionary(digest, (COSDictionary) object, depth, null);
+        }
+        else if (object instanceof COSArray)
+        {
+            digest.update(ARRAY);
+            for (COSBase element : (COSArray) object)
+            {
+                update(digest, element, depth);
+            }
+            digest.update(ARRAY);
+        }
+        else if (object instanceof COSName)
+        {
+            digest.update(NAME);
+            byte[] bytes = ((COSName) object).getName().getBytes(StandardCharsets.UTF_8);
+            updateLong(digest, bytes.length);
+            digest.update(bytes);
+        }
+        else if (object instanceof COSString)
+        {
+            digest.update(STRING);
+            byte[] bytes = ((COSString) object).getBytes();
+            updateLong(digest, bytes.length);
+            digest.update(bytes);
+        }
+        else if (object instanceof COSInteger)
+        {
+            digest.update(INTEGER);
+            updateLong(digest, ((COSInteger) object).longValue());
+        }
+        else if (object instanceof COSFloat)
+        {
+            digest.update(FLOAT);
+            updateLong(digest, Float.floatToIntBits(((COSFloat) object).floatValue()));
+        }
+        else if (object instanceof COSBoolean)
+        {
+            digest.update(BOOLEAN);
+            digest.update((byte) (((COSBoolean) object).getValue() ? 1 : 0));
+        }
+        else
+        {
+            digest.update(NULL);
+        }
+    }
+
+    private void updateReference(MessageDigest digest, COSBase object)
+    {
+        digest.update(REFERENCE);
+        updateLong(digest, identities.computeIfAbsent(object, o -> identities.size()));
+    }
+
+    private static void updateLong(MessageDigest digest, long value)
+    {
+        for (int shift = 56; shift >= 0; shift -= 8)
+        {
+            digest.update((byte) (value >>> shift));
+        }
+    }
+
+    private void replaceReferences(COSBase container)
+    {
+        if (container instanceof COSDictionary)
+        {
+            COSDictionary dictionary = (COSDictionary) container;
+            Map<COSName, COSBase> replacements = new HashMap<>();
+            for (Map.Entry<COSName, COSBase> entry : dictionary.entrySet())
+            {
+                COSBase replacement = getReplacement(entry.getValue());
+                if (replacement != null)
+                {
+                    replacements.put(entry.getKey(), replacement);
+                }
+            }
+            replacements.forEach(dictionary::setItem);
+        }
+        else
+        {
+            COSArray array = (COSArray) container;
+            for (int i = 0; i < array.size(); i++)
+            {
+                COSBase replacement = getReplacement(array.get(i));
+                if (replacement != null)
+                {
+                    array.set(i, replacement);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the reference to the object the given value is collapsed into, or null if it isn't collapsed.
+     */
+    private COSBase getReplacement(COSBase value)
+    {
+        COSBase object = value instanceof COSObject ? ((COSObject) value).getObject() : value;
+        COSBase representative = object != null ? representatives.get(object) : null;
+        if (representative == null || representative == object)
+        {
+            return null;
+        }
+        return references.getOrDefault(representative, representative);
+    }
+}
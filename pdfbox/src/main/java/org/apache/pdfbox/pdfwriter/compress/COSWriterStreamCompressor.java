@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfwriter.compress;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.filter.Filter;
+import org.apache.pdfbox.filter.FilterFactory;
+
+/**
+ * An instance of this class compresses the streams without a filter of a document using the FlateDecode filter while
+ * the document is written.
+ * <p>
+ * Streams are queued in the order they are going to be written. If an executor is given, the queued streams are
+ * compressed by the executor ahead of writing them. The number of streams being compressed at the same time is
+ * limited, so that the memory used by the compressed data doesn't depend on the size of the document. The raw data of
+ * the streams is read by the writing thread, the executor only compresses byte arrays.
+ * </p>
+ * <p>
+ * The compressed data is the same with or without an executor.
+ * </p>
+ */
+public class COSWriterStreamCompressor
+{
+    private static final int MAX_PENDING_STREAMS = 2 * Runtime.getRuntime().availableProcessors();
+
+    private final Executor executor;
+
+    // streams to be compressed by the executor in the order they are going to be written
+    private final Set<COSStream> queuedStreams = new LinkedHashSet<>();
+    // streams being compressed by the executor
+    private final Map<COSStream, FutureTask<byte[]>> pendingStreams = new HashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param executor the executor compressing the queued streams, may be null to compress the streams while writing
+     * them
+     */
+    public COSWriterStreamCompressor(Executor executor)
+    {
+        this.executor = executor;
+    }
+
+    /**
+     * Indicates whether the given stream is going to be compressed. This is the case for streams with data and without
+     * a filter, except for metadata streams and streams having decode parameters.
+     *
+     * @param stream the stream to be checked
+     * @return true if the stream is going to be compressed
+     */
+    public static boolean isCompressible(COSStream stream)
+    {
+        return stream.hasData() && stream.getFilters() == null
+                && !stream.containsKey(COSName.DECODE_PARMS) && !stream.containsKey(COSName.DP)
+                && !COSName.METADATA.equals(stream.getCOSName(COSName.TYPE));
+    }
+
+    /**
+     * Queues the given stream to be compressed by the executor. Streams which aren't compressible are ignored, as well
+     * as all streams if there is no executor.
+     *
+     * @param stream the stream going to be written
+     * @throws IOException if the raw data of a stream couldn't be read
+     */
+    public void queue(COSStream stream) throws IOException
+    {
+        if (executor != null && !pendingStreams.containsKey(stream) && isCompressible(stream))
+        {
+            queuedStreams.add(stream);
+            startCompression();
+        }
+    }
+
+    /**
+     * Replaces the data of the given stream by its compressed data if the stream is compressible. The compression is
+     * taken from the executor if the stream was queued, otherwise the stream is compressed by the calling thread.
+     *
+     * @param stream the stream to be written next
+     * @throws IOException if the stream couldn't be compressed
+     */
+    public void compress(COSStream stream) throws IOException
+    {
+        byte[] compressed;
+        FutureTask<byte[]> task = pendingStreams.remove(stream);
+        if (task != null)
+        {
+            compressed = getCompressedData(task);
+            startCompression();
+        }
+        else if (isCompressible(stream))
+        {
+            queuedStreams.remove(stream);
+            compressed = compress(readRawData(stream));
+        }
+        else
+        {
+            return;
+        }
+        try (OutputStream output = stream.createRawOutputStream())
+        {
+            output.write(compressed);
+        }
+        stream.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+    }
+
+    /**
+     * Cancels the compression of all queued streams, e.g. if writing the document failed.
+     */
+    public void cancel()
+    {
+        queuedStreams.clear();
+        pendingStreams.values().forEach(task -> task.cancel(false));
+        pendingStreams.clear();
+    }
+
+    private void startCompression() throws IOException
+    {
+        Iterator<COSStream> iterator = queuedStreams.iterator();
+        while (pendingStreams.size() < MAX_PENDING_STREAMS && iterator.hasNext())
+        {
+            COSStream stream = iterator.next();
+            iterator.remove();
+            byte[] data = readRawData(stream);
+            FutureTask<byte[]> task = new FutureTask<>(() -> compress(data));
+            pendingStreams.put(stream, task);
+            executor.execute(task);
+        }
+    }
+
+    private static byte[] getCompressedData(FutureTask<byte[]> task) throws IOException
+    {
+        try
+        {
+            return task.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing a stream");
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof IOException)
+            {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Stream couldn't be compressed", e.getCause());
+        }
+    }
+
+    private static byte[] readRawData(COSStream stream) throws IOException
+    {
+        try (InputStream input = stream.createRawInputStream())
+        {
+            return input.readAllBytes();
+        }
+    }
+
+    private static byte[] compress(byte[] data) throws IOException
+    {
+        Filter filter = FilterFactory.INSTANCE.getFilter(COSName.FLATE_DECODE);
+        ByteArrayOutputStream output = new ByteArrayOutputStream(data.length / 4 + 64);
+        filter.encode(new ByteArrayInputStream(data), output, new COSDictionary(), 0);
+        return output.toByteArray();
+    }
+}
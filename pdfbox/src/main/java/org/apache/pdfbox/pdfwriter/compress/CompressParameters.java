@@ -16,6 +16,8 @@
  */
 package org.apache.pdfbox.pdfwriter.compress;
 
+import java.util.concurrent.Executor;
+
 /**
  * An instance of this class centralizes and provides the configuration for a PDF compression.
  * 
@@ -29,6 +31,9 @@ public class CompressParameters
     public static final int DEFAULT_OBJECT_STREAM_SIZE = 200;
 
     private final int objectStreamSize;
+    private final boolean compressStreams;
+    private final Executor streamCompressionExecutor;
+    private final boolean deduplicateObjects;
 
     public CompressParameters()
     {
@@ -44,12 +49,65 @@ public class CompressParameters
      * 
      */
     public CompressParameters(int objectStreamSize)
+    {
+        this(objectStreamSize, false, null);
+    }
+
+    /**
+     * Sets the number of objects, that can be contained in compressed object streams, and whether streams without a
+     * filter shall be compressed using the FlateDecode filter when saving. The stream compression is independent of the
+     * object stream compression, it doesn't apply to metadata streams and streams having decode parameters.
+     * <p>
+     * If an executor is given, the streams are compressed by the executor in parallel while the document is written.
+     * The saved document is the same as without an executor, the streams are written in the same order.
+     * </p>
+     * <p>
+     * The compressed data replaces the data of the streams of the saved document.
+     * </p>
+     *
+     * @param objectStreamSize The number of objects, that can be contained in compressed object streams.
+     * @param compressStreams true if streams without a filter shall be compressed.
+     * @param streamCompressionExecutor The executor compressing the streams, may be null to compress them while
+     * writing them.
+     */
+    public CompressParameters(int objectStreamSize, boolean compressStreams,
+            Executor streamCompressionExecutor)
+    {
+        this(objectStreamSize, compressStreams, streamCompressionExecutor, false);
+    }
+
+    /**
+     * Sets the number of objects, that can be contained in compressed object streams, whether streams without a filter
+     * shall be compressed, see {@link #CompressParameters(int, boolean, Executor)}, and whether identical objects shall
+     * be written only once.
+     * <p>
+     * If objects shall be deduplicated, streams and resource dictionaries such as fonts, font descriptors, graphics
+     * states, patterns and shadings are compared by a hash of their content, streams by their encoded data. Identical
+     * objects are collapsed into a single object before the document is written. Dictionaries which may be distinct on
+     * purpose, e.g. optional content groups, pages and annotations, are never collapsed. The deduplication doesn't
+     * apply to incremental updates.
+     * </p>
+     * <p>
+     * The references to the collapsed objects are replaced in the saved document.
+     * </p>
+     *
+     * @param objectStreamSize The number of objects, that can be contained in compressed object streams.
+     * @param compressStreams true if streams without a filter shall be compressed.
+     * @param streamCompressionExecutor The executor compressing the streams, may be null to compress them while
+     * writing them.
+     * @param deduplicateObjects true if identical streams and resource dictionaries shall be written only once.
+     */
+    public CompressParameters(int objectStreamSize, boolean compressStreams,
+            Executor streamCompressionExecutor, boolean deduplicateObjects)
     {
         if (objectStreamSize < 0)
         {
             throw new IllegalArgumentException("Object stream size can't be a negative value");
         }
         this.objectStreamSize = objectStreamSize;
+        this.compressStreams = compressStreams;
+        this.streamCompressionExecutor = streamCompressionExecutor;
+        this.deduplicateObjects = deduplicateObjects;
     }
 
     /**
@@ -73,4 +131,34 @@ public class CompressParameters
     {
         return objectStreamSize > 0;
     }
+
+    /**
+     * Indicates whether streams without a filter shall be compressed when saving.
+     *
+     * @return true if streams shall be compressed.
+     */
+    public boolean isCompressStreams()
+    {
+        return compressStreams;
+    }
+
+    /**
+     * Returns the executor compressing the streams in parallel.
+     *
+     * @return the executor or null if the streams are compressed while writing them.
+     */
+    public Executor getStreamCompressionExecutor()
+    {
+        return streamCompressionExecutor;
+    }
+
+    /**
+     * Indicates whether identical streams and resource dictionaries shall be written only once.
+     *
+     * @return true if objects shall be deduplicated.
+     */
+    public boolean isDeduplicateObjects()
+    {
+        return deduplicateObjects;
+    }
 }
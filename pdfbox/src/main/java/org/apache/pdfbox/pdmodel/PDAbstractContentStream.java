@@ -1396,12 +1396,13 @@ abstract class PDAbstractContentStream implements Closeable
         {
             //Fast formatting failed
             write(formatDecimal.format(real));
+            outputStream.write(' ');
         }
         else
         {
+            formatBuffer[byteCount++] = ' ';
             outputStream.write(formatBuffer, 0, byteCount);
         }
-        outputStream.write(' ');
     }
 
     /**
@@ -1412,8 +1413,9 @@ abstract class PDAbstractContentStream implements Closeable
      */
     protected void writeOperand(int integer) throws IOException
     {
-        write(formatDecimal.format(integer));
-        outputStream.write(' ');
+        int byteCount = NumberFormatUtil.formatLong(integer, formatBuffer, 0);
+        formatBuffer[byteCount++] = ' ';
+        outputStream.write(formatBuffer, 0, byteCount);
     }
 
     /**
@@ -46,6 +46,7 @@ import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSObject;
 import org.apache.pdfbox.cos.COSObjectKey;
 import org.apache.pdfbox.cos.COSUpdateInfo;
+import org.apache.pdfbox.io.BufferedFileOutputStream;
 import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.io.RandomAccessRead;
 import org.apache.pdfbox.io.RandomAccessStreamCache.StreamCacheCreateFunction;
@@ -985,7 +986,8 @@ public class PDDocument implements Closeable
                     "You are overwriting the existing file {}, this will produce a corrupted file if you're also reading from it",
                     file.getName());
         }
-        try (BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(
+        // the file channel allows to transfer unchanged streams from the source directly
+        try (BufferedOutputStream bufferedOutputStream = new BufferedFileOutputStream(
                 new FileOutputStream(file)))
         {
             save(bufferedOutputStream, compressParameters);
@@ -1041,7 +1043,7 @@ public class PDDocument implements Closeable
         writer.write(this);
     }
 
-    private void subsetDesignatedFonts() throws IOException
+    void subsetDesignatedFonts() throws IOException
     {
         // subset designated fonts
         for (PDFont font : fontsToSubset)
@@ -1217,9 +1219,41 @@ public class PDDocument implements Closeable
      */
     public PDPage getPage(int pageIndex) // todo: REPLACE most calls to this method with BELOW method
     {
+        if (document.hasDeferredXRefTable())
+        {
+            // the linearization dictionary references the first page, there is no need to read the page tree
+            PDPage firstPage = getLinearizedFirstPage(pageIndex);
+            if (firstPage != null)
+            {
+                return firstPage;
+            }
+        }
         return getDocumentCatalog().getPages().get(pageIndex);
     }
 
+    private PDPage getLinearizedFirstPage(int pageIndex)
+    {
+        COSDictionary linearizedDictionary = document.getLinearizedDictionary();
+        // /O is the object number of the page with the index /P, which usually is the first one
+        if (linearizedDictionary == null || linearizedDictionary.getInt(COSName.P, 0) != pageIndex)
+        {
+            return null;
+        }
+        int firstPageNumber = linearizedDictionary.getInt(COSName.O);
+        if (firstPageNumber < 1)
+        {
+            return null;
+        }
+        COSBase firstPage = document.getObjectFromPool(new COSObjectKey(firstPageNumber, 0))
+                .getObject();
+        if (!(firstPage instanceof COSDictionary)
+                || !COSName.PAGE.equals(((COSDictionary) firstPage).getCOSName(COSName.TYPE)))
+        {
+            return null;
+        }
+        return new PDPage((COSDictionary) firstPage, resourceCache);
+    }
+
     /**
      * Returns the page tree.
      * 
@@ -1230,6 +1264,20 @@ public class PDDocument implements Closeable
         return getDocumentCatalog().getPages();
     }
 
+    /**
+     * Returns an iterator which walks all pages in order and releases the objects loaded for a page when moving on to
+     * the next page, so that huge documents can be processed page by page with bounded memory.
+     * 
+     * @param retentionPolicy decides which of the objects loaded for a page are kept, e.g.
+     * {@link PageRetentionPolicy#RELEASE_UNSHARED}
+     * @return the iterator, it has to be closed if it isn't used until the end
+     * @see PDPageTree#streamingIterator(PageRetentionPolicy)
+     */
+    public StreamingPageIterator getStreamingPageIterator(PageRetentionPolicy retentionPolicy)
+    {
+        return getPages().streamingIterator(retentionPolicy);
+    }
+
     /**
      * This will return the total page count of the PDF document.
      * 
@@ -130,6 +130,18 @@ public class PDPageTree implements COSObjectable, Iterable<PDPage>
         return new PageIterator(root);
     }
 
+    /**
+     * Returns an iterator which walks all pages in the tree, in order, and releases the objects loaded for a page when
+     * moving on to the next page. The page tree is walked lazily instead of loading all pages upfront.
+     *
+     * @param retentionPolicy decides which of the objects loaded for a page are kept
+     * @return the iterator, it has to be closed if it isn't used until the end
+     */
+    public StreamingPageIterator streamingIterator(PageRetentionPolicy retentionPolicy)
+    {
+        return new StreamingPageIterator(root, document, retentionPolicy);
+    }
+
     /**
      * Helper to get kids from malformed PDFs.
      * @param node page tree node
@@ -268,7 +280,7 @@ public class PDPageTree implements COSObjectable, Iterable<PDPage>
         return new PDPage(dict, resourceCache);
     }
     
-    private static void sanitizeType(COSDictionary dictionary)
+    static void sanitizeType(COSDictionary dictionary)
     {
         COSName type = dictionary.getCOSName(COSName.TYPE);
         if (type == null)
@@ -368,7 +380,7 @@ public class PDPageTree implements COSObjectable, Iterable<PDPage>
     /**
      * Returns true if the node is a page tree node (i.e. and intermediate).
      */
-    private boolean isPageTreeNode(COSDictionary node)
+    static boolean isPageTreeNode(COSDictionary node)
     {
         // some files such as PDFBOX-2250-229205.pdf don't have Pages set as the Type, so we have
         // to check for the presence of Kids too
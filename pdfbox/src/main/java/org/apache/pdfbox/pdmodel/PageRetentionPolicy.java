@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+
+/**
+ * Decides which of the objects loaded while processing a page are kept when a {@link StreamingPageIterator} moves on
+ * to the next page. Objects which aren't kept are released and loaded again if they are needed later on.
+ */
+@FunctionalInterface
+public interface PageRetentionPolicy
+{
+    /**
+     * Keeps all objects, the memory consumption is the same as with the default page iterator.
+     */
+    PageRetentionPolicy RETAIN_ALL = object -> true;
+
+    /**
+     * Releases all objects loaded for a page.
+     */
+    PageRetentionPolicy RELEASE_ALL = object -> false;
+
+    /**
+     * Releases the objects loaded for a page unless they were already released before. Objects which are needed again
+     * after they were released, e.g. fonts or images used by several pages, are kept from then on.
+     */
+    PageRetentionPolicy RELEASE_UNSHARED = object -> object.getLoadCount() > 1;
+
+    /**
+     * Decides if the given object is kept.
+     *
+     * @param object the indirect object which was loaded while processing a page
+     * @return true if the object shall be kept, false if it shall be released
+     */
+    boolean retain(COSObject object);
+
+    /**
+     * Returns a policy keeping all objects kept by this or the given policy.
+     *
+     * @param other the other policy
+     * @return the combined policy
+     */
+    default PageRetentionPolicy or(PageRetentionPolicy other)
+    {
+        return object -> retain(object) || other.retain(object);
+    }
+
+    /**
+     * Returns a policy keeping all dictionaries and streams of the given types, e.g. {@link COSName#FONT}.
+     *
+     * @param types the values of the /Type entry of the objects to be kept
+     * @return the policy
+     */
+    static PageRetentionPolicy retainTypes(COSName... types)
+    {
+        Set<COSName> typeSet = new HashSet<>(Arrays.asList(types));
+        return object ->
+        {
+            COSBase base = object.getObject();
+            return base instanceof COSDictionary
+                    && typeSet.contains(((COSDictionary) base).getCOSName(COSName.TYPE));
+        };
+    }
+}
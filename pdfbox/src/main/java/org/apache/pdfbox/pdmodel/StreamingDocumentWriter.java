@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.pdfwriter.COSWriter;
+
+/**
+ * Writes a new document page by page, so that the memory used by a document with many pages doesn't depend on the
+ * number of pages.
+ * <p>
+ * A page is written as soon as it is complete. The page is written together with all objects referenced by it which
+ * weren't written before, e.g. its content streams, images and annotations. Afterwards these objects are released:
+ * the data of the written streams is removed and the page is replaced by a reference in the page tree. Fonts and the
+ * page tree are written when the writer is closed, together with all other objects of the document, e.g. the outline.
+ * Embedded fonts are subset before writing them, like when saving the document.
+ * </p>
+ * <pre>
+ * try (PDDocument document = new PDDocument();
+ *         StreamingDocumentWriter writer = new StreamingDocumentWriter(document, output))
+ * {
+ *     for (...)
+ *     {
+ *         PDPage page = new PDPage();
+ *         try (PDPageContentStream contents = new PDPageContentStream(document, page))
+ *         {
+ *             ...
+ *         }
+ *         writer.writePage(page);
+ *     }
+ * }
+ * </pre>
+ * <p>
+ * Written pages and the objects written with them must not be changed anymore, the pages of the document can't be
+ * accessed using {@link PDDocument#getPage(int)} or {@link PDDocument#getPages()} anymore. Objects shared by several
+ * pages, e.g. images or resources, are written with the first page using them. The document is written using a
+ * cross-reference stream, encrypted documents aren't supported. The output stream isn't closed by the writer.
+ * </p>
+ */
+public class StreamingDocumentWriter implements Closeable
+{
+    private final PDDocument document;
+    private final COSWriter writer;
+    private int writtenPageCount = 0;
+    private boolean closed = false;
+
+    /**
+     * Constructor. The header of the document is written immediately.
+     *
+     * @param document the new document to be written
+     * @param output the stream to write the document to
+     * @throws IOException if the header couldn't be written
+     * @throws IllegalStateException if the document is encrypted
+     */
+    public StreamingDocumentWriter(PDDocument document, OutputStream output) throws IOException
+    {
+        this.document = document;
+        writer = new COSWriter(output);
+        writer.startStreaming(document);
+    }
+
+    /**
+     * Writes a complete page. The page is added to the document if it isn't part of it yet.
+     *
+     * @param page the page to be written
+     * @throws IOException if the page couldn't be written
+     */
+    public void writePage(PDPage page) throws IOException
+    {
+        if (closed)
+        {
+            throw new IllegalStateException("The writer has already been closed");
+        }
+        COSDictionary pageDictionary = page.getCOSObject();
+        if (pageDictionary.getCOSDictionary(COSName.PARENT) == null)
+        {
+            document.addPage(page);
+        }
+        writer.writeStreamedObject(pageDictionary, StreamingDocumentWriter::isDeferred);
+
+        // replace the page by a reference to release it
+        COSArray kids = pageDictionary.getCOSDictionary(COSName.PARENT).getCOSArray(COSName.KIDS);
+        for (int i = kids.size() - 1; i >= 0; i--)
+        {
+            if (kids.get(i) == pageDictionary)
+            {
+                kids.set(i, new COSObject(null, pageDictionary.getKey()));
+                break;
+            }
+        }
+        writtenPageCount++;
+    }
+
+    /**
+     * Returns the number of pages written so far.
+     *
+     * @return the number of written pages
+     */
+    public int getWrittenPageCount()
+    {
+        return writtenPageCount;
+    }
+
+    /**
+     * Completes the document by writing all remaining objects, the cross-reference stream and the trailer.
+     *
+     * @throws IOException if the document couldn't be completed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (closed)
+        {
+            return;
+        }
+        closed = true;
+        document.subsetDesignatedFonts();
+        writer.finishStreaming();
+    }
+
+    /**
+     * Fonts are shared by many pages and are subset at the end, the page tree is completed at the end.
+     */
+    private static boolean isDeferred(COSBase object)
+    {
+        COSBase base = object instanceof COSObject ? ((COSObject) object).getObject() : object;
+        if (base instanceof COSDictionary)
+        {
+            COSName type = ((COSDictionary) base).getCOSName(COSName.TYPE);
+            return COSName.FONT.equals(type) || COSName.PAGES.equals(type);
+        }
+        return false;
+    }
+}
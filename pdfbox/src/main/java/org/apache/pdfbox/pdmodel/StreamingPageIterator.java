@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSDocument;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+
+/**
+ * Iterator which walks all pages of a page tree in order and releases the objects loaded while processing a page when
+ * it moves on to the next page, so that the memory consumption doesn't grow with the number of pages. The page tree is
+ * walked lazily, page tree nodes are always kept. A {@link PageRetentionPolicy} decides which of the other objects
+ * are kept.
+ *
+ * Pages returned by this iterator must not be used any longer once the iterator moved on, e.g. by calling
+ * {@link #hasNext()}. Changes to released objects are lost, objects which were updated before they are released are
+ * always kept though. The iterator has to be closed if it isn't used until the end.
+ */
+public final class StreamingPageIterator implements Iterator<PDPage>, Closeable
+{
+    private static final Logger LOG = LogManager.getLogger(StreamingPageIterator.class);
+
+    private final Deque<KidsCursor> stack = new ArrayDeque<>();
+    private final Set<COSDictionary> visitedNodes = new HashSet<>();
+    private final List<COSObject> loadedObjects = new ArrayList<>();
+    private final PageRetentionPolicy retentionPolicy;
+    private final ResourceCache resourceCache;
+    private final COSDocument cosDocument;
+    private final Consumer<COSObject> previousListener;
+
+    private COSDictionary nextPage = null;
+    private long releasedObjectCount = 0;
+    private boolean closed = false;
+
+    StreamingPageIterator(COSDictionary root, PDDocument document,
+            PageRetentionPolicy retentionPolicy)
+    {
+        this.retentionPolicy = retentionPolicy;
+        resourceCache = document != null ? document.getResourceCache() : null;
+        cosDocument = document != null ? document.getDocument() : null;
+        if (cosDocument != null)
+        {
+            previousListener = cosDocument.getObjectLoadListener();
+            cosDocument.setObjectLoadListener(this::objectLoaded);
+        }
+        else
+        {
+            previousListener = null;
+        }
+        visitedNodes.add(root);
+        COSArray kids = root.getCOSArray(COSName.KIDS);
+        if (kids != null)
+        {
+            stack.push(new KidsCursor(kids));
+        }
+    }
+
+    private void objectLoaded(COSObject object)
+    {
+        synchronized (loadedObjects)
+        {
+            loadedObjects.add(object);
+        }
+        if (previousListener != null)
+        {
+            previousListener.accept(object);
+        }
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        if (nextPage == null && !closed)
+        {
+            releaseLoadedObjects();
+            findNextPage();
+            if (nextPage == null)
+            {
+                close();
+            }
+        }
+        return nextPage != null;
+    }
+
+    @Override
+    public PDPage next()
+    {
+        if (!hasNext())
+        {
+            throw new NoSuchElementException();
+        }
+        COSDictionary page = nextPage;
+        nextPage = null;
+        PDPageTree.sanitizeType(page);
+        return new PDPage(page, resourceCache);
+    }
+
+    private void findNextPage()
+    {
+        while (nextPage == null && !stack.isEmpty())
+        {
+            KidsCursor cursor = stack.peek();
+            if (cursor.index >= cursor.kids.size())
+            {
+                stack.pop();
+                continue;
+            }
+            int index = cursor.index++;
+            COSBase kid = cursor.kids.getObject(index);
+            if (kid == null)
+            {
+                LOG.warn("replaced null entry with an empty page");
+                COSDictionary emptyPage = new COSDictionary();
+                emptyPage.setItem(COSName.TYPE, COSName.PAGE);
+                cursor.kids.set(index, emptyPage);
+                nextPage = emptyPage;
+            }
+            else if (!(kid instanceof COSDictionary))
+            {
+                LOG.warn("COSDictionary expected, but got {}", kid.getClass().getSimpleName());
+            }
+            else if (PDPageTree.isPageTreeNode((COSDictionary) kid))
+            {
+                if (!visitedNodes.add((COSDictionary) kid))
+                {
+                    // PDFBOX-5009, PDFBOX-3953: prevent endless loops with malformed PDFs
+                    LOG.error("This page tree node has already been visited");
+                    continue;
+                }
+                COSArray kids = ((COSDictionary) kid).getCOSArray(COSName.KIDS);
+                if (kids != null)
+                {
+                    stack.push(new KidsCursor(kids));
+                }
+            }
+            else if (COSName.PAGE.equals(((COSDictionary) kid).getCOSName(COSName.TYPE)))
+            {
+                nextPage = (COSDictionary) kid;
+            }
+            else
+            {
+                LOG.error("Page skipped due to an invalid or missing type {}",
+                        ((COSDictionary) kid).getCOSName(COSName.TYPE));
+            }
+        }
+    }
+
+    private void releaseLoadedObjects()
+    {
+        List<COSObject> objects;
+        synchronized (loadedObjects)
+        {
+            objects = new ArrayList<>(loadedObjects);
+            loadedObjects.clear();
+        }
+        for (COSObject object : objects)
+        {
+            if (!object.isDereferenced())
+            {
+                continue;
+            }
+            COSBase base = object.getObject();
+            if (base instanceof COSDictionary && PDPageTree.isPageTreeNode((COSDictionary) base))
+            {
+                continue;
+            }
+            if (!retentionPolicy.retain(object) && object.unload())
+            {
+                releasedObjectCount++;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of objects released so far.
+     *
+     * @return the number of released objects
+     */
+    public long getReleasedObjectCount()
+    {
+        return releasedObjectCount;
+    }
+
+    /**
+     * Releases the objects loaded for the current page and stops tracking the objects loaded by the parser. This is
+     * done automatically once all pages were visited.
+     */
+    @Override
+    public void close()
+    {
+        if (closed)
+        {
+            return;
+        }
+        closed = true;
+        nextPage = null;
+        stack.clear();
+        if (cosDocument != null)
+        {
+            cosDocument.setObjectLoadListener(previousListener);
+        }
+        releaseLoadedObjects();
+    }
+
+    /**
+     * The position within the kids of a page tree node.
+     */
+    private static final class KidsCursor
+    {
+        private final COSArray kids;
+        private int index = 0;
+
+        private KidsCursor(COSArray kids)
+        {
+            this.kids = kids;
+        }
+    }
+}
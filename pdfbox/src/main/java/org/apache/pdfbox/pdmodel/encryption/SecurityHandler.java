@@ -73,9 +73,6 @@ public abstract class SecurityHandler<T_POLICY extends ProtectionPolicy>
     /** The encryption key that will be used to encrypt / decrypt.*/
     private byte[] encryptionKey;
 
-    /** The RC4 implementation used for cryptographic functions. */
-    private final RC4Cipher rc4 = new RC4Cipher();
-
     /** Indicates if the Metadata have to be decrypted of not. */
     private boolean decryptMetadata;
 
@@ -87,7 +84,9 @@ public abstract class SecurityHandler<T_POLICY extends ProtectionPolicy>
     // Because COSString.equals() checks the contents, decryption was then skipped.
     // This solution keeps all different "equal" objects.
     // IdentityHashMap solves this problem and is also faster than a HashMap
-    private final Set<COSBase> objects = Collections.newSetFromMap(new IdentityHashMap<>());
+    // The set is synchronized as the objects of a document may be dereferenced by several threads.
+    private final Set<COSBase> objects = Collections
+            .synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
 
     private boolean useAES;
 
@@ -284,6 +283,8 @@ public abstract class SecurityHandler<T_POLICY extends ProtectionPolicy>
     protected void encryptDataRC4(byte[] finalKey, InputStream input, OutputStream output)
             throws IOException
     {
+        // a new cipher for every call, as the state of the cipher must not be shared by several threads
+        RC4Cipher rc4 = new RC4Cipher();
         rc4.setKey(finalKey);
         rc4.write(input, output);
     }
@@ -299,6 +300,7 @@ public abstract class SecurityHandler<T_POLICY extends ProtectionPolicy>
      */
     protected void encryptDataRC4(byte[] finalKey, byte[] input, OutputStream output) throws IOException
     {
+        RC4Cipher rc4 = new RC4Cipher();
         rc4.setKey(finalKey);
         rc4.write(input, output);
     }
@@ -468,11 +470,10 @@ public abstract class SecurityHandler<T_POLICY extends ProtectionPolicy>
         }
         if (obj instanceof COSStream)
         {
-            if (objects.contains(obj))
+            if (!objects.add(obj))
             {
                 return obj;
             }
-            objects.add(obj);
             decryptStream((COSStream) obj, objNum, genNum);
         }
         else if (obj instanceof COSDictionary)
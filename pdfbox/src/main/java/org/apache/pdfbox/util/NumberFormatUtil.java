@@ -15,6 +15,10 @@
  */
 package org.apache.pdfbox.util;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
 /**
  * This class contains methods to format numbers.
  *
@@ -27,6 +31,14 @@ public class NumberFormatUtil
      */
     private static final int MAX_FRACTION_DIGITS = 5;
 
+    /**
+     * Maximum number of bytes used by the format methods for a long value, including the sign
+     */
+    public static final int MAX_LONG_LENGTH = 20;
+
+    private static final byte[] LONG_MIN_VALUE = String.valueOf(Long.MIN_VALUE)
+            .getBytes(StandardCharsets.US_ASCII);
+
     /**
      * Contains the power of ten values for fast lookup in the format methods
      */
@@ -114,6 +126,89 @@ public class NumberFormatUtil
         return offset;
     }
 
+    /**
+     * Formats a long value to a ASCII-string without any grouping, the result is the same as the
+     * one of {@link Long#toString(long)}.
+     *
+     * @param value The long value to format
+     * @param asciiBuffer The output buffer to write the formatted value to, it has to provide at
+     * least {@link #MAX_LONG_LENGTH} bytes starting at the given offset
+     * @param offset The start offset into the buffer to start writing
+     *
+     * @return The offset into the buffer which contains the first byte that was not filled by the
+     * method
+     */
+    public static int formatLong(long value, byte[] asciiBuffer, int offset)
+    {
+        return formatLongPadded(value, 1, asciiBuffer, offset);
+    }
+
+    /**
+     * Formats a long value to a ASCII-string with at least the given number of digits, leading
+     * zeros are added if needed. The result is the same as the one of a
+     * {@link java.text.DecimalFormat} using a pattern of {@code digits} zeros, e.g. the pattern
+     * "0000000000" used for the offsets of a cross reference table.
+     *
+     * @param value The long value to format
+     * @param digits The minimum number of digits, at most 19
+     * @param asciiBuffer The output buffer to write the formatted value to, it has to provide at
+     * least {@link #MAX_LONG_LENGTH} bytes starting at the given offset
+     * @param offset The start offset into the buffer to start writing
+     *
+     * @return The offset into the buffer which contains the first byte that was not filled by the
+     * method
+     */
+    public static int formatLongPadded(long value, int digits, byte[] asciiBuffer, int offset)
+    {
+        if (value == Long.MIN_VALUE)
+        {
+            System.arraycopy(LONG_MIN_VALUE, 0, asciiBuffer, offset, LONG_MIN_VALUE.length);
+            return offset + LONG_MIN_VALUE.length;
+        }
+        long number = value;
+        if (number < 0)
+        {
+            asciiBuffer[offset++] = '-';
+            number = -number;
+        }
+        int exp = getExponent(number);
+        for (int leadingZeros = Math.min(digits, POWER_OF_TENS.length) - 1 - exp; leadingZeros > 0; leadingZeros--)
+        {
+            asciiBuffer[offset++] = '0';
+        }
+        return formatPositiveNumber(number, exp, false, asciiBuffer, offset);
+    }
+
+    /**
+     * Writes a long value as ASCII-string to the given stream without creating any intermediate
+     * objects. The result is the same as the one of {@link Long#toString(long)}.
+     *
+     * @param value The long value to write
+     * @param output The stream to write to
+     *
+     * @throws IOException If there is an error writing to the stream
+     */
+    public static void writeLong(long value, OutputStream output) throws IOException
+    {
+        if (value == Long.MIN_VALUE)
+        {
+            output.write(LONG_MIN_VALUE);
+            return;
+        }
+        long remaining = value;
+        if (remaining < 0)
+        {
+            output.write('-');
+            remaining = -remaining;
+        }
+        for (int exp = getExponent(remaining); exp >= 0; exp--)
+        {
+            long digit = remaining / POWER_OF_TENS[exp];
+            remaining -= digit * POWER_OF_TENS[exp];
+            output.write((int) ('0' + digit));
+        }
+    }
+
     /**
      * Formats a positive integer number starting with the digit at {@code 10^exp}.
      *
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.cos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+class COSObjectKeyOffsetMapTest
+{
+    @Test
+    void testPutAndGet()
+    {
+        COSObjectKeyOffsetMap map = new COSObjectKeyOffsetMap();
+        assertTrue(map.isEmpty());
+        assertNull(map.put(new COSObjectKey(1, 0), 15L));
+        assertEquals(15L, map.put(new COSObjectKey(1, 0), 20L));
+        assertTrue(map.putOffset(new COSObjectKey(2, 1), -7L));
+        assertFalse(map.putOffset(new COSObjectKey(2, 1), -8L));
+        assertEquals(2, map.size());
+        assertEquals(20L, map.get(new COSObjectKey(1, 0)));
+        assertEquals(-8L, map.getOffset(new COSObjectKey(2, 1), 0));
+        assertNull(map.get(new COSObjectKey(2, 0)));
+        assertNull(map.get("2 1 R"));
+        assertEquals(-1L, map.getOffset(new COSObjectKey(3, 0), -1));
+        assertTrue(map.containsKey(new COSObjectKey(2, 1)));
+        assertFalse(map.containsKey(new COSObjectKey(1, 1)));
+    }
+
+    @Test
+    void testGetKey()
+    {
+        COSObjectKeyOffsetMap map = new COSObjectKeyOffsetMap();
+        map.put(new COSObjectKey(10, 0, 3), -5L);
+        COSObjectKey key = map.getKey(COSObjectKey.computeInternalHash(10, 0));
+        assertEquals(10, key.getNumber());
+        assertEquals(0, key.getGeneration());
+        assertEquals(3, key.getStreamIndex());
+        assertNull(map.getKey(COSObjectKey.computeInternalHash(10, 1)));
+    }
+
+    @Test
+    void testManyEntries()
+    {
+        COSObjectKeyOffsetMap map = new COSObjectKeyOffsetMap();
+        Map<COSObjectKey, Long> expected = new HashMap<>();
+        for (int i = 1; i <= 100000; i++)
+        {
+            COSObjectKey key = new COSObjectKey(i, i % 3);
+            map.put(key, i * 10L);
+            expected.put(key, i * 10L);
+        }
+        // remove every third entry to exercise the backward shifting of colliding entries
+        for (int i = 1; i <= 100000; i += 3)
+        {
+            COSObjectKey key = new COSObjectKey(i, i % 3);
+            assertEquals(i * 10L, map.remove(key));
+            expected.remove(key);
+        }
+        assertNull(map.remove(new COSObjectKey(1, 1)));
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected, map);
+        for (Entry<COSObjectKey, Long> entry : expected.entrySet())
+        {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+
+    /**
+     * Readers mustn't fail while a writer grows and clears the map, which replaces the arrays of the map.
+     */
+    @Test
+    void testConcurrentReadsWhileClearing() throws Exception
+    {
+        COSObjectKeyOffsetMap map = new COSObjectKeyOffsetMap();
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            List<Future<Boolean>> readers = new ArrayList<>();
+            for (int i = 0; i < 3; i++)
+            {
+                readers.add(executor.submit(() ->
+                {
+                    while (!done.get())
+                    {
+                        for (int number = 1; number <= 2000; number += 7)
+                        {
+                            Long offset = map.get(new COSObjectKey(number, 0));
+                            if (offset != null && offset != number * 10L)
+                            {
+                                return false;
+                            }
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (int i = 0; i < 200; i++)
+            {
+                for (int number = 1; number <= 2000; number++)
+                {
+                    map.put(new COSObjectKey(number, 0), number * 10L);
+                }
+                map.clear();
+            }
+            done.set(true);
+            for (Future<Boolean> reader : readers)
+            {
+                assertTrue(reader.get());
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testIteration()
+    {
+        COSObjectKeyOffsetMap map = new COSObjectKeyOffsetMap(3);
+        for (int i = 1; i <= 50; i++)
+        {
+            map.put(new COSObjectKey(i, 0, i), (long) i);
+        }
+        long sum = 0;
+        Iterator<Entry<COSObjectKey, Long>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext())
+        {
+            Entry<COSObjectKey, Long> entry = iterator.next();
+            assertEquals(entry.getKey().getNumber(), entry.getKey().getStreamIndex());
+            sum += entry.getValue();
+            if (entry.getValue() % 2 == 0)
+            {
+                iterator.remove();
+            }
+            else
+            {
+                entry.setValue(-entry.getValue());
+            }
+        }
+        assertEquals(50 * 51 / 2, sum);
+        assertEquals(25, map.size());
+        assertEquals(-1L, map.get(new COSObjectKey(1, 0)));
+        assertNull(map.get(new COSObjectKey(2, 0)));
+
+        COSObjectKeyOffsetMap copy = new COSObjectKeyOffsetMap();
+        copy.putAll(map);
+        assertEquals(map, copy);
+        assertEquals(5, copy.getKey(COSObjectKey.computeInternalHash(5, 0)).getStreamIndex());
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(25, copy.size());
+    }
+}
@@ -18,10 +18,13 @@ package org.apache.pdfbox.cos;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 import org.apache.pdfbox.Loader;
 import org.apache.pdfbox.pdmodel.PDDocument;
@@ -57,4 +60,23 @@ class TestCOSName
         }
     }
 
+    @Test
+    void testGetPDFNameFromBytes()
+    {
+        byte[] bytes = "[/Type/Font]".getBytes(StandardCharsets.US_ASCII);
+        assertSame(COSName.TYPE, COSName.getPDFName(bytes, 2, 4));
+        assertSame(COSName.FONT, COSName.getPDFName(bytes, 7, 4));
+        // the second lookup is served by the cache
+        assertSame(COSName.FONT, COSName.getPDFName(bytes, 7, 4));
+        assertSame(COSName.getPDFName(""), COSName.getPDFName(bytes, 0, 0));
+
+        String special = "中国你好!";
+        byte[] utf8 = special.getBytes(StandardCharsets.UTF_8);
+        assertSame(COSName.getPDFName(special), COSName.getPDFName(utf8, 0, utf8.length));
+
+        // PDFBOX-3347: fall back to Windows-1252 if the bytes aren't valid UTF-8
+        String latin = "Caf\u00e9";
+        byte[] windows1252 = latin.getBytes(Charset.forName("Windows-1252"));
+        assertEquals(latin, COSName.getPDFName(windows1252, 0, windows1252.length).getName());
+    }
 }
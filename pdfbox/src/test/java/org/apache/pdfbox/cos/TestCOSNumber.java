@@ -25,6 +25,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 
@@ -87,6 +89,36 @@ abstract class TestCOSNumber extends TestCOSBase
         }
     }
 
+    /**
+     * Tests get() for raw bytes, the result has to be the same as for the string representation.
+     * 
+     * @throws IOException
+     */
+    @Test
+    void testGetFromBytes() throws IOException
+    {
+        String[] numbers = { "0", "-", ".", "1", "+2000", "-1000", "1.1", "100.0", "-100.001", ".5",
+                "-.5", "5.", "-0.0", "0.0000001", "1234567.", "12345678.9", "999999999999999999",
+                "9223372036854775807", "-9223372036854775808", "18446744073307448448", "-2e-006",
+                "-8e+05", "--16.33", "0.00-33", "-12.-1" };
+        for (String number : numbers)
+        {
+            byte[] bytes = (" " + number + " ").getBytes(StandardCharsets.ISO_8859_1);
+            COSNumber expected = COSNumber.get(number);
+            COSNumber actual = COSNumber.get(bytes, 1, number.length());
+            assertEquals(expected.getClass(), actual.getClass(), number);
+            assertEquals(expected, actual, number);
+        }
+        Random random = new Random(4711);
+        for (int i = 0; i < 10000; i++)
+        {
+            String number = random.nextInt(100000) + "." + random.nextInt(1000);
+            byte[] bytes = number.getBytes(StandardCharsets.ISO_8859_1);
+            assertEquals(Float.parseFloat(number), COSNumber.get(bytes, 0, bytes.length).floatValue(), number);
+        }
+        assertThrows(IOException.class, () -> COSNumber.get(new byte[] { '1', 'a' }, 0, 2));
+    }
+
     /**
      * PDFBOX-5176: large number, too big for a long leads to an COSInteger value which is marked as invalid.
      * 
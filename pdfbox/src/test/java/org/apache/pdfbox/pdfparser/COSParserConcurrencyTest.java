@@ -0,0 +1,356 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfparser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSDocument;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.encryption.AccessPermission;
+import org.apache.pdfbox.pdmodel.encryption.StandardProtectionPolicy;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts.FontName;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Stress test for the concurrent dereferencing of objects using a shared document.
+ */
+class COSParserConcurrencyTest
+{
+    private static final File TESTRESULTSDIR = new File("target/test-output/pdfparser");
+    private static final int THREAD_COUNT = 16;
+    private static final int PAGE_COUNT = 300;
+
+    private static File testFile;
+    private static File rc4File;
+    private static File aesFile;
+
+    @BeforeAll
+    static void createTestFiles() throws IOException
+    {
+        TESTRESULTSDIR.mkdirs();
+        testFile = new File(TESTRESULTSDIR, "concurrency.pdf");
+        createTestFile(testFile, null);
+        rc4File = new File(TESTRESULTSDIR, "concurrency-rc4.pdf");
+        createTestFile(rc4File, false);
+        aesFile = new File(TESTRESULTSDIR, "concurrency-aes.pdf");
+        createTestFile(aesFile, true);
+    }
+
+    /**
+     * Creates the test file, which is encrypted using the given algorithm if not null.
+     */
+    private static void createTestFile(File file, Boolean preferAES) throws IOException
+    {
+        try (PDDocument document = new PDDocument())
+        {
+            PDType1Font font = new PDType1Font(FontName.HELVETICA);
+            for (int i = 0; i < PAGE_COUNT; i++)
+            {
+                PDPage page = new PDPage();
+                // a string to be decrypted
+                page.getCOSObject().setString(COSName.T, "Title of page " + i);
+                document.addPage(page);
+                try (PDPageContentStream contents = new PDPageContentStream(document, page))
+                {
+                    contents.beginText();
+                    contents.setFont(font, 12);
+                    contents.newLineAtOffset(100, 700);
+                    contents.showText("Page " + i);
+                    contents.endText();
+                    contents.addRect(50, 50, i % 500, 100);
+                    contents.stroke();
+                }
+            }
+            if (preferAES != null)
+            {
+                StandardProtectionPolicy policy = new StandardProtectionPolicy("owner", "",
+                        new AccessPermission());
+                policy.setEncryptionKeyLength(128);
+                policy.setPreferAES(preferAES);
+                document.protect(policy);
+            }
+            // saving compresses most of the objects into object streams
+            document.save(file);
+        }
+    }
+
+    @Test
+    void testConcurrentDereferencingFile() throws Exception
+    {
+        try (PDDocument document = Loader.loadPDF(testFile))
+        {
+            checkConcurrentDereferencing(document.getDocument(), testFile);
+        }
+    }
+
+    @Test
+    void testConcurrentDereferencingBuffer() throws Exception
+    {
+        try (PDDocument document = Loader.loadPDF(Files.readAllBytes(testFile.toPath())))
+        {
+            checkConcurrentDereferencing(document.getDocument(), testFile);
+        }
+    }
+
+    @Test
+    void testConcurrentDereferencingRC4() throws Exception
+    {
+        try (PDDocument document = Loader.loadPDF(rc4File))
+        {
+            assertTrue(document.isEncrypted());
+            checkConcurrentDereferencing(document.getDocument(), rc4File);
+        }
+    }
+
+    @Test
+    void testConcurrentDereferencingAES() throws Exception
+    {
+        try (PDDocument document = Loader.loadPDF(aesFile))
+        {
+            assertTrue(document.isEncrypted());
+            checkConcurrentDereferencing(document.getDocument(), aesFile);
+        }
+    }
+
+    @Test
+    void testObjectParsersAreReleased() throws Exception
+    {
+        Map<COSObjectKey, String> expected = readSequentially(testFile);
+        List<COSObjectKey> keys = new ArrayList<>(expected.keySet());
+        PDFParser parser = new PDFParser(new RandomAccessReadBufferedFile(testFile));
+        try (PDDocument document = parser.parse())
+        {
+            COSDocument cosDocument = document.getDocument();
+            // many short-lived threads dereferencing objects at the same time
+            CountDownLatch startSignal = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+            for (int i = 0; i < 4 * THREAD_COUNT; i++)
+            {
+                List<COSObjectKey> threadKeys = keys.subList(i * keys.size() / (4 * THREAD_COUNT),
+                        (i + 1) * keys.size() / (4 * THREAD_COUNT));
+                Thread thread = new Thread(() ->
+                {
+                    try
+                    {
+                        startSignal.await();
+                        for (COSObjectKey key : threadKeys)
+                        {
+                            COSBase object = cosDocument.getObjectFromPool(key).getObject();
+                            assertEquals(expected.get(key), describe(object), "object " + key);
+                        }
+                    }
+                    catch (Throwable throwable)
+                    {
+                        errors.add(throwable);
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            startSignal.countDown();
+            for (Thread thread : threads)
+            {
+                thread.join();
+            }
+            assertEquals(Collections.emptyList(), errors);
+            int idleCount = parser.getIdleObjectParserCount();
+            assertTrue(idleCount > 0 && idleCount <= 16, "idle parsers: " + idleCount);
+        }
+        assertEquals(0, parser.getIdleObjectParserCount());
+    }
+
+    @Test
+    void testUnloadWhileDereferencing() throws Exception
+    {
+        try (PDDocument document = Loader.loadPDF(testFile))
+        {
+            COSDocument cosDocument = document.getDocument();
+            List<COSObject> objects = new ArrayList<>();
+            for (COSObjectKey key : readSequentially(testFile).keySet())
+            {
+                objects.add(cosDocument.getObjectFromPool(key));
+            }
+            ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+            try
+            {
+                List<Future<Boolean>> futures = new ArrayList<>();
+                // one thread keeps on releasing the objects the other threads are reading
+                futures.add(executor.submit(() ->
+                {
+                    for (int i = 0; i < 20; i++)
+                    {
+                        objects.forEach(COSObject::unload);
+                    }
+                    return true;
+                }));
+                for (int i = 1; i < THREAD_COUNT; i++)
+                {
+                    futures.add(executor.submit(() ->
+                    {
+                        for (int j = 0; j < 20; j++)
+                        {
+                            for (COSObject object : objects)
+                            {
+                                if (object.getObject() == null)
+                                {
+                                    return false;
+                                }
+                            }
+                        }
+                        return true;
+                    }));
+                }
+                for (Future<Boolean> future : futures)
+                {
+                    assertTrue(future.get(2, TimeUnit.MINUTES));
+                }
+            }
+            finally
+            {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private void checkConcurrentDereferencing(COSDocument cosDocument, File file) throws Exception
+    {
+        Map<COSObjectKey, String> expected = readSequentially(file);
+        List<COSObjectKey> keys = new ArrayList<>(expected.keySet());
+        CountDownLatch startSignal = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        try
+        {
+            List<Future<Map<COSObjectKey, COSBase>>> futures = new ArrayList<>();
+            for (int i = 0; i < THREAD_COUNT; i++)
+            {
+                final long seed = i;
+                Callable<Map<COSObjectKey, COSBase>> task = () ->
+                {
+                    List<COSObjectKey> shuffledKeys = new ArrayList<>(keys);
+                    Collections.shuffle(shuffledKeys, new Random(seed));
+                    startSignal.await();
+                    Map<COSObjectKey, COSBase> resolved = new HashMap<>();
+                    for (COSObjectKey key : shuffledKeys)
+                    {
+                        COSBase object = cosDocument.getObjectFromPool(key).getObject();
+                        assertNotNull(object, "object " + key + " couldn't be dereferenced");
+                        assertEquals(expected.get(key), describe(object), "object " + key);
+                        resolved.put(key, object);
+                    }
+                    return resolved;
+                };
+                futures.add(executor.submit(task));
+            }
+            startSignal.countDown();
+            Map<COSObjectKey, COSBase> first = futures.get(0).get(2, TimeUnit.MINUTES);
+            assertEquals(keys.size(), first.size());
+            for (Future<Map<COSObjectKey, COSBase>> future : futures)
+            {
+                Map<COSObjectKey, COSBase> resolved = future.get(2, TimeUnit.MINUTES);
+                // every object has to be parsed exactly once
+                for (COSObjectKey key : keys)
+                {
+                    assertSame(first.get(key), resolved.get(key), "object " + key);
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Dereferences all objects of the given file using a single thread and returns a description of each object.
+     */
+    private Map<COSObjectKey, String> readSequentially(File file) throws IOException
+    {
+        Map<COSObjectKey, String> descriptions = new HashMap<>();
+        try (PDDocument document = Loader.loadPDF(file))
+        {
+            COSDocument cosDocument = document.getDocument();
+            for (COSObjectKey key : new ArrayList<>(cosDocument.getXrefTable().keySet()))
+            {
+                COSBase object = cosDocument.getObjectFromPool(key).getObject();
+                if (object != null)
+                {
+                    descriptions.put(key, describe(object));
+                }
+            }
+        }
+        assertTrue(descriptions.size() > PAGE_COUNT * 2);
+        return descriptions;
+    }
+
+    private static String describe(COSBase object) throws IOException
+    {
+        if (object instanceof COSStream)
+        {
+            try (InputStream is = ((COSStream) object).createRawInputStream())
+            {
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                is.transferTo(baos);
+                return ((COSStream) object).keySet() + ":"
+                        + new String(baos.toByteArray(), StandardCharsets.ISO_8859_1);
+            }
+        }
+        if (object instanceof COSDictionary)
+        {
+            COSDictionary dictionary = (COSDictionary) object;
+            COSBase title = dictionary.getDictionaryObject(COSName.T);
+            return dictionary.keySet()
+                    + (title instanceof COSString ? ((COSString) title).getString() : "");
+        }
+        return object.getClass().getSimpleName();
+    }
+}
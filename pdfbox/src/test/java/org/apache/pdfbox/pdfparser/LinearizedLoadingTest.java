@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfparser;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDocument;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.junit.jupiter.api.Test;
+
+class LinearizedLoadingTest
+{
+    private static final File LINEARIZED = new File(
+            "src/test/resources/input/merge/PDFBOX-5762-722238.pdf");
+
+    @Test
+    void testFirstPageFirst() throws IOException
+    {
+        Map<COSObjectKey, Long> expectedXref;
+        String expectedMediaBox;
+        byte[] expectedContent;
+        try (PDDocument document = Loader.loadPDF(LINEARIZED))
+        {
+            assertFalse(document.getDocument().hasDeferredXRefTable());
+            expectedXref = new HashMap<>(document.getDocument().getXrefTable());
+            expectedMediaBox = document.getPage(0).getMediaBox().toString();
+            expectedContent = readContents(document.getPage(0));
+        }
+        try (PDDocument document = Loader.loadLinearizedPDF(LINEARIZED))
+        {
+            assertTrue(document.getDocument().hasDeferredXRefTable());
+            assertTrue(document.getDocument().getParsedXrefTable().size() < expectedXref.size());
+
+            // the first page is available without parsing the remaining sections
+            PDPage firstPage = document.getPage(0);
+            assertEquals(expectedMediaBox, firstPage.getMediaBox().toString());
+            assertArrayEquals(expectedContent, readContents(firstPage));
+            assertTrue(document.getDocument().hasDeferredXRefTable());
+
+            // any other page requires the remaining sections
+            assertEquals(8, document.getNumberOfPages());
+            assertFalse(document.getDocument().hasDeferredXRefTable());
+            assertEquals(expectedXref, new HashMap<>(document.getDocument().getXrefTable()));
+            assertEquals(firstPage, document.getPage(0));
+            for (PDPage page : document.getPages())
+            {
+                readContents(page);
+            }
+        }
+    }
+
+    @Test
+    void testCompleteXrefTableOnAccess() throws IOException
+    {
+        try (PDDocument document = Loader.loadLinearizedPDF(LINEARIZED))
+        {
+            assertTrue(document.getDocument().hasDeferredXRefTable());
+            int parsedSize = document.getDocument().getParsedXrefTable().size();
+            assertTrue(document.getDocument().getXrefTable().size() > parsedSize);
+            assertFalse(document.getDocument().hasDeferredXRefTable());
+            assertEquals(8, document.getNumberOfPages());
+        }
+    }
+
+    @Test
+    void testFirstPageWithNonZeroIndex() throws IOException
+    {
+        byte[] expectedFirstContent;
+        byte[] expectedSecondContent;
+        try (PDDocument document = Loader.loadPDF(LINEARIZED))
+        {
+            expectedFirstContent = readContents(document.getPage(0));
+            expectedSecondContent = readContents(document.getPage(1));
+        }
+        // /O references the second page given by /P, the padding after the linearization dictionary is shortened
+        // to keep the offsets
+        String content = new String(Files.readAllBytes(LINEARIZED.toPath()),
+                StandardCharsets.ISO_8859_1);
+        content = content.replaceFirst("/O 144/E", "/O 1/P 1/E").replaceFirst("endobj\r   ",
+                "endobj\r ");
+        File file = new File("target/test-output/linearized-page-index.pdf");
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.ISO_8859_1));
+        try (PDDocument document = Loader.loadLinearizedPDF(file))
+        {
+            assertTrue(document.getDocument().hasDeferredXRefTable());
+            assertEquals(1, document.getDocument().getLinearizedDictionary().getInt(COSName.P));
+            assertArrayEquals(expectedFirstContent, readContents(document.getPage(0)));
+            assertArrayEquals(expectedSecondContent, readContents(document.getPage(1)));
+        }
+    }
+
+    /**
+     * Threads dereferencing objects while the deferred sections are parsed must not see a partial table.
+     */
+    @Test
+    void testConcurrentAccess() throws Exception
+    {
+        Map<COSObjectKey, String> expected = new HashMap<>();
+        try (PDDocument document = Loader.loadPDF(LINEARIZED))
+        {
+            COSDocument cosDocument = document.getDocument();
+            for (COSObjectKey key : new ArrayList<>(cosDocument.getXrefTable().keySet()))
+            {
+                COSBase object = cosDocument.getObjectFromPool(key).getObject();
+                if (object != null)
+                {
+                    expected.put(key, object.getClass().getSimpleName());
+                }
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try
+        {
+            for (int i = 0; i < 20; i++)
+            {
+                try (PDDocument document = Loader.loadLinearizedPDF(LINEARIZED))
+                {
+                    COSDocument cosDocument = document.getDocument();
+                    assertTrue(cosDocument.hasDeferredXRefTable());
+                    CountDownLatch startSignal = new CountDownLatch(1);
+                    List<Future<?>> futures = new ArrayList<>();
+                    for (int thread = 0; thread < 8; thread++)
+                    {
+                        List<COSObjectKey> keys = new ArrayList<>(expected.keySet());
+                        Collections.shuffle(keys, new Random(thread));
+                        futures.add(executor.submit(() ->
+                        {
+                            startSignal.await();
+                            for (COSObjectKey key : keys)
+                            {
+                                COSBase object = cosDocument.getObjectFromPool(key).getObject();
+                                assertNotNull(object, "object " + key);
+                                assertEquals(expected.get(key), object.getClass().getSimpleName());
+                            }
+                            return null;
+                        }));
+                    }
+                    startSignal.countDown();
+                    for (Future<?> future : futures)
+                    {
+                        future.get(1, TimeUnit.MINUTES);
+                    }
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testUpdatedLinearizedPDF() throws IOException
+    {
+        // an incremental update invalidates the linearization
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PDDocument document = Loader.loadPDF(LINEARIZED))
+        {
+            document.getDocumentInformation().setTitle("updated");
+            document.getDocumentInformation().getCOSObject().setNeedToBeUpdated(true);
+            document.saveIncremental(baos);
+        }
+        File updated = new File("target/test-output/linearized-updated.pdf");
+        updated.getParentFile().mkdirs();
+        Files.write(updated.toPath(), baos.toByteArray());
+        try (PDDocument document = Loader.loadLinearizedPDF(updated))
+        {
+            assertFalse(document.getDocument().hasDeferredXRefTable());
+            assertEquals("updated", document.getDocumentInformation().getTitle());
+            assertEquals(8, document.getNumberOfPages());
+        }
+    }
+
+    @Test
+    void testNotLinearizedPDF() throws IOException
+    {
+        File file = new File("target/test-output/not-linearized.pdf");
+        file.getParentFile().mkdirs();
+        try (PDDocument document = new PDDocument())
+        {
+            document.addPage(new PDPage());
+            document.addPage(new PDPage());
+            document.save(file);
+        }
+        try (PDDocument document = Loader.loadLinearizedPDF(file))
+        {
+            assertFalse(document.getDocument().hasDeferredXRefTable());
+            assertEquals(2, document.getNumberOfPages());
+        }
+    }
+
+    private static byte[] readContents(PDPage page) throws IOException
+    {
+        try (InputStream contents = page.getContents())
+        {
+            return contents.readAllBytes();
+        }
+    }
+}
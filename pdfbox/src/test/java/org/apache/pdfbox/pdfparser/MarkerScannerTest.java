@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfparser;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdfparser.MarkerScanner.Marker;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+import org.junit.jupiter.api.Test;
+
+class MarkerScannerTest
+{
+    private static final String CONTENT = "%PDF-1.7\n1 0 obj\n<</Type/ObjStm>>\nendobj\n"
+            + "2 0 obj\n<</Type/XRef>>\nendobj\nxref\ntrailer\nstartxref\n0\n%%EOF\n3 0 obj endo";
+
+    private static final Map<Marker, String> MARKERS = new EnumMap<>(Marker.class);
+
+    static
+    {
+        MARKERS.put(Marker.OBJ, " obj");
+        MARKERS.put(Marker.ENDOBJ, "endo");
+        MARKERS.put(Marker.EOF, "%%EOF");
+        MARKERS.put(Marker.OBJ_STREAM, "/ObjStm");
+        MARKERS.put(Marker.XREF_TABLE, "xref");
+        MARKERS.put(Marker.XREF_STREAM, "/XRef");
+        MARKERS.put(Marker.TRAILER, "trailer");
+    }
+
+    @Test
+    void testChunkEdges() throws IOException
+    {
+        byte[] bytes = CONTENT.getBytes(StandardCharsets.US_ASCII);
+        Map<Marker, long[]> expected = new MarkerScanner(new RandomAccessReadBuffer(bytes), 6,
+                MarkerScanner.DEFAULT_CHUNK_SIZE, false).scan();
+        for (Marker marker : Marker.values())
+        {
+            assertArrayEquals(indexesOf(CONTENT, marker), expected.get(marker), marker.name());
+        }
+        // every marker spans the edge of two chunks for some of the chunk sizes
+        for (int chunkSize = 1; chunkSize < 12; chunkSize++)
+        {
+            for (boolean parallel : new boolean[] { true, false })
+            {
+                RandomAccessReadBuffer source = new RandomAccessReadBuffer(bytes);
+                source.seek(17);
+                Map<Marker, long[]> actual = new MarkerScanner(source, 6, chunkSize, parallel)
+                        .scan();
+                for (Marker marker : Marker.values())
+                {
+                    assertArrayEquals(expected.get(marker), actual.get(marker),
+                            marker.name() + " " + chunkSize);
+                }
+                assertEquals(17, source.getPosition());
+            }
+        }
+    }
+
+    @Test
+    void testParallelBruteForceSearch() throws IOException
+    {
+        // a file larger than a single chunk without any cross reference
+        String content;
+        try (PDDocument document = new PDDocument())
+        {
+            for (int i = 0; i < 2000; i++)
+            {
+                document.addPage(new PDPage());
+            }
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            document.save(baos, CompressParameters.NO_COMPRESSION);
+            content = baos.toString(StandardCharsets.ISO_8859_1);
+        }
+        StringBuilder padding = new StringBuilder();
+        while (padding.length() < MarkerScanner.DEFAULT_CHUNK_SIZE)
+        {
+            padding.append("% padding to span several chunks\n");
+        }
+        content = content.replace("startxref", "startxxxx");
+        int firstObject = content.indexOf("1 0 obj");
+        byte[] pdf = (content.substring(0, firstObject) + padding
+                + content.substring(firstObject)).getBytes(StandardCharsets.ISO_8859_1);
+
+        Map<COSObjectKey, Long> parallelOffsets = bruteForceOffsets(pdf, "true");
+        Map<COSObjectKey, Long> sequentialOffsets = bruteForceOffsets(pdf, "false");
+        assertEquals(sequentialOffsets, parallelOffsets);
+        try (PDDocument document = Loader.loadPDF(pdf))
+        {
+            assertEquals(2000, document.getNumberOfPages());
+        }
+    }
+
+    private static Map<COSObjectKey, Long> bruteForceOffsets(byte[] pdf, String parallel)
+            throws IOException
+    {
+        String previous = System.setProperty(BruteForceParser.SYSPROP_PARALLEL_SCAN, parallel);
+        try
+        {
+            COSParser parser = new COSParser(new RandomAccessReadBuffer(pdf));
+            return parser.getBruteForceParser().getBFCOSObjectOffsets();
+        }
+        finally
+        {
+            if (previous == null)
+            {
+                System.clearProperty(BruteForceParser.SYSPROP_PARALLEL_SCAN);
+            }
+            else
+            {
+                System.setProperty(BruteForceParser.SYSPROP_PARALLEL_SCAN, previous);
+            }
+        }
+    }
+
+    private static long[] indexesOf(String content, Marker marker)
+    {
+        String string = MARKERS.get(marker);
+        return IntStream.range(6, content.length())
+                .filter(i -> marker == Marker.OBJ
+                        ? Character.isWhitespace(content.charAt(i))
+                                && content.startsWith("obj", i + 1)
+                        : content.startsWith(string, i))
+                .asLongStream().toArray();
+    }
+}
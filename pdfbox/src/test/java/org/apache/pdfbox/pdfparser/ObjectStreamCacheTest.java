@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfparser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSDocument;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.junit.jupiter.api.Test;
+
+class ObjectStreamCacheTest
+{
+    @Test
+    void testEviction()
+    {
+        ObjectStreamCache cache = new ObjectStreamCache(2);
+        COSObjectKey key1 = new COSObjectKey(1, 0);
+        COSObjectKey key2 = new COSObjectKey(2, 0);
+        cache.put(10, createObjects(key1, key2));
+        cache.put(11, createObjects(key1));
+        assertEquals(COSInteger.ONE, cache.remove(10, key1));
+        // object stream 11 is the least recently used one
+        cache.put(12, createObjects(key1));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.remove(11, key1));
+        assertEquals(COSInteger.ONE, cache.remove(10, key2));
+        // object stream 10 is removed as all objects were dereferenced
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+
+        cache.setMaximumSize(0);
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getEvictionCount());
+        assertThrows(IllegalArgumentException.class, () -> cache.setMaximumSize(-1));
+    }
+
+    @Test
+    void testReparseEvictedObjectStreams() throws IOException
+    {
+        byte[] pdf = createDocumentWithObjectStreams();
+        Map<COSObjectKey, String> expected = new HashMap<>();
+        List<COSObjectKey> compressedKeys = new ArrayList<>();
+        PDFParser parser = new PDFParser(new RandomAccessReadBuffer(pdf));
+        try (PDDocument document = parser.parse())
+        {
+            COSDocument cosDocument = document.getDocument();
+            cosDocument.getXrefTable().forEach((key, offset) ->
+            {
+                COSBase object = cosDocument.getObjectFromPool(key).getObject();
+                expected.put(key, describe(object));
+                if (offset < 0)
+                {
+                    compressedKeys.add(key);
+                }
+            });
+        }
+        assertTrue(compressedKeys.size() > 10);
+
+        parser = new PDFParser(new RandomAccessReadBuffer(pdf));
+        ObjectStreamCache cache = parser.getObjectStreamCache();
+        cache.setMaximumSize(0);
+        try (PDDocument document = parser.parse())
+        {
+            COSDocument cosDocument = document.getDocument();
+            long missCount = cache.getMissCount();
+            for (COSObjectKey key : compressedKeys)
+            {
+                COSBase object = cosDocument.getObjectFromPool(key).getObject();
+                assertEquals(expected.get(key), describe(object));
+                assertSame(object, cosDocument.getObjectFromPool(key).getObject());
+            }
+            assertEquals(0, cache.size());
+            assertEquals(0, cache.getHitCount());
+            // every compressed object not dereferenced by the parser itself leads to a parse of its object stream
+            assertTrue(cache.getMissCount() - missCount >= compressedKeys.size() - 2);
+        }
+    }
+
+    private static Map<COSObjectKey, COSBase> createObjects(COSObjectKey... keys)
+    {
+        Map<COSObjectKey, COSBase> objects = new HashMap<>();
+        for (COSObjectKey key : keys)
+        {
+            objects.put(key, COSInteger.ONE);
+        }
+        return objects;
+    }
+
+    private static String describe(COSBase object)
+    {
+        if (object instanceof COSDictionary)
+        {
+            return ((COSDictionary) object).keySet().toString();
+        }
+        return String.valueOf(object);
+    }
+
+    private static byte[] createDocumentWithObjectStreams() throws IOException
+    {
+        try (PDDocument document = new PDDocument())
+        {
+            for (int i = 0; i < 20; i++)
+            {
+                document.addPage(new PDPage());
+            }
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            // saving compresses most of the objects into object streams
+            document.save(baos);
+            return baos.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfparser;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.encryption.AccessPermission;
+import org.apache.pdfbox.pdmodel.encryption.StandardProtectionPolicy;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts.FontName;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ParseIndexTest
+{
+    private static final File OUT_DIR = new File("target/test-output/parseindex");
+
+    @BeforeAll
+    static void setUp()
+    {
+        OUT_DIR.mkdirs();
+    }
+
+    @Test
+    void testReopenWithIndex() throws IOException
+    {
+        File pdf = new File(OUT_DIR, "compressed.pdf");
+        File index = new File(OUT_DIR, "compressed.pdf.index");
+        Files.write(pdf.toPath(), createDocument(3));
+        Files.deleteIfExists(index.toPath());
+
+        String expected;
+        try (PDDocument document = Loader.loadPDF(pdf))
+        {
+            expected = describe(document);
+        }
+        try (PDDocument document = Loader.loadPDFWithParseIndex(pdf, index))
+        {
+            assertEquals(expected, describe(document));
+        }
+        assertTrue(index.isFile());
+        long indexLength = index.length();
+        try (PDDocument document = Loader.loadPDFWithParseIndex(pdf, index))
+        {
+            assertEquals(expected, describe(document));
+            assertEquals(3, document.getNumberOfPages());
+            assertTrue(document.getDocument().isXRefStream());
+        }
+        assertEquals(indexLength, index.length());
+    }
+
+    @Test
+    void testEncryptedWithIndex() throws IOException
+    {
+        File pdf = new File(OUT_DIR, "encrypted.pdf");
+        File index = new File(OUT_DIR, "encrypted.pdf.index");
+        try (PDDocument document = Loader.loadPDF(createDocument(2)))
+        {
+            StandardProtectionPolicy policy = new StandardProtectionPolicy("owner", "user",
+                    new AccessPermission());
+            policy.setEncryptionKeyLength(128);
+            document.protect(policy);
+            document.save(pdf);
+        }
+        Files.deleteIfExists(index.toPath());
+        for (int i = 0; i < 2; i++)
+        {
+            try (PDDocument document = Loader.loadPDFWithParseIndex(pdf, "user", index,
+                    IOUtils.createMemoryOnlyStreamCache()))
+            {
+                assertTrue(document.isEncrypted());
+                assertEquals(2, document.getNumberOfPages());
+                assertEquals("Page 1", new PDFTextStripper().getText(document).trim()
+                        .split("\\R")[1]);
+            }
+        }
+    }
+
+    @Test
+    void testStaleIndexIsRecreated() throws IOException
+    {
+        File pdf = new File(OUT_DIR, "updated.pdf");
+        File index = new File(OUT_DIR, "updated.pdf.index");
+        Files.write(pdf.toPath(), createDocument(1));
+        Files.deleteIfExists(index.toPath());
+        Loader.loadPDFWithParseIndex(pdf, index).close();
+        byte[] oldIndex = Files.readAllBytes(index.toPath());
+
+        // incremental update adding a page
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PDDocument document = Loader.loadPDF(pdf))
+        {
+            PDPage page = new PDPage();
+            document.getPages().add(page);
+            document.getPages().getCOSObject().setNeedToBeUpdated(true);
+            document.getDocumentCatalog().getCOSObject().setNeedToBeUpdated(true);
+            document.saveIncremental(baos);
+        }
+        Files.write(pdf.toPath(), baos.toByteArray());
+        try (PDDocument document = Loader.loadPDFWithParseIndex(pdf, index))
+        {
+            assertEquals(2, document.getNumberOfPages());
+        }
+        assertFalse(Arrays.equals(oldIndex, Files.readAllBytes(index.toPath())));
+
+        // a corrupt index is ignored and replaced
+        Files.write(index.toPath(), "garbage".getBytes(StandardCharsets.US_ASCII));
+        try (PDDocument document = Loader.loadPDFWithParseIndex(pdf, index))
+        {
+            assertEquals(2, document.getNumberOfPages());
+        }
+        assertNotEquals(7, index.length());
+    }
+
+    @Test
+    void testModifiedFileIsDetected() throws IOException
+    {
+        // the middle of the file isn't covered by the sampled checksum
+        File pdf = new File(OUT_DIR, "modified.pdf");
+        File index = new File(OUT_DIR, "modified.pdf.index");
+        try (PDDocument document = new PDDocument())
+        {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            COSStream filler = document.getDocument().createCOSStream();
+            try (OutputStream os = filler.createRawOutputStream())
+            {
+                byte[] bytes = new byte[ParseIndex.SAMPLE_SIZE];
+                Arrays.fill(bytes, (byte) 'x');
+                for (int i = 0; i < 3; i++)
+                {
+                    os.write(bytes);
+                }
+            }
+            page.getCOSObject().setItem(COSName.getPDFName("Filler"), filler);
+            document.save(pdf);
+        }
+        Files.deleteIfExists(index.toPath());
+        Loader.loadPDFWithParseIndex(pdf, index).close();
+        byte[] oldIndex = Files.readAllBytes(index.toPath());
+
+        // the index matches as long as the file isn't modified
+        Loader.loadPDFWithParseIndex(pdf, index).close();
+        assertArrayEquals(oldIndex, Files.readAllBytes(index.toPath()));
+
+        // modify the file in place keeping its length
+        byte[] content = Files.readAllBytes(pdf.toPath());
+        int middle = content.length / 2;
+        assertEquals('x', content[middle]);
+        try (RandomAccessFile file = new RandomAccessFile(pdf, "rw"))
+        {
+            file.seek(middle);
+            file.write('y');
+        }
+        FileTime lastModified = Files.getLastModifiedTime(pdf.toPath());
+        Files.setLastModifiedTime(pdf.toPath(),
+                FileTime.fromMillis(lastModified.toMillis() + 60000));
+        try (PDDocument document = Loader.loadPDFWithParseIndex(pdf, index))
+        {
+            assertEquals(1, document.getNumberOfPages());
+        }
+        assertFalse(Arrays.equals(oldIndex, Files.readAllBytes(index.toPath())));
+    }
+
+    @Test
+    void testIndexOfRebuiltTrailer() throws IOException
+    {
+        // remove the startxref so that the trailer has to be rebuilt by a brute force search
+        String content = new String(createDocument(2), StandardCharsets.ISO_8859_1);
+        content = content.replace("startxref", "startxxxx");
+        File pdf = new File(OUT_DIR, "damaged.pdf");
+        File index = new File(OUT_DIR, "damaged.pdf.index");
+        Files.write(pdf.toPath(), content.getBytes(StandardCharsets.ISO_8859_1));
+        Files.deleteIfExists(index.toPath());
+
+        Map<String, Long> expected;
+        try (PDDocument document = Loader.loadPDFWithParseIndex(pdf, index))
+        {
+            expected = xrefTable(document);
+        }
+        try (PDDocument document = Loader.loadPDFWithParseIndex(pdf, index))
+        {
+            // the index includes the compressed objects found by the brute force search
+            Map<String, Long> actual = xrefTable(document);
+            assertTrue(actual.size() > expected.size());
+            assertTrue(actual.entrySet().containsAll(expected.entrySet()));
+            assertEquals(2, document.getNumberOfPages());
+            assertEquals(COSName.CATALOG,
+                    document.getDocumentCatalog().getCOSObject().getCOSName(COSName.TYPE));
+        }
+    }
+
+    private static Map<String, Long> xrefTable(PDDocument document)
+    {
+        Map<String, Long> xref = new TreeMap<>();
+        for (Map.Entry<COSObjectKey, Long> entry : document.getDocument().getXrefTable()
+                .entrySet())
+        {
+            COSObjectKey key = entry.getKey();
+            xref.put(key + "/" + key.getStreamIndex(), entry.getValue());
+        }
+        return xref;
+    }
+
+    private static String describe(PDDocument document)
+    {
+        return xrefTable(document) + " " + document.getDocument().getTrailer().keySet() + " "
+                + document.getDocument().getStartXref() + " "
+                + document.getDocumentCatalog().getCOSObject().getCOSName(COSName.TYPE) + " "
+                + document.getNumberOfPages();
+    }
+
+    private static byte[] createDocument(int pageCount) throws IOException
+    {
+        try (PDDocument document = new PDDocument())
+        {
+            for (int i = 0; i < pageCount; i++)
+            {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream contentStream = new PDPageContentStream(document, page))
+                {
+                    contentStream.beginText();
+                    contentStream.setFont(new PDType1Font(FontName.HELVETICA), 12);
+                    contentStream.newLineAtOffset(100, 700);
+                    contentStream.showText("Page " + i);
+                    contentStream.endText();
+                }
+            }
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            document.save(baos);
+            return baos.toByteArray();
+        }
+    }
+}
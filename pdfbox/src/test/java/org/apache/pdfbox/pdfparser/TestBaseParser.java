@@ -18,9 +18,16 @@
 package org.apache.pdfbox.pdfparser;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
 import org.apache.pdfbox.cos.COSString;
 import org.apache.pdfbox.io.RandomAccessReadBuffer;
 import org.junit.jupiter.api.Test;
@@ -88,4 +95,37 @@ class TestBaseParser
         assertEquals(output, cosString.getString());
     }
 
+    @Test
+    void testParseNamesAndNumbers() throws IOException
+    {
+        byte[] inputBytes = "[/Type /A#42#2 0.5 -12 +7 3.25e2 /Long#20Name#41 ]"
+                .getBytes(StandardCharsets.US_ASCII);
+        BaseParser baseParser = new COSParser(new RandomAccessReadBuffer(inputBytes));
+        COSArray array = (COSArray) baseParser.parseDirObject();
+        assertEquals(7, array.size());
+        assertSame(COSName.TYPE, array.get(0));
+        // the invalid escape #2 is kept as is
+        assertEquals("AB#2", ((COSName) array.get(1)).getName());
+        assertEquals(new COSFloat(0.5f), array.get(2));
+        assertEquals(COSInteger.get(-12), array.get(3));
+        assertEquals(COSInteger.get(7), array.get(4));
+        assertEquals(new COSFloat(325f), array.get(5));
+        assertEquals("Long NameA", ((COSName) array.get(6)).getName());
+    }
+
+    @Test
+    void testReadIntAndLong() throws IOException
+    {
+        byte[] inputBytes = " 2147483647 2147483648 9223372036854775807 9223372036854775808 x"
+                .getBytes(StandardCharsets.US_ASCII);
+        BaseParser baseParser = new COSParser(new RandomAccessReadBuffer(inputBytes));
+        assertEquals(Integer.MAX_VALUE, baseParser.readInt());
+        assertThrows(IOException.class, baseParser::readInt);
+        // the number is still available after a failure
+        assertEquals(2147483648L, baseParser.readLong());
+        assertEquals(Long.MAX_VALUE, baseParser.readLong());
+        assertThrows(IOException.class, baseParser::readLong);
+        baseParser.readString();
+        assertThrows(IOException.class, baseParser::readInt);
+    }
 }
@@ -17,19 +17,33 @@
 
 package org.apache.pdfbox.pdfparser;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 
 import org.apache.pdfbox.Loader;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
 import org.apache.pdfbox.pdmodel.PDDocumentInformation;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDMetadata;
+import org.apache.pdfbox.pdmodel.encryption.AccessPermission;
+import org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException;
+import org.apache.pdfbox.pdmodel.encryption.StandardProtectionPolicy;
 import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDDocumentOutline;
 import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
 import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.text.PDFTextStripper;
 import org.apache.pdfbox.util.DateConverter;
 import org.junit.jupiter.api.Test;
 
@@ -348,4 +362,99 @@ class TestPDFParser
         }
     }
 
+    /**
+     * Test that probing a pdf returns the same metadata as loading it.
+     *
+     * @throws IOException
+     */
+    @Test
+    void testProbe() throws IOException
+    {
+        byte[] xmp = "<x:xmpmeta xmlns:x=\"adobe:ns:meta/\"/>".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PDDocument doc = new PDDocument())
+        {
+            for (int i = 0; i < 5; i++)
+            {
+                doc.addPage(new PDPage());
+            }
+            doc.setVersion(1.7f);
+            doc.getDocumentInformation().setTitle("Probe");
+            doc.getDocumentInformation().setAuthor("PDFBox");
+            PDMetadata metadata = new PDMetadata(doc);
+            metadata.importXMPMetadata(xmp);
+            doc.getDocumentCatalog().setMetadata(metadata);
+            doc.save(baos);
+        }
+        byte[] pdf = baos.toByteArray();
+
+        DocumentSummary summary = Loader.probePDF(pdf);
+        try (PDDocument doc = Loader.loadPDF(pdf))
+        {
+            assertEquals(doc.getVersion(), summary.getVersion());
+            assertEquals(doc.getNumberOfPages(), summary.getPageCount());
+        }
+        assertEquals(5, summary.getPageCount());
+        assertFalse(summary.isEncrypted());
+        assertTrue(summary.getAccessPermission().isOwnerPermission());
+        assertTrue(summary.getAccessPermission().isReadOnly());
+        assertEquals("Probe", summary.getDocumentInformation("Title"));
+        assertEquals("PDFBox", summary.getDocumentInformation().get("Author"));
+        assertArrayEquals(xmp, summary.getXMPMetadata());
+        assertThrows(UnsupportedOperationException.class,
+                () -> summary.getDocumentInformation().put("Title", "Changed"));
+    }
+
+    /**
+     * Test probing an encrypted pdf.
+     *
+     * @throws IOException
+     */
+    @Test
+    void testProbeEncrypted() throws IOException
+    {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PDDocument doc = new PDDocument())
+        {
+            doc.addPage(new PDPage());
+            doc.getDocumentInformation().setTitle("Encrypted");
+            AccessPermission ap = new AccessPermission();
+            ap.setCanPrint(false);
+            StandardProtectionPolicy policy = new StandardProtectionPolicy("owner", "user", ap);
+            policy.setEncryptionKeyLength(128);
+            doc.protect(policy);
+            doc.save(baos);
+        }
+        byte[] pdf = baos.toByteArray();
+
+        assertThrows(InvalidPasswordException.class, () -> Loader.probePDF(pdf));
+        DocumentSummary summary = Loader.probePDF(new RandomAccessReadBuffer(pdf), "user");
+        assertTrue(summary.isEncrypted());
+        assertEquals(1, summary.getPageCount());
+        assertFalse(summary.getAccessPermission().canPrint());
+        assertEquals("Encrypted", summary.getDocumentInformation("Title"));
+        assertNull(summary.getXMPMetadata());
+    }
+
+    /**
+     * Test whether a PDF loaded using a memory mapped file is the same as the one loaded using a buffered file.
+     *
+     * @throws IOException
+     */
+    @Test
+    void testLoadMemoryMapped() throws IOException
+    {
+        File file = new File("src/test/resources/input/merge/PDFBOX-5762-722238.pdf");
+        String expected;
+        try (PDDocument doc = Loader.loadPDF(file))
+        {
+            expected = new PDFTextStripper().getText(doc);
+        }
+        try (PDDocument doc = Loader.loadPDFMemoryMapped(file))
+        {
+            assertEquals(8, doc.getNumberOfPages());
+            assertEquals(expected, new PDFTextStripper().getText(doc));
+        }
+    }
+
 }
@@ -17,25 +17,41 @@
 package org.apache.pdfbox.pdfwriter;
 
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDPageContentStream.AppendMode;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.common.filespecification.PDComplexFileSpecification;
 import org.apache.pdfbox.pdmodel.encryption.AccessPermission;
 import org.apache.pdfbox.pdmodel.encryption.StandardProtectionPolicy;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.optionalcontent.PDOptionalContentGroup;
+import org.apache.pdfbox.pdmodel.graphics.optionalcontent.PDOptionalContentProperties;
 import org.apache.pdfbox.pdmodel.font.Standard14Fonts.FontName;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
 import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotation;
+import org.apache.pdfbox.text.PDFTextStripper;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * This test attempts to save different documents compressed, without causing errors, it also checks, whether the PDF is
@@ -258,4 +274,143 @@ class COSDocumentCompressionTest
         }
     }
 
+    /**
+     * Compress the uncompressed content streams of a new document in parallel and check that the result is the same
+     * as the one of a sequential compression.
+     *
+     * @throws Exception Shall be thrown, if compressing the document failed.
+     */
+    @Test
+    void testParallelStreamCompression() throws Exception
+    {
+        byte[] sequential = saveUncompressedDocument(new CompressParameters(
+                CompressParameters.DEFAULT_OBJECT_STREAM_SIZE, true, null));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        byte[] parallel;
+        try
+        {
+            parallel = saveUncompressedDocument(new CompressParameters(
+                    CompressParameters.DEFAULT_OBJECT_STREAM_SIZE, true, executor));
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        assertArrayEquals(sequential, parallel);
+
+        try (PDDocument document = Loader.loadPDF(parallel))
+        {
+            assertEquals(50, document.getNumberOfPages());
+            assertEquals(COSName.FLATE_DECODE,
+                    document.getPage(49).getContentStreams().next().getCOSObject().getFilters());
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setStartPage(50);
+            assertEquals("Page 49", stripper.getText(document).trim());
+        }
+    }
+
+    private static byte[] saveUncompressedDocument(CompressParameters compressParameters)
+            throws IOException
+    {
+        try (PDDocument document = new PDDocument())
+        {
+            document.setDocumentId(4711L);
+            PDType1Font font = new PDType1Font(FontName.HELVETICA);
+            for (int i = 0; i < 50; i++)
+            {
+                PDPage page = new PDPage(new PDRectangle(100, 100));
+                document.addPage(page);
+                try (PDPageContentStream contentStream = new PDPageContentStream(document, page,
+                        AppendMode.OVERWRITE, false))
+                {
+                    contentStream.beginText();
+                    contentStream.newLineAtOffset(20, 80);
+                    contentStream.setFont(font, 12);
+                    contentStream.showText("Page " + i);
+                    contentStream.endText();
+                }
+            }
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            document.save(output, compressParameters);
+            return output.toByteArray();
+        }
+    }
+
+    /**
+     * Check that identical fonts and images added to every page are written once, while identical optional content
+     * groups stay distinct.
+     *
+     * @throws Exception Shall be thrown, when saving the document failed.
+     */
+    @Test
+    void testDeduplicateObjects() throws Exception
+    {
+        byte[] duplicated = saveDocumentWithDuplicates(CompressParameters.NO_COMPRESSION);
+        byte[] deduplicated = saveDocumentWithDuplicates(new CompressParameters(0, false, null, true));
+        assertTrue(deduplicated.length < duplicated.length);
+
+        try (PDDocument document = Loader.loadPDF(deduplicated))
+        {
+            assertEquals(3, document.getNumberOfPages());
+            COSDictionary firstResources = document.getPage(0).getResources().getCOSObject();
+            COSDictionary otherResources = document.getPage(2).getResources().getCOSObject();
+            for (COSName category : List.of(COSName.FONT, COSName.XOBJECT))
+            {
+                COSObject first = (COSObject) firstResources.getCOSDictionary(category)
+                        .getItem(COSName.getPDFName(category == COSName.FONT ? "F1" : "Im1"));
+                COSObject other = (COSObject) otherResources.getCOSDictionary(category)
+                        .getItem(COSName.getPDFName(category == COSName.FONT ? "F1" : "Im1"));
+                assertEquals(first.getKey(), other.getKey());
+            }
+            COSObject firstGroup = (COSObject) firstResources.getCOSDictionary(COSName.PROPERTIES)
+                    .getItem(COSName.getPDFName("oc1"));
+            COSObject otherGroup = (COSObject) otherResources.getCOSDictionary(COSName.PROPERTIES)
+                    .getItem(COSName.getPDFName("oc1"));
+            assertNotEquals(firstGroup.getKey(), otherGroup.getKey());
+            assertEquals(3, document.getDocumentCatalog().getOCProperties().getGroupNames().length);
+
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setStartPage(3);
+            assertEquals("Page 2", stripper.getText(document).trim());
+        }
+    }
+
+    private static byte[] saveDocumentWithDuplicates(CompressParameters compressParameters)
+            throws IOException
+    {
+        try (PDDocument document = new PDDocument())
+        {
+            document.setDocumentId(4711L);
+            BufferedImage image = new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB);
+            for (int x = 0; x < 32; x++)
+            {
+                image.setRGB(x, x, 0xFF0000);
+            }
+            PDOptionalContentProperties ocProperties = new PDOptionalContentProperties();
+            document.getDocumentCatalog().setOCProperties(ocProperties);
+            for (int i = 0; i < 3; i++)
+            {
+                PDPage page = new PDPage(new PDRectangle(100, 100));
+                document.addPage(page);
+                // every page gets its own, but identical font, image and optional content group
+                PDOptionalContentGroup group = new PDOptionalContentGroup("Layer");
+                ocProperties.addGroup(group);
+                try (PDPageContentStream contentStream = new PDPageContentStream(document, page,
+                        AppendMode.OVERWRITE, false))
+                {
+                    contentStream.beginMarkedContent(COSName.OC, group);
+                    contentStream.drawImage(LosslessFactory.createFromImage(document, image), 0, 0);
+                    contentStream.endMarkedContent();
+                    contentStream.beginText();
+                    contentStream.newLineAtOffset(20, 80);
+                    contentStream.setFont(new PDType1Font(FontName.HELVETICA), 12);
+                    contentStream.showText("Page " + i);
+                    contentStream.endText();
+                }
+            }
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            document.save(output, compressParameters);
+            return output.toByteArray();
+        }
+    }
 }
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfwriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSObjectKey;
+import org.junit.jupiter.api.Test;
+
+class COSWriterObjectTableTest
+{
+    @Test
+    void testPutGetRemove()
+    {
+        COSWriterObjectTable table = new COSWriterObjectTable(0);
+        COSDictionary first = new COSDictionary();
+        COSDictionary second = new COSDictionary();
+        table.put(new COSObjectKey(1, 0), first);
+        table.put(new COSObjectKey(1, 1), second);
+        assertSame(first, table.get(new COSObjectKey(1, 0)));
+        assertSame(second, table.get(new COSObjectKey(1, 1)));
+        assertNull(table.get(new COSObjectKey(2, 0)));
+        assertNull(table.get(null));
+
+        table.put(new COSObjectKey(1, 0), second);
+        assertSame(second, table.get(new COSObjectKey(1, 0)));
+        assertEquals(2, table.size());
+
+        table.remove(new COSObjectKey(1, 0));
+        assertNull(table.get(new COSObjectKey(1, 0)));
+        assertSame(second, table.get(new COSObjectKey(1, 1)));
+        assertEquals(1, table.size());
+    }
+
+    /**
+     * Compares the table with a map while adding and removing many objects, so that the table is resized and the
+     * probe sequences are shifted back when objects are removed.
+     */
+    @Test
+    void testCompareWithMap()
+    {
+        COSWriterObjectTable table = new COSWriterObjectTable(16);
+        Map<COSObjectKey, COSBase> map = new HashMap<>();
+        Random random = new Random(4711);
+        for (int i = 0; i < 100000; i++)
+        {
+            COSObjectKey key = new COSObjectKey(random.nextInt(5000), random.nextInt(3));
+            if (random.nextInt(3) == 0)
+            {
+                table.remove(key);
+                map.remove(key);
+            }
+            else
+            {
+                COSDictionary object = new COSDictionary();
+                table.put(key, object);
+                map.put(key, object);
+            }
+        }
+        assertEquals(map.size(), table.size());
+        for (int number = 0; number < 5000; number++)
+        {
+            for (int generation = 0; generation < 3; generation++)
+            {
+                COSObjectKey key = new COSObjectKey(number, generation);
+                assertSame(map.get(key), table.get(key));
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdfwriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.cos.COSString;
+import org.junit.jupiter.api.Test;
+
+class COSWriterReleasedObjectsTest
+{
+    @Test
+    void testIdentity()
+    {
+        COSWriterReleasedObjects releasedObjects = new COSWriterReleasedObjects();
+        COSString released = new COSString("same");
+        COSObjectKey key = new COSObjectKey(7, 0);
+        releasedObjects.put(released, key);
+        assertSame(key, releasedObjects.get(released));
+        assertTrue(releasedObjects.contains(released));
+
+        // equal objects are different indirect objects
+        COSString equal = new COSString("same");
+        assertEquals(released, equal);
+        assertNull(releasedObjects.get(equal));
+        assertFalse(releasedObjects.contains(equal));
+        assertFalse(releasedObjects.contains(new COSFloat(1.5f)));
+
+        COSDictionary dictionary = new COSDictionary();
+        releasedObjects.put(dictionary, new COSObjectKey(8, 0));
+        releasedObjects.put(equal, new COSObjectKey(9, 0));
+        assertEquals(3, releasedObjects.size());
+        assertEquals(new COSObjectKey(9, 0), releasedObjects.get(equal));
+        assertSame(key, releasedObjects.get(released));
+    }
+}
@@ -16,13 +16,17 @@
  */
 package org.apache.pdfbox.pdfwriter;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Paths;
 
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.multipdf.PageExtractor;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
@@ -68,4 +72,37 @@ class COSWriterTest
             }
         }
     }
+
+    /**
+     * Unchanged streams are transferred to the output file directly, check that the raw data is kept.
+     * 
+     * @throws IOException
+     */
+    @Test
+    void testSaveToFileKeepsRawStreams() throws IOException
+    {
+        File pdfFile = Paths.get("src", "test", "resources", "input", "PDFBOX-3110-poems-beads.pdf")
+                .toFile();
+        File targetDir = new File("target/test-output");
+        targetDir.mkdirs();
+        File outFile = new File(targetDir, "PDFBOX-3110-poems-beads-saved.pdf");
+        try (PDDocument doc = Loader.loadPDF(pdfFile))
+        {
+            doc.save(outFile);
+            try (PDDocument savedDoc = Loader.loadPDF(outFile))
+            {
+                for (int i = 0; i < doc.getNumberOfPages(); i++)
+                {
+                    COSStream contents = doc.getPage(i).getContentStreams().next().getCOSObject();
+                    COSStream savedContents = savedDoc.getPage(i).getContentStreams().next()
+                            .getCOSObject();
+                    try (InputStream is = contents.createRawInputStream();
+                            InputStream savedIs = savedContents.createRawInputStream())
+                    {
+                        assertArrayEquals(is.readAllBytes(), savedIs.readAllBytes());
+                    }
+                }
+            }
+        }
+    }
 }
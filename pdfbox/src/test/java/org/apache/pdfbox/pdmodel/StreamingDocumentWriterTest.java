@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pdfbox.pdmodel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts.FontName;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link StreamingDocumentWriter}.
+ */
+class StreamingDocumentWriterTest
+{
+    @Test
+    void testWritePages() throws IOException
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (PDDocument document = new PDDocument())
+        {
+            PDFont subsetFont;
+            try (InputStream input = PDDocument.class.getResourceAsStream(
+                    "/org/apache/pdfbox/resources/ttf/LiberationSans-Regular.ttf"))
+            {
+                subsetFont = PDType0Font.load(document, input);
+            }
+            PDFont standardFont = new PDType1Font(FontName.HELVETICA);
+            PDImageXObject image = LosslessFactory.createFromImage(document,
+                    new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB));
+
+            try (StreamingDocumentWriter writer = new StreamingDocumentWriter(document, output))
+            {
+                for (int i = 0; i < 20; i++)
+                {
+                    PDPage page = new PDPage();
+                    try (PDPageContentStream contents = new PDPageContentStream(document, page))
+                    {
+                        contents.beginText();
+                        contents.setFont(i % 2 == 0 ? subsetFont : standardFont, 12);
+                        contents.newLineAtOffset(50, 700);
+                        contents.showText("Page " + i);
+                        contents.endText();
+                        contents.drawImage(image, 50, 50);
+                    }
+                    COSStream contentStream = page.getContentStreams().next().getCOSObject();
+                    writer.writePage(page);
+
+                    // the page is released after writing it
+                    assertFalse(contentStream.hasData());
+                    COSArray kids = document.getPages().getCOSObject().getCOSArray(COSName.KIDS);
+                    assertTrue(kids.get(i) instanceof COSObject);
+                }
+                assertEquals(20, writer.getWrittenPageCount());
+                document.getDocumentInformation().setTitle("Streamed");
+            }
+        }
+
+        try (PDDocument document = Loader.loadPDF(output.toByteArray()))
+        {
+            assertEquals(1.5f, document.getVersion());
+            assertEquals(20, document.getNumberOfPages());
+            assertEquals("Streamed", document.getDocumentInformation().getTitle());
+            PDFTextStripper stripper = new PDFTextStripper();
+            for (int i = 0; i < 20; i++)
+            {
+                stripper.setStartPage(i + 1);
+                stripper.setEndPage(i + 1);
+                assertEquals("Page " + i, stripper.getText(document).trim());
+                PDResources resources = document.getPage(i).getResources();
+                assertNotNull(resources.getXObject(COSName.getPDFName("Im1")));
+            }
+            // the shared image is written once
+            assertEquals(document.getPage(0).getResources().getXObject(COSName.getPDFName("Im1"))
+                    .getCOSObject().getKey(),
+                    document.getPage(19).getResources().getXObject(COSName.getPDFName("Im1"))
+                            .getCOSObject().getKey());
+            PDFont font = document.getPage(0).getResources()
+                    .getFont(document.getPage(0).getResources().getFontNames().iterator().next());
+            assertTrue(font.getName().contains("+"), "the font should be subset");
+        }
+    }
+}
@@ -17,11 +17,26 @@
 package org.apache.pdfbox.pdmodel;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSDocument;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts.FontName;
 import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDDocumentOutline;
 import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
 
@@ -129,4 +144,106 @@ class TestPDPageTree
                     "Page three should be placed at index 2.");
         }
     }
+
+    @Test
+    void streamingIteratorMultipleLevel() throws IOException
+    {
+        doc = Loader.loadPDF(RandomAccessReadBuffer.createBufferFromStream(
+                TestPDPageTree.class.getResourceAsStream("page_tree_multiple_levels.pdf")));
+        List<String> expected = new ArrayList<>();
+        for (PDPage page : doc.getPages())
+        {
+            expected.add(page.getContents() != null ? new String(page.getContents().readAllBytes(),
+                    StandardCharsets.ISO_8859_1) : "");
+        }
+        doc.close();
+        doc = Loader.loadPDF(RandomAccessReadBuffer.createBufferFromStream(
+                TestPDPageTree.class.getResourceAsStream("page_tree_multiple_levels.pdf")));
+        List<String> actual = new ArrayList<>();
+        try (StreamingPageIterator iterator = doc
+                .getStreamingPageIterator(PageRetentionPolicy.RELEASE_ALL))
+        {
+            while (iterator.hasNext())
+            {
+                PDPage page = iterator.next();
+                actual.add(page.getContents() != null ? new String(page.getContents().readAllBytes(),
+                        StandardCharsets.ISO_8859_1) : "");
+            }
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void streamingIteratorReleasesObjects() throws IOException
+    {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PDDocument document = new PDDocument())
+        {
+            PDType1Font font = new PDType1Font(FontName.HELVETICA);
+            for (int i = 0; i < 20; i++)
+            {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream contents = new PDPageContentStream(document, page))
+                {
+                    contents.beginText();
+                    contents.setFont(font, 12);
+                    contents.newLineAtOffset(100, 700);
+                    contents.showText("Page " + i);
+                    contents.endText();
+                }
+            }
+            document.save(baos);
+        }
+
+        doc = Loader.loadPDF(baos.toByteArray());
+        // the resource cache would keep the font anyway
+        doc.setResourceCache(null);
+        int pageCount = 0;
+        try (StreamingPageIterator iterator = doc
+                .getStreamingPageIterator(PageRetentionPolicy.RELEASE_UNSHARED))
+        {
+            while (iterator.hasNext())
+            {
+                PDPage page = iterator.next();
+                assertTrue(new String(page.getContents().readAllBytes(), StandardCharsets.ISO_8859_1)
+                        .contains("(Page " + pageCount + ")"));
+                assertNotNull(page.getResources().getFont(COSName.getPDFName("F1")));
+                pageCount++;
+            }
+            assertTrue(iterator.getReleasedObjectCount() >= 40);
+        }
+        assertEquals(20, pageCount);
+
+        // only the shared objects, e.g. the font, are kept
+        COSDocument cosDocument = doc.getDocument();
+        int contentStreams = 0;
+        int fonts = 0;
+        for (COSObjectKey key : cosDocument.getXrefTable().keySet())
+        {
+            COSObject object = cosDocument.getObjectFromPool(key);
+            if (object.isDereferenced())
+            {
+                COSBase base = object.getObject();
+                // object streams are shared by all pages
+                if (base instanceof COSStream
+                        && ((COSStream) base).getCOSName(COSName.TYPE) == null)
+                {
+                    contentStreams++;
+                }
+                else if (base instanceof COSDictionary
+                        && COSName.FONT.equals(((COSDictionary) base).getCOSName(COSName.TYPE)))
+                {
+                    fonts++;
+                    assertTrue(object.getLoadCount() > 1);
+                }
+            }
+        }
+        assertEquals(0, contentStreams);
+        assertEquals(1, fonts);
+        // released objects are loaded again on demand
+        assertTrue(new String(doc.getPage(5).getContents().readAllBytes(),
+                StandardCharsets.ISO_8859_1).contains("(Page 5)"));
+    }
+
 }
@@ -48,11 +48,17 @@ import java.nio.file.Files;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 import org.apache.fontbox.util.BoundingBox;
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOMetrics;
+import org.apache.pdfbox.io.InstrumentedRandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.apache.pdfbox.io.ReadAhead;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.pdmodel.font.PDFontDescriptor;
@@ -688,4 +694,62 @@ class TestTextStripper
             assertEquals(1378, text.replaceAll("\r", "").length());
         }
     }
+
+    /**
+     * Check that the content streams read while extracting the text of a loaded document are read in advance.
+     *
+     * @throws IOException 
+     */
+    @Test
+    void testReadAhead() throws IOException
+    {
+        File pdfFile = new File("src/test/resources/org/apache/pdfbox/pdmodel/interactive/form",
+                "AlignmentTests.pdf");
+        String expected;
+        try (PDDocument doc = Loader.loadPDF(pdfFile))
+        {
+            expected = new PDFTextStripper().getText(doc);
+        }
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            ReadAhead readAhead = new ReadAhead(executor);
+            try (PDDocument doc = Loader.loadPDF(
+                    new RandomAccessReadBufferedFile(pdfFile.toPath(), null, readAhead)))
+            {
+                long hitsAfterLoading = readAhead.getHitCount();
+                assertEquals(expected, new PDFTextStripper().getText(doc));
+                assertTrue(readAhead.getHitCount() > hitsAfterLoading,
+                        "read-ahead hits: " + readAhead.getHitCount());
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Check that the reads done while extracting the text of a loaded document are reported.
+     *
+     * @throws IOException 
+     */
+    @Test
+    void testIOMetrics() throws IOException
+    {
+        File pdfFile = new File("src/test/resources/input", "eu-001.pdf");
+        IOMetrics metrics = new IOMetrics();
+        RandomAccessReadBufferedFile file = new RandomAccessReadBufferedFile(pdfFile);
+        file.setIOListener(metrics);
+        try (PDDocument doc = Loader.loadPDF(new InstrumentedRandomAccessRead(file, metrics)))
+        {
+            metrics.reset();
+            new PDFTextStripper().getText(doc);
+            assertTrue(metrics.getBytesRead() > 0);
+            assertTrue(metrics.getSeekCount() > 0, "seeks: " + metrics.getSeekCount());
+            assertTrue(metrics.getSeekDistance() > 0);
+            assertTrue(metrics.getCacheHits() + metrics.getCacheMisses() > 0,
+                    "cache accesses: " + metrics);
+        }
+    }
 }
@@ -21,11 +21,16 @@ import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
 import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
 import java.util.Arrays;
+import java.util.Locale;
 import java.util.regex.Pattern;
 
 import org.junit.jupiter.api.Test;
@@ -172,4 +177,43 @@ class TestNumberFormatUtil
             }
         }
     }
+
+    @Test
+    void testFormatLong() throws IOException
+    {
+        long[] values = { 0, 1, -1, 9, 10, -10, 99, 100, 12345, Integer.MAX_VALUE,
+                Integer.MIN_VALUE, 9999999999L, 10000000000L, Long.MAX_VALUE, Long.MIN_VALUE };
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        for (long value : values)
+        {
+            int byteCount = NumberFormatUtil.formatLong(value, buffer, 3);
+            assertEquals(Long.toString(value),
+                    new String(buffer, 3, byteCount - 3, StandardCharsets.US_ASCII));
+
+            output.reset();
+            NumberFormatUtil.writeLong(value, output);
+            assertEquals(Long.toString(value), output.toString(StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    void testFormatLongPadded()
+    {
+        DecimalFormat offsetFormat = new DecimalFormat("0000000000",
+                DecimalFormatSymbols.getInstance(Locale.US));
+        DecimalFormat generationFormat = new DecimalFormat("00000",
+                DecimalFormatSymbols.getInstance(Locale.US));
+        long[] values = { 0, 1, 15, 65535, 99999, 100000, 1234567890, 12345678901L,
+                Long.MAX_VALUE, -42 };
+        for (long value : values)
+        {
+            int byteCount = NumberFormatUtil.formatLongPadded(value, 10, buffer, 0);
+            assertEquals(offsetFormat.format(value),
+                    new String(buffer, 0, byteCount, StandardCharsets.US_ASCII));
+
+            byteCount = NumberFormatUtil.formatLongPadded(value, 5, buffer, 0);
+            assertEquals(generationFormat.format(value),
+                    new String(buffer, 0, byteCount, StandardCharsets.US_ASCII));
+        }
+    }
 }